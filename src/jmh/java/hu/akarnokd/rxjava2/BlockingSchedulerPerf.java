@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import hu.akarnokd.rxjava2.schedulers.BlockingScheduler;
+
+/**
+ * Measures the task throughput and the wakeup latency of the
+ * lock-based and the parking modes of the BlockingScheduler.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='BlockingSchedulerPerf'
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class BlockingSchedulerPerf {
+
+    @Param({"lock", "spin", "yield", "park"})
+    public String mode;
+
+    @Param({"1000"})
+    public int count;
+
+    BlockingScheduler scheduler;
+
+    Thread loop;
+
+    @Setup
+    public void setup() {
+        if ("lock".equals(mode)) {
+            scheduler = new BlockingScheduler();
+        } else
+        if ("spin".equals(mode)) {
+            scheduler = new BlockingScheduler(1000000, 0);
+        } else
+        if ("yield".equals(mode)) {
+            scheduler = new BlockingScheduler(64, 1000);
+        } else {
+            scheduler = new BlockingScheduler(0, 0);
+        }
+        loop = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                scheduler.execute();
+            }
+        }, "BlockingSchedulerPerf");
+        loop.start();
+    }
+
+    @TearDown
+    public void teardown() throws InterruptedException {
+        scheduler.shutdown();
+        loop.join(5000);
+    }
+
+    /**
+     * Schedules count tasks in a burst and waits for all of them to execute.
+     * @throws InterruptedException if the wait is interrupted
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void throughput() throws InterruptedException {
+        final CountDownLatch cdl = new CountDownLatch(count);
+        Runnable r = new Runnable() {
+            @Override
+            public void run() {
+                cdl.countDown();
+            }
+        };
+        for (int i = 0; i < count; i++) {
+            scheduler.scheduleDirect(r);
+        }
+        cdl.await();
+    }
+
+    /**
+     * Schedules a single task onto the otherwise idle event loop and
+     * waits for it to execute.
+     * @throws InterruptedException if the wait is interrupted
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void wakeupLatency() throws InterruptedException {
+        final CountDownLatch cdl = new CountDownLatch(1);
+        scheduler.scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                cdl.countDown();
+            }
+        });
+        cdl.await();
+    }
+}
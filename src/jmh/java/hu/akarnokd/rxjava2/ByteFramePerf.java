@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.operators.FlowableTransformers;
+import io.reactivex.*;
+
+/**
+ * Ingests {@code totalMegabytes} of framed data, delivered in 64 kB chunks,
+ * through the fixed size, length-prefixed and delimiter-based framers.
+ * The default of 1024 MB can be lowered via {@code -p totalMegabytes=64} for quick runs.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='ByteFramePerf'
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx1g" })
+@State(Scope.Thread)
+public class ByteFramePerf {
+
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    /** The chunks are repeated until this much data has been ingested. */
+    static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    @Param({"fixed", "length", "delimited"})
+    public String framing;
+
+    @Param({"100", "10000"})
+    public int frameSize;
+
+    @Param({"1024"})
+    public int totalMegabytes;
+
+    Flowable<ByteBuffer> source;
+
+    FlowableTransformer<ByteBuffer, ByteBuffer> framer;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(0);
+        int frameBytes = "length".equals(framing) ? frameSize + 4 : "delimited".equals(framing) ? frameSize + 1 : frameSize;
+        int frames = SEGMENT_SIZE / frameBytes;
+        ByteBuffer data = ByteBuffer.allocate(frames * frameBytes);
+
+        byte[] frame = new byte[frameSize];
+        for (int i = 0; i < frames; i++) {
+            for (int j = 0; j < frame.length; j++) {
+                // no newlines so the delimiter-based framing sees only the real delimiters
+                frame[j] = (byte)('a' + rnd.nextInt(26));
+            }
+            if ("length".equals(framing)) {
+                data.putInt(frameSize);
+                data.put(frame);
+            } else
+            if ("delimited".equals(framing)) {
+                data.put(frame);
+                data.put((byte)'\n');
+            } else {
+                data.put(frame);
+            }
+        }
+        data.flip();
+
+        List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+        for (int i = 0; i < data.limit(); i += CHUNK_SIZE) {
+            ByteBuffer b = data.duplicate();
+            b.position(i);
+            b.limit(Math.min(data.limit(), i + CHUNK_SIZE));
+            chunks.add(b.slice());
+        }
+
+        long repeat = ((long)totalMegabytes * 1024 * 1024 + data.limit() - 1) / data.limit();
+        source = Flowable.fromIterable(chunks).repeat(repeat);
+
+        if ("length".equals(framing)) {
+            framer = FlowableTransformers.frameLengthPrefixed(4, ByteOrder.BIG_ENDIAN, frameSize);
+        } else
+        if ("delimited".equals(framing)) {
+            framer = FlowableTransformers.frameDelimited(new byte[] { '\n' }, frameSize);
+        } else {
+            framer = FlowableTransformers.frameFixedSize(frameSize);
+        }
+    }
+
+    @Benchmark
+    public void ingest(Blackhole bh) {
+        source.compose(framer).subscribe(new PerfConsumer(bh));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.string.StringFlowable;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+
+/**
+ * Compares streaming the characters of a long string one by one (boxed)
+ * with the chunked {@code char[]} and {@code CharBuffer} variants.
+ * The default length is 50M characters (100 MB of char data).
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='CharactersPerf'
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+@State(Scope.Thread)
+public class CharactersPerf {
+
+    @Param({"50000000"})
+    public int length;
+
+    @Param({"8192"})
+    public int chunkSize;
+
+    String text;
+
+    Flowable<Integer> boxed;
+
+    Flowable<Integer> chunks;
+
+    Flowable<Integer> buffers;
+
+    @Setup
+    public void setup() {
+        char[] chars = new char[length];
+        Arrays.fill(chars, 'a');
+        text = new String(chars);
+
+        boxed = StringFlowable.characters(text);
+
+        chunks = StringFlowable.characterChunks(text, chunkSize)
+                .map(new Function<char[], Integer>() {
+            @Override
+            public Integer apply(char[] v) throws Exception {
+                int sum = 0;
+                for (char c : v) {
+                    sum += c;
+                }
+                return sum;
+            }
+        });
+
+        buffers = StringFlowable.characterBuffers(text, chunkSize)
+                .map(new Function<CharBuffer, Integer>() {
+            @Override
+            public Integer apply(CharBuffer v) throws Exception {
+                int sum = 0;
+                for (int i = v.position(); i < v.limit(); i++) {
+                    sum += v.get(i);
+                }
+                return sum;
+            }
+        });
+    }
+
+    @Benchmark
+    public void boxed(Blackhole bh) {
+        boxed.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void chunks(Blackhole bh) {
+        chunks.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void buffers(Blackhole bh) {
+        buffers.subscribe(new PerfConsumer(bh));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import hu.akarnokd.rxjava2.schedulers.HashedWheelScheduler;
+import io.reactivex.Scheduler;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Measures scheduling and then cancelling a million pending timeouts
+ * through a Worker of the HashedWheelScheduler and of the computation Scheduler.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='HashedWheelSchedulerPerf'
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class HashedWheelSchedulerPerf {
+
+    @Param({"wheel", "computation"})
+    public String scheduler;
+
+    @Param({"1000000"})
+    public int count;
+
+    Scheduler sch;
+
+    Worker worker;
+
+    Disposable[] tasks;
+
+    @Setup
+    public void setup() {
+        if ("wheel".equals(scheduler)) {
+            sch = new HashedWheelScheduler(Schedulers.computation());
+        } else {
+            sch = Schedulers.computation();
+        }
+        worker = sch.createWorker();
+        tasks = new Disposable[count];
+    }
+
+    @TearDown
+    public void teardown() {
+        worker.dispose();
+        if (sch instanceof HashedWheelScheduler) {
+            sch.shutdown();
+        }
+    }
+
+    /**
+     * Schedules count timeouts, all pending at once, then cancels them.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void scheduleCancel() {
+        Disposable[] a = tasks;
+        Worker w = worker;
+        Runnable r = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        int n = a.length;
+        for (int i = 0; i < n; i++) {
+            a[i] = w.schedule(r, 30 + (i & 1023), TimeUnit.SECONDS);
+        }
+        for (int i = 0; i < n; i++) {
+            a[i].dispose();
+            a[i] = null;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.joins.JoinObservable;
+import io.reactivex.Observable;
+import io.reactivex.functions.*;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Measures 2-, 4- and 8-way join patterns with synchronous sources and with
+ * sources emitting from different threads.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='JoinPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class JoinPerf {
+
+    @Param({"1000", "100000"})
+    public int count;
+
+    @Param({"2", "4", "8"})
+    public int ways;
+
+    Observable<Integer> sync;
+
+    Observable<Integer> async;
+
+    static final class Sum implements
+    BiFunction<Integer, Integer, Integer>,
+    Function4<Integer, Integer, Integer, Integer, Integer>,
+    Function8<Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer> {
+
+        @Override
+        public Integer apply(Integer t1, Integer t2) {
+            return t1 + t2;
+        }
+
+        @Override
+        public Integer apply(Integer t1, Integer t2, Integer t3, Integer t4) {
+            return t1 + t2 + t3 + t4;
+        }
+
+        @Override
+        public Integer apply(Integer t1, Integer t2, Integer t3, Integer t4,
+                Integer t5, Integer t6, Integer t7, Integer t8) {
+            return t1 + t2 + t3 + t4 + t5 + t6 + t7 + t8;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Observable<Integer> join(int ways, Observable<Integer>[] sources) {
+        Sum sum = new Sum();
+        switch (ways) {
+        case 2:
+            return JoinObservable.when(JoinObservable.from(sources[0]).and(sources[1])
+                    .then((BiFunction<Integer, Integer, Integer>)sum)).toObservable();
+        case 4:
+            return JoinObservable.when(JoinObservable.from(sources[0]).and(sources[1])
+                    .and(sources[2]).and(sources[3])
+                    .then((Function4<Integer, Integer, Integer, Integer, Integer>)sum)).toObservable();
+        default:
+            return JoinObservable.when(JoinObservable.from(sources[0]).and(sources[1])
+                    .and(sources[2]).and(sources[3]).and(sources[4]).and(sources[5])
+                    .and(sources[6]).and(sources[7])
+                    .then((Function8<Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer, Integer>)sum)).toObservable();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setup() {
+        Observable<Integer>[] syncSources = new Observable[ways];
+        Observable<Integer>[] asyncSources = new Observable[ways];
+        for (int i = 0; i < ways; i++) {
+            syncSources[i] = Observable.range(1, count);
+            asyncSources[i] = Observable.range(1, count).subscribeOn(Schedulers.computation());
+        }
+
+        sync = join(ways, syncSources);
+        async = join(ways, asyncSources);
+    }
+
+    @Benchmark
+    public void sync(Blackhole bh) {
+        sync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void async(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        async.subscribe(c);
+        c.await(count);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.math.MathFlowable;
+import io.reactivex.Flowable;
+
+/**
+ * Compares the boxed sum and average operators with the
+ * primitive array chunk based ones over the same number of values.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='MathArrayPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class MathArrayPerf {
+
+    @Param({"1000", "1000000"})
+    public int count;
+
+    @Param({"256"})
+    public int chunk;
+
+    Flowable<Integer> boxedInts;
+
+    Flowable<int[]> intChunks;
+
+    Flowable<Long> boxedLongs;
+
+    Flowable<long[]> longChunks;
+
+    Flowable<Double> boxedDoubles;
+
+    Flowable<double[]> doubleChunks;
+
+    @Setup
+    public void setup() {
+        Integer[] ints = new Integer[count];
+        Long[] longs = new Long[count];
+        Double[] doubles = new Double[count];
+        for (int i = 0; i < count; i++) {
+            ints[i] = i;
+            longs[i] = (long)i;
+            doubles[i] = (double)i;
+        }
+        boxedInts = Flowable.fromArray(ints);
+        boxedLongs = Flowable.fromArray(longs);
+        boxedDoubles = Flowable.fromArray(doubles);
+
+        int n = (count + chunk - 1) / chunk;
+        int[][] intArrays = new int[n][];
+        long[][] longArrays = new long[n][];
+        double[][] doubleArrays = new double[n][];
+        for (int j = 0; j < n; j++) {
+            int len = Math.min(chunk, count - j * chunk);
+            intArrays[j] = new int[len];
+            longArrays[j] = new long[len];
+            doubleArrays[j] = new double[len];
+            for (int i = 0; i < len; i++) {
+                int v = j * chunk + i;
+                intArrays[j][i] = v;
+                longArrays[j][i] = v;
+                doubleArrays[j][i] = v;
+            }
+        }
+        intChunks = Flowable.fromArray(intArrays);
+        longChunks = Flowable.fromArray(longArrays);
+        doubleChunks = Flowable.fromArray(doubleArrays);
+    }
+
+    @Benchmark
+    public void sumIntBoxed(Blackhole bh) {
+        MathFlowable.sumInt(boxedInts).subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void sumIntArray(Blackhole bh) {
+        MathFlowable.sumIntArray(intChunks).subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void sumLongBoxed(Blackhole bh) {
+        MathFlowable.sumLong(boxedLongs).subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void sumLongArray(Blackhole bh) {
+        MathFlowable.sumLongArray(longChunks).subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void averageDoubleBoxed(Blackhole bh) {
+        MathFlowable.averageDouble(boxedDoubles).subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void averageDoubleArray(Blackhole bh) {
+        MathFlowable.averageDoubleArray(doubleChunks).subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void maxDoubleBoxed(Blackhole bh) {
+        MathFlowable.max(boxedDoubles).subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void maxDoubleArray(Blackhole bh) {
+        MathFlowable.maxDoubleArray(doubleChunks).subscribe(new PerfConsumer(bh));
+    }
+}
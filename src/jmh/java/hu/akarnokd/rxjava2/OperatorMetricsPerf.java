@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.debug.RxJavaOperatorMetrics;
+import io.reactivex.Flowable;
+import io.reactivex.functions.*;
+
+/**
+ * Measures the per-item overhead of the operator metrics collection
+ * on a synchronous chain with unbounded and bounded demand.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='OperatorMetricsPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class OperatorMetricsPerf {
+
+    @Param({"1000", "1000000"})
+    public int count;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    Flowable<Integer> unbounded;
+
+    Flowable<Integer> bounded;
+
+    @Setup
+    public void setup() {
+        if (metrics) {
+            RxJavaOperatorMetrics.enable();
+        }
+
+        Function<Integer, Integer> mapper = new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                return v + 1;
+            }
+        };
+
+        Predicate<Integer> predicate = new Predicate<Integer>() {
+            @Override
+            public boolean test(Integer v) throws Exception {
+                return (v & 1) == 0;
+            }
+        };
+
+        unbounded = Flowable.range(1, count).map(mapper).filter(predicate);
+
+        bounded = Flowable.range(1, count).map(mapper).rebatchRequests(128).filter(predicate);
+    }
+
+    @TearDown
+    public void teardown() {
+        RxJavaOperatorMetrics.disable();
+    }
+
+    @Benchmark
+    public void unbounded(Blackhole bh) {
+        unbounded.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void bounded(Blackhole bh) {
+        bounded.subscribe(new PerfConsumer(bh));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.*;
+
+import hu.akarnokd.rxjava2.operators.*;
+import io.reactivex.Flowable;
+import io.reactivex.internal.functions.Functions;
+
+/**
+ * Compares the linear-scan and heap-based ordered merge engines.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='OrderedMergePerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class OrderedMergePerf {
+
+    @Param({"2", "4", "8", "16", "32", "64", "128", "256", "512", "1024"})
+    public int sources;
+
+    @Param({"1000000"})
+    public int count;
+
+    Flowable<Integer> basic;
+
+    Flowable<Integer> heap;
+
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setup() {
+        final Publisher<Integer>[] array = new Publisher[sources];
+        int perSource = count / sources;
+        for (int i = 0; i < sources; i++) {
+            Integer[] items = new Integer[perSource];
+            for (int j = 0; j < perSource; j++) {
+                items[j] = j * sources + i;
+            }
+            array[i] = Flowable.fromArray(items);
+        }
+
+        final Comparator<Integer> comparator = Functions.naturalComparator();
+
+        basic = new Flowable<Integer>() {
+            @Override
+            protected void subscribeActual(Subscriber<? super Integer> s) {
+                BasicMergeSubscription<Integer> parent = new BasicMergeSubscription<Integer>(s, comparator, array.length, Flowable.bufferSize(), false);
+                s.onSubscribe(parent);
+                parent.subscribe(array, array.length);
+            }
+        };
+
+        heap = new Flowable<Integer>() {
+            @Override
+            protected void subscribeActual(Subscriber<? super Integer> s) {
+                HeapMergeSubscription<Integer> parent = new HeapMergeSubscription<Integer>(s, comparator, array.length, Flowable.bufferSize(), false);
+                s.onSubscribe(parent);
+                parent.subscribe(array, array.length);
+            }
+        };
+    }
+
+    @Benchmark
+    public void basic(Blackhole bh) {
+        basic.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void heap(Blackhole bh) {
+        heap.subscribe(new PerfConsumer(bh));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.operators.FlowableTransformers;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Compares the one-task-per-item requestObserveOn with the batch-draining
+ * and time-sliced variants across batch sizes.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='RequestObserveOnPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class RequestObserveOnPerf {
+
+    @Param({"1000", "1000000"})
+    public int count;
+
+    @Param({"1", "16", "256", "4096"})
+    public int batchSize;
+
+    Flowable<Integer> perItem;
+
+    Flowable<Integer> batched;
+
+    Flowable<Integer> timeSliced;
+
+    @Setup
+    public void setup() {
+        Flowable<Integer> source = Flowable.range(1, count);
+
+        perItem = source.compose(FlowableTransformers.<Integer>requestObserveOn(Schedulers.single()));
+
+        batched = source.compose(FlowableTransformers.<Integer>requestObserveOn(Schedulers.single(), batchSize));
+
+        timeSliced = source.compose(FlowableTransformers.<Integer>requestObserveOn(Schedulers.single(), batchSize, 100, TimeUnit.MICROSECONDS));
+    }
+
+    @Benchmark
+    public void perItem(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        perItem.subscribe(c);
+        c.await(count);
+    }
+
+    @Benchmark
+    public void batched(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        batched.subscribe(c);
+        c.await(count);
+    }
+
+    @Benchmark
+    public void timeSliced(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        timeSliced.subscribe(c);
+        c.await(count);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openjdk.jmh.annotations.*;
+
+import hu.akarnokd.rxjava2.util.*;
+
+/**
+ * Compares the linked and the array-backed single-producer multiple-consumer
+ * queues with one producer and a varying number of consumer threads.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='SpmcQueuePerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class SpmcQueuePerf {
+
+    @Param({"linked", "array"})
+    public String type;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int consumers;
+
+    @Param({"1", "16"})
+    public int batch;
+
+    @Param({"1024"})
+    public int capacity;
+
+    @Param({"100000"})
+    public int count;
+
+    ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(consumers);
+    }
+
+    @TearDown
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void transfer() throws InterruptedException {
+        final SpmcQueue<Integer> q;
+        if ("linked".equals(type)) {
+            q = new SpmcLinkedArrayQueue<Integer>(capacity);
+        } else {
+            q = new SpmcArrayQueue<Integer>(capacity);
+        }
+
+        final int n = count;
+        final int b = batch;
+        final AtomicBoolean done = new AtomicBoolean();
+        final CountDownLatch cdl = new CountDownLatch(consumers);
+
+        for (int i = 0; i < consumers; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Object[] out = new Object[b];
+                    for (;;) {
+                        int k;
+                        if (b == 1) {
+                            k = q.poll() != null ? 1 : 0;
+                        } else {
+                            k = q.poll(out, b);
+                        }
+                        if (k == 0 && done.get() && q.isEmpty()) {
+                            break;
+                        }
+                    }
+                    cdl.countDown();
+                }
+            });
+        }
+
+        Integer v = 1;
+        for (int i = 0; i < n; i++) {
+            while (!q.offer(v)) { }
+        }
+        done.set(true);
+
+        cdl.await();
+    }
+}
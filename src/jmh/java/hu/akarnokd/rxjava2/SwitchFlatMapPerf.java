@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Publisher;
+
+import hu.akarnokd.rxjava2.operators.FlowableTransformers;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Measures the cost of adding, evicting and removing inner sources
+ * of switchFlatMap, where every upstream item starts a new inner source.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='SwitchFlatMapPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class SwitchFlatMapPerf {
+
+    @Param({"1000", "1000000"})
+    public int count;
+
+    @Param({"16", "64"})
+    public int maxActive;
+
+    Flowable<Integer> sync;
+
+    Flowable<Integer> async;
+
+    @Setup
+    public void setup() {
+        Integer[] array = new Integer[count];
+        Arrays.fill(array, 777);
+
+        Function<Integer, Publisher<Integer>> mapper = new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return Flowable.just(v);
+            }
+        };
+
+        sync = Flowable.fromArray(array)
+                .compose(FlowableTransformers.switchFlatMap(mapper, maxActive));
+
+        async = Flowable.fromArray(array)
+                .subscribeOn(Schedulers.single())
+                .compose(FlowableTransformers.switchFlatMap(mapper, maxActive))
+                .observeOn(Schedulers.computation());
+    }
+
+    @Benchmark
+    public void sync(Blackhole bh) {
+        sync.subscribe(new PerfConsumer(bh));
+    }
+
+    @Benchmark
+    public void async(Blackhole bh) {
+        PerfAsyncConsumer c = new PerfAsyncConsumer(bh);
+        async.subscribe(c);
+        c.await(count);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hu.akarnokd.rxjava2.schedulers.*;
+import io.reactivex.Scheduler;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Runs a set of Workers where every few Worker has much more expensive tasks
+ * than the rest and measures how long it takes for all tasks to finish.
+ * Run from command line as
+ * <br>
+ * gradle jmh -Pjmh='WorkStealingSchedulerPerf'
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class WorkStealingSchedulerPerf {
+
+    @Param({"parallel", "workstealing", "computation"})
+    public String type;
+
+    /** Every skew-th worker runs slow tasks. */
+    @Param({"4", "16"})
+    public int skew;
+
+    @Param({"64"})
+    public int workers;
+
+    @Param({"100"})
+    public int tasks;
+
+    @Param({"10"})
+    public int fastCost;
+
+    @Param({"10000"})
+    public int slowCost;
+
+    Scheduler scheduler;
+
+    @Setup
+    public void setup() {
+        int n = Runtime.getRuntime().availableProcessors();
+        if ("parallel".equals(type)) {
+            scheduler = new ParallelScheduler(n, false);
+        } else
+        if ("workstealing".equals(type)) {
+            scheduler = new WorkStealingScheduler(n);
+        } else {
+            scheduler = Schedulers.computation();
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        if (scheduler != Schedulers.computation()) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void skewed() throws InterruptedException {
+        final CountDownLatch cdl = new CountDownLatch(workers * tasks);
+        Worker[] ws = new Worker[workers];
+        for (int i = 0; i < workers; i++) {
+            ws[i] = scheduler.createWorker();
+        }
+
+        for (int j = 0; j < tasks; j++) {
+            for (int i = 0; i < workers; i++) {
+                final long cost = i % skew == 0 ? slowCost : fastCost;
+                ws[i].schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        Blackhole.consumeCPU(cost);
+                        cdl.countDown();
+                    }
+                });
+            }
+        }
+
+        if (!cdl.await(30, TimeUnit.SECONDS)) {
+            throw new RuntimeException("Timed out!");
+        }
+
+        for (Worker w : ws) {
+            w.dispose();
+        }
+    }
+}
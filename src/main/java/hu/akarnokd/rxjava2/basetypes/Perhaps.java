@@ -1362,6 +1362,93 @@ public abstract class Perhaps<T> implements Publisher<T> {
         return onAssembly(new PerhapsCache<T>(this));
     }
 
+    /**
+     * Caches the success value or error of this Perhaps for the given time,
+     * after which the next subscriber subscribes to this Perhaps again;
+     * errors are not cached beyond the subscribers already waiting for them.
+     * <p>
+     * The time is measured via the computation {@link Scheduler}.
+     * @param ttl the time a success value is served from the cache
+     * @param unit the time unit
+     * @return the new Perhaps instance
+     *
+     * @since 0.20.4
+     */
+    public final Perhaps<T> cacheWithTtl(long ttl, TimeUnit unit) {
+        return cacheWithTtl(ttl, unit, Schedulers.computation());
+    }
+
+    /**
+     * Caches the success value or error of this Perhaps for the given time,
+     * measured by the given scheduler, after which the next subscriber
+     * subscribes to this Perhaps again; errors are not cached beyond the
+     * subscribers already waiting for them.
+     * @param ttl the time a success value is served from the cache
+     * @param unit the time unit
+     * @param scheduler the scheduler providing the current time
+     * @return the new Perhaps instance
+     *
+     * @since 0.20.4
+     */
+    public final Perhaps<T> cacheWithTtl(long ttl, TimeUnit unit, Scheduler scheduler) {
+        return cacheWithTtl(ttl, 0L, 0L, unit, scheduler);
+    }
+
+    /**
+     * Caches the success value of this Perhaps for the given time and its error
+     * for a separate time, optionally refreshing the success value in the
+     * background before it expires.
+     * <p>
+     * The first subscriber arriving within {@code refreshAhead} of the expiry
+     * receives the cached value and triggers a subscription to this Perhaps on
+     * the given scheduler; the cached value is replaced only when this refresh
+     * succeeds. Subscribers never block each other.
+     * @param ttl the time a success value is served from the cache
+     * @param errorTtl the time an error is served from the cache, zero to not cache errors
+     * @param refreshAhead the time before the expiry of a success value when
+     *                     it gets refreshed in the background, zero to disable
+     * @param unit the time unit
+     * @param scheduler the scheduler providing the current time and running the refreshes
+     * @return the new Perhaps instance
+     *
+     * @since 0.20.4
+     */
+    public final Perhaps<T> cacheWithTtl(long ttl, long errorTtl, long refreshAhead, TimeUnit unit, Scheduler scheduler) {
+        if (ttl < 0L) {
+            throw new IllegalArgumentException("ttl >= 0 required but it was " + ttl);
+        }
+        if (errorTtl < 0L) {
+            throw new IllegalArgumentException("errorTtl >= 0 required but it was " + errorTtl);
+        }
+        if (refreshAhead < 0L) {
+            throw new IllegalArgumentException("refreshAhead >= 0 required but it was " + refreshAhead);
+        }
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        return onAssembly(new PerhapsCacheWithTtl<T>(this, ttl, errorTtl, refreshAhead, unit, scheduler));
+    }
+
+    /**
+     * Shares the in-flight subscription to this Perhaps among the concurrent
+     * subscribers using the same key within the given group.
+     * <p>
+     * The first subscriber of a key subscribes to this Perhaps, subsequent subscribers
+     * of the same key receive the same value or error while the Perhaps is running.
+     * Once it terminates, or all its subscribers cancel, the key is released and
+     * the next subscriber subscribes to this Perhaps again.
+     * @param <K> the key type
+     * @param group the group tracking the in-flight sources by key
+     * @param key the key identifying this Perhaps, not null
+     * @return the new Perhaps instance
+     *
+     * @since 0.20.4
+     */
+    public final <K> Perhaps<T> singleFlight(SingleFlightGroup<K, T> group, K key) {
+        ObjectHelper.requireNonNull(group, "group is null");
+        ObjectHelper.requireNonNull(key, "key is null");
+        return onAssembly(new PerhapsSingleFlight<K, T>(this, group.perhaps, key));
+    }
+
     // ----------------------------------------------------
     // Consumers (leave)
     // ----------------------------------------------------
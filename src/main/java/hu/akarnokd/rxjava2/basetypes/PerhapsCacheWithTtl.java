@@ -0,0 +1,45 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.basetypes;
+
+import java.util.concurrent.TimeUnit;
+
+import org.reactivestreams.Subscriber;
+
+import io.reactivex.Scheduler;
+
+/**
+ * Cache the success value or error from upstream for a limited time and
+ * relay/replay them to subscribers.
+ *
+ * @param <T> the value type
+ *
+ * @since 0.20.4
+ */
+final class PerhapsCacheWithTtl<T> extends Perhaps<T> {
+
+    final TtlCache<T> cache;
+
+    PerhapsCacheWithTtl(Perhaps<T> source, long ttl, long errorTtl, long refreshAhead, TimeUnit unit, Scheduler scheduler) {
+        this.cache = new TtlCache<T>(source, ttl, errorTtl, refreshAhead, unit, scheduler);
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> s) {
+        cache.subscribe(s);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.basetypes;
+
+import java.util.concurrent.ConcurrentMap;
+
+import org.reactivestreams.Subscriber;
+
+/**
+ * Shares the in-flight subscription to the upstream Perhaps among the
+ * concurrent subscribers of the same key.
+ *
+ * @param <K> the key type
+ * @param <T> the value type
+ *
+ * @since 0.20.4
+ */
+final class PerhapsSingleFlight<K, T> extends Perhaps<T> {
+
+    final Perhaps<T> source;
+
+    final ConcurrentMap<K, SingleFlightEntry<K, T>> flights;
+
+    final K key;
+
+    PerhapsSingleFlight(Perhaps<T> source, ConcurrentMap<K, SingleFlightEntry<K, T>> flights, K key) {
+        this.source = source;
+        this.flights = flights;
+        this.key = key;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> s) {
+        SingleFlightEntry.subscribe(flights, key, source, s);
+    }
+}
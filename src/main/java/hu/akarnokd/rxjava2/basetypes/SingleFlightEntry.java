@@ -0,0 +1,226 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.basetypes;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.internal.subscriptions.*;
+
+/**
+ * An in-flight subscription to a Solo or Perhaps source, shared by the
+ * subscribers of the same key.
+ * <p>
+ * Subscribers join by incrementing the active count and pushing themselves
+ * onto a lock-free stack, both constant time; cancelled subscribers decrement
+ * the count and the last one cancels the upstream.
+ *
+ * @param <K> the key type
+ * @param <T> the value type
+ *
+ * @since 0.20.4
+ */
+final class SingleFlightEntry<K, T> extends AtomicReference<SingleFlightEntry.FlightSubscription<T>>
+implements Subscriber<T> {
+
+    private static final long serialVersionUID = -1546254373556932565L;
+
+    @SuppressWarnings("rawtypes")
+    static final FlightSubscription TERMINATED = new FlightSubscription<Object>(null);
+
+    static final Object CANCELLED = new Object();
+
+    final ConcurrentMap<K, SingleFlightEntry<K, T>> flights;
+
+    final K key;
+
+    /** The number of subscribers waiting for the result; negative once the flight is over. */
+    final AtomicInteger active;
+
+    final AtomicReference<Subscription> upstream;
+
+    T value;
+    Throwable error;
+
+    SingleFlightEntry(ConcurrentMap<K, SingleFlightEntry<K, T>> flights, K key) {
+        this.flights = flights;
+        this.key = key;
+        this.active = new AtomicInteger();
+        this.upstream = new AtomicReference<Subscription>();
+    }
+
+    static <K, T> void subscribe(ConcurrentMap<K, SingleFlightEntry<K, T>> flights, K key,
+            Publisher<T> source, Subscriber<? super T> s) {
+        FlightSubscription<T> inner = new FlightSubscription<T>(s);
+        s.onSubscribe(inner);
+
+        for (;;) {
+            if (inner.isCancelled()) {
+                return;
+            }
+            SingleFlightEntry<K, T> entry = flights.get(key);
+            if (entry == null) {
+                SingleFlightEntry<K, T> e = new SingleFlightEntry<K, T>(flights, key);
+                entry = flights.putIfAbsent(key, e);
+                if (entry == null) {
+                    if (e.join(inner)) {
+                        // the subscriber may have been cancelled in the meantime, releasing the flight
+                        if (e.active.get() >= 0) {
+                            source.subscribe(e);
+                        }
+                        return;
+                    }
+                    continue;
+                }
+            }
+            if (entry.join(inner)) {
+                return;
+            }
+            // the flight has just ended, make sure it doesn't linger and retry
+            flights.remove(key, entry);
+        }
+    }
+
+    /**
+     * Adds the subscriber to this flight.
+     * @param inner the subscriber
+     * @return false if this flight has ended and the subscriber should try a new one
+     */
+    @SuppressWarnings("unchecked")
+    boolean join(FlightSubscription<T> inner) {
+        AtomicInteger a = active;
+        for (;;) {
+            int c = a.get();
+            if (c < 0) {
+                return false;
+            }
+            if (a.compareAndSet(c, c + 1)) {
+                break;
+            }
+        }
+
+        if (!inner.parent.compareAndSet(null, this)) {
+            leave();
+            return true;
+        }
+
+        for (;;) {
+            FlightSubscription<T> h = get();
+            if (h == TERMINATED) {
+                deliver(inner);
+                return true;
+            }
+            inner.next = h;
+            if (compareAndSet(h, inner)) {
+                return true;
+            }
+        }
+    }
+
+    void leave() {
+        if (active.decrementAndGet() == 0 && active.compareAndSet(0, -1)) {
+            flights.remove(key, this);
+            SubscriptionHelper.cancel(upstream);
+        }
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        if (SubscriptionHelper.setOnce(upstream, s)) {
+            s.request(Long.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public void onNext(T t) {
+        value = t;
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        error = t;
+        terminate();
+    }
+
+    @Override
+    public void onComplete() {
+        terminate();
+    }
+
+    @SuppressWarnings("unchecked")
+    void terminate() {
+        active.set(-1);
+        flights.remove(key, this);
+        FlightSubscription<T> inner = getAndSet(TERMINATED);
+        while (inner != null) {
+            FlightSubscription<T> next = inner.next;
+            inner.next = null;
+            deliver(inner);
+            inner = next;
+        }
+    }
+
+    void deliver(FlightSubscription<T> inner) {
+        if (inner.isCancelled()) {
+            return;
+        }
+        Throwable ex = error;
+        if (ex != null) {
+            inner.error(ex);
+        } else {
+            T v = value;
+            if (v != null) {
+                inner.complete(v);
+            } else {
+                inner.complete();
+            }
+        }
+    }
+
+    static final class FlightSubscription<T> extends DeferredScalarSubscription<T> {
+
+        private static final long serialVersionUID = 2590735425813416580L;
+
+        final AtomicReference<Object> parent;
+
+        FlightSubscription<T> next;
+
+        FlightSubscription(Subscriber<? super T> downstream) {
+            super(downstream);
+            this.parent = new AtomicReference<Object>();
+        }
+
+        @Override
+        public void cancel() {
+            super.cancel();
+            Object o = parent.getAndSet(CANCELLED);
+            if (o != null && o != CANCELLED) {
+                ((SingleFlightEntry<?, ?>)o).leave();
+            }
+        }
+
+        void error(Throwable ex) {
+            downstream.onError(ex);
+        }
+
+        void complete() {
+            downstream.onComplete();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.basetypes;
+
+import java.util.concurrent.*;
+
+/**
+ * Tracks the in-flight {@link Solo} and {@link Perhaps} sources by key so that
+ * concurrent subscribers for the same key share a single upstream subscription.
+ * <p>
+ * Use {@link Solo#singleFlight(SingleFlightGroup, Object)} and
+ * {@link Perhaps#singleFlight(SingleFlightGroup, Object)} to join a group.
+ * The entry of a key is removed once the shared source terminates or all its
+ * subscribers cancelled, so the next subscriber for the same key subscribes
+ * to the source again.
+ *
+ * @param <K> the key type
+ * @param <T> the value type
+ * @since 0.20.4
+ */
+public final class SingleFlightGroup<K, T> {
+
+    final ConcurrentMap<K, SingleFlightEntry<K, T>> solos;
+
+    final ConcurrentMap<K, SingleFlightEntry<K, T>> perhaps;
+
+    /**
+     * Constructs an empty group.
+     */
+    public SingleFlightGroup() {
+        this.solos = new ConcurrentHashMap<K, SingleFlightEntry<K, T>>();
+        this.perhaps = new ConcurrentHashMap<K, SingleFlightEntry<K, T>>();
+    }
+
+    /**
+     * Returns the number of keys with an in-flight source.
+     * @return the number of keys with an in-flight source
+     */
+    public int inFlight() {
+        return solos.size() + perhaps.size();
+    }
+}
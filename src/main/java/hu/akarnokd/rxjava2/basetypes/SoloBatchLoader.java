@@ -0,0 +1,370 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.basetypes;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.subscriptions.*;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Gathers the keys of {@link #load(Object)} calls issued within a time window
+ * or up to a batch size and looks them up with one bulk request.
+ * <p>
+ * A key is added to the current batch when the {@code Solo} returned by
+ * {@code load} gets subscribed to. The same key is requested only once per batch.
+ * The batch is sent when it reaches the maximum size or when the time window,
+ * started by its first key, elapses on the given {@link Scheduler}, whichever
+ * happens first. The bulk function receives the distinct keys and should
+ * emit a key-value entry for each key it found; keys without an entry
+ * signal a {@link NoSuchElementException} and an error of the bulk
+ * request is signalled to all the subscribers of the batch.
+ * <p>
+ * Keys are accepted and batches are sent from a serialized drain loop,
+ * therefore the bulk function is never called concurrently.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ *
+ * @since 0.20.4
+ */
+public final class SoloBatchLoader<K, V> {
+
+    final Function<? super List<K>, ? extends Publisher<? extends Map.Entry<K, V>>> bulk;
+
+    final int maxBatchSize;
+
+    final long window;
+
+    final TimeUnit unit;
+
+    final Scheduler scheduler;
+
+    final MpscLinkedQueue<Object> queue;
+
+    final AtomicInteger wip;
+
+    /** The batch being gathered, accessed from the drain loop only. */
+    Batch<K, V> current;
+
+    volatile long batchCount;
+
+    volatile long keyCount;
+
+    volatile int largestBatchSize;
+
+    SoloBatchLoader(Function<? super List<K>, ? extends Publisher<? extends Map.Entry<K, V>>> bulk,
+            int maxBatchSize, long window, TimeUnit unit, Scheduler scheduler) {
+        this.bulk = bulk;
+        this.maxBatchSize = maxBatchSize;
+        this.window = window;
+        this.unit = unit;
+        this.scheduler = scheduler;
+        this.queue = new MpscLinkedQueue<Object>();
+        this.wip = new AtomicInteger();
+    }
+
+    /**
+     * Creates a batch loader with the given bulk lookup function, maximum batch size
+     * and time window.
+     * @param <K> the key type
+     * @param <V> the value type
+     * @param bulk the function receiving the distinct keys of a batch and returning
+     *             a Publisher of the key-value entries found
+     * @param maxBatchSize the maximum number of distinct keys in a batch, positive
+     * @param window the non-negative time to wait for more keys after the first key of a batch
+     * @param unit the time unit
+     * @param scheduler the scheduler to time the window on
+     * @return the new SoloBatchLoader instance
+     */
+    public static <K, V> SoloBatchLoader<K, V> create(
+            Function<? super List<K>, ? extends Publisher<? extends Map.Entry<K, V>>> bulk,
+            int maxBatchSize, long window, TimeUnit unit, Scheduler scheduler) {
+        ObjectHelper.requireNonNull(bulk, "bulk is null");
+        ObjectHelper.verifyPositive(maxBatchSize, "maxBatchSize");
+        if (window < 0L) {
+            throw new IllegalArgumentException("window >= 0 required but it was " + window);
+        }
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(scheduler, "scheduler is null");
+        return new SoloBatchLoader<K, V>(bulk, maxBatchSize, window, unit, scheduler);
+    }
+
+    /**
+     * Returns a Solo that adds the key to the current batch when subscribed to
+     * and signals the value found for it.
+     * @param key the key to look up, not null
+     * @return the new Solo instance
+     */
+    public Solo<V> load(K key) {
+        ObjectHelper.requireNonNull(key, "key is null");
+        return Solo.onAssembly(new SoloLoad<K, V>(this, key));
+    }
+
+    /**
+     * Returns the number of bulk requests sent so far.
+     * @return the number of bulk requests sent so far
+     */
+    public long batchCount() {
+        return batchCount;
+    }
+
+    /**
+     * Returns the total number of distinct keys sent in bulk requests so far.
+     * @return the total number of distinct keys sent in bulk requests so far
+     */
+    public long keyCount() {
+        return keyCount;
+    }
+
+    /**
+     * Returns the size of the largest batch sent so far.
+     * @return the size of the largest batch sent so far
+     */
+    public int largestBatchSize() {
+        return largestBatchSize;
+    }
+
+    /**
+     * Returns the average size of the batches sent so far.
+     * @return the average size of the batches sent so far, zero if none was sent yet
+     */
+    public double averageBatchSize() {
+        long b = batchCount;
+        return b == 0L ? 0d : keyCount / (double)b;
+    }
+
+    void add(LoadSubscription<K, V> inner) {
+        queue.offer(inner);
+        drain();
+    }
+
+    void timeout(Batch<K, V> batch) {
+        queue.offer(batch);
+        drain();
+    }
+
+    @SuppressWarnings("unchecked")
+    void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        MpscLinkedQueue<Object> q = queue;
+
+        for (;;) {
+
+            for (;;) {
+                Object o = q.poll();
+                if (o == null) {
+                    break;
+                }
+
+                Batch<K, V> b = current;
+                if (o instanceof LoadSubscription) {
+                    LoadSubscription<K, V> inner = (LoadSubscription<K, V>)o;
+                    if (inner.isCancelled()) {
+                        continue;
+                    }
+                    if (b == null) {
+                        b = new Batch<K, V>(this);
+                        current = b;
+                        b.timer = scheduler.scheduleDirect(b, window, unit);
+                    }
+                    if (b.add(inner) == maxBatchSize) {
+                        current = null;
+                        b.timer.dispose();
+                        send(b);
+                    }
+                } else
+                if (o == b) {
+                    current = null;
+                    send(b);
+                }
+            }
+
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    void send(Batch<K, V> b) {
+        List<K> keys = new ArrayList<K>(b.waiters.keySet());
+        int n = keys.size();
+
+        batchCount++;
+        keyCount += n;
+        if (n > largestBatchSize) {
+            largestBatchSize = n;
+        }
+
+        Publisher<? extends Map.Entry<K, V>> p;
+        try {
+            p = ObjectHelper.requireNonNull(bulk.apply(keys), "The bulk function returned a null Publisher");
+        } catch (Throwable ex) {
+            Exceptions.throwIfFatal(ex);
+            b.onError(ex);
+            return;
+        }
+
+        p.subscribe(b);
+    }
+
+    static final class SoloLoad<K, V> extends Solo<V> {
+
+        final SoloBatchLoader<K, V> parent;
+
+        final K key;
+
+        SoloLoad(SoloBatchLoader<K, V> parent, K key) {
+            this.parent = parent;
+            this.key = key;
+        }
+
+        @Override
+        protected void subscribeActual(Subscriber<? super V> s) {
+            LoadSubscription<K, V> inner = new LoadSubscription<K, V>(s, key);
+            s.onSubscribe(inner);
+            parent.add(inner);
+        }
+    }
+
+    static final class LoadSubscription<K, V> extends DeferredScalarSubscription<V> {
+
+        private static final long serialVersionUID = 4361239591581290758L;
+
+        final K key;
+
+        LoadSubscription(Subscriber<? super V> downstream, K key) {
+            super(downstream);
+            this.key = key;
+        }
+
+        void error(Throwable ex) {
+            if (!isCancelled()) {
+                downstream.onError(ex);
+            }
+        }
+    }
+
+    /**
+     * The keys gathered for one bulk request and the subscriber of its response.
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    static final class Batch<K, V> extends AtomicReference<Subscription>
+    implements Runnable, Subscriber<Map.Entry<K, V>> {
+
+        private static final long serialVersionUID = -3429834541932957467L;
+
+        final SoloBatchLoader<K, V> parent;
+
+        final Map<K, List<LoadSubscription<K, V>>> waiters;
+
+        Disposable timer;
+
+        boolean done;
+
+        Batch(SoloBatchLoader<K, V> parent) {
+            this.parent = parent;
+            this.waiters = new LinkedHashMap<K, List<LoadSubscription<K, V>>>();
+        }
+
+        int add(LoadSubscription<K, V> inner) {
+            List<LoadSubscription<K, V>> list = waiters.get(inner.key);
+            if (list == null) {
+                list = new ArrayList<LoadSubscription<K, V>>(1);
+                waiters.put(inner.key, list);
+            }
+            list.add(inner);
+            return waiters.size();
+        }
+
+        @Override
+        public void run() {
+            parent.timeout(this);
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.setOnce(this, s)) {
+                s.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(Map.Entry<K, V> t) {
+            if (done) {
+                return;
+            }
+            List<LoadSubscription<K, V>> list = waiters.remove(t.getKey());
+            if (list != null) {
+                V v = t.getValue();
+                if (v == null) {
+                    onError(new NullPointerException("The bulk function returned a null value for key " + t.getKey()));
+                    return;
+                }
+                for (LoadSubscription<K, V> inner : list) {
+                    inner.complete(v);
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                RxJavaPlugins.onError(t);
+                return;
+            }
+            done = true;
+            SubscriptionHelper.cancel(this);
+            for (List<LoadSubscription<K, V>> list : waiters.values()) {
+                for (LoadSubscription<K, V> inner : list) {
+                    inner.error(t);
+                }
+            }
+            waiters.clear();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            for (Map.Entry<K, List<LoadSubscription<K, V>>> e : waiters.entrySet()) {
+                for (LoadSubscription<K, V> inner : e.getValue()) {
+                    inner.error(new NoSuchElementException("No value for key " + e.getKey()));
+                }
+            }
+            waiters.clear();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.basetypes;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.Scheduler;
+import io.reactivex.internal.subscriptions.DeferredScalarSubscription;
+
+/**
+ * Caches the outcome of a Solo or Perhaps source for a limited time and
+ * optionally refreshes it in the background before it expires.
+ * <p>
+ * Each subscription to the source is represented by a {@link Generation}
+ * that relays and replays its outcome just like {@code SoloCache}. Subscribers
+ * pick the current generation or atomically swap in a new one once it
+ * expired, without taking any locks.
+ *
+ * @param <T> the value type
+ *
+ * @since 0.20.4
+ */
+final class TtlCache<T> {
+
+    final Publisher<T> source;
+
+    /** How long a success value is served, in nanoseconds. */
+    final long ttl;
+
+    /** How long an error is served, in nanoseconds. */
+    final long errorTtl;
+
+    /** How long before the expiry a success value gets refreshed, in nanoseconds, zero to disable. */
+    final long refreshAhead;
+
+    final Scheduler scheduler;
+
+    final AtomicReference<Generation<T>> current;
+
+    TtlCache(Publisher<T> source, long ttl, long errorTtl, long refreshAhead, TimeUnit unit, Scheduler scheduler) {
+        this.source = source;
+        this.ttl = unit.toNanos(ttl);
+        this.errorTtl = unit.toNanos(errorTtl);
+        this.refreshAhead = unit.toNanos(refreshAhead);
+        this.scheduler = scheduler;
+        this.current = new AtomicReference<Generation<T>>();
+    }
+
+    long now() {
+        return scheduler.now(TimeUnit.NANOSECONDS);
+    }
+
+    void subscribe(Subscriber<? super T> s) {
+        CacheSubscription<T> inner = new CacheSubscription<T>(s);
+        s.onSubscribe(inner);
+
+        for (;;) {
+            Generation<T> g = current.get();
+            if (g != null) {
+                if (!g.isTerminated()) {
+                    g.subscribe(inner);
+                    return;
+                }
+                long age = now() - g.terminatedAt;
+                if (g.error != null) {
+                    if (age < errorTtl) {
+                        g.subscribe(inner);
+                        return;
+                    }
+                } else
+                if (age < ttl) {
+                    if (refreshAhead != 0L && age >= ttl - refreshAhead
+                            && g.refreshing.compareAndSet(false, true)) {
+                        refresh(g);
+                    }
+                    g.subscribe(inner);
+                    return;
+                }
+            }
+
+            Generation<T> ng = new Generation<T>(this, null);
+            if (current.compareAndSet(g, ng)) {
+                ng.subscribe(inner);
+                source.subscribe(ng);
+                return;
+            }
+        }
+    }
+
+    void refresh(Generation<T> stale) {
+        final Generation<T> ng = new Generation<T>(this, stale);
+        scheduler.scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                source.subscribe(ng);
+            }
+        });
+    }
+
+    static final class Generation<T> implements Subscriber<T> {
+
+        @SuppressWarnings("rawtypes")
+        static final CacheSubscription[] EMPTY = new CacheSubscription[0];
+
+        @SuppressWarnings("rawtypes")
+        static final CacheSubscription[] TERMINATED = new CacheSubscription[0];
+
+        final TtlCache<T> parent;
+
+        final AtomicReference<CacheSubscription<T>[]> subscribers;
+
+        final AtomicBoolean refreshing;
+
+        /** The generation this one replaces once it succeeds, null for a regular load. */
+        Generation<T> stale;
+
+        T value;
+        Throwable error;
+        long terminatedAt;
+
+        @SuppressWarnings("unchecked")
+        Generation(TtlCache<T> parent, Generation<T> stale) {
+            this.parent = parent;
+            this.stale = stale;
+            this.subscribers = new AtomicReference<CacheSubscription<T>[]>(EMPTY);
+            this.refreshing = new AtomicBoolean();
+        }
+
+        boolean isTerminated() {
+            return subscribers.get() == TERMINATED;
+        }
+
+        void subscribe(CacheSubscription<T> inner) {
+            inner.parent.lazySet(this);
+            if (add(inner)) {
+                if (inner.isCancelled()) {
+                    remove(inner);
+                }
+            } else {
+                if (!inner.isCancelled()) {
+                    Throwable ex = error;
+                    if (ex != null) {
+                        inner.error(ex);
+                    } else {
+                        T v = value;
+                        if (v != null) {
+                            inner.complete(v);
+                        } else {
+                            inner.complete();
+                        }
+                    }
+                }
+            }
+        }
+
+        boolean add(CacheSubscription<T> inner) {
+            for (;;) {
+                CacheSubscription<T>[] a = subscribers.get();
+                if (a == TERMINATED) {
+                    return false;
+                }
+                int n = a.length;
+
+                @SuppressWarnings("unchecked")
+                CacheSubscription<T>[] b = new CacheSubscription[n + 1];
+                System.arraycopy(a, 0, b, 0, n);
+                b[n] = inner;
+                if (subscribers.compareAndSet(a, b)) {
+                    return true;
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void remove(CacheSubscription<T> inner) {
+            for (;;) {
+                CacheSubscription<T>[] a = subscribers.get();
+                int n = a.length;
+                if (n == 0) {
+                    break;
+                }
+
+                int j = -1;
+
+                for (int i = 0; i < n; i++) {
+                    if (a[i] == inner) {
+                        j = i;
+                        break;
+                    }
+                }
+
+                if (j < 0) {
+                    break;
+                }
+
+                CacheSubscription<T>[] b;
+                if (n == 1) {
+                    b = EMPTY;
+                } else {
+                    b = new CacheSubscription[n - 1];
+                    System.arraycopy(a, 0, b, 0, j);
+                    System.arraycopy(a, j + 1, b, j, n - j - 1);
+                }
+                if (subscribers.compareAndSet(a, b)) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(T t) {
+            value = t;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+            terminatedAt = parent.now();
+            stale = null;
+            for (CacheSubscription<T> inner : subscribers.getAndSet(TERMINATED)) {
+                inner.error(t);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void onComplete() {
+            T t = value;
+            terminatedAt = parent.now();
+            CacheSubscription<T>[] inners = subscribers.getAndSet(TERMINATED);
+
+            Generation<T> g = stale;
+            if (g != null) {
+                stale = null;
+                parent.current.compareAndSet(g, this);
+            }
+
+            if (t != null) {
+                for (CacheSubscription<T> inner : inners) {
+                    inner.complete(t);
+                }
+            } else {
+                for (CacheSubscription<T> inner : inners) {
+                    inner.complete();
+                }
+            }
+        }
+    }
+
+    static final class CacheSubscription<T> extends DeferredScalarSubscription<T> {
+
+        private static final long serialVersionUID = -3836498722447093149L;
+
+        final AtomicReference<Object> parent;
+
+        CacheSubscription(Subscriber<? super T> downstream) {
+            super(downstream);
+            this.parent = new AtomicReference<Object>();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void cancel() {
+            super.cancel();
+            Object o = parent.get();
+            if (o != null && parent.compareAndSet(o, null)) {
+                ((Generation<T>)o).remove(this);
+            }
+        }
+
+        void error(Throwable ex) {
+            downstream.onError(ex);
+        }
+
+        void complete() {
+            downstream.onComplete();
+        }
+    }
+}
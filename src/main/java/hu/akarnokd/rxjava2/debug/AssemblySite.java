@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.*;
+
+/**
+ * The stacktrace of an assembly, formatted only when first needed.
+ * <p>
+ * Identical stacktraces are interned so that the operators assembled at the
+ * same place share one instance and its formatted text.
+ *
+ * @since 0.20.4
+ */
+final class AssemblySite implements Serializable {
+
+    private static final long serialVersionUID = -2441226318412553585L;
+
+    /** The maximum number of distinct sites kept; beyond that, sites are not interned. */
+    static final int MAX_SITES = 8192;
+
+    static final ConcurrentMap<AssemblySite, AssemblySite> SITES = new ConcurrentHashMap<AssemblySite, AssemblySite>();
+
+    final StackTraceElement[] elements;
+
+    final int hash;
+
+    volatile String formatted;
+
+    AssemblySite(StackTraceElement[] elements) {
+        this.elements = elements;
+        this.hash = Arrays.hashCode(elements);
+    }
+
+    /**
+     * Returns the shared instance for the given stacktrace.
+     * @param elements the stacktrace elements
+     * @return the shared AssemblySite instance
+     */
+    static AssemblySite intern(StackTraceElement[] elements) {
+        AssemblySite site = new AssemblySite(elements);
+        AssemblySite existing = SITES.get(site);
+        if (existing != null) {
+            return existing;
+        }
+        if (SITES.size() < MAX_SITES) {
+            existing = SITES.putIfAbsent(site, site);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return site;
+    }
+
+    static void clear() {
+        SITES.clear();
+    }
+
+    String stacktrace() {
+        String s = formatted;
+        if (s == null) {
+            s = RxJavaAssemblyException.format(elements);
+            formatted = s;
+        }
+        return s;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj instanceof AssemblySite) {
+            AssemblySite other = (AssemblySite)obj;
+            return hash == other.hash && Arrays.equals(elements, other.elements);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.*;
+
+import io.reactivex.Flowable;
+import io.reactivex.internal.fuseable.QueueSubscription;
+import io.reactivex.internal.subscribers.BasicFuseableSubscriber;
+import io.reactivex.internal.util.BackpressureHelper;
+
+/**
+ * Wraps a Publisher and counts the signals passing through into the
+ * metrics of its assembly site.
+ *
+ * @param <T> the value type
+ * @since 0.20.4
+ */
+final class FlowableOnMetrics<T> extends Flowable<T> {
+
+    final Publisher<T> source;
+
+    final OperatorSite site;
+
+    FlowableOnMetrics(Publisher<T> source, OperatorSite site) {
+        this.source = source;
+        this.site = site;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> s) {
+        site.add(OperatorSite.SUBSCRIPTIONS, 1L);
+        source.subscribe(new OnMetricsSubscriber<T>(s, site));
+    }
+
+    static final class OnMetricsSubscriber<T> extends BasicFuseableSubscriber<T, T> {
+
+        final OperatorSite site;
+
+        final long subscribeTime;
+
+        /** The outstanding demand in bounded mode, -1 once unbounded or terminated. */
+        final AtomicLong demand;
+
+        boolean once;
+
+        OnMetricsSubscriber(Subscriber<? super T> downstream, OperatorSite site) {
+            super(downstream);
+            this.site = site;
+            this.subscribeTime = System.nanoTime();
+            this.demand = new AtomicLong();
+        }
+
+        void item() {
+            OperatorSite s = site;
+            s.add(OperatorSite.ITEMS, 1L);
+            if (!once) {
+                once = true;
+                s.firstItem(System.nanoTime() - subscribeTime);
+            }
+            AtomicLong d = demand;
+            for (;;) {
+                long r = d.get();
+                if (r <= 0L) {
+                    break;
+                }
+                if (d.compareAndSet(r, r - 1)) {
+                    s.add(OperatorSite.OUTSTANDING, -1L);
+                    break;
+                }
+            }
+        }
+
+        void release() {
+            long r = demand.getAndSet(-1L);
+            if (r > 0L) {
+                site.add(OperatorSite.OUTSTANDING, -r);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (sourceMode == NONE) {
+                item();
+            }
+            downstream.onNext(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done) {
+                site.add(OperatorSite.ERRORS, 1L);
+                release();
+            }
+            super.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            if (!done) {
+                release();
+            }
+            super.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            OperatorSite s = site;
+            if (n == Long.MAX_VALUE) {
+                s.add(OperatorSite.UNBOUNDED_REQUESTS, 1L);
+                release();
+            } else if (n > 0L) {
+                s.add(OperatorSite.REQUESTED, n);
+                AtomicLong d = demand;
+                for (;;) {
+                    long r = d.get();
+                    if (r < 0L) {
+                        break;
+                    }
+                    long u = BackpressureHelper.addCap(r, n);
+                    if (d.compareAndSet(r, u)) {
+                        s.add(OperatorSite.OUTSTANDING, u - r);
+                        break;
+                    }
+                }
+            }
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            release();
+            upstream.cancel();
+        }
+
+        @Override
+        public int requestFusion(int mode) {
+            QueueSubscription<T> qs = this.qs;
+            if (qs != null) {
+                int m = qs.requestFusion(mode);
+                sourceMode = m;
+                return m;
+            }
+            return NONE;
+        }
+
+        @Override
+        public T poll() throws Exception {
+            T v = qs.poll();
+            if (v != null) {
+                item();
+            }
+            return v;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import io.reactivex.*;
+import io.reactivex.internal.fuseable.QueueDisposable;
+import io.reactivex.internal.observers.BasicFuseableObserver;
+
+/**
+ * Wraps an ObservableSource and counts the signals passing through into the
+ * metrics of its assembly site.
+ *
+ * @param <T> the value type
+ * @since 0.20.4
+ */
+final class ObservableOnMetrics<T> extends Observable<T> {
+
+    final ObservableSource<T> source;
+
+    final OperatorSite site;
+
+    ObservableOnMetrics(ObservableSource<T> source, OperatorSite site) {
+        this.source = source;
+        this.site = site;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        site.add(OperatorSite.SUBSCRIPTIONS, 1L);
+        source.subscribe(new OnMetricsObserver<T>(observer, site));
+    }
+
+    static final class OnMetricsObserver<T> extends BasicFuseableObserver<T, T> {
+
+        final OperatorSite site;
+
+        final long subscribeTime;
+
+        boolean once;
+
+        OnMetricsObserver(Observer<? super T> downstream, OperatorSite site) {
+            super(downstream);
+            this.site = site;
+            this.subscribeTime = System.nanoTime();
+        }
+
+        void item() {
+            OperatorSite s = site;
+            s.add(OperatorSite.ITEMS, 1L);
+            if (!once) {
+                once = true;
+                s.firstItem(System.nanoTime() - subscribeTime);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (sourceMode == NONE) {
+                item();
+            }
+            downstream.onNext(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!done) {
+                site.add(OperatorSite.ERRORS, 1L);
+            }
+            super.onError(t);
+        }
+
+        @Override
+        public int requestFusion(int mode) {
+            QueueDisposable<T> qd = this.qd;
+            if (qd != null) {
+                int m = qd.requestFusion(mode);
+                sourceMode = m;
+                return m;
+            }
+            return NONE;
+        }
+
+        @Override
+        public T poll() throws Exception {
+            T v = qd.poll();
+            if (v != null) {
+                item();
+            }
+            return v;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable snapshot of the counters of an assembly site instrumented
+ * via {@link RxJavaOperatorMetrics}.
+ * <p>
+ * The counters are read one by one without stopping the operators, therefore,
+ * they may be slightly inconsistent with each other under concurrent activity.
+ * @since 0.20.4
+ */
+public final class OperatorMetrics {
+
+    final String site;
+
+    final long subscriptions;
+
+    final long items;
+
+    final long requested;
+
+    final long unboundedRequests;
+
+    final long outstanding;
+
+    final long firstItems;
+
+    final long firstItemLatencyTotal;
+
+    final long maxFirstItemLatency;
+
+    final long errors;
+
+    /**
+     * Constructs an OperatorMetrics instance from its components.
+     * @param site the name of the assembly site
+     * @param subscriptions the number of subscriptions
+     * @param items the number of items emitted
+     * @param requested the sum of the bounded request amounts
+     * @param unboundedRequests the number of {@code Long.MAX_VALUE} requests
+     * @param outstanding the requested but not yet delivered amount of the live, bounded subscriptions
+     * @param firstItems the number of subscriptions that received at least one item
+     * @param firstItemLatencyTotal the total subscribe-to-first-item latency in nanoseconds
+     * @param maxFirstItemLatency the largest subscribe-to-first-item latency in nanoseconds
+     * @param errors the number of errors
+     */
+    public OperatorMetrics(String site, long subscriptions, long items, long requested,
+            long unboundedRequests, long outstanding, long firstItems,
+            long firstItemLatencyTotal, long maxFirstItemLatency, long errors) {
+        this.site = site;
+        this.subscriptions = subscriptions;
+        this.items = items;
+        this.requested = requested;
+        this.unboundedRequests = unboundedRequests;
+        this.outstanding = outstanding;
+        this.firstItems = firstItems;
+        this.firstItemLatencyTotal = firstItemLatencyTotal;
+        this.maxFirstItemLatency = maxFirstItemLatency;
+        this.errors = errors;
+    }
+
+    /**
+     * Returns the name of the assembly site: the operator's class name or,
+     * when tracking call sites, the operator's class name and the calling code location.
+     * @return the name of the assembly site
+     */
+    public String site() {
+        return site;
+    }
+
+    /**
+     * Returns the number of subscriptions.
+     * @return the number of subscriptions
+     */
+    public long subscriptions() {
+        return subscriptions;
+    }
+
+    /**
+     * Returns the number of items emitted to the subscribers.
+     * @return the number of items emitted
+     */
+    public long items() {
+        return items;
+    }
+
+    /**
+     * Returns the sum of the request amounts, excluding the unbounded requests.
+     * @return the sum of the bounded request amounts
+     */
+    public long requested() {
+        return requested;
+    }
+
+    /**
+     * Returns the number of {@code Long.MAX_VALUE} requests.
+     * @return the number of unbounded requests
+     */
+    public long unboundedRequests() {
+        return unboundedRequests;
+    }
+
+    /**
+     * Returns the amount requested but not yet delivered by the
+     * active subscriptions in bounded mode.
+     * @return the outstanding demand
+     */
+    public long outstanding() {
+        return outstanding;
+    }
+
+    /**
+     * Returns the number of subscriptions that received at least one item.
+     * @return the number of subscriptions that received at least one item
+     */
+    public long firstItems() {
+        return firstItems;
+    }
+
+    /**
+     * Returns the average subscribe-to-first-item latency.
+     * @param unit the time unit of the result
+     * @return the average latency or zero if there were no items yet
+     */
+    public long averageFirstItemLatency(TimeUnit unit) {
+        long n = firstItems;
+        return n != 0L ? unit.convert(firstItemLatencyTotal / n, TimeUnit.NANOSECONDS) : 0L;
+    }
+
+    /**
+     * Returns the largest subscribe-to-first-item latency.
+     * @param unit the time unit of the result
+     * @return the largest latency
+     */
+    public long maxFirstItemLatency(TimeUnit unit) {
+        return unit.convert(maxFirstItemLatency, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of errors passing through.
+     * @return the number of errors
+     */
+    public long errors() {
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return "OperatorMetrics[site=" + site
+                + ", subscriptions=" + subscriptions
+                + ", items=" + items
+                + ", requested=" + requested
+                + ", unboundedRequests=" + unboundedRequests
+                + ", outstanding=" + outstanding
+                + ", firstItems=" + firstItems
+                + ", averageFirstItemLatency=" + averageFirstItemLatency(TimeUnit.NANOSECONDS)
+                + " ns, maxFirstItemLatency=" + maxFirstItemLatency
+                + " ns, errors=" + errors
+                + "]";
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The live counters of an instrumented assembly site, updated by the
+ * operators assembled there.
+ *
+ * @since 0.20.4
+ */
+final class OperatorSite {
+
+    static final int SUBSCRIPTIONS = 0;
+    static final int ITEMS = 1;
+    static final int REQUESTED = 2;
+    static final int UNBOUNDED_REQUESTS = 3;
+    static final int OUTSTANDING = 4;
+    static final int FIRST_ITEMS = 5;
+    static final int FIRST_ITEM_LATENCY = 6;
+    static final int ERRORS = 7;
+
+    final String name;
+
+    final StripedCounters counters;
+
+    final AtomicLong maxFirstItemLatency;
+
+    OperatorSite(String name) {
+        this.name = name;
+        this.counters = new StripedCounters();
+        this.maxFirstItemLatency = new AtomicLong();
+    }
+
+    void add(int counter, long value) {
+        counters.add(counter, value);
+    }
+
+    void firstItem(long latencyNanos) {
+        StripedCounters c = counters;
+        c.add(FIRST_ITEMS, 1L);
+        c.add(FIRST_ITEM_LATENCY, latencyNanos);
+        AtomicLong max = maxFirstItemLatency;
+        for (;;) {
+            long m = max.get();
+            if (m >= latencyNanos || max.compareAndSet(m, latencyNanos)) {
+                break;
+            }
+        }
+    }
+
+    OperatorMetrics snapshot() {
+        StripedCounters c = counters;
+        return new OperatorMetrics(name,
+                c.sum(SUBSCRIPTIONS),
+                c.sum(ITEMS),
+                c.sum(REQUESTED),
+                c.sum(UNBOUNDED_REQUESTS),
+                c.sum(OUTSTANDING),
+                c.sum(FIRST_ITEMS),
+                c.sum(FIRST_ITEM_LATENCY),
+                maxFirstItemLatency.get(),
+                c.sum(ERRORS));
+    }
+
+    /**
+     * Zeroes out the counters except the outstanding demand, which reflects
+     * the live subscriptions.
+     */
+    void reset() {
+        StripedCounters c = counters;
+        for (int i = 0; i < StripedCounters.WIDTH; i++) {
+            if (i != OUTSTANDING) {
+                c.reset(i);
+            }
+        }
+        maxFirstItemLatency.set(0L);
+    }
+}
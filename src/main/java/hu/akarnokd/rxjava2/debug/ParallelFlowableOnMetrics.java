@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import org.reactivestreams.Subscriber;
+
+import hu.akarnokd.rxjava2.debug.FlowableOnMetrics.OnMetricsSubscriber;
+import io.reactivex.parallel.ParallelFlowable;
+
+/**
+ * Wraps a ParallelFlowable and counts the signals of all rails passing through
+ * into the metrics of its assembly site.
+ *
+ * @param <T> the value type
+ * @since 0.20.4
+ */
+final class ParallelFlowableOnMetrics<T> extends ParallelFlowable<T> {
+
+    final ParallelFlowable<T> source;
+
+    final OperatorSite site;
+
+    ParallelFlowableOnMetrics(ParallelFlowable<T> source, OperatorSite site) {
+        this.source = source;
+        this.site = site;
+    }
+
+    @Override
+    public int parallelism() {
+        return source.parallelism();
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T>[] s) {
+        if (validate(s)) {
+            int n = s.length;
+            @SuppressWarnings("unchecked")
+            Subscriber<? super T>[] parents = new Subscriber[n];
+            for (int i = 0; i < n; i++) {
+                parents[i] = new OnMetricsSubscriber<T>(s[i], site);
+            }
+            site.add(OperatorSite.SUBSCRIPTIONS, n);
+
+            source.subscribe(parents);
+        }
+    }
+}
@@ -20,6 +20,10 @@ import java.util.*;
 
 /**
  * Holds onto the assembly stacktrace.
+ * <p>
+ * When the low-overhead mode of {@link RxJavaAssemblyTracking} is enabled, only the
+ * VM-internal stacktrace is captured; it is turned into stacktrace elements, interned among
+ * identical assembly sites and formatted when {@link #stacktrace()} is first called.
  */
 public final class RxJavaAssemblyException extends RuntimeException {
 
@@ -27,14 +31,32 @@ public final class RxJavaAssemblyException extends RuntimeException {
 
     final String stacktrace;
 
+    /** The not yet materialized stacktrace in the low-overhead mode. */
+    volatile Throwable capture;
+
+    volatile AssemblySite site;
+
     public RxJavaAssemblyException() {
-        this.stacktrace = buildStackTrace();
+        if (RxJavaAssemblyTracking.lazy) {
+            this.capture = new Throwable();
+            this.stacktrace = null;
+        } else {
+            this.stacktrace = buildStackTrace();
+        }
     }
 
     public static String buildStackTrace() {
-        StringBuilder b = new StringBuilder();
+        return format(Thread.currentThread().getStackTrace());
+    }
 
-        StackTraceElement[] es = Thread.currentThread().getStackTrace();
+    /**
+     * Formats the relevant entries of the given stacktrace.
+     * @param es the stacktrace elements
+     * @return the formatted stacktrace
+     * @since 0.20.4
+     */
+    static String format(StackTraceElement[] es) {
+        StringBuilder b = new StringBuilder();
 
         b.append("RxJavaAssemblyException: assembled\r\n");
 
@@ -78,7 +100,8 @@ public final class RxJavaAssemblyException extends RuntimeException {
         }
 
         // ignore RxJavaAssemblyException itself
-        if (cn.contains(".RxJavaAssemblyException")) {
+        if (cn.contains(".RxJavaAssemblyException")
+                || cn.contains(".AssemblySite")) {
             return false;
         }
 
@@ -97,7 +120,23 @@ public final class RxJavaAssemblyException extends RuntimeException {
      * @return the captured and filtered stacktrace
      */
     public String stacktrace() {
-        return stacktrace;
+        String s = stacktrace;
+        if (s == null) {
+            AssemblySite as = site;
+            if (as == null) {
+                Throwable c = capture;
+                if (c != null) {
+                    as = AssemblySite.intern(c.getStackTrace());
+                    site = as;
+                    capture = null;
+                } else {
+                    // a concurrent caller has published the site before clearing the capture
+                    as = site;
+                }
+            }
+            s = as.stacktrace();
+        }
+        return s;
     }
 
     @Override
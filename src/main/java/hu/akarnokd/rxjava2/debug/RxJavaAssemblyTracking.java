@@ -17,11 +17,12 @@
 package hu.akarnokd.rxjava2.debug;
 
 import java.util.concurrent.Callable;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.*;
 
 import io.reactivex.*;
 import io.reactivex.flowables.ConnectableFlowable;
 import io.reactivex.functions.Function;
+import io.reactivex.internal.functions.ObjectHelper;
 import io.reactivex.internal.fuseable.ScalarCallable;
 import io.reactivex.observables.ConnectableObservable;
 import io.reactivex.parallel.ParallelFlowable;
@@ -32,12 +33,30 @@ import io.reactivex.plugins.RxJavaPlugins;
  * by capturing the current stacktrace (warning: very expensive!), have it in a debug-time accessible
  * field (when walking the references in a debugger) and append it to exceptions passing by the
  * regular {@code onError}.
+ * <p>
+ * The {@link #enableLowOverhead(int)} mode only captures the raw stacktrace, shares it among
+ * the operators assembled at the same place and formats it when an error actually passes by;
+ * optionally only every Nth assembly is tracked.
  */
 public final class RxJavaAssemblyTracking {
 
     /** Simply lock out concurrent state changes. */
     static final AtomicBoolean lock = new AtomicBoolean();
 
+    /** If true, the stacktraces are captured raw, interned and formatted on demand. */
+    static volatile boolean lazy;
+
+    /** Track every Nth assembly. */
+    static volatile int sampleRate = 1;
+
+    /** Per-thread assembly counter so sampling doesn't contend on a shared atomic. */
+    static final ThreadLocal<int[]> assemblies = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
     /** Utility class. */
     private RxJavaAssemblyTracking() {
         throw new IllegalStateException("No instances!");
@@ -46,13 +65,59 @@ public final class RxJavaAssemblyTracking {
     /**
      * Enable the assembly tracking.
      */
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     public static void enable() {
+        enable(false, 1);
+    }
+
+    /**
+     * Enable the low-overhead assembly tracking of every assembly: the stacktrace is
+     * captured without formatting, identical assembly stacktraces share one
+     * instance and the stacktrace is formatted only when an error passes by.
+     * @since 0.20.4
+     */
+    public static void enableLowOverhead() {
+        enableLowOverhead(1);
+    }
+
+    /**
+     * Enable the low-overhead assembly tracking of every {@code sampleRate}th assembly:
+     * the stacktrace is captured without formatting, identical assembly stacktraces
+     * share one instance and the stacktrace is formatted only when an error passes by.
+     * @param sampleRate track 1 in this many assemblies of each thread, positive
+     * @since 0.20.4
+     */
+    public static void enableLowOverhead(int sampleRate) {
+        ObjectHelper.verifyPositive(sampleRate, "sampleRate");
+        enable(true, sampleRate);
+    }
+
+    static boolean sample() {
+        int n = sampleRate;
+        if (n == 1) {
+            return true;
+        }
+        int[] counter = assemblies.get();
+        int i = counter[0];
+        if (i >= n) {
+            i = 0;
+        }
+        counter[0] = i + 1 == n ? 0 : i + 1;
+        return i == 0;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static void enable(boolean lazyMode, int rate) {
         if (lock.compareAndSet(false, true)) {
 
+            lazy = lazyMode;
+            sampleRate = rate;
+
             RxJavaPlugins.setOnFlowableAssembly(new Function<Flowable, Flowable>() {
                 @Override
                 public Flowable apply(Flowable f) throws Exception {
+                    if (!sample()) {
+                        return f;
+                    }
                     if (f instanceof Callable) {
                         if (f instanceof ScalarCallable) {
                             return new FlowableOnAssemblyScalarCallable(f);
@@ -66,6 +131,9 @@ public final class RxJavaAssemblyTracking {
             RxJavaPlugins.setOnConnectableFlowableAssembly(new Function<ConnectableFlowable, ConnectableFlowable>() {
                 @Override
                 public ConnectableFlowable apply(ConnectableFlowable f) throws Exception {
+                    if (!sample()) {
+                        return f;
+                    }
                     return new FlowableOnAssemblyConnectable(f);
                 }
             });
@@ -73,6 +141,9 @@ public final class RxJavaAssemblyTracking {
             RxJavaPlugins.setOnObservableAssembly(new Function<Observable, Observable>() {
                 @Override
                 public Observable apply(Observable f) throws Exception {
+                    if (!sample()) {
+                        return f;
+                    }
                     if (f instanceof Callable) {
                         if (f instanceof ScalarCallable) {
                             return new ObservableOnAssemblyScalarCallable(f);
@@ -86,6 +157,9 @@ public final class RxJavaAssemblyTracking {
             RxJavaPlugins.setOnConnectableObservableAssembly(new Function<ConnectableObservable, ConnectableObservable>() {
                 @Override
                 public ConnectableObservable apply(ConnectableObservable f) throws Exception {
+                    if (!sample()) {
+                        return f;
+                    }
                     return new ObservableOnAssemblyConnectable(f);
                 }
             });
@@ -93,6 +167,9 @@ public final class RxJavaAssemblyTracking {
             RxJavaPlugins.setOnSingleAssembly(new Function<Single, Single>() {
                 @Override
                 public Single apply(Single f) throws Exception {
+                    if (!sample()) {
+                        return f;
+                    }
                     if (f instanceof Callable) {
                         if (f instanceof ScalarCallable) {
                             return new SingleOnAssemblyScalarCallable(f);
@@ -106,6 +183,9 @@ public final class RxJavaAssemblyTracking {
             RxJavaPlugins.setOnCompletableAssembly(new Function<Completable, Completable>() {
                 @Override
                 public Completable apply(Completable f) throws Exception {
+                    if (!sample()) {
+                        return f;
+                    }
                     if (f instanceof Callable) {
                         if (f instanceof ScalarCallable) {
                             return new CompletableOnAssemblyScalarCallable(f);
@@ -119,6 +199,9 @@ public final class RxJavaAssemblyTracking {
             RxJavaPlugins.setOnMaybeAssembly(new Function<Maybe, Maybe>() {
                 @Override
                 public Maybe apply(Maybe f) throws Exception {
+                    if (!sample()) {
+                        return f;
+                    }
                     if (f instanceof Callable) {
                         if (f instanceof ScalarCallable) {
                             return new MaybeOnAssemblyScalarCallable(f);
@@ -132,6 +215,9 @@ public final class RxJavaAssemblyTracking {
             RxJavaPlugins.setOnParallelAssembly(new Function<ParallelFlowable, ParallelFlowable>() {
                 @Override
                 public ParallelFlowable apply(ParallelFlowable t) throws Exception {
+                    if (!sample()) {
+                        return t;
+                    }
                     return new ParallelFlowableOnAssembly(t);
                 }
             });
@@ -157,6 +243,10 @@ public final class RxJavaAssemblyTracking {
 
             RxJavaPlugins.setOnParallelAssembly(null);
 
+            lazy = false;
+            sampleRate = 1;
+            AssemblySite.clear();
+
             lock.set(false);
         }
     }
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.*;
+import io.reactivex.Observable;
+import io.reactivex.functions.Function;
+import io.reactivex.parallel.ParallelFlowable;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Utility class to enable and disable the counting of items, requests, outstanding demand,
+ * errors and subscribe-to-first-item latency of every {@code Flowable}, {@code Observable}
+ * and {@code ParallelFlowable} operator via the
+ * {@link io.reactivex.plugins.RxJavaPlugins RxJavaPlugins} assembly hooks.
+ * <p>
+ * The operators assembled at the same site update shared, striped counters without locking,
+ * which can be read any time via {@link #snapshot()}. By default, the site is the operator class;
+ * {@link #enable(boolean)} can key them by the calling code location instead, which requires
+ * capturing the stacktrace on each assembly.
+ * <p>
+ * Callable and connectable sources are not instrumented in order to preserve their optimizations
+ * and connection API.
+ * <p>
+ * Note that this utility uses the same hooks as {@link RxJavaAssemblyTracking} and doesn't save or
+ * preserve any previous assembly hooks.
+ * @since 0.20.4
+ */
+public final class RxJavaOperatorMetrics {
+
+    /** Simply lock out concurrent state changes. */
+    static final AtomicBoolean lock = new AtomicBoolean();
+
+    static final ConcurrentMap<String, OperatorSite> SITES = new ConcurrentHashMap<String, OperatorSite>();
+
+    /** Utility class. */
+    private RxJavaOperatorMetrics() {
+        throw new IllegalStateException("No instances!");
+    }
+
+    /**
+     * Enable the metrics collection keyed by the operator class.
+     */
+    public static void enable() {
+        enable(false);
+    }
+
+    /**
+     * Enable the metrics collection.
+     * @param callSites if true, the metrics are keyed by the operator class and
+     * the calling code location; if false, only by the operator class
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static void enable(final boolean callSites) {
+        if (lock.compareAndSet(false, true)) {
+
+            RxJavaPlugins.setOnFlowableAssembly(new Function<Flowable, Flowable>() {
+                @Override
+                public Flowable apply(Flowable f) throws Exception {
+                    if (f instanceof Callable) {
+                        return f;
+                    }
+                    return new FlowableOnMetrics(f, site(f, callSites));
+                }
+            });
+
+            RxJavaPlugins.setOnObservableAssembly(new Function<Observable, Observable>() {
+                @Override
+                public Observable apply(Observable f) throws Exception {
+                    if (f instanceof Callable) {
+                        return f;
+                    }
+                    return new ObservableOnMetrics(f, site(f, callSites));
+                }
+            });
+
+            RxJavaPlugins.setOnParallelAssembly(new Function<ParallelFlowable, ParallelFlowable>() {
+                @Override
+                public ParallelFlowable apply(ParallelFlowable f) throws Exception {
+                    return new ParallelFlowableOnMetrics(f, site(f, callSites));
+                }
+            });
+
+            lock.set(false);
+        }
+    }
+
+    /**
+     * Disable the metrics collection; the metrics collected so far remain available.
+     */
+    public static void disable() {
+        if (lock.compareAndSet(false, true)) {
+
+            RxJavaPlugins.setOnFlowableAssembly(null);
+            RxJavaPlugins.setOnObservableAssembly(null);
+            RxJavaPlugins.setOnParallelAssembly(null);
+
+            lock.set(false);
+        }
+    }
+
+    /**
+     * Returns the current metrics of all sites, sorted by the site name.
+     * @return the list of metrics snapshots
+     */
+    public static List<OperatorMetrics> snapshot() {
+        List<OperatorMetrics> list = new ArrayList<OperatorMetrics>();
+        for (OperatorSite s : SITES.values()) {
+            list.add(s.snapshot());
+        }
+        Collections.sort(list, new Comparator<OperatorMetrics>() {
+            @Override
+            public int compare(OperatorMetrics a, OperatorMetrics b) {
+                return a.site.compareTo(b.site);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * Zeroes out the metrics of all sites, except the outstanding demand of the
+     * active subscriptions; operators still running keep counting into them.
+     */
+    public static void reset() {
+        for (OperatorSite s : SITES.values()) {
+            s.reset();
+        }
+    }
+
+    static OperatorSite site(Object source, boolean callSites) {
+        String name = callSites ? callSite(source) : source.getClass().getName();
+        OperatorSite s = SITES.get(name);
+        if (s == null) {
+            s = new OperatorSite(name);
+            OperatorSite t = SITES.putIfAbsent(name, s);
+            if (t != null) {
+                s = t;
+            }
+        }
+        return s;
+    }
+
+    static String callSite(Object source) {
+        String name = source.getClass().getName();
+        String self = RxJavaOperatorMetrics.class.getName();
+        for (StackTraceElement e : new Throwable().getStackTrace()) {
+            String cn = e.getClassName();
+            if (!cn.startsWith("io.reactivex.")
+                    && !cn.equals(self)
+                    && !cn.startsWith(self + "$")) {
+                return name + " @ " + e;
+            }
+        }
+        return name;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed group of {@link #WIDTH} long counters striped over the
+ * threads updating them, similar to a set of {@code LongAdder}s.
+ * <p>
+ * Each stripe holds one value of all counters in a cache-line sized slot, so
+ * threads hashed to different stripes don't contend or false-share;
+ * the {@link #sum(int)} adds up the stripes of a counter without locking.
+ *
+ * @since 0.20.4
+ */
+final class StripedCounters {
+
+    /** The number of counters in the group, also the number of longs in a stripe. */
+    static final int WIDTH = 8;
+
+    /** The number of stripes, a power of 2. */
+    static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+
+    /** The first stripe is left unused to keep the others off the array header's cache line. */
+    final AtomicLongArray cells;
+
+    StripedCounters() {
+        this.cells = new AtomicLongArray((STRIPES + 1) * WIDTH);
+    }
+
+    static int stripes(int cpus) {
+        int n = 1;
+        while (n < cpus && n < 64) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    static int stripe() {
+        long id = Thread.currentThread().getId();
+        int h = (int)(id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((h ^ (h >>> 16)) & (STRIPES - 1)) + 1;
+    }
+
+    /**
+     * Adds a value to a counter.
+     * @param counter the counter index, less than {@link #WIDTH}
+     * @param value the value to add
+     */
+    void add(int counter, long value) {
+        cells.getAndAdd(stripe() * WIDTH + counter, value);
+    }
+
+    /**
+     * Returns the current sum of a counter; concurrent updates may or may not be included.
+     * @param counter the counter index, less than {@link #WIDTH}
+     * @return the sum
+     */
+    long sum(int counter) {
+        AtomicLongArray a = cells;
+        long s = 0L;
+        for (int i = WIDTH + counter; i < a.length(); i += WIDTH) {
+            s += a.get(i);
+        }
+        return s;
+    }
+
+    /**
+     * Sets a counter to zero; concurrent updates may or may not be lost.
+     * @param counter the counter index, less than {@link #WIDTH}
+     */
+    void reset(int counter) {
+        AtomicLongArray a = cells;
+        for (int i = WIDTH + counter; i < a.length(); i += WIDTH) {
+            a.set(i, 0L);
+        }
+    }
+}
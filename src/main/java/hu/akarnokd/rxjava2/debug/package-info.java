@@ -17,6 +17,7 @@
 /**
  * Debugging support to remember where operators have been created in the
  * code via {@link io.reactivex.plugins.RxJavaPlugins RxJavaPlugins}' assembly hooks, enabled via
- * {@link hu.akarnokd.rxjava2.debug.RxJavaAssemblyTracking RxJavaAssemblyTracking}.
+ * {@link hu.akarnokd.rxjava2.debug.RxJavaAssemblyTracking RxJavaAssemblyTracking}, and to collect
+ * per-operator metrics via {@link hu.akarnokd.rxjava2.debug.RxJavaOperatorMetrics RxJavaOperatorMetrics}.
  */
 package hu.akarnokd.rxjava2.debug;
\ No newline at end of file
@@ -16,23 +16,53 @@
 
 package hu.akarnokd.rxjava2.joins;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Represents an activated plan.
  */
 abstract class ActivePlan0 {
-    protected final Map<JoinObserver, JoinObserver> joinObservers = new HashMap<JoinObserver, JoinObserver>();
+    protected JoinObserver[] joinObservers = new JoinObserver[0];
+
+    /** Set to false once the plan completed; accessed from the drain loop only. */
+    boolean active = true;
+
+    /**
+     * Tries to match the current head elements of the observers.
+     * @return true if a match consumed the head elements
+     * @throws Exception if the match callbacks failed
+     */
+    protected abstract boolean match() throws Exception;
 
-    protected abstract void match() throws Exception;
+    /**
+     * Returns true if matching would complete this plan instead of consuming values.
+     * @return true if matching would complete this plan
+     */
+    protected boolean isCompletable() {
+        JoinObserver[] a = joinObservers;
+        boolean completed = false;
+        for (JoinObserver jo : a) {
+            if (!jo.hasValue()) {
+                return false;
+            }
+            completed |= jo.isCompleted();
+        }
+        return completed;
+    }
 
     protected void addJoinObserver(JoinObserver joinObserver) {
-        joinObservers.put(joinObserver, joinObserver);
+        JoinObserver[] a = joinObservers;
+        for (JoinObserver jo : a) {
+            if (jo == joinObserver) {
+                return;
+            }
+        }
+        JoinObserver[] b = new JoinObserver[a.length + 1];
+        System.arraycopy(a, 0, b, 0, a.length);
+        b[a.length] = joinObserver;
+        joinObservers = b;
     }
 
     protected void dequeue() {
-        for (JoinObserver jo : joinObservers.values()) {
+        for (JoinObserver jo : joinObservers) {
             jo.dequeue();
         }
     }
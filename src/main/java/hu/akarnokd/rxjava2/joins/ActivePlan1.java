@@ -16,7 +16,6 @@
 
 package hu.akarnokd.rxjava2.joins;
 
-import io.reactivex.Notification;
 import io.reactivex.functions.*;
 
 /**
@@ -36,16 +35,18 @@ final class ActivePlan1<T1> extends ActivePlan0 {
     }
 
     @Override
-    protected void match() throws Exception {
-        if (!jo1.queue().isEmpty()) {
-            Notification<T1> n1 = jo1.queue().peek();
-            if (n1.isOnComplete()) {
+    protected boolean match() throws Exception {
+        if (jo1.hasValue()) {
+            if (jo1.isCompleted()) {
                 onCompleted.run();
             } else {
+                T1 n1 = jo1.peekValue();
                 dequeue();
-                onNext.accept(n1.getValue());
+                onNext.accept(n1);
+                return true;
             }
         }
+        return false;
     }
 
 }
@@ -16,7 +16,6 @@
 
 package hu.akarnokd.rxjava2.joins;
 
-import io.reactivex.Notification;
 import io.reactivex.functions.*;
 
 /**
@@ -40,18 +39,19 @@ final class ActivePlan2<T1, T2> extends ActivePlan0 {
     }
 
     @Override
-    protected void match() throws Exception {
-        if (!jo1.queue().isEmpty() && !jo2.queue().isEmpty()) {
-            Notification<T1> n1 = jo1.queue().peek();
-            Notification<T2> n2 = jo2.queue().peek();
-
-            if (n1.isOnComplete() || n2.isOnComplete()) {
+    protected boolean match() throws Exception {
+        if (jo1.hasValue() && jo2.hasValue()) {
+            if (jo1.isCompleted() || jo2.isCompleted()) {
                 onCompleted.run();
             } else {
+                T1 n1 = jo1.peekValue();
+                T2 n2 = jo2.peekValue();
                 dequeue();
-                onNext.accept(n1.getValue(), n2.getValue());
+                onNext.accept(n1, n2);
+                return true;
             }
         }
+        return false;
     }
 
 }
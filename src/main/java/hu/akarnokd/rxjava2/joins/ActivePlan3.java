@@ -17,7 +17,6 @@
 package hu.akarnokd.rxjava2.joins;
 
 import hu.akarnokd.rxjava2.functions.Consumer3;
-import io.reactivex.Notification;
 import io.reactivex.functions.Action;
 
 /**
@@ -49,21 +48,22 @@ final class ActivePlan3<T1, T2, T3> extends ActivePlan0 {
     }
 
     @Override
-    protected void match() throws Exception {
-        if (!first.queue().isEmpty()
-                && !second.queue().isEmpty()
-                && !third.queue().isEmpty()) {
-            Notification<T1> n1 = first.queue().peek();
-            Notification<T2> n2 = second.queue().peek();
-            Notification<T3> n3 = third.queue().peek();
-
-            if (n1.isOnComplete() || n2.isOnComplete() || n3.isOnComplete()) {
+    protected boolean match() throws Exception {
+        if (first.hasValue()
+                && second.hasValue()
+                && third.hasValue()) {
+            if (first.isCompleted() || second.isCompleted() || third.isCompleted()) {
                 onCompleted.run();
             } else {
+                T1 n1 = first.peekValue();
+                T2 n2 = second.peekValue();
+                T3 n3 = third.peekValue();
                 dequeue();
-                onNext.accept(n1.getValue(), n2.getValue(), n3.getValue());
+                onNext.accept(n1, n2, n3);
+                return true;
             }
         }
+        return false;
     }
 
 }
@@ -17,7 +17,6 @@
 package hu.akarnokd.rxjava2.joins;
 
 import hu.akarnokd.rxjava2.functions.Consumer4;
-import io.reactivex.Notification;
 import io.reactivex.functions.Action;
 
 /**
@@ -55,26 +54,27 @@ final class ActivePlan4<T1, T2, T3, T4> extends ActivePlan0 {
     }
 
     @Override
-    protected void match() throws Exception {
-        if (!jo1.queue().isEmpty()
-                && !jo2.queue().isEmpty()
-                && !jo3.queue().isEmpty()
-                && !jo4.queue().isEmpty()) {
-            Notification<T1> n1 = jo1.queue().peek();
-            Notification<T2> n2 = jo2.queue().peek();
-            Notification<T3> n3 = jo3.queue().peek();
-            Notification<T4> n4 = jo4.queue().peek();
-
-            if (n1.isOnComplete()
-                    || n2.isOnComplete()
-                    || n3.isOnComplete()
-                    || n4.isOnComplete()) {
+    protected boolean match() throws Exception {
+        if (jo1.hasValue()
+                && jo2.hasValue()
+                && jo3.hasValue()
+                && jo4.hasValue()) {
+            if (jo1.isCompleted()
+                    || jo2.isCompleted()
+                    || jo3.isCompleted()
+                    || jo4.isCompleted()) {
                 onCompleted.run();
             } else {
+                T1 n1 = jo1.peekValue();
+                T2 n2 = jo2.peekValue();
+                T3 n3 = jo3.peekValue();
+                T4 n4 = jo4.peekValue();
                 dequeue();
-                onNext.accept(n1.getValue(), n2.getValue(), n3.getValue(), n4.getValue());
+                onNext.accept(n1, n2, n3, n4);
+                return true;
             }
         }
+        return false;
     }
 
 }
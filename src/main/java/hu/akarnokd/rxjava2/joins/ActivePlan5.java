@@ -17,7 +17,6 @@
 package hu.akarnokd.rxjava2.joins;
 
 import hu.akarnokd.rxjava2.functions.Consumer5;
-import io.reactivex.Notification;
 import io.reactivex.functions.Action;
 
 /**
@@ -60,37 +59,38 @@ final class ActivePlan5<T1, T2, T3, T4, T5> extends ActivePlan0 {
     }
 
     @Override
-    protected void match() throws Exception {
-        if (!jo1.queue().isEmpty()
-                && !jo2.queue().isEmpty()
-                && !jo3.queue().isEmpty()
-                && !jo4.queue().isEmpty()
-                && !jo5.queue().isEmpty()
+    protected boolean match() throws Exception {
+        if (jo1.hasValue()
+                && jo2.hasValue()
+                && jo3.hasValue()
+                && jo4.hasValue()
+                && jo5.hasValue()
         ) {
-            Notification<T1> n1 = jo1.queue().peek();
-            Notification<T2> n2 = jo2.queue().peek();
-            Notification<T3> n3 = jo3.queue().peek();
-            Notification<T4> n4 = jo4.queue().peek();
-            Notification<T5> n5 = jo5.queue().peek();
-
-            if (n1.isOnComplete()
-                    || n2.isOnComplete()
-                    || n3.isOnComplete()
-                    || n4.isOnComplete()
-                    || n5.isOnComplete()
+            if (jo1.isCompleted()
+                    || jo2.isCompleted()
+                    || jo3.isCompleted()
+                    || jo4.isCompleted()
+                    || jo5.isCompleted()
             ) {
                 onCompleted.run();
             } else {
+                T1 n1 = jo1.peekValue();
+                T2 n2 = jo2.peekValue();
+                T3 n3 = jo3.peekValue();
+                T4 n4 = jo4.peekValue();
+                T5 n5 = jo5.peekValue();
                 dequeue();
                 onNext.accept(
-                        n1.getValue(),
-                        n2.getValue(),
-                        n3.getValue(),
-                        n4.getValue(),
-                        n5.getValue()
+                        n1,
+                        n2,
+                        n3,
+                        n4,
+                        n5
                 );
+                return true;
             }
         }
+        return false;
     }
 
 }
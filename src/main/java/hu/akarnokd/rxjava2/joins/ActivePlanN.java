@@ -16,9 +16,8 @@
 
 package hu.akarnokd.rxjava2.joins;
 
-import java.util.*;
+import java.util.List;
 
-import io.reactivex.Notification;
 import io.reactivex.functions.*;
 
 /**
@@ -27,42 +26,53 @@ import io.reactivex.functions.*;
 final class ActivePlanN extends ActivePlan0 {
     private final Consumer<? super Object[]> onNext;
     private final Action onCompleted;
-    private final List<JoinObserver1<? extends Object>> observers;
+    private final JoinObserver1<?>[] observers;
 
     ActivePlanN(List<JoinObserver1<? extends Object>> observers,
             Consumer<? super Object[]> onNext,
             Action onCompleted) {
         this.onNext = onNext;
         this.onCompleted = onCompleted;
-        this.observers = new ArrayList<JoinObserver1<? extends Object>>(observers);
-        for (JoinObserver1<? extends Object> jo : this.observers) {
+        this.observers = observers.toArray(new JoinObserver1<?>[0]);
+        for (JoinObserver1<?> jo : this.observers) {
             addJoinObserver(jo);
         }
     }
 
     @Override
-    protected void match() throws Exception {
-        Object[] notifications = new Object[this.observers.size()];
+    protected boolean isCompletable() {
+        for (JoinObserver1<?> jo : this.observers) {
+            if (!jo.hasValue() || !jo.isCompleted()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean match() throws Exception {
+        Object[] values = new Object[this.observers.length];
         int j = 0;
         int completedCount = 0;
-        for (JoinObserver1<? extends Object> jo : this.observers) {
-            if (jo.queue().isEmpty()) {
-                return;
+        for (JoinObserver1<?> jo : this.observers) {
+            if (!jo.hasValue()) {
+                return false;
             }
-            Notification<? extends Object> n = jo.queue().peek();
-            if (n.isOnComplete()) {
+            if (jo.isCompleted()) {
                 completedCount++;
+            } else {
+                values[j] = jo.peekValue();
             }
-            notifications[j] = n.getValue();
             j++;
         }
 
         if (completedCount == j) {
             onCompleted.run();
-        } else {
-            dequeue();
-            onNext.accept(notifications);
+            return false;
         }
+        dequeue();
+        onNext.accept(values);
+        return true;
     }
 
 }
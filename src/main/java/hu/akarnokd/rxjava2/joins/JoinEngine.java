@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.internal.util.BackpressureHelper;
+
+/**
+ * Serializes the matching of plans via a lock-free drain loop: the thread
+ * that signals first runs the matching for every observer that has received
+ * a signal, other threads only indicate more work.
+ * <p>
+ * When used with a backpressured consumer, plans only fire while there is
+ * outstanding demand.
+ * @since 0.20.4
+ */
+final class JoinEngine extends AtomicInteger {
+
+    private static final long serialVersionUID = -2898733298553478357L;
+
+    private final AtomicLong requested;
+
+    private JoinObserver[] observers;
+
+    private long emitted;
+
+    JoinEngine(long initialRequested) {
+        this.requested = new AtomicLong(initialRequested);
+        this.observers = new JoinObserver[0];
+    }
+
+    /**
+     * Sets the observers to drive, must be called before any of them is subscribed.
+     * @param observers the observers
+     */
+    void setObservers(Collection<JoinObserver> observers) {
+        this.observers = observers.toArray(new JoinObserver[0]);
+    }
+
+    boolean hasDemand() {
+        return requested.get() != emitted;
+    }
+
+    void produced() {
+        emitted++;
+    }
+
+    void request(long n) {
+        BackpressureHelper.add(requested, n);
+        for (JoinObserver jo : observers) {
+            jo.markPending();
+        }
+        signal();
+    }
+
+    void signal() {
+        if (getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        JoinObserver[] a = observers;
+
+        for (;;) {
+            for (JoinObserver jo : a) {
+                jo.matchPending();
+            }
+
+            missed = addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+}
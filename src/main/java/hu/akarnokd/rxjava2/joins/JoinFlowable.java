@@ -0,0 +1,337 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import java.util.Arrays;
+
+import org.reactivestreams.Publisher;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Represents a backpressured source that supports join operations.
+ * <p>
+ * The sources are requested in batches of their prefetch amount and are replenished
+ * as the plans consume their values, keeping the number of queued values per source
+ * bounded. The resulting Flowable fires plans only when the downstream requested more.
+ * <p>
+ * The patterns can also include {@code Observable} sources, which are consumed
+ * in an unbounded manner.
+ *
+ * @param <T> the value type joined
+ * @since 0.20.4
+ */
+public final class JoinFlowable<T> {
+
+    private final Flowable<T> f;
+
+    private final int prefetch;
+
+    private JoinFlowable(Flowable<T> f, int prefetch) {
+        this.f = f;
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Creates a JoinFlowable from a Publisher with the default prefetch amount of
+     * {@link Flowable#bufferSize()}.
+     * @param <T> the value type
+     * @param source the Publisher to wrap
+     * @return the created JoinFlowable instance
+     */
+    public static <T> JoinFlowable<T> from(Publisher<T> source) {
+        return from(source, Flowable.bufferSize());
+    }
+
+    /**
+     * Creates a JoinFlowable from a Publisher with the given prefetch amount.
+     * @param <T> the value type
+     * @param source the Publisher to wrap
+     * @param prefetch the number of items to request from the Publisher upfront and
+     *            the maximum number of its items queued, positive
+     * @return the created JoinFlowable instance
+     */
+    public static <T> JoinFlowable<T> from(Publisher<T> source, int prefetch) {
+        ObjectHelper.requireNonNull(source, "source is null");
+        ObjectHelper.verifyPositive(prefetch, "prefetch");
+        return new JoinFlowable<T>(RxJavaPlugins.onAssembly(Flowable.fromPublisher(source)), prefetch);
+    }
+
+    /**
+     * Returns a Pattern that matches when both Publishers emit an item; the other Publisher
+     * is prefetched with the default amount of {@link Flowable#bufferSize()}.
+     * @param <T2> the value type of the right Publisher
+     * @param right
+     *            a Publisher to match with the source Publisher
+     * @return a Pattern object that matches when both Publishers emit an item
+     */
+    public <T2> Pattern2<T, T2> and(Publisher<T2> right) {
+        return and(right, Flowable.bufferSize());
+    }
+
+    /**
+     * Returns a Pattern that matches when both Publishers emit an item.
+     * @param <T2> the value type of the right Publisher
+     * @param right
+     *            a Publisher to match with the source Publisher
+     * @param prefetch the number of items to request from the right Publisher upfront and
+     *            the maximum number of its items queued, positive
+     * @return a Pattern object that matches when both Publishers emit an item
+     */
+    public <T2> Pattern2<T, T2> and(Publisher<T2> right, int prefetch) {
+        return JoinPatterns.and(JoinFlowableSource.wrap(f, this.prefetch), JoinFlowableSource.wrap(right, prefetch));
+    }
+
+    /**
+     * Joins together the results from several patterns via their plans.
+     *
+     * @param <R> the result type
+     * @param plans
+     *            a series of plans created by use of the {@link #then} method on patterns
+     * @return a JoinFlowable that emits the results from matching several patterns
+     */
+    public static <R> JoinFlowable<R> when(Iterable<? extends Plan<R>> plans) {
+        if (plans == null) {
+            throw new NullPointerException("plans");
+        }
+        return new JoinFlowable<R>(RxJavaPlugins.onAssembly(JoinPatterns.whenFlowable(plans)), Flowable.bufferSize());
+    }
+
+    /**
+     * Joins together the results from several patterns via their plans.
+     *
+     * @param <R> the result type
+     * @param plans
+     *            a series of plans created by use of the {@link #then} method on patterns
+     * @return a JoinFlowable that emits the results from matching several patterns
+     */
+    public static <R> JoinFlowable<R> when(Plan<R>... plans) {
+        if (plans == null) {
+            throw new NullPointerException("plans");
+        }
+        return when(Arrays.asList(plans));
+    }
+
+    /**
+     * Joins the results from a pattern via its plan.
+     *
+     * @param <R> the result type
+     * @param p1
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @return a JoinFlowable that emits the results from matching the patterns
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> JoinFlowable<R> when(Plan<R> p1) {
+        return when(Arrays.asList(p1));
+    }
+
+    /**
+     * Joins the results from two patterns via their plans.
+     *
+     * @param <R> the result type
+     * @param p1
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p2
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @return a JoinFlowable that emits the results from matching the patterns
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> JoinFlowable<R> when(Plan<R> p1, Plan<R> p2) {
+        return when(Arrays.asList(p1, p2));
+    }
+
+    /**
+     * Joins the results from three patterns via their plans.
+     *
+     * @param <R> the result type
+     * @param p1
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p2
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p3
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @return a JoinFlowable that emits the results from matching the patterns
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> JoinFlowable<R> when(Plan<R> p1, Plan<R> p2, Plan<R> p3) {
+        return when(Arrays.asList(p1, p2, p3));
+    }
+
+    /**
+     * Joins the results from four patterns via their plans.
+     *
+     * @param <R> the result type
+     * @param p1
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p2
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p3
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p4
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @return a JoinFlowable that emits the results from matching the patterns
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> JoinFlowable<R> when(Plan<R> p1, Plan<R> p2, Plan<R> p3, Plan<R> p4) {
+        return when(Arrays.asList(p1, p2, p3, p4));
+    }
+
+    /**
+     * Joins the results from five patterns via their plans.
+     *
+     * @param <R> the result type
+     * @param p1
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p2
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p3
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p4
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p5
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @return a JoinFlowable that emits the results from matching the patterns
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> JoinFlowable<R> when(Plan<R> p1, Plan<R> p2, Plan<R> p3, Plan<R> p4, Plan<R> p5) {
+        return when(Arrays.asList(p1, p2, p3, p4, p5));
+    }
+
+    /**
+     * Joins the results from six patterns via their plans.
+     *
+     * @param <R> the result type
+     * @param p1
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p2
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p3
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p4
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p5
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p6
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @return a JoinFlowable that emits the results from matching the patterns
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> JoinFlowable<R> when(Plan<R> p1, Plan<R> p2, Plan<R> p3, Plan<R> p4, Plan<R> p5, Plan<R> p6) {
+        return when(Arrays.asList(p1, p2, p3, p4, p5, p6));
+    }
+
+    /**
+     * Joins the results from seven patterns via their plans.
+     *
+     * @param <R> the result type
+     * @param p1
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p2
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p3
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p4
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p5
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p6
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p7
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @return a JoinFlowable that emits the results from matching the patterns
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> JoinFlowable<R> when(Plan<R> p1, Plan<R> p2, Plan<R> p3, Plan<R> p4, Plan<R> p5, Plan<R> p6, Plan<R> p7) {
+        return when(Arrays.asList(p1, p2, p3, p4, p5, p6, p7));
+    }
+
+    /**
+     * Joins the results from eight patterns via their plans.
+     *
+     * @param <R> the result type
+     * @param p1
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p2
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p3
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p4
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p5
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p6
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p7
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p8
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @return a JoinFlowable that emits the results from matching the patterns
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> JoinFlowable<R> when(Plan<R> p1, Plan<R> p2, Plan<R> p3, Plan<R> p4, Plan<R> p5, Plan<R> p6, Plan<R> p7, Plan<R> p8) {
+        return when(Arrays.asList(p1, p2, p3, p4, p5, p6, p7, p8));
+    }
+
+    /**
+     * Joins the results from nine patterns via their plans.
+     *
+     * @param <R> the result type
+     * @param p1
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p2
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p3
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p4
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p5
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p6
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p7
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p8
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @param p9
+     *            a plan, created by use of the {@link #then} method on a pattern
+     * @return a JoinFlowable that emits the results from matching the patterns
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> JoinFlowable<R> when(Plan<R> p1, Plan<R> p2, Plan<R> p3, Plan<R> p4, Plan<R> p5, Plan<R> p6, Plan<R> p7, Plan<R> p8, Plan<R> p9) {
+        return when(Arrays.asList(p1, p2, p3, p4, p5, p6, p7, p8, p9));
+    }
+
+    /**
+     * Matches when the Publisher has an available item and projects the item
+     * by invoking the selector function.
+     *
+     * @param <R> the result type
+     * @param selector
+     *            selector that will be invoked for items emitted by the source Publisher
+     * @return a {@link Plan} that produces the projected results, to be fed (with other Plans) to the {@link #when} method
+     */
+    public <R> Plan<R> then(Function<? super T, ? extends R> selector) {
+        return JoinPatterns.then(JoinFlowableSource.wrap(f, prefetch), selector);
+    }
+
+    public Flowable<T> toFlowable() {
+        return f;
+    }
+}
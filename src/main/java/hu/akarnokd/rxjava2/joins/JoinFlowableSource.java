@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import org.reactivestreams.Publisher;
+
+import io.reactivex.*;
+import io.reactivex.internal.functions.ObjectHelper;
+
+/**
+ * Carries a backpressured source and its prefetch amount through the
+ * Observable-based patterns; the join observers request from the
+ * wrapped source in batches instead of subscribing to this Observable.
+ *
+ * @param <T> the value type
+ * @since 0.20.4
+ */
+final class JoinFlowableSource<T> extends Observable<T> {
+
+    final Publisher<T> source;
+
+    final int prefetch;
+
+    JoinFlowableSource(Publisher<T> source, int prefetch) {
+        this.source = source;
+        this.prefetch = prefetch;
+    }
+
+    static <T> Observable<T> wrap(Publisher<T> source, int prefetch) {
+        ObjectHelper.requireNonNull(source, "source is null");
+        ObjectHelper.verifyPositive(prefetch, "prefetch");
+        return new JoinFlowableSource<T>(source, prefetch);
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        Flowable.fromPublisher(source).toObservable().subscribe(observer);
+    }
+}
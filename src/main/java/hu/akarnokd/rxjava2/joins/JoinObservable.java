@@ -16,6 +16,8 @@
 
 package hu.akarnokd.rxjava2.joins;
 
+import org.reactivestreams.Publisher;
+
 import io.reactivex.Observable;
 import io.reactivex.functions.Function;
 import io.reactivex.plugins.RxJavaPlugins;
@@ -61,6 +63,23 @@ public final class JoinObservable<T> {
         return JoinPatterns.and(o, right);
     }
 
+    /**
+     * Returns a Pattern that matches when both this Observable and the backpressured
+     * Publisher emit an item; the Publisher is requested in batches of {@code prefetch}
+     * items which are replenished as the plans consume them.
+     *
+     * @param <T2> the value type of the right Publisher
+     * @param right
+     *            a Publisher to match with the source Observable
+     * @param prefetch the number of items to request from the Publisher upfront and
+     *            the maximum number of its items queued, positive
+     * @return a Pattern object that matches when both sources emit an item
+     * @since 0.20.4
+     */
+    public <T2> Pattern2<T, T2> and(Publisher<T2> right, int prefetch) {
+        return JoinPatterns.and(o, JoinFlowableSource.wrap(right, prefetch));
+    }
+
     /**
      * Joins together the results from several patterns via their plans.
      * <p>
@@ -22,7 +22,30 @@ import io.reactivex.disposables.Disposable;
  * Base interface to manage joined observations.
  */
 interface JoinObserver extends Disposable {
-    void subscribe(Object gate);
+    void subscribe(JoinEngine engine);
 
     void dequeue();
+
+    /**
+     * Returns true if there is a value or the completion signal available.
+     * @return true if there is a value or the completion signal available
+     */
+    boolean hasValue();
+
+    /**
+     * Returns true if the completion signal is the next available signal.
+     * @return true if the completion signal is the next available signal
+     */
+    boolean isCompleted();
+
+    /**
+     * Indicates the plans of this observer should be matched again on the next drain.
+     */
+    void markPending();
+
+    /**
+     * Matches the active plans of this observer if it has received
+     * any signal since the last call; called from the engine's drain loop.
+     */
+    void matchPending();
 }
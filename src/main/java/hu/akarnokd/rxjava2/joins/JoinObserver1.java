@@ -19,40 +19,94 @@ package hu.akarnokd.rxjava2.joins;
 import java.util.*;
 import java.util.concurrent.atomic.*;
 
-import io.reactivex.Notification;
+import org.reactivestreams.Subscription;
+
+import io.reactivex.*;
 import io.reactivex.Observable;
 import io.reactivex.Observer;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.exceptions.*;
 import io.reactivex.functions.Consumer;
 import io.reactivex.internal.disposables.DisposableHelper;
+import io.reactivex.internal.queue.SpscLinkedArrayQueue;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
 import io.reactivex.plugins.RxJavaPlugins;
 
 /**
  * Default implementation of a join observer.
+ * <p>
+ * The source thread queues the values and signals the {@link JoinEngine},
+ * the matching happens in the engine's drain loop. Sources wrapped into a
+ * {@link JoinFlowableSource} are requested in batches of their prefetch amount
+ * and replenished as the plans consume their values.
  * @param <T> the input element type
  */
-final class JoinObserver1<T> implements Observer<Notification<T>>, JoinObserver {
-    private Object gate;
+final class JoinObserver1<T> extends AtomicReference<Disposable> implements Observer<T>, JoinObserver {
+
+    private static final long serialVersionUID = -1466017793444404254L;
+
+    private JoinEngine engine;
     private final Observable<T> source;
     private final Consumer<Throwable> onError;
     private final List<ActivePlan0> activePlans;
-    private final Queue<Notification<T>> queue;
+    /** The active plans, fixed once subscribed so matching doesn't copy the list. */
+    private ActivePlan0[] plans;
+    private final SpscLinkedArrayQueue<T> queue;
+    /** The backpressured source's subscriber or null for an Observable source. */
+    private final JoinSubscriber subscriber;
+    private final int limit;
+    private int consumed;
     private final AtomicBoolean subscribed = new AtomicBoolean(false);
-    private final InnerObserver safeObserver;
+
+    private Throwable error;
+    private volatile boolean done;
+    /** Set when a plan dequeued the completion signal itself. */
+    private boolean completionConsumed;
+
+    private volatile boolean signalled;
 
     JoinObserver1(Observable<T> source, Consumer<Throwable> onError) {
         this.source = source;
         this.onError = onError;
-        queue = new LinkedList<Notification<T>>();
         activePlans = new ArrayList<ActivePlan0>();
-        safeObserver = new InnerObserver();
-        // add this subscription so it gets unsubscribed when the parent does
-//        add(safeObserver);
+        if (source instanceof JoinFlowableSource) {
+            int prefetch = ((JoinFlowableSource<T>)source).prefetch;
+            queue = new SpscLinkedArrayQueue<T>(Math.min(prefetch, Flowable.bufferSize()));
+            subscriber = new JoinSubscriber(prefetch);
+            limit = prefetch - (prefetch >> 2);
+        } else {
+            queue = new SpscLinkedArrayQueue<T>(Observable.bufferSize());
+            subscriber = null;
+            limit = 0;
+        }
+    }
+
+    /**
+     * Returns true if there is a value or the completion signal
+     * at the head of the queue.
+     * @return true if there is a value or the completion signal
+     */
+    @Override
+    public boolean hasValue() {
+        return !queue.isEmpty() || (done && !completionConsumed);
+    }
+
+    /**
+     * Returns true if the completion signal is at the head of the queue.
+     * @return true if the completion signal is at the head of the queue
+     */
+    @Override
+    public boolean isCompleted() {
+        boolean d = done;
+        return d && queue.isEmpty();
     }
 
-    public Queue<Notification<T>> queue() {
-        return queue;
+    /**
+     * Returns the value at the head of the queue without removing it.
+     * @return the value or null if there is no value at the head
+     */
+    T peekValue() {
+        return queue.peek();
     }
 
     public void addActivePlan(ActivePlan0 activePlan) {
@@ -60,10 +114,18 @@ final class JoinObserver1<T> implements Observer<Notification<T>>, JoinObserver
     }
 
     @Override
-    public void subscribe(Object gate) {
+    public void subscribe(JoinEngine engine) {
         if (subscribed.compareAndSet(false, true)) {
-            this.gate = gate;
-            source.materialize().subscribe(this);
+            this.engine = engine;
+            this.plans = activePlans.toArray(new ActivePlan0[0]);
+            JoinSubscriber s = subscriber;
+            if (s != null) {
+                if (DisposableHelper.setOnce(this, s)) {
+                    ((JoinFlowableSource<T>)source).source.subscribe(s);
+                }
+            } else {
+                source.subscribe(this);
+            }
         } else {
             throw new IllegalStateException("Can only be subscribed to once.");
         }
@@ -71,100 +133,169 @@ final class JoinObserver1<T> implements Observer<Notification<T>>, JoinObserver
 
     @Override
     public void dequeue() {
-        queue.remove();
+        if (queue.poll() == null) {
+            completionConsumed = true;
+        } else {
+            JoinSubscriber s = subscriber;
+            if (s != null) {
+                int c = consumed + 1;
+                if (c == limit) {
+                    consumed = 0;
+                    s.get().request(c);
+                } else {
+                    consumed = c;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        DisposableHelper.setOnce(this, d);
     }
 
     @Override
-    public void onNext(Notification<T> args) {
-        safeObserver.onNext(args);
+    public void onNext(T args) {
+        queue.offer(args);
+        signalled = true;
+        engine.signal();
     }
 
     @Override
     public void onError(Throwable e) {
-        safeObserver.onError(e);
+        error = e;
+        signalled = true;
+        engine.signal();
     }
 
     @Override
     public void onComplete() {
-        safeObserver.onComplete();
+        done = true;
+        signalled = true;
+        engine.signal();
+    }
+
+    @Override
+    public void markPending() {
+        signalled = true;
+    }
+
+    @Override
+    public void matchPending() {
+        if (!signalled) {
+            return;
+        }
+        signalled = false;
+
+        if (isDisposed()) {
+            queue.clear();
+            return;
+        }
+
+        Throwable err = error;
+        if (err != null) {
+            error = null;
+            try {
+                onError.accept(err);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                RxJavaPlugins.onError(new CompositeException(err, ex));
+            }
+            return;
+        }
+
+        ActivePlan0[] ps = plans;
+        if (ps == null) {
+            // not yet subscribed, nothing to match
+            return;
+        }
+        JoinEngine e = engine;
+        for (ActivePlan0 a : ps) {
+            while (a.active && !isDisposed()) {
+                // without demand, only let the plans complete; the engine marks
+                // every observer pending again when more is requested
+                if (!e.hasDemand() && !a.isCompletable()) {
+                    break;
+                }
+                try {
+                    if (!a.match()) {
+                        break;
+                    }
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    try {
+                        onError.accept(ex);
+                    } catch (Throwable ex2) {
+                        Exceptions.throwIfFatal(ex2);
+                        RxJavaPlugins.onError(new CompositeException(ex, ex2));
+                        return;
+                    }
+                    break;
+                }
+            }
+        }
     }
 
     void removeActivePlan(ActivePlan0 activePlan) {
+        activePlan.active = false;
         activePlans.remove(activePlan);
         if (activePlans.isEmpty()) {
             dispose();
         }
     }
 
-    @Override
-    public void onSubscribe(Disposable d) {
-        safeObserver.onSubscribe(d);
-    }
-
     @Override
     public boolean isDisposed() {
-        return DisposableHelper.isDisposed(safeObserver.get());
+        return DisposableHelper.isDisposed(get());
     }
 
     @Override
     public void dispose() {
-        DisposableHelper.dispose(safeObserver);
+        DisposableHelper.dispose(this);
     }
 
-    final class InnerObserver
-    extends AtomicReference<Disposable>
-    implements Observer<Notification<T>> {
+    final class JoinSubscriber
+    extends AtomicReference<Subscription>
+    implements FlowableSubscriber<T>, Disposable {
 
-        private static final long serialVersionUID = -1466017793444404254L;
+        private static final long serialVersionUID = 8016692521574566136L;
 
-        @Override
-        public void onSubscribe(Disposable d) {
-            DisposableHelper.setOnce(this, d);
+        final int prefetch;
+
+        JoinSubscriber(int prefetch) {
+            this.prefetch = prefetch;
         }
 
         @Override
-        public void onNext(Notification<T> args) {
-            synchronized (gate) {
-                if (!DisposableHelper.isDisposed(get())) {
-                    if (args.isOnError()) {
-                        try {
-                            onError.accept(args.getError());
-                        } catch (Throwable ex) {
-                            Exceptions.throwIfFatal(ex);
-                            RxJavaPlugins.onError(new CompositeException(args.getError(), ex));
-                        }
-                        return;
-                    }
-                    queue.add(args);
-
-                    // remark: activePlans might change while iterating
-                    for (ActivePlan0 a : new ArrayList<ActivePlan0>(activePlans)) {
-                        try {
-                            a.match();
-                        } catch (Throwable ex) {
-                            Exceptions.throwIfFatal(ex);
-                            try {
-                                onError.accept(ex);
-                            } catch (Throwable ex2) {
-                                Exceptions.throwIfFatal(ex2);
-                                RxJavaPlugins.onError(new CompositeException(ex, ex2));
-                                return;
-                            }
-                        }
-                    }
-                }
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.setOnce(this, s)) {
+                s.request(prefetch);
             }
         }
 
         @Override
-        public void onError(Throwable e) {
-            // not expected
+        public void onNext(T t) {
+            JoinObserver1.this.onNext(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            JoinObserver1.this.onError(t);
         }
 
         @Override
         public void onComplete() {
-            // not expected or ignored
+            JoinObserver1.this.onComplete();
+        }
+
+        @Override
+        public void dispose() {
+            SubscriptionHelper.cancel(this);
         }
-    }
 
-}
\ No newline at end of file
+        @Override
+        public boolean isDisposed() {
+            return get() == SubscriptionHelper.CANCELLED;
+        }
+    }
+}
@@ -18,10 +18,14 @@ package hu.akarnokd.rxjava2.joins;
 
 import java.util.*;
 
+import org.reactivestreams.*;
+
+import io.reactivex.*;
 import io.reactivex.Observable;
 import io.reactivex.Observer;
 import io.reactivex.disposables.*;
 import io.reactivex.functions.*;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
 import io.reactivex.observers.SafeObserver;
 
 /**
@@ -93,7 +97,6 @@ final class JoinPatterns {
             @Override
             protected void subscribeActual(final Observer<? super R> t1) {
                 final Map<Object, JoinObserver> externalSubscriptions = new HashMap<Object, JoinObserver>();
-                final Object gate = new Object();
                 final List<ActivePlan0> activePlans = new ArrayList<ActivePlan0>();
 
                 final Observer<R> out = new SafeObserver<R>(new Observer<R>() {
@@ -139,10 +142,98 @@ final class JoinPatterns {
                     Observable.<R> error(t).subscribe(t1);
                     return;
                 }
+                JoinEngine engine = new JoinEngine(Long.MAX_VALUE);
+                engine.setObservers(externalSubscriptions.values());
                 CompositeDisposable group = new CompositeDisposable();
                 t1.onSubscribe(group);
                 for (JoinObserver jo : externalSubscriptions.values()) {
-                    jo.subscribe(gate);
+                    jo.subscribe(engine);
+                    group.add(jo);
+                }
+            }
+        };
+    }
+
+    /**
+     * Joins together the results from several patterns and emits them
+     * only when the downstream requested them.
+     * @param plans the iterable sequence of plans
+     * @param <R> the common result type
+     * @return the Flowable joining the plans
+     * @since 0.20.4
+     */
+    public static <R> Flowable<R> whenFlowable(final Iterable<? extends Plan<R>> plans) {
+        if (plans == null) {
+            throw new NullPointerException("plans");
+        }
+        return new Flowable<R>() {
+            @Override
+            protected void subscribeActual(final Subscriber<? super R> t1) {
+                final Map<Object, JoinObserver> externalSubscriptions = new HashMap<Object, JoinObserver>();
+                final List<ActivePlan0> activePlans = new ArrayList<ActivePlan0>();
+                final JoinEngine engine = new JoinEngine(0L);
+
+                final Observer<R> out = new SafeObserver<R>(new Observer<R>() {
+
+                    @Override
+                    public void onSubscribe(Disposable d) {
+                    }
+
+                    @Override
+                    public void onNext(R args) {
+                        engine.produced();
+                        t1.onNext(args);
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        for (JoinObserver po : externalSubscriptions.values()) {
+                            po.dispose();
+                        }
+                        t1.onError(e);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        t1.onComplete();
+                    }
+                });
+
+                out.onSubscribe(Disposables.empty());
+
+                try {
+                    for (Plan<R> plan : plans) {
+                        activePlans.add(plan.activate(externalSubscriptions, out, new Consumer<ActivePlan0>() {
+                            @Override
+                            public void accept(ActivePlan0 activePlan) {
+                                activePlans.remove(activePlan);
+                                if (activePlans.isEmpty()) {
+                                    out.onComplete();
+                                }
+                            }
+                        }));
+                    }
+                } catch (Throwable t) {
+                    Flowable.<R> error(t).subscribe(t1);
+                    return;
+                }
+                engine.setObservers(externalSubscriptions.values());
+                final CompositeDisposable group = new CompositeDisposable();
+                t1.onSubscribe(new Subscription() {
+                    @Override
+                    public void request(long n) {
+                        if (SubscriptionHelper.validate(n)) {
+                            engine.request(n);
+                        }
+                    }
+
+                    @Override
+                    public void cancel() {
+                        group.dispose();
+                    }
+                });
+                for (JoinObserver jo : externalSubscriptions.values()) {
+                    jo.subscribe(engine);
                     group.add(jo);
                 }
             }
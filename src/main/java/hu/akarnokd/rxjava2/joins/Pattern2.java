@@ -16,6 +16,8 @@
 
 package hu.akarnokd.rxjava2.joins;
 
+import org.reactivestreams.Publisher;
+
 import io.reactivex.Observable;
 import io.reactivex.functions.BiFunction;
 
@@ -56,6 +58,23 @@ public final class Pattern2<T1, T2> {
         return new Pattern3<T1, T2, T3>(o1, o2, other);
     }
 
+    /**
+     * Creates a pattern that matches when all previous sequences and the given backpressured
+     * sequence have an available element; the Publisher is requested in batches of
+     * {@code prefetch} items which are replenished as the plans consume them.
+     *
+     * @param <T3> the value type of the extra Publisher
+     * @param other
+     *            Publisher sequence to match with the previous sequences.
+     * @param prefetch the number of items to request from the Publisher upfront and
+     *            the maximum number of its items queued, positive
+     * @return Pattern object that matches when all sequences have an available element.
+     * @since 0.20.4
+     */
+    public <T3> Pattern3<T1, T2, T3> and(Publisher<T3> other, int prefetch) {
+        return and(JoinFlowableSource.wrap(other, prefetch));
+    }
+
     /**
      * Matches when all observable sequences have an available
      * element and projects the elements by invoking the selector function.
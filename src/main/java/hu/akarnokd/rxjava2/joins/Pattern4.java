@@ -16,6 +16,8 @@
 
 package hu.akarnokd.rxjava2.joins;
 
+import org.reactivestreams.Publisher;
+
 import io.reactivex.Observable;
 import io.reactivex.functions.Function4;
 
@@ -74,6 +76,23 @@ public final class Pattern4<T1, T2, T3, T4> {
         }
         return new Pattern5<T1, T2, T3, T4, T5>(o1, o2, o3, o4, other);
     }
+
+    /**
+     * Creates a pattern that matches when all previous sequences and the given backpressured
+     * sequence have an available element; the Publisher is requested in batches of
+     * {@code prefetch} items which are replenished as the plans consume them.
+     *
+     * @param <T5> the value type of the extra Publisher
+     * @param other
+     *            Publisher sequence to match with the previous sequences.
+     * @param prefetch the number of items to request from the Publisher upfront and
+     *            the maximum number of its items queued, positive
+     * @return Pattern object that matches when all sequences have an available element.
+     * @since 0.20.4
+     */
+    public <T5> Pattern5<T1, T2, T3, T4, T5> and(Publisher<T5> other, int prefetch) {
+        return and(JoinFlowableSource.wrap(other, prefetch));
+    }
     /**
      * Matches when all observable sequences have an available
      * element and projects the elements by invoking the selector function.
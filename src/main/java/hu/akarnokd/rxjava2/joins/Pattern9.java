@@ -18,6 +18,8 @@ package hu.akarnokd.rxjava2.joins;
 
 import java.util.*;
 
+import org.reactivestreams.Publisher;
+
 import io.reactivex.Observable;
 import io.reactivex.functions.Function9;
 import io.reactivex.internal.functions.ObjectHelper;
@@ -127,6 +129,23 @@ public final class Pattern9<T1, T2, T3, T4, T5, T6, T7, T8, T9> {
         list.add(other);
         return new PatternN(list);
     }
+
+    /**
+     * Creates a pattern that matches when all previous sequences and the given backpressured
+     * sequence have an available element; the Publisher is requested in batches of
+     * {@code prefetch} items which are replenished as the plans consume them.
+     *
+     * @param other
+     *            Publisher sequence to match with the previous sequences.
+     * @param prefetch the number of items to request from the Publisher upfront and
+     *            the maximum number of its items queued, positive
+     * @return Pattern object that matches when all sequences have an available element.
+     * @since 0.20.4
+     */
+    public PatternN and(Publisher<? extends Object> other, int prefetch) {
+        return and(JoinFlowableSource.wrap(other, prefetch));
+    }
+
     /**
      * Matches when all observable sequences have an available
      * element and projects the elements by invoking the selector function.
@@ -18,6 +18,8 @@ package hu.akarnokd.rxjava2.joins;
 
 import java.util.*;
 
+import org.reactivestreams.Publisher;
+
 import io.reactivex.Observable;
 import io.reactivex.functions.Function;
 
@@ -66,6 +68,22 @@ public final class PatternN {
         return new PatternN(observables, other);
     }
 
+    /**
+     * Creates a pattern that matches when all previous sequences and the given backpressured
+     * sequence have an available element; the Publisher is requested in batches of
+     * {@code prefetch} items which are replenished as the plans consume them.
+     *
+     * @param other
+     *            Publisher sequence to match with the previous sequences.
+     * @param prefetch the number of items to request from the Publisher upfront and
+     *            the maximum number of its items queued, positive
+     * @return Pattern object that matches when all sequences have an available element.
+     * @since 0.20.4
+     */
+    public PatternN and(Publisher<? extends Object> other, int prefetch) {
+        return and(JoinFlowableSource.wrap(other, prefetch));
+    }
+
     /**
      * Matches when all observable sequences have an available
      * element and projects the elements by invoking the selector function.
@@ -36,10 +36,12 @@ public abstract class Plan<R> {
             Consumer<Throwable> onError
             ) {
         JoinObserver1<T> observer;
-        JoinObserver nonGeneric = externalSubscriptions.get(observable);
+        // the same backpressured source should be subscribed only once as well
+        Object key = observable instanceof JoinFlowableSource ? ((JoinFlowableSource<T>)observable).source : observable;
+        JoinObserver nonGeneric = externalSubscriptions.get(key);
         if (nonGeneric == null) {
             observer = new JoinObserver1<T>(observable, onError);
-            externalSubscriptions.put(observable, observer);
+            externalSubscriptions.put(key, observer);
         } else {
             observer = (JoinObserver1<T>) nonGeneric;
         }
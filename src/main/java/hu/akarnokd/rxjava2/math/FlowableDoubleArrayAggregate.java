@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.math;
+
+import org.reactivestreams.*;
+
+import io.reactivex.internal.subscribers.DeferredScalarSubscriber;
+
+/**
+ * Aggregates chunks of double values without boxing the individual elements.
+ *
+ * @param <R> the result type
+ * @since 0.20.4
+ */
+final class FlowableDoubleArrayAggregate<R> extends FlowableSource<double[], R> {
+
+    final ArrayAggregate mode;
+
+    FlowableDoubleArrayAggregate(Publisher<double[]> source, ArrayAggregate mode) {
+        super(source);
+        this.mode = mode;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super R> subscriber) {
+        source.subscribe(new DoubleArrayAggregateSubscriber<R>(subscriber, mode));
+    }
+
+    static final class DoubleArrayAggregateSubscriber<R> extends DeferredScalarSubscriber<double[], R> {
+
+        private static final long serialVersionUID = 5875573833749002712L;
+
+        final ArrayAggregate mode;
+
+        double accumulator;
+
+        double average;
+
+        long count;
+
+        DoubleArrayAggregateSubscriber(Subscriber<? super R> downstream, ArrayAggregate mode) {
+            super(downstream);
+            this.mode = mode;
+        }
+
+        @Override
+        public void onNext(double[] values) {
+            int n = values.length;
+            if (n == 0) {
+                return;
+            }
+            switch (mode) {
+            case SUM: {
+                double acc = accumulator;
+                for (int i = 0; i < n; i++) {
+                    acc += values[i];
+                }
+                accumulator = acc;
+                break;
+            }
+            case MIN: {
+                double acc = count == 0L ? values[0] : accumulator;
+                for (int i = 0; i < n; i++) {
+                    double v = values[i];
+                    if (Double.compare(v, acc) < 0) {
+                        acc = v;
+                    }
+                }
+                accumulator = acc;
+                break;
+            }
+            case MAX: {
+                double acc = count == 0L ? values[0] : accumulator;
+                for (int i = 0; i < n; i++) {
+                    double v = values[i];
+                    if (Double.compare(acc, v) < 0) {
+                        acc = v;
+                    }
+                }
+                accumulator = acc;
+                break;
+            }
+            case AVERAGE: {
+                double acc = average;
+                for (int i = 0; i < n; i++) {
+                    acc += values[i];
+                }
+                average = acc;
+                break;
+            }
+            default:
+                // COUNT needs the element count only
+                break;
+            }
+            count += n;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void onComplete() {
+            long c = count;
+            if (mode == ArrayAggregate.COUNT) {
+                complete((R)Long.valueOf(c));
+            } else
+            if (c == 0L) {
+                downstream.onComplete();
+            } else
+            if (mode == ArrayAggregate.AVERAGE) {
+                complete((R)Double.valueOf(average / c));
+            } else {
+                complete((R)Double.valueOf(accumulator));
+            }
+        }
+    }
+}
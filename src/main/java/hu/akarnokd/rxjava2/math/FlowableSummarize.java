@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.math;
+
+import org.reactivestreams.*;
+
+import io.reactivex.internal.subscribers.DeferredScalarSubscriber;
+
+/**
+ * Computes the count, sum, min, max, mean and variance of numbers in one pass.
+ * @since 0.20.4
+ */
+final class FlowableSummarize extends FlowableSource<Number, SummaryStatistics> {
+
+    FlowableSummarize(Publisher<Number> source) {
+        super(source);
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super SummaryStatistics> subscriber) {
+        source.subscribe(new SummarizeSubscriber(subscriber));
+    }
+
+    static final class SummarizeSubscriber extends DeferredScalarSubscriber<Number, SummaryStatistics> {
+
+        private static final long serialVersionUID = -2867452416359367917L;
+
+        long count;
+
+        double sum;
+
+        double min;
+
+        double max;
+
+        double mean;
+
+        double m2;
+
+        SummarizeSubscriber(Subscriber<? super SummaryStatistics> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void onNext(Number value) {
+            double v = value.doubleValue();
+            long c = ++count;
+            if (c == 1L) {
+                min = v;
+                max = v;
+            } else {
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            sum += v;
+            double delta = v - mean;
+            mean += delta / c;
+            m2 += delta * (v - mean);
+        }
+
+        @Override
+        public void onComplete() {
+            long c = count;
+            if (c != 0L) {
+                complete(new SummaryStatistics(c, sum, min, max, mean, m2));
+            } else {
+                downstream.onComplete();
+            }
+        }
+    }
+}
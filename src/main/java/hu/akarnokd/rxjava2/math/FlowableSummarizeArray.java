@@ -0,0 +1,190 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.math;
+
+import org.reactivestreams.*;
+
+import io.reactivex.internal.subscribers.DeferredScalarSubscriber;
+
+/**
+ * Computes the count, sum, min, max, mean and variance of int[], long[]
+ * or double[] chunks in one pass without boxing the individual elements.
+ * <p>
+ * The int and long elements are widened into a reused double block so that
+ * the accumulation loop is shared by all element types.
+ *
+ * @param <A> the array type
+ * @since 0.20.4
+ */
+final class FlowableSummarizeArray<A> extends FlowableSource<A, SummaryStatistics> {
+
+    static final int INT = 0;
+    static final int LONG = 1;
+    static final int DOUBLE = 2;
+
+    /** The number of int or long elements widened at once. */
+    static final int BLOCK = 256;
+
+    final int type;
+
+    FlowableSummarizeArray(Publisher<A> source, int type) {
+        super(source);
+        this.type = type;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected void subscribeActual(Subscriber<? super SummaryStatistics> subscriber) {
+        switch (type) {
+        case INT:
+            ((Publisher<int[]>)source).subscribe(new IntSummarizeArraySubscriber(subscriber));
+            break;
+        case LONG:
+            ((Publisher<long[]>)source).subscribe(new LongSummarizeArraySubscriber(subscriber));
+            break;
+        default:
+            ((Publisher<double[]>)source).subscribe(new DoubleSummarizeArraySubscriber(subscriber));
+        }
+    }
+
+    abstract static class AbstractSummarizeArraySubscriber<A> extends DeferredScalarSubscriber<A, SummaryStatistics> {
+
+        private static final long serialVersionUID = 4350163658532398373L;
+
+        long count;
+
+        double sum;
+
+        double min;
+
+        double max;
+
+        double mean;
+
+        double m2;
+
+        AbstractSummarizeArraySubscriber(Subscriber<? super SummaryStatistics> downstream) {
+            super(downstream);
+        }
+
+        final void accumulate(double[] values, int n) {
+            if (n == 0) {
+                return;
+            }
+            if (count == 0L) {
+                min = values[0];
+                max = values[0];
+            }
+            double s = sum;
+            double lo = min;
+            double hi = max;
+            double mu = mean;
+            double q = m2;
+            long c = count;
+            for (int i = 0; i < n; i++) {
+                double v = values[i];
+                c++;
+                s += v;
+                lo = Math.min(lo, v);
+                hi = Math.max(hi, v);
+                double delta = v - mu;
+                mu += delta / c;
+                q += delta * (v - mu);
+            }
+            count = c;
+            sum = s;
+            min = lo;
+            max = hi;
+            mean = mu;
+            m2 = q;
+        }
+
+        @Override
+        public final void onComplete() {
+            long c = count;
+            if (c != 0L) {
+                complete(new SummaryStatistics(c, sum, min, max, mean, m2));
+            } else {
+                downstream.onComplete();
+            }
+        }
+    }
+
+    static final class IntSummarizeArraySubscriber extends AbstractSummarizeArraySubscriber<int[]> {
+
+        private static final long serialVersionUID = -3387318430935917626L;
+
+        final double[] block;
+
+        IntSummarizeArraySubscriber(Subscriber<? super SummaryStatistics> downstream) {
+            super(downstream);
+            this.block = new double[BLOCK];
+        }
+
+        @Override
+        public void onNext(int[] values) {
+            double[] b = block;
+            int n = values.length;
+            for (int i = 0; i < n; i += BLOCK) {
+                int m = Math.min(BLOCK, n - i);
+                for (int j = 0; j < m; j++) {
+                    b[j] = values[i + j];
+                }
+                accumulate(b, m);
+            }
+        }
+    }
+
+    static final class LongSummarizeArraySubscriber extends AbstractSummarizeArraySubscriber<long[]> {
+
+        private static final long serialVersionUID = 8042817725092553180L;
+
+        final double[] block;
+
+        LongSummarizeArraySubscriber(Subscriber<? super SummaryStatistics> downstream) {
+            super(downstream);
+            this.block = new double[BLOCK];
+        }
+
+        @Override
+        public void onNext(long[] values) {
+            double[] b = block;
+            int n = values.length;
+            for (int i = 0; i < n; i += BLOCK) {
+                int m = Math.min(BLOCK, n - i);
+                for (int j = 0; j < m; j++) {
+                    b[j] = values[i + j];
+                }
+                accumulate(b, m);
+            }
+        }
+    }
+
+    static final class DoubleSummarizeArraySubscriber extends AbstractSummarizeArraySubscriber<double[]> {
+
+        private static final long serialVersionUID = -1750276384718622397L;
+
+        DoubleSummarizeArraySubscriber(Subscriber<? super SummaryStatistics> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void onNext(double[] values) {
+            accumulate(values, values.length);
+        }
+    }
+}
@@ -77,4 +77,215 @@ public final class MathFlowable {
         return RxJavaPlugins.onAssembly(new FlowableAverageDouble((Publisher<Number>)source));
     }
 
+    /**
+     * Sums up the elements of int array chunks without boxing each element.
+     * <p>
+     * The result is the same as {@code sumInt} over the flattened elements.
+     * @param source the source of int array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Integer> sumIntArray(Publisher<int[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableIntArrayAggregate<Integer>(source, ArrayAggregate.SUM));
+    }
+
+    /**
+     * Returns the smallest element of int array chunks without boxing each element.
+     * @param source the source of int array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Integer> minIntArray(Publisher<int[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableIntArrayAggregate<Integer>(source, ArrayAggregate.MIN));
+    }
+
+    /**
+     * Returns the largest element of int array chunks without boxing each element.
+     * @param source the source of int array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Integer> maxIntArray(Publisher<int[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableIntArrayAggregate<Integer>(source, ArrayAggregate.MAX));
+    }
+
+    /**
+     * Averages the elements of int array chunks without boxing each element.
+     * <p>
+     * The result is the same as {@code averageDouble} over the flattened elements.
+     * @param source the source of int array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Double> averageIntArray(Publisher<int[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableIntArrayAggregate<Double>(source, ArrayAggregate.AVERAGE));
+    }
+
+    /**
+     * Counts the elements of int array chunks.
+     * @param source the source of int array chunks
+     * @return the new Flowable instance, signaling zero if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Long> countIntArray(Publisher<int[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableIntArrayAggregate<Long>(source, ArrayAggregate.COUNT));
+    }
+
+    /**
+     * Sums up the elements of long array chunks without boxing each element.
+     * <p>
+     * The result is the same as {@code sumLong} over the flattened elements.
+     * @param source the source of long array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Long> sumLongArray(Publisher<long[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableLongArrayAggregate<Long>(source, ArrayAggregate.SUM));
+    }
+
+    /**
+     * Returns the smallest element of long array chunks without boxing each element.
+     * @param source the source of long array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Long> minLongArray(Publisher<long[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableLongArrayAggregate<Long>(source, ArrayAggregate.MIN));
+    }
+
+    /**
+     * Returns the largest element of long array chunks without boxing each element.
+     * @param source the source of long array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Long> maxLongArray(Publisher<long[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableLongArrayAggregate<Long>(source, ArrayAggregate.MAX));
+    }
+
+    /**
+     * Averages the elements of long array chunks without boxing each element.
+     * <p>
+     * The result is the same as {@code averageDouble} over the flattened elements.
+     * @param source the source of long array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Double> averageLongArray(Publisher<long[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableLongArrayAggregate<Double>(source, ArrayAggregate.AVERAGE));
+    }
+
+    /**
+     * Counts the elements of long array chunks.
+     * @param source the source of long array chunks
+     * @return the new Flowable instance, signaling zero if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Long> countLongArray(Publisher<long[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableLongArrayAggregate<Long>(source, ArrayAggregate.COUNT));
+    }
+
+    /**
+     * Sums up the elements of double array chunks without boxing each element.
+     * <p>
+     * The result is the same as {@code sumDouble} over the flattened elements.
+     * @param source the source of double array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Double> sumDoubleArray(Publisher<double[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableDoubleArrayAggregate<Double>(source, ArrayAggregate.SUM));
+    }
+
+    /**
+     * Returns the smallest element of double array chunks without boxing each element.
+     * @param source the source of double array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Double> minDoubleArray(Publisher<double[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableDoubleArrayAggregate<Double>(source, ArrayAggregate.MIN));
+    }
+
+    /**
+     * Returns the largest element of double array chunks without boxing each element.
+     * @param source the source of double array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Double> maxDoubleArray(Publisher<double[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableDoubleArrayAggregate<Double>(source, ArrayAggregate.MAX));
+    }
+
+    /**
+     * Averages the elements of double array chunks without boxing each element.
+     * <p>
+     * The result is the same as {@code averageDouble} over the flattened elements.
+     * @param source the source of double array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Double> averageDoubleArray(Publisher<double[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableDoubleArrayAggregate<Double>(source, ArrayAggregate.AVERAGE));
+    }
+
+    /**
+     * Counts the elements of double array chunks.
+     * @param source the source of double array chunks
+     * @return the new Flowable instance, signaling zero if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<Long> countDoubleArray(Publisher<double[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableDoubleArrayAggregate<Long>(source, ArrayAggregate.COUNT));
+    }
+
+    /**
+     * Computes the count, sum, min, max, mean and variance of the numbers in one pass.
+     * <p>
+     * The numbers are accumulated as {@code double}s, therefore, long values and sums
+     * beyond 2<sup>53</sup> lose precision.
+     * @param source the source of numbers
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    @SuppressWarnings("unchecked")
+    public static Flowable<SummaryStatistics> summarize(Publisher<? extends Number> source) {
+        return RxJavaPlugins.onAssembly(new FlowableSummarize((Publisher<Number>)source));
+    }
+
+    /**
+     * Computes the count, sum, min, max, mean and variance of the elements
+     * of int array chunks in one pass without boxing each element.
+     * @param source the source of int array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<SummaryStatistics> summarizeIntArray(Publisher<int[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableSummarizeArray<int[]>(source, FlowableSummarizeArray.INT));
+    }
+
+    /**
+     * Computes the count, sum, min, max, mean and variance of the elements
+     * of long array chunks in one pass without boxing each element.
+     * <p>
+     * The elements are accumulated as {@code double}s, therefore, elements and sums
+     * beyond 2<sup>53</sup> lose precision.
+     * @param source the source of long array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<SummaryStatistics> summarizeLongArray(Publisher<long[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableSummarizeArray<long[]>(source, FlowableSummarizeArray.LONG));
+    }
+
+    /**
+     * Computes the count, sum, min, max, mean and variance of the elements
+     * of double array chunks in one pass without boxing each element.
+     * @param source the source of double array chunks
+     * @return the new Flowable instance, empty if there were no elements
+     * @since 0.20.4
+     */
+    public static Flowable<SummaryStatistics> summarizeDoubleArray(Publisher<double[]> source) {
+        return RxJavaPlugins.onAssembly(new FlowableSummarizeArray<double[]>(source, FlowableSummarizeArray.DOUBLE));
+    }
 }
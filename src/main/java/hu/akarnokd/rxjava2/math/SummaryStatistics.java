@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.math;
+
+/**
+ * Immutable count, sum, min, max, mean and variance of a numerical sequence,
+ * computed in one pass via Welford's algorithm.
+ * <p>
+ * Partial statistics of disjoint parts of a sequence can be merged
+ * via {@link #combine(SummaryStatistics)}.
+ * @since 0.20.4
+ */
+public final class SummaryStatistics {
+
+    final long count;
+
+    final double sum;
+
+    final double min;
+
+    final double max;
+
+    final double mean;
+
+    final double m2;
+
+    /**
+     * Constructs a SummaryStatistics instance from its components.
+     * @param count the number of elements
+     * @param sum the sum of the elements
+     * @param min the smallest element
+     * @param max the largest element
+     * @param mean the running mean of the elements
+     * @param m2 the sum of squared differences from the mean
+     */
+    public SummaryStatistics(long count, double sum, double min, double max, double mean, double m2) {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.m2 = m2;
+    }
+
+    /**
+     * Returns the number of elements.
+     * @return the number of elements
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of the elements.
+     * @return the sum of the elements
+     */
+    public double sum() {
+        return sum;
+    }
+
+    /**
+     * Returns the smallest element.
+     * @return the smallest element
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * Returns the largest element.
+     * @return the largest element
+     */
+    public double max() {
+        return max;
+    }
+
+    /**
+     * Returns the arithmetic mean of the elements.
+     * @return the arithmetic mean of the elements
+     */
+    public double mean() {
+        return mean;
+    }
+
+    /**
+     * Returns the population variance of the elements.
+     * @return the population variance of the elements
+     */
+    public double variance() {
+        return m2 / count;
+    }
+
+    /**
+     * Returns the sample variance of the elements, or zero if there is only one element.
+     * @return the sample variance of the elements
+     */
+    public double sampleVariance() {
+        long c = count;
+        return c > 1L ? m2 / (c - 1) : 0d;
+    }
+
+    /**
+     * Returns the population standard deviation of the elements.
+     * @return the population standard deviation of the elements
+     */
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    /**
+     * Merges these statistics with the statistics of another, disjoint part of the sequence.
+     * @param other the other statistics
+     * @return the new SummaryStatistics instance covering both parts
+     */
+    public SummaryStatistics combine(SummaryStatistics other) {
+        long ca = count;
+        long cb = other.count;
+        if (cb == 0L) {
+            return this;
+        }
+        if (ca == 0L) {
+            return other;
+        }
+        long c = ca + cb;
+        double delta = other.mean - mean;
+        double newMean = mean + delta * cb / c;
+        double newM2 = m2 + other.m2 + delta * delta * ((double)ca * cb / c);
+        return new SummaryStatistics(c, sum + other.sum,
+                Math.min(min, other.min), Math.max(max, other.max), newMean, newM2);
+    }
+
+    @Override
+    public String toString() {
+        return "SummaryStatistics[count=" + count + ", sum=" + sum + ", min=" + min
+                + ", max=" + max + ", mean=" + mean + ", variance=" + variance() + "]";
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.nio.ByteBuffer;
+
+import io.reactivex.functions.Consumer;
+
+/**
+ * Partial collect handler that cuts {@link ByteBuffer} chunks into frames separated
+ * by a delimiter byte sequence; the delimiter is not part of the frames.
+ * <p>
+ * Frames fully contained in a chunk are emitted as a duplicate of the chunk limited to the
+ * frame without copying. The parts of a frame spanning more than one chunk are gathered in
+ * a buffer reused for the lifetime of the subscription and copied out once the delimiter is found.
+ * The delimiter may span chunks as well, which is tracked via a Knuth-Morris-Pratt table.
+ * @since 0.20.4
+ */
+final class ByteFrameDelimiter implements Consumer<PartialCollectEmitter<ByteBuffer, Object, ByteFrameDelimiter.State, ByteBuffer>> {
+
+    final byte[] delimiter;
+
+    /** For each prefix of the delimiter, the length of its longest proper prefix that is also its suffix. */
+    final int[] failure;
+
+    final int maxFrameLength;
+
+    ByteFrameDelimiter(byte[] delimiter, int maxFrameLength) {
+        this.delimiter = delimiter;
+        this.maxFrameLength = maxFrameLength;
+        int n = delimiter.length;
+        int[] fail = new int[n];
+        int k = 0;
+        for (int i = 1; i < n; i++) {
+            while (k > 0 && delimiter[i] != delimiter[k]) {
+                k = fail[k - 1];
+            }
+            if (delimiter[i] == delimiter[k]) {
+                k++;
+            }
+            fail[i] = k;
+        }
+        this.failure = fail;
+    }
+
+    @Override
+    public void accept(PartialCollectEmitter<ByteBuffer, Object, State, ByteBuffer> emitter) throws Exception {
+        State s = emitter.getAccumulator();
+        if (s == null) {
+            s = new State();
+            emitter.setAccumulator(s);
+        }
+
+        byte[] delim = delimiter;
+        int dl = delim.length;
+
+        for (;;) {
+            if (emitter.size() == 0) {
+                if (emitter.isComplete()) {
+                    ByteBuffer sc = s.scratch;
+                    if (sc != null && sc.position() != 0) {
+                        if (emitter.demand() == 0L) {
+                            return;
+                        }
+                        emitter.next(copyOut(sc, sc.position()));
+                        s.matched = 0;
+                    }
+                    emitter.complete();
+                }
+                return;
+            }
+
+            if (emitter.demand() == 0L) {
+                return;
+            }
+
+            ByteBuffer chunk = emitter.getItem(0);
+            int pos = s.offset < 0 ? chunk.position() : s.offset;
+            int lim = chunk.limit();
+
+            if (pos == lim) {
+                s.offset = -1;
+                emitter.dropItems(1);
+                continue;
+            }
+
+            int m = s.matched;
+            int end = -1;
+            if (dl == 1) {
+                end = indexOf(chunk, pos, lim, delim[0]);
+            } else {
+                int[] fail = failure;
+                for (int i = pos; i < lim; ) {
+                    byte b = chunk.get(i++);
+                    while (m > 0 && b != delim[m]) {
+                        m = fail[m - 1];
+                    }
+                    if (b == delim[m]) {
+                        if (++m == dl) {
+                            end = i;
+                            break;
+                        }
+                    }
+                }
+            }
+
+            ByteBuffer sc = s.scratch;
+            int pending = sc != null ? sc.position() : 0;
+
+            if (end < 0) {
+                int n = lim - pos;
+                if (pending + n - m > maxFrameLength) {
+                    throw new IllegalStateException("Frame length exceeds the maximum of " + maxFrameLength);
+                }
+                sc = ensureCapacity(s, n);
+                ByteBuffer src = chunk.duplicate();
+                src.position(pos);
+                sc.put(src);
+                s.matched = m;
+                s.offset = -1;
+                emitter.dropItems(1);
+                continue;
+            }
+
+            s.matched = 0;
+            int frameLength = pending + (end - pos) - dl;
+            if (frameLength > maxFrameLength) {
+                throw new IllegalStateException("Frame length " + frameLength + " exceeds the maximum of " + maxFrameLength);
+            }
+            s.offset = end;
+
+            if (pending == 0) {
+                ByteBuffer v = chunk.duplicate();
+                v.limit(end - dl);
+                v.position(pos);
+                emitter.next(v);
+            } else {
+                int fromScratch = Math.min(pending, frameLength);
+                ByteBuffer out = ByteBuffer.allocate(frameLength);
+                sc.flip();
+                sc.limit(fromScratch);
+                out.put(sc);
+                sc.clear();
+                int rest = frameLength - fromScratch;
+                if (rest > 0) {
+                    ByteBuffer src = chunk.duplicate();
+                    src.limit(pos + rest);
+                    src.position(pos);
+                    out.put(src);
+                }
+                out.flip();
+                emitter.next(out);
+            }
+        }
+    }
+
+    static int indexOf(ByteBuffer chunk, int pos, int lim, byte b) {
+        if (chunk.hasArray()) {
+            byte[] a = chunk.array();
+            int offset = chunk.arrayOffset();
+            for (int i = pos + offset, n = lim + offset; i < n; i++) {
+                if (a[i] == b) {
+                    return i - offset + 1;
+                }
+            }
+        } else {
+            for (int i = pos; i < lim; i++) {
+                if (chunk.get(i) == b) {
+                    return i + 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    ByteBuffer ensureCapacity(State s, int n) {
+        ByteBuffer sc = s.scratch;
+        if (sc == null) {
+            sc = ByteBuffer.allocate(Math.max(n, 256));
+            s.scratch = sc;
+        } else
+        if (sc.remaining() < n) {
+            int required = sc.position() + n;
+            ByteBuffer next = ByteBuffer.allocate(Math.max(required, sc.capacity() * 2));
+            sc.flip();
+            next.put(sc);
+            sc = next;
+            s.scratch = sc;
+        }
+        return sc;
+    }
+
+    static ByteBuffer copyOut(ByteBuffer sc, int length) {
+        ByteBuffer out = ByteBuffer.allocate(length);
+        sc.flip();
+        out.put(sc);
+        sc.clear();
+        out.flip();
+        return out;
+    }
+
+    static final class State {
+        /** The read position in the first cached chunk, negative if the chunk hasn't been read yet. */
+        int offset = -1;
+
+        /** The number of delimiter bytes matched at the end of the gathered data. */
+        int matched;
+
+        /** Gathers the parts of a frame spanning multiple chunks, reused between frames. */
+        ByteBuffer scratch;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.nio.*;
+
+import io.reactivex.functions.Consumer;
+
+/**
+ * Partial collect handler that cuts {@link ByteBuffer} chunks into frames of a fixed size
+ * or frames prefixed by their length.
+ * <p>
+ * Frames fully contained in a chunk are emitted as a duplicate of the chunk limited to the
+ * frame without copying; frames spanning more than one chunk are copied into a
+ * new buffer of exactly the frame size.
+ * @since 0.20.4
+ */
+final class ByteFrameLength implements Consumer<PartialCollectEmitter<ByteBuffer, Object, ByteFrameLength.State, ByteBuffer>> {
+
+    /** Number of bytes of the length field, zero for fixed size frames. */
+    final int lengthFieldSize;
+
+    final boolean bigEndian;
+
+    /** The fixed frame size or the maximum allowed frame length. */
+    final int frameSize;
+
+    ByteFrameLength(int lengthFieldSize, ByteOrder order, int frameSize) {
+        this.lengthFieldSize = lengthFieldSize;
+        this.bigEndian = order == ByteOrder.BIG_ENDIAN;
+        this.frameSize = frameSize;
+    }
+
+    @Override
+    public void accept(PartialCollectEmitter<ByteBuffer, Object, State, ByteBuffer> emitter) throws Exception {
+        State s = emitter.getAccumulator();
+        if (s == null) {
+            s = new State();
+            emitter.setAccumulator(s);
+        }
+
+        for (;;) {
+            ByteBuffer f = s.frame;
+            if (f != null && !f.hasRemaining()) {
+                if (emitter.demand() == 0L) {
+                    return;
+                }
+                s.frame = null;
+                s.frameLength = -1;
+                f.flip();
+                emitter.next(f);
+                continue;
+            }
+
+            if (s.frameLength == 0) {
+                if (emitter.demand() == 0L) {
+                    return;
+                }
+                s.frameLength = -1;
+                emitter.next(ByteBuffer.allocate(0));
+                continue;
+            }
+
+            if (emitter.size() == 0) {
+                if (emitter.isComplete()) {
+                    if (s.frameLength >= 0 || s.headerRead != 0) {
+                        throw new IllegalStateException("The source completed in the middle of a frame");
+                    }
+                    emitter.complete();
+                }
+                return;
+            }
+
+            ByteBuffer chunk = emitter.getItem(0);
+            int pos = s.offset < 0 ? chunk.position() : s.offset;
+            int lim = chunk.limit();
+
+            if (s.frameLength < 0) {
+                if (pos == lim) {
+                    s.offset = -1;
+                    emitter.dropItems(1);
+                    continue;
+                }
+                if (lengthFieldSize == 0) {
+                    s.frameLength = frameSize;
+                } else {
+                    int n = lengthFieldSize;
+                    int h = s.header;
+                    int r = s.headerRead;
+                    while (r < n && pos < lim) {
+                        int b = chunk.get(pos++) & 0xFF;
+                        if (bigEndian) {
+                            h = (h << 8) | b;
+                        } else {
+                            h |= b << (8 * r);
+                        }
+                        r++;
+                    }
+                    s.offset = pos;
+                    if (r < n) {
+                        s.header = h;
+                        s.headerRead = r;
+                        continue;
+                    }
+                    s.header = 0;
+                    s.headerRead = 0;
+                    if (h < 0 || h > frameSize) {
+                        throw new IllegalStateException("Frame length " + (h & 0xFFFFFFFFL) + " exceeds the maximum of " + frameSize);
+                    }
+                    s.frameLength = h;
+                    continue;
+                }
+            }
+
+            int len = s.frameLength;
+            if (f == null) {
+                if (emitter.demand() == 0L) {
+                    s.offset = pos;
+                    return;
+                }
+                if (lim - pos >= len) {
+                    ByteBuffer v = chunk.duplicate();
+                    v.limit(pos + len);
+                    v.position(pos);
+                    s.offset = pos + len;
+                    s.frameLength = -1;
+                    emitter.next(v);
+                    continue;
+                }
+                f = ByteBuffer.allocate(len);
+                s.frame = f;
+            }
+
+            int n = Math.min(f.remaining(), lim - pos);
+            ByteBuffer src = chunk.duplicate();
+            src.limit(pos + n);
+            src.position(pos);
+            f.put(src);
+            pos += n;
+            if (pos == lim) {
+                s.offset = -1;
+                emitter.dropItems(1);
+            } else {
+                s.offset = pos;
+            }
+        }
+    }
+
+    static final class State {
+        /** The read position in the first cached chunk, negative if the chunk hasn't been read yet. */
+        int offset = -1;
+
+        /** The length of the current frame, negative if not yet known. */
+        int frameLength = -1;
+
+        int header;
+
+        int headerRead;
+
+        /** The frame spanning multiple chunks being assembled. */
+        ByteBuffer frame;
+    }
+}
@@ -0,0 +1,622 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.*;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.*;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Maps each upstream value into a single {@code true} or {@code false} value provided by a generated Publisher for that
+ * input value and emits the input value if the inner Publisher returned {@code true}, running up to
+ * a given number of inner Publishers at once.
+ * <p>Only the first item emitted by the inner Publisher's are considered. If
+ * the inner Publisher is empty, no resulting item is generated for that input value.
+ * <p>In ordered mode, the surviving items are emitted in the upstream order through a reorder
+ * ring buffer. In unordered mode, they are emitted as soon as their inner Publisher answers.
+ * @param <T> the input value type
+ *
+ * @since 0.20.4
+ */
+final class FlowableFilterAsyncConcurrent<T> extends Flowable<T> implements FlowableTransformer<T, T> {
+
+    final Flowable<T> source;
+
+    final Function<? super T, ? extends Publisher<Boolean>> asyncPredicate;
+
+    final int maxConcurrency;
+
+    final int bufferSize;
+
+    final boolean ordered;
+
+    FlowableFilterAsyncConcurrent(Flowable<T> source, Function<? super T, ? extends Publisher<Boolean>> asyncPredicate,
+            int maxConcurrency, int bufferSize, boolean ordered) {
+        this.source = source;
+        this.asyncPredicate = asyncPredicate;
+        this.maxConcurrency = maxConcurrency;
+        this.bufferSize = bufferSize;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public Publisher<T> apply(Flowable<T> upstream) {
+        return new FlowableFilterAsyncConcurrent<T>(upstream, asyncPredicate, maxConcurrency, bufferSize, ordered);
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> s) {
+        if (ordered) {
+            source.subscribe(new OrderedFilterAsyncSubscriber<T>(s, asyncPredicate, maxConcurrency, bufferSize));
+        } else {
+            source.subscribe(new UnorderedFilterAsyncSubscriber<T>(s, asyncPredicate, maxConcurrency, bufferSize));
+        }
+    }
+
+    abstract static class AbstractFilterAsyncSubscriber<T>
+    extends AtomicReferenceArray<T>
+    implements FlowableSubscriber<T>, Subscription {
+
+        private static final long serialVersionUID = 2974874207436178009L;
+
+        final Subscriber<? super T> downstream;
+
+        final Function<? super T, ? extends Publisher<Boolean>> asyncPredicate;
+
+        final int maxConcurrency;
+
+        final int bufferSize;
+
+        final AtomicThrowable error;
+
+        final AtomicLong requested;
+
+        final AtomicInteger wip;
+
+        Subscription upstream;
+
+        long producerIndex;
+
+        long consumerIndex;
+
+        int consumed;
+
+        long emitted;
+
+        volatile boolean done;
+
+        volatile boolean cancelled;
+
+        AbstractFilterAsyncSubscriber(Subscriber<? super T> downstream,
+                Function<? super T, ? extends Publisher<Boolean>> asyncPredicate,
+                int maxConcurrency, int bufferSize) {
+            super(Pow2.roundToPowerOfTwo(bufferSize));
+            this.downstream = downstream;
+            this.asyncPredicate = asyncPredicate;
+            this.maxConcurrency = maxConcurrency;
+            this.bufferSize = bufferSize;
+            this.error = new AtomicThrowable();
+            this.requested = new AtomicLong();
+            this.wip = new AtomicInteger();
+        }
+
+        @Override
+        public final void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+
+                downstream.onSubscribe(this);
+
+                s.request(bufferSize);
+            }
+        }
+
+        @Override
+        public final void onNext(T t) {
+            long pi = producerIndex;
+            int m = length() - 1;
+
+            int offset = (int)pi & m;
+            lazySet(offset, t);
+            producerIndex = pi + 1;
+            drain();
+        }
+
+        @Override
+        public final void onError(Throwable t) {
+            error.addThrowable(t);
+            done = true;
+            drain();
+        }
+
+        @Override
+        public final void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public final void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public final void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                if (wip.getAndIncrement() == 0) {
+                    clear();
+                }
+            }
+        }
+
+        void clear() {
+            int n = length();
+            for (int i = 0; i < n; i++) {
+                lazySet(i, null);
+            }
+            clearInners();
+        }
+
+        /**
+         * Take the next upstream item, if any, and replenish the upstream
+         * if the limit has been reached.
+         * @param limit the replenishment limit
+         * @return the next upstream item or null if none available
+         */
+        final T pollUpstream(int limit) {
+            long ci = consumerIndex;
+            int offset = (int)ci & (length() - 1);
+            T t = get(offset);
+            if (t != null) {
+                lazySet(offset, null);
+                consumerIndex = ci + 1;
+                int f = consumed + 1;
+                if (f == limit) {
+                    f = 0;
+                    upstream.request(limit);
+                }
+                consumed = f;
+            }
+            return t;
+        }
+
+        final boolean isUpstreamEmpty() {
+            return get((int)consumerIndex & (length() - 1)) == null;
+        }
+
+        /**
+         * Map the upstream item into a Publisher and launch it.
+         * @param inner the inner subscriber holding the upstream item
+         * @return true if the inner was launched, false if the predicate failed
+         */
+        final boolean launch(FilterInnerSubscriber<T> inner) {
+            Publisher<Boolean> p;
+
+            try {
+                p = ObjectHelper.requireNonNull(asyncPredicate.apply(inner.item), "The asyncPredicate returned a null value");
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                error.addThrowable(ex);
+                return false;
+            }
+
+            if (p instanceof Callable) {
+                Boolean u;
+                try {
+                    @SuppressWarnings("unchecked")
+                    Boolean b = ((Callable<Boolean>)p).call();
+                    u = b;
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    error.addThrowable(ex);
+                    u = null;
+                }
+                inner.result = u != null && u;
+                inner.done = true;
+                innerDone(inner);
+            } else {
+                p.subscribe(inner);
+            }
+            return true;
+        }
+
+        final void terminate() {
+            Throwable ex = error.terminate();
+            if (ex == null) {
+                downstream.onComplete();
+            } else {
+                downstream.onError(ex);
+            }
+        }
+
+        abstract void clearInners();
+
+        abstract void drain();
+
+        abstract void innerDone(FilterInnerSubscriber<T> inner);
+    }
+
+    static final class OrderedFilterAsyncSubscriber<T> extends AbstractFilterAsyncSubscriber<T> {
+
+        private static final long serialVersionUID = -7394453420727416785L;
+
+        /** The reorder buffer, indexed by launchIndex and emitIndex. */
+        final FilterInnerSubscriber<T>[] slots;
+
+        long launchIndex;
+
+        long emitIndex;
+
+        @SuppressWarnings("unchecked")
+        OrderedFilterAsyncSubscriber(Subscriber<? super T> downstream,
+                Function<? super T, ? extends Publisher<Boolean>> asyncPredicate,
+                int maxConcurrency, int bufferSize) {
+            super(downstream, asyncPredicate, maxConcurrency, bufferSize);
+            this.slots = new FilterInnerSubscriber[Pow2.roundToPowerOfTwo(maxConcurrency)];
+        }
+
+        @Override
+        void clearInners() {
+            FilterInnerSubscriber<T>[] slots = this.slots;
+            int m = slots.length - 1;
+            for (long i = emitIndex; i != launchIndex; i++) {
+                int offset = (int)i & m;
+                slots[offset].cancel();
+                slots[offset] = null;
+            }
+            emitIndex = launchIndex;
+        }
+
+        @Override
+        void innerDone(FilterInnerSubscriber<T> inner) {
+            drain();
+        }
+
+        @Override
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            int limit = bufferSize - (bufferSize >> 2);
+            long e = emitted;
+            FilterInnerSubscriber<T>[] slots = this.slots;
+            int sm = slots.length - 1;
+            int maxConcurrency = this.maxConcurrency;
+            Subscriber<? super T> a = downstream;
+
+            for (;;) {
+
+                for (;;) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+
+                    boolean d = done;
+
+                    int launched = 0;
+
+                    while (launchIndex - emitIndex < maxConcurrency) {
+                        T t = pollUpstream(limit);
+                        if (t == null) {
+                            break;
+                        }
+
+                        FilterInnerSubscriber<T> inner = new FilterInnerSubscriber<T>(this, t);
+                        long li = launchIndex;
+                        slots[(int)li & sm] = inner;
+                        launchIndex = li + 1;
+
+                        if (!launch(inner)) {
+                            launchIndex = li;
+                            slots[(int)li & sm] = null;
+                        } else {
+                            launched++;
+                        }
+                        if (cancelled) {
+                            break;
+                        }
+                    }
+
+                    long r = requested.get();
+                    int freed = 0;
+                    long ei = emitIndex;
+                    long li = launchIndex;
+
+                    while (ei != li) {
+                        if (cancelled) {
+                            break;
+                        }
+                        int offset = (int)ei & sm;
+                        FilterInnerSubscriber<T> inner = slots[offset];
+                        if (!inner.done || (inner.result && e == r)) {
+                            break;
+                        }
+
+                        slots[offset] = null;
+                        emitIndex = ++ei;
+                        freed++;
+
+                        if (inner.result) {
+                            a.onNext(inner.item);
+                            e++;
+                        }
+                    }
+
+                    if (d && ei == li && isUpstreamEmpty()) {
+                        terminate();
+                        return;
+                    }
+
+                    if (launched == 0 && freed == 0) {
+                        break;
+                    }
+                }
+
+                int w = wip.get();
+                if (missed == w) {
+                    emitted = e;
+                    missed = wip.addAndGet(-missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                } else {
+                    missed = w;
+                }
+            }
+        }
+    }
+
+    static final class UnorderedFilterAsyncSubscriber<T> extends AbstractFilterAsyncSubscriber<T> {
+
+        private static final long serialVersionUID = -4226405925523298813L;
+
+        /** The running inner subscribers, indexed by their slot. */
+        final FilterInnerSubscriber<T>[] slots;
+
+        /** Stack of the unused slot indexes. */
+        final int[] freeSlots;
+
+        /** The inner subscribers that have their result ready, in completion order. */
+        final MpscLinkedQueue<FilterInnerSubscriber<T>> ready;
+
+        int freeCount;
+
+        /** A ready inner subscriber with a passing item that is waiting for downstream demand. */
+        FilterInnerSubscriber<T> held;
+
+        @SuppressWarnings("unchecked")
+        UnorderedFilterAsyncSubscriber(Subscriber<? super T> downstream,
+                Function<? super T, ? extends Publisher<Boolean>> asyncPredicate,
+                int maxConcurrency, int bufferSize) {
+            super(downstream, asyncPredicate, maxConcurrency, bufferSize);
+            this.slots = new FilterInnerSubscriber[maxConcurrency];
+            int[] free = new int[maxConcurrency];
+            for (int i = 0; i < maxConcurrency; i++) {
+                free[i] = maxConcurrency - 1 - i;
+            }
+            this.freeSlots = free;
+            this.freeCount = maxConcurrency;
+            this.ready = new MpscLinkedQueue<FilterInnerSubscriber<T>>();
+        }
+
+        @Override
+        void clearInners() {
+            FilterInnerSubscriber<T>[] slots = this.slots;
+            for (int i = 0; i < slots.length; i++) {
+                FilterInnerSubscriber<T> inner = slots[i];
+                if (inner != null) {
+                    inner.cancel();
+                    slots[i] = null;
+                }
+            }
+            ready.clear();
+            held = null;
+        }
+
+        @Override
+        void innerDone(FilterInnerSubscriber<T> inner) {
+            ready.offer(inner);
+            drain();
+        }
+
+        @Override
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            int limit = bufferSize - (bufferSize >> 2);
+            long e = emitted;
+            FilterInnerSubscriber<T>[] slots = this.slots;
+            int[] freeSlots = this.freeSlots;
+            MpscLinkedQueue<FilterInnerSubscriber<T>> q = ready;
+            Subscriber<? super T> a = downstream;
+
+            for (;;) {
+
+                for (;;) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+
+                    boolean d = done;
+
+                    int launched = 0;
+
+                    while (freeCount != 0) {
+                        T t = pollUpstream(limit);
+                        if (t == null) {
+                            break;
+                        }
+
+                        int slot = freeSlots[--freeCount];
+                        FilterInnerSubscriber<T> inner = new FilterInnerSubscriber<T>(this, t);
+                        inner.slot = slot;
+                        slots[slot] = inner;
+
+                        if (!launch(inner)) {
+                            slots[slot] = null;
+                            freeCount++;
+                        } else {
+                            launched++;
+                        }
+                        if (cancelled) {
+                            break;
+                        }
+                    }
+
+                    long r = requested.get();
+                    int freed = 0;
+
+                    for (;;) {
+                        if (cancelled) {
+                            break;
+                        }
+
+                        FilterInnerSubscriber<T> inner = held;
+                        if (inner == null) {
+                            inner = q.poll();
+                            if (inner == null) {
+                                break;
+                            }
+                        }
+
+                        if (inner.result && e == r) {
+                            held = inner;
+                            break;
+                        }
+                        held = null;
+
+                        slots[inner.slot] = null;
+                        freeSlots[freeCount++] = inner.slot;
+                        freed++;
+
+                        if (inner.result) {
+                            a.onNext(inner.item);
+                            e++;
+                        }
+                    }
+
+                    if (d && freeCount == slots.length && isUpstreamEmpty()) {
+                        terminate();
+                        return;
+                    }
+
+                    if (launched == 0 && freed == 0) {
+                        break;
+                    }
+                }
+
+                int w = wip.get();
+                if (missed == w) {
+                    emitted = e;
+                    missed = wip.addAndGet(-missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                } else {
+                    missed = w;
+                }
+            }
+        }
+    }
+
+    static final class FilterInnerSubscriber<T> extends AtomicReference<Subscription> implements Subscriber<Boolean> {
+
+        private static final long serialVersionUID = 3545316307860855474L;
+
+        final AbstractFilterAsyncSubscriber<T> parent;
+
+        final T item;
+
+        int slot;
+
+        boolean result;
+
+        boolean once;
+
+        volatile boolean done;
+
+        FilterInnerSubscriber(AbstractFilterAsyncSubscriber<T> parent, T item) {
+            this.parent = parent;
+            this.item = item;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.setOnce(this, s)) {
+                s.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(Boolean t) {
+            if (!once) {
+                once = true;
+                get().cancel();
+                result = t;
+                done = true;
+                parent.innerDone(this);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (!once) {
+                once = true;
+                parent.error.addThrowable(t);
+                done = true;
+                parent.innerDone(this);
+            } else {
+                RxJavaPlugins.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!once) {
+                once = true;
+                done = true;
+                parent.innerDone(this);
+            }
+        }
+
+        void cancel() {
+            SubscriptionHelper.cancel(this);
+        }
+    }
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.*;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.functions.*;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.*;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Maps each upstream value into a single value provided by a generated Publisher for that
+ * input value and combines the original and generated single value into a final result item
+ * to be emitted to downstream, running up to a given number of inner Publishers at once
+ * while emitting the results in the upstream order.
+ * <p>Only the first item emitted by the inner Publisher's are considered. If
+ * the inner Publisher is empty, no resulting item is generated for that input value.
+ * <p>The running inner Publishers occupy the slots of a reorder ring buffer; a slot
+ * is freed once its result has been emitted, in upstream order.
+ * @param <T> the input value type
+ * @param <U> the intermediate value type
+ * @param <R> the result value type
+ *
+ * @since 0.20.4
+ */
+final class FlowableMapAsyncConcurrent<T, U, R> extends Flowable<R> implements FlowableTransformer<T, R> {
+
+    final Flowable<T> source;
+
+    final Function<? super T, ? extends Publisher<? extends U>> mapper;
+
+    final BiFunction<? super T, ? super U, ? extends R> combiner;
+
+    final int maxConcurrency;
+
+    final int bufferSize;
+
+    FlowableMapAsyncConcurrent(Flowable<T> source, Function<? super T, ? extends Publisher<? extends U>> mapper,
+            BiFunction<? super T, ? super U, ? extends R> combiner, int maxConcurrency, int bufferSize) {
+        this.source = source;
+        this.mapper = mapper;
+        this.combiner = combiner;
+        this.maxConcurrency = maxConcurrency;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public Publisher<R> apply(Flowable<T> upstream) {
+        return new FlowableMapAsyncConcurrent<T, U, R>(upstream, mapper, combiner, maxConcurrency, bufferSize);
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super R> s) {
+        source.subscribe(new MapAsyncConcurrentSubscriber<T, U, R>(s, mapper, combiner, maxConcurrency, bufferSize));
+    }
+
+    static final class MapAsyncConcurrentSubscriber<T, U, R>
+    extends AtomicReferenceArray<T>
+    implements FlowableSubscriber<T>, Subscription {
+
+        private static final long serialVersionUID = -5717316713056564253L;
+
+        final Subscriber<? super R> downstream;
+
+        final Function<? super T, ? extends Publisher<? extends U>> mapper;
+
+        final BiFunction<? super T, ? super U, ? extends R> combiner;
+
+        final int maxConcurrency;
+
+        final int bufferSize;
+
+        final AtomicThrowable error;
+
+        final AtomicLong requested;
+
+        final AtomicInteger wip;
+
+        /** The reorder buffer, indexed by launchIndex and emitIndex. */
+        final InnerSubscriber<T, U>[] slots;
+
+        Subscription upstream;
+
+        long producerIndex;
+
+        long consumerIndex;
+
+        int consumed;
+
+        long launchIndex;
+
+        long emitIndex;
+
+        long emitted;
+
+        volatile boolean done;
+
+        volatile boolean cancelled;
+
+        @SuppressWarnings("unchecked")
+        MapAsyncConcurrentSubscriber(Subscriber<? super R> downstream,
+                Function<? super T, ? extends Publisher<? extends U>> mapper,
+                BiFunction<? super T, ? super U, ? extends R> combiner, int maxConcurrency, int bufferSize) {
+            super(Pow2.roundToPowerOfTwo(bufferSize));
+            this.downstream = downstream;
+            this.mapper = mapper;
+            this.combiner = combiner;
+            this.maxConcurrency = maxConcurrency;
+            this.bufferSize = bufferSize;
+            this.error = new AtomicThrowable();
+            this.requested = new AtomicLong();
+            this.wip = new AtomicInteger();
+            this.slots = new InnerSubscriber[Pow2.roundToPowerOfTwo(maxConcurrency)];
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+
+                downstream.onSubscribe(this);
+
+                s.request(bufferSize);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            long pi = producerIndex;
+            int m = length() - 1;
+
+            int offset = (int)pi & m;
+            lazySet(offset, t);
+            producerIndex = pi + 1;
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error.addThrowable(t);
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                if (wip.getAndIncrement() == 0) {
+                    clear();
+                }
+            }
+        }
+
+        void clear() {
+            int n = length();
+            for (int i = 0; i < n; i++) {
+                lazySet(i, null);
+            }
+            InnerSubscriber<T, U>[] slots = this.slots;
+            int m = slots.length - 1;
+            for (long i = emitIndex; i != launchIndex; i++) {
+                int offset = (int)i & m;
+                slots[offset].cancel();
+                slots[offset] = null;
+            }
+            emitIndex = launchIndex;
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            int limit = bufferSize - (bufferSize >> 2);
+            long e = emitted;
+            long ci = consumerIndex;
+            int f = consumed;
+            int m = length() - 1;
+            long li = launchIndex;
+            long ei = emitIndex;
+            InnerSubscriber<T, U>[] slots = this.slots;
+            int sm = slots.length - 1;
+            int maxConcurrency = this.maxConcurrency;
+            Subscriber<? super R> a = downstream;
+
+            for (;;) {
+
+                for (;;) {
+                    if (cancelled) {
+                        launchIndex = li;
+                        emitIndex = ei;
+                        clear();
+                        return;
+                    }
+
+                    boolean d = done;
+
+                    int launched = 0;
+
+                    while (li - ei < maxConcurrency) {
+                        int offset = (int)ci & m;
+                        T t = get(offset);
+                        if (t == null) {
+                            break;
+                        }
+
+                        lazySet(offset, null);
+                        ci++;
+                        if (++f == limit) {
+                            f = 0;
+                            upstream.request(limit);
+                        }
+
+                        Publisher<? extends U> p;
+
+                        try {
+                            p = ObjectHelper.requireNonNull(mapper.apply(t), "The mapper returned a null value");
+                        } catch (Throwable ex) {
+                            Exceptions.throwIfFatal(ex);
+                            error.addThrowable(ex);
+                            continue;
+                        }
+
+                        InnerSubscriber<T, U> inner = new InnerSubscriber<T, U>(this, t);
+                        slots[(int)li & sm] = inner;
+                        li++;
+                        launched++;
+
+                        if (p instanceof Callable) {
+                            try {
+                                @SuppressWarnings("unchecked")
+                                U u = ((Callable<U>)p).call();
+                                inner.result = u;
+                            } catch (Throwable ex) {
+                                Exceptions.throwIfFatal(ex);
+                                error.addThrowable(ex);
+                            }
+                            inner.done = true;
+                        } else {
+                            p.subscribe(inner);
+                            if (cancelled) {
+                                break;
+                            }
+                        }
+                    }
+
+                    long r = requested.get();
+                    int freed = 0;
+
+                    while (e != r && ei != li) {
+                        if (cancelled) {
+                            break;
+                        }
+                        int offset = (int)ei & sm;
+                        InnerSubscriber<T, U> inner = slots[offset];
+                        if (!inner.done) {
+                            break;
+                        }
+
+                        slots[offset] = null;
+                        ei++;
+                        freed++;
+
+                        U u = inner.result;
+                        if (u != null) {
+                            R v;
+
+                            try {
+                                v = ObjectHelper.requireNonNull(combiner.apply(inner.item, u), "The combiner returned a null value");
+                            } catch (Throwable ex) {
+                                Exceptions.throwIfFatal(ex);
+                                error.addThrowable(ex);
+                                v = null;
+                            }
+
+                            if (v != null) {
+                                a.onNext(v);
+                                e++;
+                            }
+                        }
+                    }
+
+                    if (d && li == ei && get((int)ci & m) == null) {
+                        Throwable ex = error.terminate();
+                        if (ex == null) {
+                            a.onComplete();
+                        } else {
+                            a.onError(ex);
+                        }
+                        return;
+                    }
+
+                    if (launched == 0 && freed == 0) {
+                        break;
+                    }
+                }
+
+                int w = wip.get();
+                if (missed == w) {
+                    consumed = f;
+                    consumerIndex = ci;
+                    launchIndex = li;
+                    emitIndex = ei;
+                    emitted = e;
+                    missed = wip.addAndGet(-missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                } else {
+                    missed = w;
+                }
+            }
+        }
+
+        static final class InnerSubscriber<T, U> extends AtomicReference<Subscription> implements Subscriber<U> {
+
+            private static final long serialVersionUID = -4089017287906834565L;
+
+            final MapAsyncConcurrentSubscriber<T, U, ?> parent;
+
+            final T item;
+
+            U result;
+
+            boolean once;
+
+            volatile boolean done;
+
+            InnerSubscriber(MapAsyncConcurrentSubscriber<T, U, ?> parent, T item) {
+                this.parent = parent;
+                this.item = item;
+            }
+
+            @Override
+            public void onSubscribe(Subscription s) {
+                if (SubscriptionHelper.setOnce(this, s)) {
+                    s.request(Long.MAX_VALUE);
+                }
+            }
+
+            @Override
+            public void onNext(U t) {
+                if (!once) {
+                    once = true;
+                    get().cancel();
+                    result = t;
+                    done = true;
+                    parent.drain();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (!once) {
+                    once = true;
+                    parent.error.addThrowable(t);
+                    done = true;
+                    parent.drain();
+                } else {
+                    RxJavaPlugins.onError(t);
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                if (!once) {
+                    once = true;
+                    done = true;
+                    parent.drain();
+                }
+            }
+
+            void cancel() {
+                SubscriptionHelper.cancel(this);
+            }
+        }
+    }
+}
@@ -16,7 +16,6 @@
 
 package hu.akarnokd.rxjava2.operators;
 
-import java.util.ArrayDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.*;
 
@@ -33,6 +32,10 @@ import io.reactivex.plugins.RxJavaPlugins;
 /**
  * If the downstream doesn't request, it buffers events and times out
  * old elements from the front of the buffer.
+ * <p>
+ * The upstream only appends to a single-producer single-consumer buffer;
+ * evicting, timing out and emitting happen in the drain loop, which
+ * keeps at most one timer pending, armed for the deadline of the oldest element.
  * @param <T> the input and output element type
  */
 final class FlowableOnBackpressureTimeout<T> extends Flowable<T>
@@ -80,7 +83,7 @@ implements FlowableTransformer<T, T> {
 
         final AtomicLong requested;
 
-        final int maxSizeDouble;
+        final int maxSize;
 
         final long timeout;
 
@@ -90,25 +93,31 @@ implements FlowableTransformer<T, T> {
 
         final Consumer<? super T> onEvict;
 
-        Subscription upstream;
+        final TimedQueue<T> queue;
 
-        final ArrayDeque<Object> queue;
+        Subscription upstream;
 
         volatile boolean done;
         Throwable error;
 
         volatile boolean cancelled;
 
+        /** Set by the timer before it enters the drain loop. */
+        volatile boolean timerFired;
+
+        /** Accessed from the drain loop only. */
+        boolean timerArmed;
+
         OnBackpressureTimeoutSubscriber(Subscriber<? super T> downstream, int maxSize, long timeout, TimeUnit unit,
                 Worker worker, Consumer<? super T> onEvict) {
             this.downstream = downstream;
-            this.maxSizeDouble = maxSize << 1;
+            this.maxSize = maxSize;
             this.timeout = timeout;
             this.unit = unit;
             this.worker = worker;
             this.onEvict = onEvict;
             this.requested = new AtomicLong();
-            this.queue = new ArrayDeque<Object>();
+            this.queue = new TimedQueue<T>(Math.min(maxSize, Flowable.bufferSize()));
         }
 
         @Override
@@ -130,20 +139,10 @@ implements FlowableTransformer<T, T> {
             }
         }
 
-        @SuppressWarnings("unchecked")
         void clearQueue() {
-            for (;;) {
-                T evicted;
-                synchronized (this) {
-                    if (queue.isEmpty()) {
-                        break;
-                    }
-
-                    queue.poll();
-                    evicted = (T)queue.poll();
-                }
-
-                evict(evicted);
+            TimedQueue<T> q = queue;
+            while (!q.isEmpty()) {
+                evict(q.poll());
             }
         }
 
@@ -158,20 +157,9 @@ implements FlowableTransformer<T, T> {
             }
         }
 
-        @SuppressWarnings("unchecked")
         @Override
         public void onNext(T t) {
-            T evicted = null;
-            synchronized (this) {
-                if (queue.size() == maxSizeDouble) {
-                    queue.poll();
-                    evicted = (T)queue.poll();
-                }
-                queue.offer(worker.now(unit));
-                queue.offer(t);
-            }
-            evict(evicted);
-            worker.schedule(this, timeout, unit);
+            queue.offer(t, worker.now(unit));
             drain();
         }
 
@@ -188,128 +176,100 @@ implements FlowableTransformer<T, T> {
             drain();
         }
 
-        @SuppressWarnings("unchecked")
         @Override
         public void run() {
-            for (;;) {
-                if (cancelled) {
-                    break;
-                }
-
-                boolean d = done;
-                boolean empty;
-                T evicted = null;
-
-                synchronized (this) {
-                    Long ts = (Long)queue.peek();
-                    empty = ts == null;
-                    if (!empty) {
-                        if (ts.longValue() <= worker.now(unit) - timeout) {
-                            queue.poll();
-                            evicted = (T)queue.poll();
-                        } else {
-                            break;
-                        }
-                    }
-                }
-
-                evict(evicted);
-
-                if (empty) {
-                    if (d) {
-                        drain();
-                    }
-                    break;
-                }
-            }
+            timerFired = true;
+            drain();
         }
 
         void evict(T evicted) {
-            if (evicted != null) {
-                try {
-                    onEvict.accept(evicted);
-                } catch (Throwable ex) {
-                    Exceptions.throwIfFatal(ex);
-                    RxJavaPlugins.onError(ex);
-                }
+            try {
+                onEvict.accept(evicted);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                RxJavaPlugins.onError(ex);
             }
         }
 
-        @SuppressWarnings("unchecked")
         void drain() {
             if (getAndIncrement() != 0) {
                 return;
             }
 
             int missed = 1;
+            TimedQueue<T> q = queue;
+            Subscriber<? super T> a = downstream;
 
             for (;;) {
-                long r = requested.get();
-                long e = 0;
 
-                while (e != r) {
+                for (;;) {
                     if (cancelled) {
                         clearQueue();
                         return;
                     }
 
-                    boolean d = done;
-                    T v;
-
-                    synchronized (this) {
-                        if (queue.poll() != null) {
-                            v = (T)queue.poll();
-                        } else {
-                            v = null;
-                        }
+                    if (timerFired) {
+                        timerFired = false;
+                        timerArmed = false;
                     }
 
-                    boolean empty = v == null;
-
-                    if (d && empty) {
-                        Throwable ex = error;
-                        if (ex != null) {
-                            downstream.onError(ex);
-                        } else {
-                            downstream.onComplete();
-                        }
+                    boolean d = done;
 
-                        worker.dispose();
-                        return;
+                    long size = q.size();
+                    while (size > maxSize) {
+                        evict(q.poll());
+                        size--;
                     }
 
-                    if (empty) {
-                        break;
+                    long limit = worker.now(unit) - timeout;
+                    while (size != 0L && q.peekTime() <= limit) {
+                        evict(q.poll());
+                        size--;
                     }
 
-                    downstream.onNext(v);
-
-                    e++;
-                }
-
-                if (e == r) {
                     if (cancelled) {
                         clearQueue();
                         return;
                     }
 
-                    boolean d = done;
-                    boolean empty;
-                    synchronized (this) {
-                        empty = queue.isEmpty();
+                    long r = requested.get();
+                    long e = 0L;
+
+                    while (e != r && size != 0L) {
+                        a.onNext(q.poll());
+                        size--;
+                        e++;
+
+                        if (cancelled) {
+                            clearQueue();
+                            return;
+                        }
+                    }
+
+                    if (e != 0L) {
+                        BackpressureHelper.produced(requested, e);
                     }
 
-                    if (d && empty) {
+                    if (d && size == 0L) {
                         Throwable ex = error;
                         if (ex != null) {
-                            downstream.onError(ex);
+                            a.onError(ex);
                         } else {
-                            downstream.onComplete();
+                            a.onComplete();
                         }
 
                         worker.dispose();
                         return;
                     }
+
+                    if (size == 0L || e != r || e == 0L) {
+                        if (size != 0L && !timerArmed) {
+                            timerArmed = true;
+                            long delay = q.peekTime() - limit;
+                            worker.schedule(this, delay, unit);
+                        }
+                        break;
+                    }
                 }
 
                 missed = addAndGet(-missed);
@@ -319,4 +279,99 @@ implements FlowableTransformer<T, T> {
             }
         }
     }
+
+    /**
+     * An unbounded single-producer single-consumer queue of linked segments
+     * that stores the arrival time of each element in a primitive array
+     * next to the element.
+     * @param <T> the element type
+     */
+    static final class TimedQueue<T> {
+
+        final int segmentSize;
+
+        final AtomicLong producerIndex;
+
+        Segment producerSegment;
+
+        int producerOffset;
+
+        Segment consumerSegment;
+
+        int consumerOffset;
+
+        long consumerIndex;
+
+        TimedQueue(int segmentSize) {
+            this.segmentSize = segmentSize;
+            this.producerIndex = new AtomicLong();
+            Segment s = new Segment(segmentSize);
+            this.producerSegment = s;
+            this.consumerSegment = s;
+        }
+
+        void offer(T value, long time) {
+            Segment s = producerSegment;
+            int o = producerOffset;
+            if (o == segmentSize) {
+                Segment n = new Segment(segmentSize);
+                s.next = n;
+                producerSegment = n;
+                s = n;
+                o = 0;
+            }
+            s.values[o] = value;
+            s.times[o] = time;
+            producerOffset = o + 1;
+            producerIndex.lazySet(producerIndex.get() + 1);
+        }
+
+        long size() {
+            return producerIndex.get() - consumerIndex;
+        }
+
+        boolean isEmpty() {
+            return producerIndex.get() == consumerIndex;
+        }
+
+        long peekTime() {
+            Segment s = consumerSegment;
+            int o = consumerOffset;
+            if (o == segmentSize) {
+                s = s.next;
+                o = 0;
+            }
+            return s.times[o];
+        }
+
+        @SuppressWarnings("unchecked")
+        T poll() {
+            Segment s = consumerSegment;
+            int o = consumerOffset;
+            if (o == segmentSize) {
+                s = s.next;
+                consumerSegment = s;
+                o = 0;
+            }
+            Object v = s.values[o];
+            s.values[o] = null;
+            consumerOffset = o + 1;
+            consumerIndex++;
+            return (T)v;
+        }
+
+        static final class Segment {
+
+            final Object[] values;
+
+            final long[] times;
+
+            Segment next;
+
+            Segment(int size) {
+                this.values = new Object[size];
+                this.times = new long[size];
+            }
+        }
+    }
 }
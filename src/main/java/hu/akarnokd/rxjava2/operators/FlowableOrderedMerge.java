@@ -92,8 +92,14 @@ final class FlowableOrderedMerge<T> extends Flowable<T> {
             return;
         }
 
-        BasicMergeSubscription<T> parent = new BasicMergeSubscription<T>(s, comparator, n, prefetch, delayErrors);
-        s.onSubscribe(parent);
-        parent.subscribe(array, n);
+        if (n < HeapMergeSubscription.THRESHOLD) {
+            BasicMergeSubscription<T> parent = new BasicMergeSubscription<T>(s, comparator, n, prefetch, delayErrors);
+            s.onSubscribe(parent);
+            parent.subscribe(array, n);
+        } else {
+            HeapMergeSubscription<T> parent = new HeapMergeSubscription<T>(s, comparator, n, prefetch, delayErrors);
+            s.onSubscribe(parent);
+            parent.subscribe(array, n);
+        }
     }
 }
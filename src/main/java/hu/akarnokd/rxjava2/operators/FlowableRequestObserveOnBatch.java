@@ -0,0 +1,269 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.util.concurrent.atomic.*;
+
+import org.reactivestreams.*;
+
+import io.reactivex.*;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.internal.queue.SpscArrayQueue;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.BackpressureHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Requests and emits items in batches on the given {@link Scheduler}, where each task
+ * emits at most a batch of items or runs for at most a time slice before it yields
+ * the {@code Worker} to other tasks (aka "fair").
+ *
+ * @param <T> the item type
+ * @since 0.20.4
+ */
+final class FlowableRequestObserveOnBatch<T> extends Flowable<T> implements FlowableTransformer<T, T> {
+
+    final Flowable<T> source;
+
+    final Scheduler scheduler;
+
+    final int batchSize;
+
+    final long timeSliceNanos;
+
+    FlowableRequestObserveOnBatch(Flowable<T> source, Scheduler scheduler, int batchSize, long timeSliceNanos) {
+        this.source = source;
+        this.scheduler = scheduler;
+        this.batchSize = batchSize;
+        this.timeSliceNanos = timeSliceNanos;
+    }
+
+    @Override
+    public Publisher<T> apply(Flowable<T> upstream) {
+        return new FlowableRequestObserveOnBatch<T>(upstream, scheduler, batchSize, timeSliceNanos);
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> s) {
+        source.subscribe(new RequestObserveOnBatchSubscriber<T>(s, scheduler.createWorker(), batchSize, timeSliceNanos));
+    }
+
+    static final class RequestObserveOnBatchSubscriber<T>
+    extends AtomicInteger
+    implements FlowableSubscriber<T>, Subscription, Runnable {
+
+        private static final long serialVersionUID = -4519066580245553155L;
+
+        final Subscriber<? super T> downstream;
+
+        final Worker worker;
+
+        final int batchSize;
+
+        final long timeSliceNanos;
+
+        final SpscArrayQueue<T> queue;
+
+        final AtomicLong requested;
+
+        final Runnable requestFirst;
+
+        Subscription upstream;
+
+        Throwable error;
+        volatile boolean done;
+
+        volatile boolean cancelled;
+
+        long emitted;
+        boolean terminated;
+
+        RequestObserveOnBatchSubscriber(Subscriber<? super T> downstream, Scheduler.Worker worker, int batchSize, long timeSliceNanos) {
+            this.downstream = downstream;
+            this.worker = worker;
+            this.batchSize = batchSize;
+            this.timeSliceNanos = timeSliceNanos;
+            this.queue = new SpscArrayQueue<T>(batchSize);
+            this.requested = new AtomicLong();
+            this.requestFirst = new Runnable() {
+                @Override
+                public void run() {
+                    upstream.request(RequestObserveOnBatchSubscriber.this.batchSize);
+                }
+            };
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+                downstream.onSubscribe(this);
+                worker.schedule(requestFirst);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            if (!queue.offer(t)) {
+                upstream.cancel();
+                onError(new MissingBackpressureException("Queue is full?!"));
+                return;
+            }
+            schedule();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                RxJavaPlugins.onError(t);
+                return;
+            }
+            error = t;
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                BackpressureHelper.add(requested, n);
+                schedule();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            upstream.cancel();
+            worker.dispose();
+            if (getAndIncrement() == 0) {
+                queue.clear();
+            }
+        }
+
+        void schedule() {
+            if (getAndIncrement() == 0) {
+                worker.schedule(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (terminated) {
+                return;
+            }
+            int missed = 1;
+            long e = emitted;
+            int batch = batchSize;
+            long slice = timeSliceNanos;
+            long deadline = slice != 0L ? System.nanoTime() + slice : 0L;
+            int n = 0;
+            int consumed = 0;
+            SpscArrayQueue<T> q = queue;
+            Subscriber<? super T> a = downstream;
+
+            for (;;) {
+                long r = requested.get();
+
+                while (e != r) {
+                    if (cancelled) {
+                        q.clear();
+                        return;
+                    }
+                    boolean d = done;
+                    T v = q.poll();
+                    boolean empty = v == null;
+
+                    if (d && empty) {
+                        terminate(a);
+                        return;
+                    }
+
+                    if (empty) {
+                        break;
+                    }
+
+                    a.onNext(v);
+
+                    e++;
+                    consumed++;
+
+                    // reading the clock is relatively expensive so it is checked only every 16 items
+                    if (++n == batch || (slice != 0L && (n & 15) == 0 && System.nanoTime() - deadline >= 0L)) {
+                        emitted = e;
+                        if (!cancelled) {
+                            upstream.request(consumed);
+                            // yield to other tasks on the worker, the drain stays claimed
+                            worker.schedule(this);
+                        }
+                        return;
+                    }
+                }
+
+                if (cancelled) {
+                    q.clear();
+                    return;
+                }
+                if (done && q.isEmpty()) {
+                    terminate(a);
+                    return;
+                }
+
+                emitted = e;
+                if (consumed != 0) {
+                    int c = consumed;
+                    consumed = 0;
+                    upstream.request(c);
+                }
+
+                int w = get();
+                if (w == missed) {
+                    missed = addAndGet(-missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                } else {
+                    missed = w;
+                }
+            }
+        }
+
+        void terminate(Subscriber<? super T> a) {
+            terminated = true;
+            Throwable ex = error;
+            if (ex != null) {
+                a.onError(ex);
+            } else {
+                a.onComplete();
+            }
+            worker.dispose();
+        }
+    }
+}
@@ -16,7 +16,6 @@
 
 package hu.akarnokd.rxjava2.operators;
 
-import java.util.*;
 import java.util.concurrent.atomic.*;
 
 import org.reactivestreams.*;
@@ -75,7 +74,8 @@ implements FlowableTransformer<T, R> {
 
         final int bufferSize;
 
-        final ArrayDeque<SfmInnerSubscriber<T, R>> active;
+        /** The active inner subscribers, oldest first, replaced as a whole on each change. */
+        final AtomicReference<SfmInnerSubscriber<T, R>[]> active;
 
         final AtomicLong requested;
 
@@ -87,10 +87,11 @@ implements FlowableTransformer<T, R> {
 
         volatile boolean cancelled;
 
-        volatile long version;
+        @SuppressWarnings("rawtypes")
+        static final SfmInnerSubscriber[] EMPTY = new SfmInnerSubscriber[0];
 
-        final SfmInnerSubscriber<T, R>[] activeCache;
-        long versionCache;
+        @SuppressWarnings("rawtypes")
+        static final SfmInnerSubscriber[] TERMINATED = new SfmInnerSubscriber[0];
 
         @SuppressWarnings("unchecked")
         SwitchFlatMapSubscriber(Subscriber<? super R> downstream,
@@ -100,10 +101,9 @@ implements FlowableTransformer<T, R> {
             this.mapper = mapper;
             this.maxActive = maxActive;
             this.bufferSize = bufferSize;
-            this.active = new ArrayDeque<SfmInnerSubscriber<T, R>>();
+            this.active = new AtomicReference<SfmInnerSubscriber<T, R>[]>(EMPTY);
             this.requested = new AtomicLong();
             this.error = new AtomicThrowable();
-            this.activeCache = new SfmInnerSubscriber[maxActive];
         }
 
         @Override
@@ -136,29 +136,66 @@ implements FlowableTransformer<T, R> {
         }
 
         boolean add(SfmInnerSubscriber<T, R> inner) {
-            SfmInnerSubscriber<T, R> evicted = null;
-            synchronized (this) {
-                if (cancelled) {
+            for (;;) {
+                SfmInnerSubscriber<T, R>[] a = active.get();
+                if (a == TERMINATED) {
                     return false;
                 }
-
-                if (active.size() == maxActive) {
-                    evicted = active.poll();
+                int n = a.length;
+                SfmInnerSubscriber<T, R> evicted = null;
+
+                @SuppressWarnings("unchecked")
+                SfmInnerSubscriber<T, R>[] b = new SfmInnerSubscriber[n == maxActive ? n : n + 1];
+                if (n == maxActive) {
+                    evicted = a[0];
+                    System.arraycopy(a, 1, b, 0, n - 1);
+                } else {
+                    System.arraycopy(a, 0, b, 0, n);
                 }
-                active.offer(inner);
-                version++;
-            }
+                b[b.length - 1] = inner;
 
-            if (evicted != null) {
-                evicted.cancel();
+                if (active.compareAndSet(a, b)) {
+                    if (evicted != null) {
+                        evicted.cancel();
+                    }
+                    return true;
+                }
             }
-            return true;
         }
 
+        @SuppressWarnings("unchecked")
         void remove(SfmInnerSubscriber<T, R> inner) {
-            synchronized (this) {
-                active.remove(inner);
-                version++;
+            for (;;) {
+                SfmInnerSubscriber<T, R>[] a = active.get();
+                int n = a.length;
+                if (n == 0) {
+                    break;
+                }
+
+                int j = -1;
+
+                for (int i = 0; i < n; i++) {
+                    if (a[i] == inner) {
+                        j = i;
+                        break;
+                    }
+                }
+
+                if (j < 0) {
+                    break;
+                }
+
+                SfmInnerSubscriber<T, R>[] b;
+                if (n == 1) {
+                    b = EMPTY;
+                } else {
+                    b = new SfmInnerSubscriber[n - 1];
+                    System.arraycopy(a, 0, b, 0, j);
+                    System.arraycopy(a, j + 1, b, j, n - j - 1);
+                }
+                if (active.compareAndSet(a, b)) {
+                    break;
+                }
             }
         }
 
@@ -193,23 +230,12 @@ implements FlowableTransformer<T, R> {
                 cancelled = true;
                 upstream.cancel();
                 cancelInners();
-                if (getAndIncrement() == 0) {
-                    clearCache();
-                }
             }
         }
 
-        void clearCache() {
-            Arrays.fill(activeCache, null);
-        }
-
+        @SuppressWarnings("unchecked")
         void cancelInners() {
-            List<SfmInnerSubscriber<T, R>> subscribers = new ArrayList<SfmInnerSubscriber<T, R>>();
-            synchronized (this) {
-                subscribers.addAll(active);
-                active.clear();
-            }
-            for (SfmInnerSubscriber<T, R> inner : subscribers) {
+            for (SfmInnerSubscriber<T, R> inner : active.getAndSet(TERMINATED)) {
                 inner.cancel();
             }
         }
@@ -225,28 +251,11 @@ implements FlowableTransformer<T, R> {
             }
         }
 
-        void updateInners() {
-            SfmInnerSubscriber<T, R>[] a = activeCache;
-            if (versionCache != version) {
-                synchronized (this) {
-                    int i = 0;
-                    Iterator<SfmInnerSubscriber<T, R>> it = active.iterator();
-                    while (it.hasNext()) {
-                        a[i++] = it.next();
-                    }
-                    for (int j = i; j < a.length; j++) {
-                        a[j] = null;
-                    }
-                    versionCache = version;
-                }
-            }
-        }
-
         void drain() {
             if (getAndIncrement() == 0) {
                 int missed = 1;
                 Subscriber<? super R> a = downstream;
-                SfmInnerSubscriber<T, R>[] inners = activeCache;
+                AtomicReference<SfmInnerSubscriber<T, R>[]> act = active;
                 AtomicThrowable err = error;
 
                 outer:
@@ -256,24 +265,20 @@ implements FlowableTransformer<T, R> {
 
                     for (;;) {
                         if (cancelled) {
-                            clearCache();
                             return;
                         }
 
                         boolean d = done;
 
-                        updateInners();
-                        long ver = versionCache;
+                        SfmInnerSubscriber<T, R>[] inners = act.get();
 
                         if (d) {
                             Throwable ex = err.get();
                             if (ex != null) {
-                                clearCache();
-
                                 a.onError(err.terminate());
                                 return;
                             } else
-                            if (inners[0] == null) {
+                            if (inners.length == 0) {
                                 a.onComplete();
                                 return;
                             }
@@ -285,14 +290,10 @@ implements FlowableTransformer<T, R> {
                         draining:
                         for (SfmInnerSubscriber<T, R> inner : inners) {
                             if (cancelled) {
-                                clearCache();
                                 return;
                             }
 
-                            if (inner == null) {
-                                break;
-                            }
-                            if (ver != version) {
+                            if (inners != act.get()) {
                                 if (e != 0) {
                                     BackpressureHelper.produced(requested, e);
                                 }
@@ -307,19 +308,16 @@ implements FlowableTransformer<T, R> {
 
                             while (e != r) {
                                 if (cancelled) {
-                                    clearCache();
                                     return;
                                 }
 
                                 Throwable ex = err.get();
                                 if (ex != null) {
-                                    clearCache();
-
                                     a.onError(err.terminate());
                                     return;
                                 }
 
-                                if (ver != version) {
+                                if (inners != act.get()) {
                                     if (e != 0) {
                                         BackpressureHelper.produced(requested, e);
                                     }
@@ -16,6 +16,7 @@
 
 package hu.akarnokd.rxjava2.operators;
 
+import java.nio.*;
 import java.util.*;
 import java.util.concurrent.*;
 
@@ -1037,6 +1038,61 @@ public final class FlowableTransformers {
         return new FlowableMapAsync<T, U, R>(null, mapper, combiner, bufferSize);
     }
 
+    /**
+     * Maps each upstream value into a single value provided by a generated Publisher for that
+     * input value to be emitted to downstream, running up to the given number of
+     * inner Publishers at once.
+     * <p>Only the first item emitted by the inner Publisher's are considered. If
+     * the inner Publisher is empty, no resulting item is generated for that input value.
+     * <p>The results are emitted in the order of the upstream values, regardless of
+     * which inner Publisher produced its value first.
+     * @param <T> the input value type
+     * @param <R> the result value type
+     * @param mapper the function that receives the upstream value and returns a Publisher
+     * that should emit a single value to be emitted.
+     * @param maxConcurrency the maximum number of inner Publishers running at once
+     * @param bufferSize the internal buffer size and prefetch amount to buffer items from
+     * upstream until their turn comes up
+     * @return the new FlowableTransformer instance
+     * @since 0.20.4
+     */
+    public static <T, R> FlowableTransformer<T, R> mapAsync(Function<? super T, ? extends Publisher<? extends R>> mapper, int maxConcurrency, int bufferSize) {
+        return mapAsync(mapper, BiFunctionSecondIdentity.<T, R>instance(), maxConcurrency, bufferSize);
+    }
+
+    /**
+     * Maps each upstream value into a single value provided by a generated Publisher for that
+     * input value and combines the original and generated single value into a final result item
+     * to be emitted to downstream, running up to the given number of inner Publishers at once.
+     * <p>Only the first item emitted by the inner Publisher's are considered. If
+     * the inner Publisher is empty, no resulting item is generated for that input value.
+     * <p>The results are emitted in the order of the upstream values, regardless of
+     * which inner Publisher produced its value first.
+     * @param <T> the input value type
+     * @param <U> the intermediate value type
+     * @param <R> the result value type
+     * @param mapper the function that receives the upstream value and returns a Publisher
+     * that should emit a single value to be emitted.
+     * @param combiner the bi-function that receives the original upstream value and the
+     * single value emitted by the Publisher and returns a result value to be emitted to
+     * downstream.
+     * @param maxConcurrency the maximum number of inner Publishers running at once
+     * @param bufferSize the internal buffer size and prefetch amount to buffer items from
+     * upstream until their turn comes up
+     * @return the new FlowableTransformer instance
+     * @since 0.20.4
+     */
+    public static <T, U, R> FlowableTransformer<T, R> mapAsync(Function<? super T, ? extends Publisher<? extends U>> mapper, BiFunction<? super T, ? super U, ? extends R> combiner, int maxConcurrency, int bufferSize) {
+        ObjectHelper.requireNonNull(mapper, "mapper is null");
+        ObjectHelper.requireNonNull(combiner, "combiner is null");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        ObjectHelper.verifyPositive(bufferSize, "bufferSize");
+        if (maxConcurrency == 1) {
+            return new FlowableMapAsync<T, U, R>(null, mapper, combiner, bufferSize);
+        }
+        return new FlowableMapAsyncConcurrent<T, U, R>(null, mapper, combiner, maxConcurrency, bufferSize);
+    }
+
     /**
      * Maps each upstream value into a single {@code true} or {@code false} value provided by a generated Publisher for that
      * input value and emits the input value if the inner Publisher returned {@code true}.
@@ -1073,6 +1129,57 @@ public final class FlowableTransformers {
         return new FlowableFilterAsync<T>(null, asyncPredicate, bufferSize);
     }
 
+    /**
+     * Maps each upstream value into a single {@code true} or {@code false} value provided by a generated Publisher for that
+     * input value and emits the input value if the inner Publisher returned {@code true}, running up to the
+     * given number of inner Publishers at once.
+     * <p>Only the first item emitted by the inner Publisher's are considered. If
+     * the inner Publisher is empty, no resulting item is generated for that input value.
+     * <p>The passing values are emitted in the upstream order, regardless of
+     * which inner Publisher answered first.
+     * @param <T> the input and output value type
+     * @param asyncPredicate the function that receives the upstream value and returns
+     * a Publisher that should emit a single true to indicate the original value should pass.
+     * @param maxConcurrency the maximum number of inner Publishers running at once
+     * @param bufferSize the internal buffer size and prefetch amount to buffer items from
+     * upstream until their turn comes up
+     * @return the new FlowableTransformer instance
+     * @since 0.20.4
+     */
+    public static <T> FlowableTransformer<T, T> filterAsync(Function<? super T, ? extends Publisher<Boolean>> asyncPredicate, int maxConcurrency, int bufferSize) {
+        ObjectHelper.requireNonNull(asyncPredicate, "asyncPredicate is null");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        ObjectHelper.verifyPositive(bufferSize, "bufferSize");
+        if (maxConcurrency == 1) {
+            return new FlowableFilterAsync<T>(null, asyncPredicate, bufferSize);
+        }
+        return new FlowableFilterAsyncConcurrent<T>(null, asyncPredicate, maxConcurrency, bufferSize, true);
+    }
+
+    /**
+     * Maps each upstream value into a single {@code true} or {@code false} value provided by a generated Publisher for that
+     * input value and emits the input value if the inner Publisher returned {@code true}, running up to the
+     * given number of inner Publishers at once.
+     * <p>Only the first item emitted by the inner Publisher's are considered. If
+     * the inner Publisher is empty, no resulting item is generated for that input value.
+     * <p>The passing values are emitted in the order their inner Publishers answered,
+     * which may differ from the upstream order.
+     * @param <T> the input and output value type
+     * @param asyncPredicate the function that receives the upstream value and returns
+     * a Publisher that should emit a single true to indicate the original value should pass.
+     * @param maxConcurrency the maximum number of inner Publishers running at once
+     * @param bufferSize the internal buffer size and prefetch amount to buffer items from
+     * upstream until their turn comes up
+     * @return the new FlowableTransformer instance
+     * @since 0.20.4
+     */
+    public static <T> FlowableTransformer<T, T> filterAsyncUnordered(Function<? super T, ? extends Publisher<Boolean>> asyncPredicate, int maxConcurrency, int bufferSize) {
+        ObjectHelper.requireNonNull(asyncPredicate, "asyncPredicate is null");
+        ObjectHelper.verifyPositive(maxConcurrency, "maxConcurrency");
+        ObjectHelper.verifyPositive(bufferSize, "bufferSize");
+        return new FlowableFilterAsyncConcurrent<T>(null, asyncPredicate, maxConcurrency, bufferSize, false);
+    }
+
     /**
      * Coalesces items from upstream into a container via a consumer and emits the container if
      * there is a downstream demand, otherwise it keeps coalescing into the same container.
@@ -1250,6 +1357,75 @@ public final class FlowableTransformers {
         return new FlowableRequestObserveOn<T>(null, ObjectHelper.requireNonNull(scheduler, "scheduler == null"));
     }
 
+    /**
+     * Requests items in batches from the upstream from the given {@link Scheduler} and
+     * emits those items received on the same {@code Scheduler}, where each task emits at most
+     * {@code batchSize} items before it yields the {@code Scheduler}'s worker to other tasks
+     * (aka "fair" use).
+     * <p>
+     * Unlike {@link #requestObserveOn(Scheduler)}, this doesn't schedule a task for each
+     * item, reducing the scheduling overhead considerably while still letting other tasks
+     * interleave between batches.
+     * <dl>
+     *  <dt><b>Backpressure:</b></dt>
+     *  <dd>The operator requests {@code batchSize} items upfront and replenishes them
+     *  from the given {@code Scheduler} as they are consumed. If the upstream ignores backpressure,
+     *  a {@link io.reactivex.exceptions.MissingBackpressureException MissingBackpressureException} is signalled.</dd>
+     *  <dt><b>Scheduler:</b></dt>
+     *  <dd>You specify the {@link Scheduler} this operator should use.</dd>
+     * </dl>
+     * @param <T> the item type
+     * @param scheduler the scheduler to use for requesting from the upstream and re-emitting
+     *                  those items from
+     * @param batchSize the maximum number of items to emit in one task, positive
+     * @return the new FlowableTransformer instance
+     * @since 0.20.4
+     */
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, T> requestObserveOn(Scheduler scheduler, int batchSize) {
+        return requestObserveOn(scheduler, batchSize, 0L, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Requests items in batches from the upstream from the given {@link Scheduler} and
+     * emits those items received on the same {@code Scheduler}, where each task emits at most
+     * {@code batchSize} items or runs for at most the given time slice, whichever comes first,
+     * before it yields the {@code Scheduler}'s worker to other tasks (aka "fair" use).
+     * <p>
+     * Unlike {@link #requestObserveOn(Scheduler)}, this doesn't schedule a task for each
+     * item, reducing the scheduling overhead considerably while still letting other tasks
+     * interleave between batches.
+     * <dl>
+     *  <dt><b>Backpressure:</b></dt>
+     *  <dd>The operator requests {@code batchSize} items upfront and replenishes them
+     *  from the given {@code Scheduler} as they are consumed. If the upstream ignores backpressure,
+     *  a {@link io.reactivex.exceptions.MissingBackpressureException MissingBackpressureException} is signalled.</dd>
+     *  <dt><b>Scheduler:</b></dt>
+     *  <dd>You specify the {@link Scheduler} this operator should use.</dd>
+     * </dl>
+     * @param <T> the item type
+     * @param scheduler the scheduler to use for requesting from the upstream and re-emitting
+     *                  those items from
+     * @param batchSize the maximum number of items to emit in one task, positive
+     * @param timeSlice the maximum time one task should emit items for, zero means no time limit;
+     *                  the elapsed time is checked after every 16 items
+     * @param unit the time unit of the time slice
+     * @return the new FlowableTransformer instance
+     * @since 0.20.4
+     */
+    @SchedulerSupport(SchedulerSupport.CUSTOM)
+    @BackpressureSupport(BackpressureKind.FULL)
+    public static <T> FlowableTransformer<T, T> requestObserveOn(Scheduler scheduler, int batchSize, long timeSlice, TimeUnit unit) {
+        ObjectHelper.requireNonNull(scheduler, "scheduler == null");
+        ObjectHelper.verifyPositive(batchSize, "batchSize");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        if (timeSlice < 0L) {
+            throw new IllegalArgumentException("timeSlice >= 0 required but it was " + timeSlice);
+        }
+        return new FlowableRequestObserveOnBatch<T>(null, scheduler, batchSize, unit.toNanos(timeSlice));
+    }
+
     /**
      * Issues a {@code request(1)} to the upstream repeatedly after the given period time elapses (including
      * the very first {@code request(1)}).
@@ -1360,6 +1536,148 @@ public final class FlowableTransformers {
         return new FlowablePartialCollect<T, I, A, R>(null, handler, cleaner, prefetch);
     }
 
+    /**
+     * Cuts a sequence of {@link ByteBuffer} chunks into frames of a fixed size.
+     * <p>
+     * Frames fully contained in a chunk are emitted without copying, as a duplicate of the chunk
+     * whose position and limit delimit the frame, therefore, the chunks should not be modified
+     * or reused while the frames are in use. Frames spanning more than one chunk are copied
+     * into a new buffer of the frame size. The chunks' own position and limit are not modified.
+     * <p>
+     * If the source completes in the middle of a frame, an {@code IllegalStateException} is signaled.
+     * @param frameSize the size of each frame in bytes, positive
+     * @return the new FlowableTransformer instance
+     * @since 0.20.4
+     */
+    public static FlowableTransformer<ByteBuffer, ByteBuffer> frameFixedSize(int frameSize) {
+        return frameFixedSize(frameSize, Flowable.bufferSize());
+    }
+
+    /**
+     * Cuts a sequence of {@link ByteBuffer} chunks into frames of a fixed size.
+     * <p>
+     * Frames fully contained in a chunk are emitted without copying, as a duplicate of the chunk
+     * whose position and limit delimit the frame, therefore, the chunks should not be modified
+     * or reused while the frames are in use. Frames spanning more than one chunk are copied
+     * into a new buffer of the frame size. The chunks' own position and limit are not modified.
+     * <p>
+     * If the source completes in the middle of a frame, an {@code IllegalStateException} is signaled.
+     * @param frameSize the size of each frame in bytes, positive
+     * @param prefetch the number of chunks to prefetch from the upstream
+     * @return the new FlowableTransformer instance
+     * @since 0.20.4
+     */
+    public static FlowableTransformer<ByteBuffer, ByteBuffer> frameFixedSize(int frameSize, int prefetch) {
+        ObjectHelper.verifyPositive(frameSize, "frameSize");
+        ObjectHelper.verifyPositive(prefetch, "prefetch");
+        return new FlowablePartialCollect<ByteBuffer, Object, ByteFrameLength.State, ByteBuffer>(null,
+                new ByteFrameLength(0, ByteOrder.BIG_ENDIAN, frameSize), Functions.emptyConsumer(), prefetch);
+    }
+
+    /**
+     * Cuts a sequence of {@link ByteBuffer} chunks into frames, each prefixed by its length
+     * stored as an unsigned 1 or 2 byte or a signed 4 byte integer;
+     * the length prefix is not part of the emitted frames.
+     * <p>
+     * Frames fully contained in a chunk are emitted without copying, as a duplicate of the chunk
+     * whose position and limit delimit the frame, therefore, the chunks should not be modified
+     * or reused while the frames are in use. Frames spanning more than one chunk are copied
+     * into a new buffer of the frame size. The chunks' own position and limit are not modified.
+     * <p>
+     * If a length is negative or exceeds {@code maxFrameLength} or the source completes in the
+     * middle of a frame, an {@code IllegalStateException} is signaled.
+     * @param lengthFieldSize the size of the length prefix: 1, 2 or 4 bytes
+     * @param order the byte order of the length prefix
+     * @param maxFrameLength the maximum length of a frame
+     * @return the new FlowableTransformer instance
+     * @since 0.20.4
+     */
+    public static FlowableTransformer<ByteBuffer, ByteBuffer> frameLengthPrefixed(int lengthFieldSize, ByteOrder order, int maxFrameLength) {
+        return frameLengthPrefixed(lengthFieldSize, order, maxFrameLength, Flowable.bufferSize());
+    }
+
+    /**
+     * Cuts a sequence of {@link ByteBuffer} chunks into frames, each prefixed by its length
+     * stored as an unsigned 1 or 2 byte or a signed 4 byte integer;
+     * the length prefix is not part of the emitted frames.
+     * <p>
+     * Frames fully contained in a chunk are emitted without copying, as a duplicate of the chunk
+     * whose position and limit delimit the frame, therefore, the chunks should not be modified
+     * or reused while the frames are in use. Frames spanning more than one chunk are copied
+     * into a new buffer of the frame size. The chunks' own position and limit are not modified.
+     * <p>
+     * If a length is negative or exceeds {@code maxFrameLength} or the source completes in the
+     * middle of a frame, an {@code IllegalStateException} is signaled.
+     * @param lengthFieldSize the size of the length prefix: 1, 2 or 4 bytes
+     * @param order the byte order of the length prefix
+     * @param maxFrameLength the maximum length of a frame
+     * @param prefetch the number of chunks to prefetch from the upstream
+     * @return the new FlowableTransformer instance
+     * @since 0.20.4
+     */
+    public static FlowableTransformer<ByteBuffer, ByteBuffer> frameLengthPrefixed(int lengthFieldSize, ByteOrder order, int maxFrameLength, int prefetch) {
+        if (lengthFieldSize != 1 && lengthFieldSize != 2 && lengthFieldSize != 4) {
+            throw new IllegalArgumentException("lengthFieldSize must be 1, 2 or 4 but it was " + lengthFieldSize);
+        }
+        ObjectHelper.requireNonNull(order, "order is null");
+        ObjectHelper.verifyPositive(maxFrameLength, "maxFrameLength");
+        ObjectHelper.verifyPositive(prefetch, "prefetch");
+        return new FlowablePartialCollect<ByteBuffer, Object, ByteFrameLength.State, ByteBuffer>(null,
+                new ByteFrameLength(lengthFieldSize, order, maxFrameLength), Functions.emptyConsumer(), prefetch);
+    }
+
+    /**
+     * Cuts a sequence of {@link ByteBuffer} chunks into frames separated by a delimiter
+     * byte sequence which is not part of the emitted frames.
+     * <p>
+     * Frames fully contained in a chunk are emitted without copying, as a duplicate of the chunk
+     * whose position and limit delimit the frame, therefore, the chunks should not be modified
+     * or reused while the frames are in use. The parts of a frame spanning more than one chunk
+     * are gathered in a buffer reused for the lifetime of the subscription and copied out
+     * once the delimiter is found. The chunks' own position and limit are not modified.
+     * <p>
+     * Empty frames between subsequent delimiters are emitted. The remaining bytes after
+     * the last delimiter, if any, are emitted as the last frame.
+     * If a frame is longer than {@code maxFrameLength}, an {@code IllegalStateException} is signaled.
+     * @param delimiter the non-empty delimiter byte sequence, copied
+     * @param maxFrameLength the maximum length of a frame
+     * @return the new FlowableTransformer instance
+     * @since 0.20.4
+     */
+    public static FlowableTransformer<ByteBuffer, ByteBuffer> frameDelimited(byte[] delimiter, int maxFrameLength) {
+        return frameDelimited(delimiter, maxFrameLength, Flowable.bufferSize());
+    }
+
+    /**
+     * Cuts a sequence of {@link ByteBuffer} chunks into frames separated by a delimiter
+     * byte sequence which is not part of the emitted frames.
+     * <p>
+     * Frames fully contained in a chunk are emitted without copying, as a duplicate of the chunk
+     * whose position and limit delimit the frame, therefore, the chunks should not be modified
+     * or reused while the frames are in use. The parts of a frame spanning more than one chunk
+     * are gathered in a buffer reused for the lifetime of the subscription and copied out
+     * once the delimiter is found. The chunks' own position and limit are not modified.
+     * <p>
+     * Empty frames between subsequent delimiters are emitted. The remaining bytes after
+     * the last delimiter, if any, are emitted as the last frame.
+     * If a frame is longer than {@code maxFrameLength}, an {@code IllegalStateException} is signaled.
+     * @param delimiter the non-empty delimiter byte sequence, copied
+     * @param maxFrameLength the maximum length of a frame
+     * @param prefetch the number of chunks to prefetch from the upstream
+     * @return the new FlowableTransformer instance
+     * @since 0.20.4
+     */
+    public static FlowableTransformer<ByteBuffer, ByteBuffer> frameDelimited(byte[] delimiter, int maxFrameLength, int prefetch) {
+        ObjectHelper.requireNonNull(delimiter, "delimiter is null");
+        if (delimiter.length == 0) {
+            throw new IllegalArgumentException("delimiter is empty");
+        }
+        ObjectHelper.verifyPositive(maxFrameLength, "maxFrameLength");
+        ObjectHelper.verifyPositive(prefetch, "prefetch");
+        return new FlowablePartialCollect<ByteBuffer, Object, ByteFrameDelimiter.State, ByteBuffer>(null,
+                new ByteFrameDelimiter(delimiter.clone(), maxFrameLength), Functions.emptyConsumer(), prefetch);
+    }
+
     /**
      * Allows an upstream error to jump over an inner transformation and is
      * then reapplied once the inner transformation's returned Flowable terminates.
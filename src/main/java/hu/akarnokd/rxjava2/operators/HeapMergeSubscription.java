@@ -0,0 +1,425 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.fuseable.SimpleQueue;
+import io.reactivex.internal.subscribers.InnerQueuedSubscriber;
+import io.reactivex.internal.subscribers.InnerQueuedSubscriberSupport;
+import io.reactivex.internal.subscriptions.EmptySubscription;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.AtomicThrowable;
+import io.reactivex.internal.util.BackpressureHelper;
+import io.reactivex.parallel.ParallelFlowable;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Subscription coordinator that merges items from a fixed set of source Publishers by
+ * picking the smallest available next item from them based on a Comparator, keeping
+ * the current head items in a binary min-heap.
+ * <p>
+ * Unlike {@link BasicMergeSubscription}, which scans every source for each item emitted,
+ * this coordinator only touches the source that produced the last item and restores
+ * the heap in O(log n) comparisons. Ties are broken by the source index so the
+ * output is the same as with {@code BasicMergeSubscription}.
+ *
+ * @param <T> the value type
+ * @since 0.20.4
+ */
+public final class HeapMergeSubscription<T>
+extends AtomicInteger
+implements Subscription, InnerQueuedSubscriberSupport<T> {
+
+    private static final long serialVersionUID = -1547498587372357335L;
+
+    /**
+     * The number of sources from which on the ordered merge operators
+     * switch from the linear-scan {@link BasicMergeSubscription} to this
+     * heap-based coordinator.
+     */
+    public static final int THRESHOLD = 16;
+
+    final Subscriber<? super T> downstream;
+
+    final Comparator<? super T> comparator;
+
+    final InnerQueuedSubscriber<T>[] subscribers;
+
+    final boolean delayErrors;
+
+    final AtomicThrowable errors;
+
+    final AtomicLong requested;
+
+    /** The current head item of each source, null if not yet available. */
+    final Object[] latest;
+
+    /** Indexes of sources with an item in {@link #latest}, heap-ordered. */
+    final int[] heap;
+
+    /** Indexes of sources that have neither a head item nor have finished. */
+    final int[] pending;
+
+    int heapSize;
+
+    int pendingSize;
+
+    volatile boolean cancelled;
+
+    @SuppressWarnings("unchecked")
+    public HeapMergeSubscription(Subscriber<? super T> downstream, Comparator<? super T> comparator, int n, int prefetch, boolean delayErrors) {
+        this.downstream = downstream;
+        this.comparator = comparator;
+        this.delayErrors = delayErrors;
+        InnerQueuedSubscriber<T>[] subs = new InnerQueuedSubscriber[n];
+        int[] pending = new int[n];
+        for (int i = 0; i < n; i++) {
+            subs[i] = new InnerQueuedSubscriber<T>(this, prefetch);
+            pending[i] = i;
+        }
+        this.subscribers = subs;
+        this.requested = new AtomicLong();
+        this.errors = new AtomicThrowable();
+        this.latest = new Object[n];
+        this.heap = new int[n];
+        this.pending = pending;
+        this.pendingSize = n;
+    }
+
+    public void subscribe(Publisher<T>[] sources, int n) {
+      InnerQueuedSubscriber<T>[] subs = subscribers;
+      for (int i = 0; i < n && !cancelled; i++) {
+          Publisher<T> p = sources[i];
+          if (p != null) {
+              p.subscribe(subs[i]);
+          } else {
+              EmptySubscription.error(new NullPointerException("The " + i + "th source is null"), subs[i]);
+              if (!delayErrors) {
+                  break;
+              }
+          }
+      }
+    }
+
+    public void subscribe(ParallelFlowable<T> source) {
+      source.subscribe(subscribers);
+    }
+
+    @Override
+    public void request(long n) {
+        if (SubscriptionHelper.validate(n)) {
+            BackpressureHelper.add(requested, n);
+            drain();
+        }
+    }
+
+    void cancelSources() {
+        for (InnerQueuedSubscriber<T> d : subscribers) {
+            d.cancel();
+        }
+    }
+
+    void clearSources() {
+        Arrays.fill(latest, null);
+        heapSize = 0;
+        pendingSize = 0;
+        for (InnerQueuedSubscriber<T> d : subscribers) {
+            SimpleQueue<T> q = d.queue();
+            if (q != null) {
+                q.clear();
+            }
+        }
+    }
+
+    void cancelAndClearSources() {
+        cancelSources();
+        clearSources();
+    }
+
+    @Override
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            cancelSources();
+            if (getAndIncrement() == 0) {
+                clearSources();
+            }
+        }
+    }
+
+    @Override
+    public void innerNext(InnerQueuedSubscriber<T> inner, T value) {
+        inner.queue().offer(value);
+        drain();
+    }
+
+    @Override
+    public void innerError(InnerQueuedSubscriber<T> inner, Throwable e) {
+        if (errors.addThrowable(e)) {
+            if (!delayErrors) {
+                cancelSources();
+            } else {
+                inner.setDone();
+            }
+            drain();
+        } else {
+            RxJavaPlugins.onError(e);
+        }
+    }
+
+    @Override
+    public void innerComplete(InnerQueuedSubscriber<T> inner) {
+        inner.setDone();
+        drain();
+    }
+
+    /**
+     * Try to take the next item of the given source.
+     * @param index the source index
+     * @return the next item, this if the source has terminated and has no more items,
+     * null if the source has no item available at the moment
+     * @throws Exception if polling the source queue crashed
+     */
+    Object pollSource(int index) throws Exception {
+        InnerQueuedSubscriber<T> inner = subscribers[index];
+        boolean d = inner.isDone();
+        SimpleQueue<T> q = inner.queue();
+        Object v = q != null ? q.poll() : null;
+        if (v == null && d) {
+            return this;
+        }
+        return v;
+    }
+
+    /**
+     * Move the items of pending sources into the heap where possible.
+     * @return true if the drain loop can continue, false if an error has been signaled
+     */
+    boolean fillPending() {
+        int[] pending = this.pending;
+        int ps = pendingSize;
+        int i = 0;
+        while (i < ps) {
+            int index = pending[i];
+            Object v;
+            try {
+                v = pollSource(index);
+            } catch (Throwable ex) {
+                Exceptions.throwIfFatal(ex);
+                errors.addThrowable(ex);
+                subscribers[index].setDone();
+                if (!delayErrors) {
+                    cancelAndClearSources();
+                    downstream.onError(errors.terminate());
+                    return false;
+                }
+                v = this;
+            }
+
+            if (v == null) {
+                i++;
+                continue;
+            }
+
+            pending[i] = pending[--ps];
+
+            if (v != this) {
+                latest[index] = v;
+                try {
+                    siftUp(index);
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    errors.addThrowable(ex);
+                    cancelAndClearSources();
+                    downstream.onError(errors.terminate());
+                    return false;
+                }
+            }
+        }
+        pendingSize = ps;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    boolean less(int index1, int index2) {
+        int c = comparator.compare((T)latest[index1], (T)latest[index2]);
+        return c < 0 || (c == 0 && index1 < index2);
+    }
+
+    void siftUp(int index) {
+        int[] heap = this.heap;
+        int k = heapSize++;
+        while (k > 0) {
+            int parent = (k - 1) >> 1;
+            int p = heap[parent];
+            if (!less(index, p)) {
+                break;
+            }
+            heap[k] = p;
+            k = parent;
+        }
+        heap[k] = index;
+    }
+
+    void siftDown(int index) {
+        int[] heap = this.heap;
+        int n = heapSize;
+        int half = n >> 1;
+        int k = 0;
+        while (k < half) {
+            int child = (k << 1) + 1;
+            int c = heap[child];
+            int right = child + 1;
+            if (right < n && less(heap[right], c)) {
+                child = right;
+                c = heap[child];
+            }
+            if (!less(c, index)) {
+                break;
+            }
+            heap[k] = c;
+            k = child;
+        }
+        heap[k] = index;
+    }
+
+    void terminate() {
+        Throwable ex = errors.terminate();
+        if (ex != null) {
+            downstream.onError(ex);
+        } else {
+            downstream.onComplete();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void drain() {
+        if (getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+
+        Subscriber<? super T> a = downstream;
+        AtomicThrowable err = errors;
+        InnerQueuedSubscriber<T>[] subs = subscribers;
+        Object[] latest = this.latest;
+        int[] heap = this.heap;
+
+        for (;;) {
+
+            long r = requested.get();
+            long e = 0L;
+
+            for (;;) {
+                if (cancelled) {
+                    clearSources();
+                    return;
+                }
+
+                if (!delayErrors && err.get() != null) {
+                    cancelAndClearSources();
+                    a.onError(err.terminate());
+                    return;
+                }
+
+                if (pendingSize != 0) {
+                    if (!fillPending()) {
+                        return;
+                    }
+                    if (pendingSize != 0) {
+                        break;
+                    }
+                }
+
+                if (heapSize == 0) {
+                    terminate();
+                    return;
+                }
+
+                if (e == r) {
+                    break;
+                }
+
+                int pick = heap[0];
+                T v = (T)latest[pick];
+                latest[pick] = null;
+
+                a.onNext(v);
+
+                e++;
+
+                subs[pick].requestOne();
+
+                Object next;
+                try {
+                    next = pollSource(pick);
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    err.addThrowable(ex);
+                    subs[pick].setDone();
+                    if (!delayErrors) {
+                        cancelAndClearSources();
+                        a.onError(err.terminate());
+                        return;
+                    }
+                    next = this;
+                }
+
+                try {
+                    if (next != null && next != this) {
+                        latest[pick] = next;
+                        siftDown(pick);
+                    } else {
+                        int last = heap[--heapSize];
+                        if (heapSize != 0) {
+                            siftDown(last);
+                        }
+                        if (next == null) {
+                            pending[pendingSize++] = pick;
+                        }
+                    }
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    err.addThrowable(ex);
+                    cancelAndClearSources();
+                    a.onError(err.terminate());
+                    return;
+                }
+            }
+
+            if (e != 0L) {
+                BackpressureHelper.produced(requested, e);
+            }
+
+            missed = addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.util.Comparator;
 import org.reactivestreams.Subscriber;
 
 import hu.akarnokd.rxjava2.operators.BasicMergeSubscription;
+import hu.akarnokd.rxjava2.operators.HeapMergeSubscription;
 import io.reactivex.Flowable;
 import io.reactivex.parallel.ParallelFlowable;
 
@@ -54,8 +55,15 @@ final class ParallelOrderedMerge<T> extends Flowable<T> {
 
     @Override
     protected void subscribeActual(Subscriber<? super T> s) {
-        final BasicMergeSubscription<T> parent = new BasicMergeSubscription<T>(s, comparator, this.source.parallelism(), prefetch, delayErrors);
-        s.onSubscribe(parent);
-        parent.subscribe(this.source);
+        int n = source.parallelism();
+        if (n < HeapMergeSubscription.THRESHOLD) {
+            BasicMergeSubscription<T> parent = new BasicMergeSubscription<T>(s, comparator, n, prefetch, delayErrors);
+            s.onSubscribe(parent);
+            parent.subscribe(source);
+        } else {
+            HeapMergeSubscription<T> parent = new HeapMergeSubscription<T>(s, comparator, n, prefetch, delayErrors);
+            s.onSubscribe(parent);
+            parent.subscribe(source);
+        }
     }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.parallel;
+
+import org.reactivestreams.*;
+
+import hu.akarnokd.rxjava2.math.SummaryStatistics;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.functions.BiFunction;
+import io.reactivex.internal.subscriptions.*;
+import io.reactivex.parallel.*;
+
+/**
+ * Computes the count, sum, min, max, mean and variance of numbers on each parallel rail,
+ * or empty if the rail doesn't produce any data.
+ * @param <T> the input element type extending Number
+ * @since 0.20.4
+ */
+final class ParallelSummarize<T extends Number> extends ParallelFlowable<SummaryStatistics>
+implements ParallelTransformer<T, SummaryStatistics> {
+
+    final ParallelFlowable<? extends Number> source;
+
+    ParallelSummarize(ParallelFlowable<? extends Number> source) {
+        this.source = source;
+    }
+
+    @Override
+    public ParallelFlowable<SummaryStatistics> apply(ParallelFlowable<T> t) {
+        return new ParallelSummarize<T>(t);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super SummaryStatistics>[] subscribers) {
+        if (!validate(subscribers)) {
+            return;
+        }
+
+        int n = subscribers.length;
+        @SuppressWarnings("unchecked")
+        Subscriber<Number>[] parents = new Subscriber[n];
+        for (int i = 0; i < n; i++) {
+            parents[i] = new SummarizeSubscriber(subscribers[i]);
+        }
+
+        source.subscribe(parents);
+    }
+
+    @Override
+    public int parallelism() {
+        return source.parallelism();
+    }
+
+    enum Combiner implements BiFunction<SummaryStatistics, SummaryStatistics, SummaryStatistics> {
+        INSTANCE;
+
+        @Override
+        public SummaryStatistics apply(SummaryStatistics a, SummaryStatistics b) throws Exception {
+            return a.combine(b);
+        }
+    }
+
+    static final class SummarizeSubscriber extends DeferredScalarSubscription<SummaryStatistics>
+    implements FlowableSubscriber<Number> {
+        private static final long serialVersionUID = -6137460226618380227L;
+
+        long count;
+
+        double sum;
+
+        double min;
+
+        double max;
+
+        double mean;
+
+        double m2;
+
+        Subscription upstream;
+
+        SummarizeSubscriber(Subscriber<? super SummaryStatistics> downstream) {
+            super(downstream);
+        }
+
+        @Override
+        public void onNext(Number t) {
+            double v = t.doubleValue();
+            long c = ++count;
+            if (c == 1L) {
+                min = v;
+                max = v;
+            } else {
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            sum += v;
+            double delta = v - mean;
+            mean += delta / c;
+            m2 += delta * (v - mean);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            downstream.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            long c = count;
+            if (c != 0L) {
+                complete(new SummaryStatistics(c, sum, min, max, mean, m2));
+            } else {
+                downstream.onComplete();
+            }
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (SubscriptionHelper.validate(upstream, s)) {
+                upstream = s;
+
+                downstream.onSubscribe(this);
+
+                s.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            super.cancel();
+            upstream.cancel();
+        }
+    }
+}
@@ -18,6 +18,7 @@ package hu.akarnokd.rxjava2.parallel;
 
 import java.util.Comparator;
 
+import hu.akarnokd.rxjava2.math.SummaryStatistics;
 import io.reactivex.Flowable;
 import io.reactivex.internal.functions.Functions;
 import io.reactivex.internal.functions.ObjectHelper;
@@ -153,4 +154,27 @@ public final class ParallelTransformers {
     public static <T extends Number> ParallelTransformer<T, Double> sumDouble() {
         return new ParallelSumDouble<T>(null);
     }
+
+    /**
+     * Computes the count, sum, min, max, mean and variance of the numbers on each rail.
+     * @param <T> the numerical type of the input values
+     * @return the new ParallelTransformer type
+     * @since 0.20.4
+     */
+    public static <T extends Number> ParallelTransformer<T, SummaryStatistics> summarize() {
+        return new ParallelSummarize<T>(null);
+    }
+
+    /**
+     * Computes the count, sum, min, max, mean and variance of the numbers on each rail
+     * and combines these partial statistics into the statistics of all rails.
+     * @param <T> the numerical type of the input values
+     * @param source the source ParallelFlowable
+     * @return the new Flowable instance, empty if none of the rails produced any data
+     * @since 0.20.4
+     */
+    public static <T extends Number> Flowable<SummaryStatistics> summarize(ParallelFlowable<T> source) {
+        ObjectHelper.requireNonNull(source, "source is null");
+        return new ParallelSummarize<T>(source).reduce(ParallelSummarize.Combiner.INSTANCE);
+    }
 }
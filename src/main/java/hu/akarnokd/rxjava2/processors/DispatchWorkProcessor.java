@@ -16,16 +16,17 @@
 
 package hu.akarnokd.rxjava2.processors;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.*;
 
 import org.reactivestreams.*;
 
-import hu.akarnokd.rxjava2.util.SpmcLinkedArrayQueue;
+import hu.akarnokd.rxjava2.util.*;
 import io.reactivex.*;
 import io.reactivex.Scheduler.Worker;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.MissingBackpressureException;
 import io.reactivex.internal.functions.ObjectHelper;
-import io.reactivex.internal.fuseable.SimplePlainQueue;
 import io.reactivex.internal.subscriptions.SubscriptionHelper;
 import io.reactivex.internal.util.*;
 import io.reactivex.plugins.RxJavaPlugins;
@@ -102,7 +103,69 @@ public final class DispatchWorkProcessor<T> extends FlowableProcessor<T> impleme
      * @return the new DispatchWorkSubject instance
      */
     public static <T> DispatchWorkProcessor<T> create(Scheduler scheduler, int capacityHint, boolean delayErrors) {
-        return new DispatchWorkProcessor<T>(capacityHint, delayErrors, scheduler, false);
+        return new DispatchWorkProcessor<T>(capacityHint, delayErrors, scheduler, false, 1, false);
+    }
+
+    /**
+     * Create an empty {@link DispatchWorkProcessor} instance with the given scheduler,
+     * capacity hint (expected number of items cached until consumption), if an
+     * error should be delayed and the maximum number of items a subscriber's worker
+     * claims from the shared queue at once.
+     * <p>
+     * A worker never claims more items than its subscriber has requested, and
+     * if the subscriber cancels while holding claimed items, those items are
+     * handed over to the other subscribers.
+     * @param <T> the input and output value type
+     * @param scheduler the scheduler to use for the {@link Observer}s to be notified on
+     * @param capacityHint the expected number of items to be cached until consumption
+     * @param delayErrors if true, errors are delivered after items have been consumed
+     * @param batchSize the maximum number of items claimed at once, positive
+     * @return the new DispatchWorkSubject instance
+     * @since 0.20.4
+     */
+    public static <T> DispatchWorkProcessor<T> create(Scheduler scheduler, int capacityHint, boolean delayErrors, int batchSize) {
+        ObjectHelper.verifyPositive(batchSize, "batchSize");
+        return new DispatchWorkProcessor<T>(capacityHint, delayErrors, scheduler, false, batchSize, false);
+    }
+
+    /**
+     * Create an empty {@link DispatchWorkProcessor} instance with the given scheduler,
+     * fixed capacity and if an error should be delayed.
+     * <p>
+     * The items are cached in a bounded, preallocated array instead of a
+     * growing linked structure and the processor requests at most
+     * {@code capacity} items from its upstream. If the upstream ignores
+     * backpressure and overflows the queue, the processor cancels it and
+     * terminates with a {@link MissingBackpressureException}.
+     * @param <T> the input and output value type
+     * @param scheduler the scheduler to use for the {@link Observer}s to be notified on
+     * @param capacity the maximum number of items cached until consumption, positive
+     * @param delayErrors if true, errors are delivered after items have been consumed
+     * @return the new DispatchWorkSubject instance
+     * @since 0.20.4
+     */
+    public static <T> DispatchWorkProcessor<T> createFixed(Scheduler scheduler, int capacity, boolean delayErrors) {
+        return createFixed(scheduler, capacity, delayErrors, 1);
+    }
+
+    /**
+     * Create an empty {@link DispatchWorkProcessor} instance with the given scheduler,
+     * fixed capacity, if an error should be delayed and the maximum number of items
+     * a subscriber's worker claims from the shared queue at once.
+     * @param <T> the input and output value type
+     * @param scheduler the scheduler to use for the {@link Observer}s to be notified on
+     * @param capacity the maximum number of items cached until consumption, positive
+     * @param delayErrors if true, errors are delivered after items have been consumed
+     * @param batchSize the maximum number of items claimed at once, positive
+     * @return the new DispatchWorkSubject instance
+     * @see #createFixed(Scheduler, int, boolean)
+     * @see #create(Scheduler, int, boolean, int)
+     * @since 0.20.4
+     */
+    public static <T> DispatchWorkProcessor<T> createFixed(Scheduler scheduler, int capacity, boolean delayErrors, int batchSize) {
+        ObjectHelper.verifyPositive(capacity, "capacity");
+        ObjectHelper.verifyPositive(batchSize, "batchSize");
+        return new DispatchWorkProcessor<T>(capacity, delayErrors, scheduler, false, batchSize, true);
     }
 
     /**
@@ -116,10 +179,34 @@ public final class DispatchWorkProcessor<T> extends FlowableProcessor<T> impleme
      * @return the new DispatchWorkSubject instance
      */
     public static <T> DispatchWorkProcessor<T> createUnbounded(Scheduler scheduler, int capacityHint, boolean delayErrors) {
-        return new DispatchWorkProcessor<T>(capacityHint, delayErrors, scheduler, true);
+        return new DispatchWorkProcessor<T>(capacityHint, delayErrors, scheduler, true, 1, false);
     }
 
-    final SimplePlainQueue<T> queue;
+    /**
+     * Create an empty and unbounded {@link DispatchWorkProcessor} instance with the given scheduler,
+     * capacity hint (expected number of items cached until consumption), if an
+     * error should be delayed and the maximum number of items a subscriber's worker
+     * claims from the shared queue at once.
+     * @param <T> the input and output value type
+     * @param scheduler the scheduler to use for the {@link Observer}s to be notified on
+     * @param capacityHint the expected number of items to be cached until consumption
+     * @param delayErrors if true, errors are delivered after items have been consumed
+     * @param batchSize the maximum number of items claimed at once, positive
+     * @return the new DispatchWorkSubject instance
+     * @see #create(Scheduler, int, boolean, int)
+     * @since 0.20.4
+     */
+    public static <T> DispatchWorkProcessor<T> createUnbounded(Scheduler scheduler, int capacityHint, boolean delayErrors, int batchSize) {
+        ObjectHelper.verifyPositive(batchSize, "batchSize");
+        return new DispatchWorkProcessor<T>(capacityHint, delayErrors, scheduler, true, batchSize, false);
+    }
+
+    final SpmcQueue<T> queue;
+
+    /** Items claimed by cancelled subscribers, to be picked up by the others. */
+    final ConcurrentLinkedQueue<T> returned;
+
+    final int batchSize;
 
     final AtomicInteger wip;
 
@@ -145,8 +232,14 @@ public final class DispatchWorkProcessor<T> extends FlowableProcessor<T> impleme
     static final WorkDisposable[] TERMINATED = new WorkDisposable[0];
 
     @SuppressWarnings("unchecked")
-    DispatchWorkProcessor(int capacityHint, boolean delayErrors, Scheduler scheduler, boolean unbounded) {
-        this.queue = new SpmcLinkedArrayQueue<T>(capacityHint);
+    DispatchWorkProcessor(int capacityHint, boolean delayErrors, Scheduler scheduler, boolean unbounded, int batchSize, boolean fixed) {
+        if (fixed) {
+            this.queue = new SpmcArrayQueue<T>(capacityHint);
+        } else {
+            this.queue = new SpmcLinkedArrayQueue<T>(capacityHint);
+        }
+        this.returned = new ConcurrentLinkedQueue<T>();
+        this.batchSize = batchSize;
         this.delayErrors = delayErrors;
         this.wip = new AtomicInteger();
         this.upstream = new AtomicReference<Subscription>();
@@ -168,7 +261,11 @@ public final class DispatchWorkProcessor<T> extends FlowableProcessor<T> impleme
     @Override
     public void onNext(T t) {
         if (error.get() == null) {
-            queue.offer(t);
+            if (!queue.offer(t)) {
+                SubscriptionHelper.cancel(upstream);
+                onError(new MissingBackpressureException("Queue is full?!"));
+                return;
+            }
             for (WorkDisposable<T> wd : observers.get()) {
                 wd.drain();
             }
@@ -200,7 +297,7 @@ public final class DispatchWorkProcessor<T> extends FlowableProcessor<T> impleme
 
     @Override
     protected void subscribeActual(Subscriber<? super T> subscriber) {
-        WorkDisposable<T> wd = new WorkDisposable<T>(subscriber, this, scheduler.createWorker(), delayErrors);
+        WorkDisposable<T> wd = new WorkDisposable<T>(subscriber, this, scheduler.createWorker(), delayErrors, batchSize);
         subscriber.onSubscribe(wd);
         if (add(wd)) {
             if (wd.isCancelled()) {
@@ -294,6 +391,26 @@ public final class DispatchWorkProcessor<T> extends FlowableProcessor<T> impleme
         }
     }
 
+    /**
+     * Hand the remaining claimed items of a cancelled subscriber
+     * over to the other subscribers.
+     * @param batch the array of claimed items
+     * @param from the index of the first unconsumed item
+     * @param to the index after the last unconsumed item
+     */
+    @SuppressWarnings("unchecked")
+    void giveBack(Object[] batch, int from, int to) {
+        if (from != to) {
+            for (int i = from; i < to; i++) {
+                returned.offer((T)batch[i]);
+                batch[i] = null;
+            }
+            for (WorkDisposable<T> wd : observers.get()) {
+                wd.drain();
+            }
+        }
+    }
+
     void requestMore(long n) {
         long pf = prefetch;
         Subscription s = upstream.get();
@@ -333,16 +450,24 @@ public final class DispatchWorkProcessor<T> extends FlowableProcessor<T> impleme
 
         final AtomicLong requested;
 
+        /** The locally claimed items, null if items are polled one by one. */
+        final Object[] batch;
+
+        int batchIndex;
+
+        int batchCount;
+
         long emitted;
 
         volatile boolean disposed;
 
-        WorkDisposable(Subscriber<? super T> downstream, DispatchWorkProcessor<T> parent, Worker worker, boolean delayErrors) {
+        WorkDisposable(Subscriber<? super T> downstream, DispatchWorkProcessor<T> parent, Worker worker, boolean delayErrors, int batchSize) {
             this.downstream = downstream;
             this.parent = parent;
             this.worker = worker;
             this.delayErrors = delayErrors;
             this.requested = new AtomicLong();
+            this.batch = batchSize > 1 ? new Object[batchSize] : null;
         }
 
         @Override
@@ -367,7 +492,8 @@ public final class DispatchWorkProcessor<T> extends FlowableProcessor<T> impleme
             int missed = 1;
 
             DispatchWorkProcessor<T> parent = this.parent;
-            SimplePlainQueue<T> q = parent.queue;
+            SpmcQueue<T> q = parent.queue;
+            Object[] batch = this.batch;
             Subscriber<? super T> downstream = this.downstream;
             AtomicReference<Throwable> error = parent.error;
             boolean delayErrors = this.delayErrors;
@@ -380,6 +506,11 @@ public final class DispatchWorkProcessor<T> extends FlowableProcessor<T> impleme
                 long c = 0;
                 while (e != r) {
                     if (disposed) {
+                        if (batch != null) {
+                            parent.giveBack(batch, batchIndex, batchCount);
+                            batchIndex = 0;
+                            batchCount = 0;
+                        }
                         return;
                     }
 
@@ -388,13 +519,14 @@ public final class DispatchWorkProcessor<T> extends FlowableProcessor<T> impleme
                     if (d && !delayErrors) {
                         if (ex != ExceptionHelper.TERMINATED) {
                             q.clear();
+                            clearBatch();
                             downstream.onError(ex);
                             worker.dispose();
                             return;
                         }
                     }
 
-                    T v = q.poll();
+                    T v = batch != null ? pollBatch(q, batch, r - e) : q.poll();
                     boolean empty = v == null;
 
                     if (d && empty) {
@@ -437,7 +569,7 @@ public final class DispatchWorkProcessor<T> extends FlowableProcessor<T> impleme
                         }
                     }
 
-                    boolean empty = q.isEmpty();
+                    boolean empty = q.isEmpty() && (batch == null || parent.returned.isEmpty());
 
                     if (d && empty) {
                         if (ex == ExceptionHelper.TERMINATED) {
@@ -458,6 +590,47 @@ public final class DispatchWorkProcessor<T> extends FlowableProcessor<T> impleme
             }
         }
 
+        /**
+         * Returns the next item from the local batch, claiming a new batch of
+         * at most the given number of items if the local batch is empty.
+         * @param q the shared queue
+         * @param batch the local batch array
+         * @param max the maximum number of items to claim
+         * @return the next item or null if there are no items available
+         */
+        @SuppressWarnings("unchecked")
+        T pollBatch(SpmcQueue<T> q, Object[] batch, long max) {
+            int bi = batchIndex;
+            if (bi == batchCount) {
+                T v = parent.returned.poll();
+                if (v != null) {
+                    return v;
+                }
+                int n = q.poll(batch, (int)Math.min(batch.length, max));
+                if (n == 0) {
+                    return null;
+                }
+                batchCount = n;
+                bi = 0;
+            }
+            T v = (T)batch[bi];
+            batch[bi] = null;
+            batchIndex = bi + 1;
+            return v;
+        }
+
+        void clearBatch() {
+            Object[] batch = this.batch;
+            if (batch != null) {
+                for (int i = batchIndex; i < batchCount; i++) {
+                    batch[i] = null;
+                }
+                batchIndex = 0;
+                batchCount = 0;
+                parent.returned.clear();
+            }
+        }
+
         void drain() {
             if (getAndIncrement() == 0) {
                 worker.schedule(this);
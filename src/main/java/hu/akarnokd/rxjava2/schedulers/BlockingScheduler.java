@@ -25,6 +25,8 @@ import io.reactivex.disposables.*;
 import io.reactivex.functions.Action;
 import io.reactivex.internal.disposables.SequentialDisposable;
 import io.reactivex.internal.functions.*;
+import io.reactivex.internal.fuseable.SimplePlainQueue;
+import io.reactivex.internal.queue.MpscLinkedQueue;
 import io.reactivex.plugins.RxJavaPlugins;
 import io.reactivex.schedulers.Schedulers;
 
@@ -52,6 +54,12 @@ import io.reactivex.schedulers.Schedulers;
  * 
  * In the example code above, {@code observeOn(scheduler)} will execute
  * on the main thread of the Java application.
+ * <p>
+ * The default constructor waits for new tasks on a lock and condition.
+ * The {@link #BlockingScheduler(int, int)} constructor creates a lock-free
+ * event loop that backs off by spinning, then yielding and finally parking
+ * the thread, which is woken up via {@link LockSupport#unpark(Thread)}
+ * by the first task scheduled after it parked.
  * 
  * @since 0.15.1
  */
@@ -66,10 +74,22 @@ public final class BlockingScheduler extends Scheduler {
 
     static final int SPIN_LIMIT = 64;
 
-    final ConcurrentLinkedQueue<Action> queue;
+    static final int CHUNK_SIZE = 256;
+
+    final SimplePlainQueue<Action> queue;
 
     final AtomicLong wip;
 
+    /** If true, use the spin-yield-park back-off instead of the lock. */
+    final boolean parking;
+
+    final int spinCount;
+
+    final int yieldCount;
+
+    /** Set by the event loop thread before it parks in the parking mode. */
+    volatile boolean parked;
+
     final Lock lock;
 
     final Condition condition;
@@ -83,13 +103,45 @@ public final class BlockingScheduler extends Scheduler {
     volatile Thread thread;
 
     public BlockingScheduler() {
-        this.queue = new ConcurrentLinkedQueue<Action>();
+        this.queue = new MpscLinkedQueue<Action>();
         this.lock = new ReentrantLock();
         this.condition = this.lock.newCondition();
         this.running = new AtomicBoolean();
         this.shutdown = new AtomicBoolean();
         this.wip = new AtomicLong();
         this.timedHelper = Schedulers.single();
+        this.parking = false;
+        this.spinCount = SPIN_LIMIT;
+        this.yieldCount = 0;
+    }
+
+    /**
+     * Constructs a lock-free BlockingScheduler backed by an array-based
+     * multi-producer single-consumer queue which, when it runs out of tasks,
+     * checks for new tasks in a tight loop {@code spinCount} times, then
+     * calls {@link Thread#yield()} {@code yieldCount} times and then parks
+     * until a new task arrives.
+     * @param spinCount the number of busy-spin rounds, non-negative
+     * @param yieldCount the number of yield rounds after spinning, non-negative
+     * @since 0.20.4
+     */
+    public BlockingScheduler(int spinCount, int yieldCount) {
+        if (spinCount < 0) {
+            throw new IllegalArgumentException("spinCount >= 0 required but it was " + spinCount);
+        }
+        if (yieldCount < 0) {
+            throw new IllegalArgumentException("yieldCount >= 0 required but it was " + yieldCount);
+        }
+        this.queue = new MpscLinkedArrayQueue<Action>(CHUNK_SIZE);
+        this.lock = null;
+        this.condition = null;
+        this.running = new AtomicBoolean();
+        this.shutdown = new AtomicBoolean();
+        this.wip = new AtomicLong();
+        this.timedHelper = Schedulers.single();
+        this.parking = true;
+        this.spinCount = spinCount;
+        this.yieldCount = yieldCount;
     }
 
     /**
@@ -141,6 +193,9 @@ public final class BlockingScheduler extends Scheduler {
                 }
             } while (wip.decrementAndGet() != 0);
 
+            if (parking) {
+                backOff();
+            } else
             if (wip.get() == 0 && !stop.get()) {
                 lock.lock();
                 try {
@@ -156,8 +211,37 @@ public final class BlockingScheduler extends Scheduler {
         }
     }
 
+    /**
+     * Wait for new tasks by spinning, yielding and then parking.
+     */
+    void backOff() {
+        final AtomicBoolean stop = shutdown;
+        final AtomicLong wip = this.wip;
+
+        for (int i = spinCount; i != 0; i--) {
+            if (wip.get() != 0L || stop.get()) {
+                return;
+            }
+        }
+
+        for (int i = yieldCount; i != 0; i--) {
+            if (wip.get() != 0L || stop.get()) {
+                return;
+            }
+            Thread.yield();
+        }
+
+        while (wip.get() == 0L && !stop.get()) {
+            parked = true;
+            if (wip.get() == 0L && !stop.get()) {
+                LockSupport.park(this);
+            }
+            parked = false;
+        }
+    }
+
     void cancelAll() {
-        final ConcurrentLinkedQueue<Action> q = queue;
+        final SimplePlainQueue<Action> q = queue;
 
         Action a;
 
@@ -213,6 +297,12 @@ public final class BlockingScheduler extends Scheduler {
     void enqueue(Action action) {
         queue.offer(action);
         if (wip.getAndIncrement() == 0L) {
+            if (parking) {
+                if (parked) {
+                    LockSupport.unpark(thread);
+                }
+                return;
+            }
             lock.lock();
             try {
                 condition.signal();
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.schedulers;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.*;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.schedulers.RxThreadFactory;
+
+/**
+ * Scheduler that keeps its delayed tasks in a hashed timing wheel and runs
+ * them on a delegate Scheduler once they are due.
+ * <p>
+ * Scheduling and cancelling a delayed task takes constant time: the caller
+ * only pushes the task onto a lock-free stack or flips its state. A single timer
+ * thread moves the new tasks into the wheel and, every tick, hands the expired
+ * tasks of the current slot to the delegate and unlinks the cancelled ones, so
+ * a cancelled task is released within one turn of the wheel. This suits the many short-lived
+ * timeouts of operators such as {@code timeout} or {@code onBackpressureTimeout}
+ * that are mostly cancelled before they fire.
+ * <p>
+ * Delayed tasks run at most one tick later than requested. Non-delayed tasks
+ * go to the delegate Scheduler directly, and so do the delayed tasks of a
+ * Worker, through a Worker of the delegate, keeping them serialized.
+ * <p>
+ * This scheduler doesn't support {@link #start()} (it's a no-op) and once {@link #shutdown()}
+ * it rejects further delayed tasks.
+ * @since 0.20.4
+ */
+public final class HashedWheelScheduler extends Scheduler {
+
+    final Scheduler delegate;
+
+    final long tickNanos;
+
+    final WheelTask[] wheel;
+
+    final int mask;
+
+    /** The stack of tasks not yet moved into the wheel, linked via {@link WheelTask#nextAdded}. */
+    final AtomicReference<WheelTask> added;
+
+    final long startTime;
+
+    final Thread thread;
+
+    volatile boolean shutdown;
+
+    /** The number of ticks elapsed, accessed from the timer thread only. */
+    long tick;
+
+    /**
+     * Constructs a HashedWheelScheduler with a tick of 1 millisecond
+     * and 512 wheel slots, running the tasks on the given Scheduler.
+     * @param delegate the scheduler to run the tasks on, not null
+     */
+    public HashedWheelScheduler(Scheduler delegate) {
+        this(delegate, 1, TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * Constructs a HashedWheelScheduler with the given tick resolution and
+     * number of wheel slots, running the tasks on the given Scheduler.
+     * @param delegate the scheduler to run the tasks on, not null
+     * @param tick the tick duration, positive
+     * @param unit the tick time unit
+     * @param wheelSize the number of slots in the wheel, rounded up to the next power of 2
+     */
+    public HashedWheelScheduler(Scheduler delegate, long tick, TimeUnit unit, int wheelSize) {
+        this(delegate, tick, unit, wheelSize, new RxThreadFactory("RxHashedWheelScheduler"));
+    }
+
+    /**
+     * Constructs a HashedWheelScheduler with the given tick resolution, number of
+     * wheel slots and timer thread factory, running the tasks on the given Scheduler.
+     * @param delegate the scheduler to run the tasks on, not null
+     * @param tick the tick duration, positive
+     * @param unit the tick time unit
+     * @param wheelSize the number of slots in the wheel, rounded up to the next power of 2
+     * @param factory the factory for the timer thread
+     */
+    public HashedWheelScheduler(Scheduler delegate, long tick, TimeUnit unit, int wheelSize, ThreadFactory factory) {
+        this.delegate = ObjectHelper.requireNonNull(delegate, "delegate is null");
+        ObjectHelper.requireNonNull(unit, "unit is null");
+        ObjectHelper.requireNonNull(factory, "factory is null");
+        ObjectHelper.verifyPositive(tick, "tick");
+        ObjectHelper.verifyPositive(wheelSize, "wheelSize");
+        if (wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("wheelSize <= 2^30 required but it was " + wheelSize);
+        }
+        int n = 1;
+        while (n < wheelSize) {
+            n <<= 1;
+        }
+        this.tickNanos = unit.toNanos(tick);
+        this.wheel = new WheelTask[n];
+        for (int i = 0; i < n; i++) {
+            wheel[i] = new WheelTask(null, 0L, null, null);
+        }
+        this.mask = n - 1;
+        this.added = new AtomicReference<WheelTask>();
+        this.startTime = System.nanoTime();
+        this.thread = factory.newThread(new TimerLoop());
+        this.thread.start();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public Disposable scheduleDirect(Runnable run) {
+        return delegate.scheduleDirect(run);
+    }
+
+    @Override
+    public Disposable scheduleDirect(Runnable run, long delay, TimeUnit unit) {
+        if (delay <= 0L) {
+            return delegate.scheduleDirect(run);
+        }
+        ObjectHelper.requireNonNull(run, "run is null");
+        return add(run, delay, unit, null);
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new WheelWorker(this, delegate.createWorker());
+    }
+
+    Disposable add(Runnable run, long delay, TimeUnit unit, WheelWorker owner) {
+        if (shutdown) {
+            return EmptyDisposable.INSTANCE;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(delay) - startTime;
+        if (deadline < 0L) {
+            deadline = Long.MAX_VALUE;
+        }
+        WheelTask task = new WheelTask(run, deadline, this, owner);
+        AtomicReference<WheelTask> a = added;
+        for (;;) {
+            WheelTask h = a.get();
+            task.nextAdded = h;
+            if (a.compareAndSet(h, task)) {
+                break;
+            }
+        }
+        return task;
+    }
+
+    final class TimerLoop implements Runnable {
+        @Override
+        public void run() {
+            long t = tickNanos;
+            WheelTask[] w = wheel;
+            int m = mask;
+
+            for (;;) {
+                long deadline = t * (tick + 1);
+                for (;;) {
+                    if (shutdown) {
+                        clear();
+                        return;
+                    }
+                    long sleep = deadline - (System.nanoTime() - startTime);
+                    if (sleep <= 0L) {
+                        break;
+                    }
+                    LockSupport.parkNanos(this, sleep);
+                }
+
+                transferAdded();
+
+                WheelTask head = w[(int)tick & m];
+                WheelTask task = head.next;
+                while (task != head) {
+                    WheelTask next = task.next;
+                    if (task.isCancelled()) {
+                        task.unlink();
+                    } else
+                    if (task.remainingRounds <= 0L) {
+                        task.unlink();
+                        task.expire();
+                    } else {
+                        task.remainingRounds--;
+                    }
+                    task = next;
+                }
+
+                tick++;
+            }
+        }
+
+        void transferAdded() {
+            WheelTask task = added.getAndSet(null);
+            if (task == null) {
+                return;
+            }
+            // restore the submission order so equal deadlines expire in FIFO order
+            WheelTask reversed = null;
+            while (task != null) {
+                WheelTask next = task.nextAdded;
+                task.nextAdded = reversed;
+                reversed = task;
+                task = next;
+            }
+
+            long t = tick;
+            long t0 = tickNanos;
+            WheelTask[] w = wheel;
+            int m = mask;
+            int n = w.length;
+            task = reversed;
+            while (task != null) {
+                WheelTask next = task.nextAdded;
+                task.nextAdded = null;
+                if (task.isCancelled()) {
+                    task = next;
+                    continue;
+                }
+                long ticks = task.deadline / t0;
+                task.remainingRounds = (ticks - t) / n;
+                if (ticks < t) {
+                    ticks = t;
+                }
+                task.linkBefore(w[(int)ticks & m]);
+                task = next;
+            }
+        }
+
+        void clear() {
+            WheelTask task = added.getAndSet(null);
+            while (task != null) {
+                task.dispose();
+                task = task.nextAdded;
+            }
+            for (WheelTask head : wheel) {
+                task = head.next;
+                while (task != head) {
+                    task.dispose();
+                    task = task.next;
+                }
+            }
+        }
+    }
+
+    /**
+     * A delayed task; the list heads of the wheel slots are also instances of this class.
+     */
+    static final class WheelTask extends AtomicInteger implements Runnable, Disposable {
+
+        private static final long serialVersionUID = -3406938227546284424L;
+
+        static final int WAITING = 0;
+        static final int EXPIRED = 1;
+        static final int CANCELLED = 2;
+
+        final Runnable run;
+
+        final long deadline;
+
+        final HashedWheelScheduler parent;
+
+        /** The worker that scheduled this task, null for direct tasks. */
+        final WheelWorker owner;
+
+        final AtomicReference<Disposable> future;
+
+        /** The remaining full turns of the wheel, accessed from the timer thread only. */
+        long remainingRounds;
+
+        WheelTask next;
+
+        WheelTask prev;
+
+        WheelTask nextAdded;
+
+        WheelTask(Runnable run, long deadline, HashedWheelScheduler parent, WheelWorker owner) {
+            this.run = run;
+            this.deadline = deadline;
+            this.parent = parent;
+            this.owner = owner;
+            this.future = new AtomicReference<Disposable>();
+            if (run == null) {
+                next = this;
+                prev = this;
+            }
+        }
+
+        void linkBefore(WheelTask head) {
+            WheelTask p = head.prev;
+            prev = p;
+            next = head;
+            p.next = this;
+            head.prev = this;
+        }
+
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            next = null;
+            prev = null;
+        }
+
+        boolean isCancelled() {
+            WheelWorker w = owner;
+            return get() == CANCELLED || (w != null && w.disposed);
+        }
+
+        void expire() {
+            if (compareAndSet(WAITING, EXPIRED)) {
+                Disposable d;
+                WheelWorker w = owner;
+                if (w != null) {
+                    d = w.worker.schedule(this);
+                } else {
+                    d = parent.delegate.scheduleDirect(this);
+                }
+                DisposableHelper.set(future, d);
+            }
+        }
+
+        @Override
+        public void run() {
+            run.run();
+        }
+
+        @Override
+        public void dispose() {
+            if (!compareAndSet(WAITING, CANCELLED)) {
+                DisposableHelper.dispose(future);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return isCancelled() || DisposableHelper.isDisposed(future.get());
+        }
+    }
+
+    /**
+     * Runs its tasks on a Worker of the delegate Scheduler; its pending delayed
+     * tasks are not tracked individually but get dropped by the timer thread once
+     * the worker is disposed.
+     */
+    static final class WheelWorker extends Worker {
+
+        final HashedWheelScheduler parent;
+
+        final Worker worker;
+
+        volatile boolean disposed;
+
+        WheelWorker(HashedWheelScheduler parent, Worker worker) {
+            this.parent = parent;
+            this.worker = worker;
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+            worker.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+
+        @Override
+        public Disposable schedule(Runnable run) {
+            if (disposed) {
+                return EmptyDisposable.INSTANCE;
+            }
+            return worker.schedule(run);
+        }
+
+        @Override
+        public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
+            if (disposed) {
+                return EmptyDisposable.INSTANCE;
+            }
+            if (delay <= 0L) {
+                return worker.schedule(run);
+            }
+            ObjectHelper.requireNonNull(run, "run is null");
+            return parent.add(run, delay, unit, this);
+        }
+    }
+}
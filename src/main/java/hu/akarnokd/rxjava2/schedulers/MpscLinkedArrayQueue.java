@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.schedulers;
+
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.internal.fuseable.SimplePlainQueue;
+
+/**
+ * Unbounded multi-producer single-consumer queue made of linked,
+ * fixed size array chunks, allocating only once per chunk.
+ * <p>
+ * Producers claim a slot in the current tail chunk via a counter;
+ * the producer that overflows the chunk first links a new one.
+ * The consumer waits for claimed but not yet written slots, thus
+ * {@link #poll()} only returns null if the queue is actually empty.
+ *
+ * @param <T> the element type
+ * @since 0.20.4
+ */
+final class MpscLinkedArrayQueue<T> implements SimplePlainQueue<T> {
+
+    final int chunkSize;
+
+    final AtomicReference<Chunk<T>> tail;
+
+    Chunk<T> head;
+
+    int headOffset;
+
+    MpscLinkedArrayQueue(int chunkSize) {
+        this.chunkSize = chunkSize;
+        Chunk<T> c = new Chunk<T>(chunkSize);
+        this.head = c;
+        this.tail = new AtomicReference<Chunk<T>>(c);
+    }
+
+    @Override
+    public boolean offer(T value) {
+        if (value == null) {
+            throw new NullPointerException("value is null");
+        }
+        int n = chunkSize;
+        for (;;) {
+            Chunk<T> c = tail.get();
+            int i = c.claimed.getAndIncrement();
+            if (i < n) {
+                c.lazySet(i, value);
+                return true;
+            }
+            Chunk<T> next = c.next.get();
+            if (next == null) {
+                Chunk<T> nc = new Chunk<T>(n);
+                nc.claimed.lazySet(1);
+                nc.lazySet(0, value);
+                if (c.next.compareAndSet(null, nc)) {
+                    tail.compareAndSet(c, nc);
+                    return true;
+                }
+                next = c.next.get();
+            }
+            tail.compareAndSet(c, next);
+        }
+    }
+
+    /**
+     * Offers two values in order; like with {@code MpscLinkedQueue}, values of
+     * concurrent producers may end up between the two.
+     */
+    @Override
+    public boolean offer(T v1, T v2) {
+        if (v1 == null) {
+            throw new NullPointerException("v1 is null");
+        }
+        if (v2 == null) {
+            throw new NullPointerException("v2 is null");
+        }
+        offer(v1);
+        offer(v2);
+        return true;
+    }
+
+    @Override
+    public T poll() {
+        Chunk<T> c = head;
+        int offset = headOffset;
+        if (offset == chunkSize) {
+            Chunk<T> next = c.next.get();
+            if (next == null) {
+                if (c.claimed.get() <= offset) {
+                    return null;
+                }
+                // a producer overflowed this chunk and is about to link the next one
+                while ((next = c.next.get()) == null) { }
+            }
+            c = next;
+            head = next;
+            offset = 0;
+        }
+
+        T v = c.get(offset);
+        if (v == null) {
+            if (c.claimed.get() <= offset) {
+                return null;
+            }
+            // the slot has been claimed but the value is not yet visible
+            while ((v = c.get(offset)) == null) { }
+        }
+        c.lazySet(offset, null);
+        headOffset = offset + 1;
+        return v;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return head.claimed.get() <= headOffset;
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != null) { }
+    }
+
+    static final class Chunk<T> extends AtomicReferenceArray<T> {
+
+        private static final long serialVersionUID = -1896441744631960463L;
+
+        final AtomicInteger claimed;
+
+        final AtomicReference<Chunk<T>> next;
+
+        Chunk(int size) {
+            super(size);
+            this.claimed = new AtomicInteger();
+            this.next = new AtomicReference<Chunk<T>>();
+        }
+    }
+}
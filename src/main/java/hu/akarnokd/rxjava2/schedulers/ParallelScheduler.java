@@ -17,21 +17,44 @@
 package hu.akarnokd.rxjava2.schedulers;
 
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.*;
 
 import io.reactivex.Scheduler;
 import io.reactivex.disposables.*;
 import io.reactivex.exceptions.Exceptions;
 import io.reactivex.internal.disposables.*;
-import io.reactivex.internal.functions.Functions;
+import io.reactivex.internal.functions.*;
 import io.reactivex.internal.schedulers.RxThreadFactory;
 import io.reactivex.plugins.RxJavaPlugins;
 
 /**
  * Scheduler with a configurable fixed amount of thread-pools.
+ * <p>
+ * Workers are assigned to the backing thread-pools according to an
+ * {@link AssignmentPolicy}, round-robin by default.
  */
 public final class ParallelScheduler extends Scheduler {
 
+    /**
+     * Determines which backing thread-pool a new Worker or direct task is assigned to.
+     * @since 0.20.4
+     */
+    public enum AssignmentPolicy {
+        /** Cycle through the thread-pools in order. */
+        ROUND_ROBIN,
+        /**
+         * Pick the thread-pool with the fewest not yet disposed tracking Workers.
+         * Falls back to {@link #ROUND_ROBIN} if the scheduler is not tracking.
+         */
+        LEAST_ACTIVE_WORKERS,
+        /**
+         * Pick the thread-pool with the fewest tasks submitted through tracking
+         * Workers that haven't finished or been disposed yet.
+         * Falls back to {@link #ROUND_ROBIN} if the scheduler is not tracking.
+         */
+        LEAST_QUEUED_TASKS
+    }
+
     static final ScheduledExecutorService[] SHUTDOWN;
 
     static final ScheduledExecutorService REJECTING;
@@ -42,6 +65,8 @@ public final class ParallelScheduler extends Scheduler {
 
     final boolean tracking;
 
+    final AssignmentPolicy policy;
+
     final AtomicReference<ScheduledExecutorService[]> pool;
 
     int n;
@@ -89,12 +114,38 @@ public final class ParallelScheduler extends Scheduler {
     }
 
     public ParallelScheduler(int parallelism, ThreadFactory factory, boolean tracking) {
+        this(parallelism, factory, tracking, AssignmentPolicy.ROUND_ROBIN);
+    }
+
+    /**
+     * Constructs a ParallelScheduler with the given number of single-threaded
+     * thread-pools and assignment policy.
+     * @param parallelism the number of thread-pools, positive
+     * @param tracking if true, Worker.dispose() cancels all outstanding tasks
+     * @param policy the policy for assigning Workers to the thread-pools
+     * @since 0.20.4
+     */
+    public ParallelScheduler(int parallelism, boolean tracking, AssignmentPolicy policy) {
+        this(parallelism, new RxThreadFactory("RxParallelScheduler"), tracking, policy);
+    }
+
+    /**
+     * Constructs a ParallelScheduler with the given number of single-threaded
+     * thread-pools, thread factory and assignment policy.
+     * @param parallelism the number of thread-pools, positive
+     * @param factory the factory for the backing threads
+     * @param tracking if true, Worker.dispose() cancels all outstanding tasks
+     * @param policy the policy for assigning Workers to the thread-pools
+     * @since 0.20.4
+     */
+    public ParallelScheduler(int parallelism, ThreadFactory factory, boolean tracking, AssignmentPolicy policy) {
         if (parallelism <= 0) {
             throw new IllegalArgumentException("parallelism > 0 required but it was " + parallelism);
         }
         this.parallelism = parallelism;
         this.factory = factory;
         this.tracking = tracking;
+        this.policy = ObjectHelper.requireNonNull(policy, "policy is null");
         this.pool = new AtomicReference<ScheduledExecutorService[]>(SHUTDOWN);
         start();
     }
@@ -115,7 +166,7 @@ public final class ParallelScheduler extends Scheduler {
             if (next == null) {
                 next = new ScheduledExecutorService[parallelism];
                 for (int i = 0; i < next.length; i++) {
-                    next[i] = Executors.newSingleThreadScheduledExecutor(factory);
+                    next[i] = new ParallelExecutor(factory);
                 }
             }
 
@@ -150,13 +201,50 @@ public final class ParallelScheduler extends Scheduler {
             idx = 0;
         }
         this.n = idx + 1; // may race, we don't care
+        if (tracking && policy != AssignmentPolicy.ROUND_ROBIN) {
+            return pickLeastLoaded(current, idx);
+        }
         return current[idx];
     }
 
+    /**
+     * Returns the executor with the lowest counter value for the current
+     * policy, scanning from the round-robin index so that ties are spread evenly.
+     * @param current the current executors
+     * @param start the index to start scanning from
+     * @return the least loaded executor
+     */
+    ScheduledExecutorService pickLeastLoaded(ScheduledExecutorService[] current, int start) {
+        boolean workers = policy == AssignmentPolicy.LEAST_ACTIVE_WORKERS;
+        int n = current.length;
+        ScheduledExecutorService result = current[start];
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            int j = start + i;
+            if (j >= n) {
+                j -= n;
+            }
+            ParallelExecutor exec = (ParallelExecutor)current[j];
+            int load = workers ? exec.activeWorkers.get() : exec.queuedTasks.get();
+            if (load < min) {
+                min = load;
+                result = exec;
+                if (load == 0) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
     @Override
     public Worker createWorker() {
         if (tracking) {
-            return new TrackingParallelWorker(pick());
+            ScheduledExecutorService exec = pick();
+            if (exec instanceof ParallelExecutor) {
+                return new TrackingParallelWorker(exec, (ParallelExecutor)exec);
+            }
+            return new TrackingParallelWorker(exec, null);
         }
         return new NonTrackingParallelWorker(pick());
     }
@@ -285,20 +373,50 @@ public final class ParallelScheduler extends Scheduler {
         }
     }
 
+    /**
+     * Single-threaded executor that also holds the load counters
+     * maintained by the tracking workers assigned to it.
+     */
+    static final class ParallelExecutor extends ScheduledThreadPoolExecutor {
+
+        final AtomicInteger activeWorkers;
+
+        final AtomicInteger queuedTasks;
+
+        ParallelExecutor(ThreadFactory factory) {
+            super(1, factory);
+            this.activeWorkers = new AtomicInteger();
+            this.queuedTasks = new AtomicInteger();
+        }
+    }
+
     static final class TrackingParallelWorker extends Worker {
 
         final ScheduledExecutorService exec;
 
         final CompositeDisposable tasks;
 
-        TrackingParallelWorker(ScheduledExecutorService exec) {
+        /** The load counters of exec, null if exec is not a ParallelExecutor. */
+        final ParallelExecutor counters;
+
+        final AtomicBoolean once;
+
+        TrackingParallelWorker(ScheduledExecutorService exec, ParallelExecutor counters) {
             this.exec = exec;
             this.tasks = new CompositeDisposable();
+            this.counters = counters;
+            this.once = new AtomicBoolean();
+            if (counters != null) {
+                counters.activeWorkers.getAndIncrement();
+            }
         }
 
         @Override
         public void dispose() {
             tasks.dispose();
+            if (counters != null && once.compareAndSet(false, true)) {
+                counters.activeWorkers.getAndDecrement();
+            }
         }
 
         @Override
@@ -309,14 +427,14 @@ public final class ParallelScheduler extends Scheduler {
         @Override
         public Disposable schedule(Runnable run) {
             if (!isDisposed()) {
-                TrackedAction ta = new TrackedAction(RxJavaPlugins.onSchedule(run), tasks);
+                TrackedAction ta = new TrackedAction(RxJavaPlugins.onSchedule(run), tasks, queued());
                 if (tasks.add(ta)) {
                     try {
                         Future<?> f = exec.submit(ta);
                         ta.setFuture(f);
                         return ta;
                     } catch (RejectedExecutionException ex) {
-                        // let it fall through
+                        ta.dispose();
                     }
                 }
             }
@@ -326,20 +444,25 @@ public final class ParallelScheduler extends Scheduler {
         @Override
         public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
             if (!isDisposed()) {
-                TrackedAction ta = new TrackedAction(RxJavaPlugins.onSchedule(run), tasks);
+                TrackedAction ta = new TrackedAction(RxJavaPlugins.onSchedule(run), tasks, queued());
                 if (tasks.add(ta)) {
                     try {
                         Future<?> f = exec.schedule(ta, delay, unit);
                         ta.setFuture(f);
                         return ta;
                     } catch (RejectedExecutionException ex) {
-                        // let it fall through
+                        ta.dispose();
                     }
                 }
             }
             return Disposables.disposed();
         }
 
+        AtomicInteger queued() {
+            ParallelExecutor c = counters;
+            return c != null ? c.queuedTasks : null;
+        }
+
         static final class TrackedAction
         extends AtomicReference<DisposableContainer>
         implements Callable<Object>, Disposable {
@@ -361,10 +484,25 @@ public final class ParallelScheduler extends Scheduler {
 
             final Runnable actual;
 
-            TrackedAction(Runnable actual, DisposableContainer parent) {
+            /** The queued task counter of the executor, null if not counted. */
+            final AtomicInteger queued;
+
+            TrackedAction(Runnable actual, DisposableContainer parent, AtomicInteger queued) {
                 this.actual = actual;
+                this.queued = queued;
                 this.lazySet(parent);
                 this.future = new AtomicReference<Future<?>>();
+                if (queued != null) {
+                    queued.getAndIncrement();
+                }
+            }
+
+            void removed(DisposableContainer cd) {
+                cd.delete(this);
+                AtomicInteger q = queued;
+                if (q != null) {
+                    q.getAndDecrement();
+                }
             }
 
             @Override
@@ -382,7 +520,7 @@ public final class ParallelScheduler extends Scheduler {
             void complete() {
                 DisposableContainer cd = get();
                 if (cd != null && compareAndSet(cd, null)) {
-                    cd.delete(this);
+                    removed(cd);
                 }
                 for (;;) {
                     Future<?> f = future.get();
@@ -396,7 +534,7 @@ public final class ParallelScheduler extends Scheduler {
             public void dispose() {
                 DisposableContainer cd = getAndSet(null);
                 if (cd != null) {
-                    cd.delete(this);
+                    removed(cd);
                 }
                 Future<?> f = future.get();
                 if (f != FINISHED && f != DISPOSED) {
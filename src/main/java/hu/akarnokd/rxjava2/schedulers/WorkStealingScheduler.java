@@ -0,0 +1,453 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.schedulers;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.*;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.disposables.*;
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.queue.MpscLinkedQueue;
+import io.reactivex.internal.schedulers.RxThreadFactory;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Scheduler with a fixed number of threads where each {@link io.reactivex.Scheduler.Worker Worker}
+ * is a unit of work that can move between threads.
+ * <p>
+ * Each Worker has its own task queue and is submitted to its home thread whenever
+ * it has tasks to run. A thread runs at most one Worker at a time and only
+ * up to a batch of its tasks before putting it back to the end of the queue,
+ * so the tasks of a Worker are always executed in FIFO order and never concurrently.
+ * Threads that run out of Workers take whole Workers from the queues of
+ * busy threads, thus a slow Worker doesn't hold up the other Workers waiting
+ * behind it on the same thread.
+ * <p>
+ * Delayed tasks wait on {@link Schedulers#single()} and are then queued up
+ * with the owning Worker.
+ * @since 0.20.4
+ */
+public final class WorkStealingScheduler extends Scheduler {
+
+    static final Runner[] SHUTDOWN = new Runner[0];
+
+    /** How many tasks a Worker can run before it has to give up its thread. */
+    static final int BATCH_SIZE = 64;
+
+    /** How many times an idle thread looks for work before it parks. */
+    static final int SPIN_LIMIT = 64;
+
+    final ThreadFactory factory;
+
+    final int parallelism;
+
+    final AtomicReference<Runner[]> pool;
+
+    final Scheduler timedHelper;
+
+    int n;
+
+    public WorkStealingScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public WorkStealingScheduler(String threadNamePrefix) {
+        this(Runtime.getRuntime().availableProcessors(), new RxThreadFactory(threadNamePrefix));
+    }
+
+    public WorkStealingScheduler(int parallelism) {
+        this(parallelism, new RxThreadFactory("RxWorkStealingScheduler"));
+    }
+
+    public WorkStealingScheduler(int parallelism, ThreadFactory factory) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism > 0 required but it was " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.factory = ObjectHelper.requireNonNull(factory, "factory is null");
+        this.pool = new AtomicReference<Runner[]>(SHUTDOWN);
+        this.timedHelper = Schedulers.single();
+        start();
+    }
+
+    @Override
+    public void start() {
+        Runner[] next = null;
+        for (;;) {
+            Runner[] current = pool.get();
+            if (current != SHUTDOWN) {
+                return;
+            }
+            if (next == null) {
+                next = new Runner[parallelism];
+                for (int i = 0; i < next.length; i++) {
+                    next[i] = new Runner(next, i);
+                }
+            }
+
+            if (pool.compareAndSet(current, next)) {
+                for (Runner r : next) {
+                    Thread t = factory.newThread(r);
+                    r.thread = t;
+                    t.start();
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        for (;;) {
+            Runner[] current = pool.get();
+            if (current == SHUTDOWN) {
+                return;
+            }
+            if (pool.compareAndSet(current, SHUTDOWN)) {
+                for (Runner r : current) {
+                    r.shutdown();
+                }
+            }
+        }
+    }
+
+    Runner pick() {
+        Runner[] current = pool.get();
+        if (current.length == 0) {
+            return null;
+        }
+        int idx = this.n;
+        if (idx >= current.length) {
+            idx = 0;
+        }
+        this.n = idx + 1; // may race, we don't care
+        return current[idx];
+    }
+
+    @Override
+    public Worker createWorker() {
+        return new WorkStealingWorker(pick(), timedHelper);
+    }
+
+    @Override
+    public Disposable scheduleDirect(Runnable run, long delay, TimeUnit unit) {
+        if (pool.get() == SHUTDOWN) {
+            return Disposables.disposed();
+        }
+        return super.scheduleDirect(run, delay, unit);
+    }
+
+    @Override
+    public Disposable schedulePeriodicallyDirect(Runnable run, long initialDelay, long period, TimeUnit unit) {
+        if (pool.get() == SHUTDOWN) {
+            return Disposables.disposed();
+        }
+        return super.schedulePeriodicallyDirect(run, initialDelay, period, unit);
+    }
+
+    /**
+     * A thread of the scheduler with its own queue of Workers ready to run.
+     */
+    static final class Runner implements Runnable {
+
+        final Runner[] runners;
+
+        final int index;
+
+        final ConcurrentLinkedQueue<WorkStealingWorker> queue;
+
+        volatile Thread thread;
+
+        volatile boolean parked;
+
+        volatile boolean shutdown;
+
+        Runner(Runner[] runners, int index) {
+            this.runners = runners;
+            this.index = index;
+            this.queue = new ConcurrentLinkedQueue<WorkStealingWorker>();
+        }
+
+        @Override
+        public void run() {
+            int spin = 0;
+            for (;;) {
+                if (shutdown) {
+                    queue.clear();
+                    return;
+                }
+
+                WorkStealingWorker w = queue.poll();
+                if (w == null) {
+                    w = steal();
+                }
+
+                if (w != null) {
+                    spin = 0;
+                    w.run(this);
+                    continue;
+                }
+
+                if (spin < SPIN_LIMIT) {
+                    spin++;
+                    Thread.yield();
+                    continue;
+                }
+
+                parked = true;
+                if (hasWork()) {
+                    parked = false;
+                    continue;
+                }
+                if (shutdown) {
+                    parked = false;
+                    continue;
+                }
+                LockSupport.park(this);
+                parked = false;
+            }
+        }
+
+        WorkStealingWorker steal() {
+            Runner[] rs = runners;
+            int n = rs.length;
+            for (int i = 1; i < n; i++) {
+                int j = index + i;
+                if (j >= n) {
+                    j -= n;
+                }
+                WorkStealingWorker w = rs[j].queue.poll();
+                if (w != null) {
+                    return w;
+                }
+            }
+            return null;
+        }
+
+        boolean hasWork() {
+            for (Runner r : runners) {
+                if (!r.queue.isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Queue up a Worker that has tasks to run and wake up this
+         * or another idle thread to pick it up.
+         * @param w the worker to submit
+         */
+        void submit(WorkStealingWorker w) {
+            queue.offer(w);
+            if (parked) {
+                LockSupport.unpark(thread);
+                return;
+            }
+            for (Runner r : runners) {
+                if (r.parked) {
+                    LockSupport.unpark(r.thread);
+                    return;
+                }
+            }
+        }
+
+        void shutdown() {
+            shutdown = true;
+            Thread t = thread;
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+    }
+
+    static final class WorkStealingWorker extends Worker {
+
+        final Runner home;
+
+        final Scheduler timedHelper;
+
+        final CompositeDisposable tasks;
+
+        final MpscLinkedQueue<WorkStealingTask> queue;
+
+        final AtomicInteger wip;
+
+        WorkStealingWorker(Runner home, Scheduler timedHelper) {
+            this.home = home;
+            this.timedHelper = timedHelper;
+            this.tasks = new CompositeDisposable();
+            this.queue = new MpscLinkedQueue<WorkStealingTask>();
+            this.wip = new AtomicInteger();
+            if (home == null) {
+                tasks.dispose();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            tasks.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return tasks.isDisposed();
+        }
+
+        boolean isShutdown() {
+            return home == null || home.shutdown;
+        }
+
+        @Override
+        public Disposable schedule(Runnable run) {
+            ObjectHelper.requireNonNull(run, "run is null");
+            if (isDisposed() || isShutdown()) {
+                return Disposables.disposed();
+            }
+            WorkStealingTask task = new WorkStealingTask(RxJavaPlugins.onSchedule(run), tasks);
+            if (!tasks.add(task)) {
+                return Disposables.disposed();
+            }
+            enqueue(task);
+            return task;
+        }
+
+        @Override
+        public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
+            if (delay <= 0L) {
+                return schedule(run);
+            }
+            ObjectHelper.requireNonNull(run, "run is null");
+            ObjectHelper.requireNonNull(unit, "unit is null");
+            if (isDisposed() || isShutdown()) {
+                return Disposables.disposed();
+            }
+
+            final WorkStealingTask task = new WorkStealingTask(RxJavaPlugins.onSchedule(run), tasks);
+            if (!tasks.add(task)) {
+                return Disposables.disposed();
+            }
+
+            SequentialDisposable inner = new SequentialDisposable();
+            final SequentialDisposable outer = new SequentialDisposable(inner);
+
+            Disposable d = timedHelper.scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    outer.replace(task);
+                    enqueue(task);
+                }
+            }, delay, unit);
+
+            if (d == EmptyDisposable.INSTANCE) {
+                task.dispose();
+                return d;
+            }
+
+            inner.replace(d);
+
+            return outer;
+        }
+
+        void enqueue(WorkStealingTask task) {
+            queue.offer(task);
+            if (wip.getAndIncrement() == 0) {
+                home.submit(this);
+            }
+        }
+
+        /**
+         * Run a batch of tasks on the given thread and resubmit this
+         * Worker if there are more tasks left.
+         * @param runner the runner executing this worker
+         */
+        void run(Runner runner) {
+            MpscLinkedQueue<WorkStealingTask> q = queue;
+            AtomicInteger wip = this.wip;
+            int budget = BATCH_SIZE;
+            for (;;) {
+                if (runner.shutdown) {
+                    q.clear();
+                    tasks.dispose();
+                    return;
+                }
+
+                WorkStealingTask t = q.poll();
+                if (t != null) {
+                    t.run();
+                }
+
+                if (wip.decrementAndGet() == 0) {
+                    return;
+                }
+
+                if (--budget == 0) {
+                    runner.submit(this);
+                    return;
+                }
+            }
+        }
+    }
+
+    static final class WorkStealingTask
+    extends AtomicReference<DisposableContainer>
+    implements Runnable, Disposable {
+
+        private static final long serialVersionUID = -3574618040425458245L;
+
+        final Runnable actual;
+
+        WorkStealingTask(Runnable actual, DisposableContainer parent) {
+            this.actual = actual;
+            this.lazySet(parent);
+        }
+
+        @Override
+        public void run() {
+            if (get() != null) {
+                try {
+                    actual.run();
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    RxJavaPlugins.onError(ex);
+                }
+                DisposableContainer cd = get();
+                if (cd != null && compareAndSet(cd, null)) {
+                    cd.delete(this);
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            DisposableContainer cd = getAndSet(null);
+            if (cd != null) {
+                cd.delete(this);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get() == null;
+        }
+    }
+}
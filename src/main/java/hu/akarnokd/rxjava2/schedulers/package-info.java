@@ -17,7 +17,9 @@
 /**
  * Special scheduler implementations, such as
  * {@link hu.akarnokd.rxjava2.schedulers.BlockingScheduler BlockingScheduler},
- * {@link hu.akarnokd.rxjava2.schedulers.ParallelScheduler ParallelScheduler} and
- * {@link hu.akarnokd.rxjava2.schedulers.SharedScheduler SharedScheduler}.
+ * {@link hu.akarnokd.rxjava2.schedulers.HashedWheelScheduler HashedWheelScheduler},
+ * {@link hu.akarnokd.rxjava2.schedulers.ParallelScheduler ParallelScheduler},
+ * {@link hu.akarnokd.rxjava2.schedulers.SharedScheduler SharedScheduler} and
+ * {@link hu.akarnokd.rxjava2.schedulers.WorkStealingScheduler WorkStealingScheduler}.
  */
 package hu.akarnokd.rxjava2.schedulers;
\ No newline at end of file
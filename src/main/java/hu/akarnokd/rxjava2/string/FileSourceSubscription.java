@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.string;
+
+import java.io.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.*;
+
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.subscriptions.SubscriptionHelper;
+import io.reactivex.internal.util.BackpressureHelper;
+import io.reactivex.plugins.RxJavaPlugins;
+
+/**
+ * Base class for sources that read the next item from a file only when the
+ * downstream has requested it.
+ * <p>
+ * The thread that moves the request amount from zero owns the file resources
+ * until the request amount drops back to zero and closes them once
+ * the sequence terminates or gets cancelled.
+ *
+ * @param <T> the item type
+ * @since 0.20.4
+ */
+abstract class FileSourceSubscription<T> extends AtomicLong implements Subscription {
+
+    private static final long serialVersionUID = 1516187213541567337L;
+
+    final Subscriber<? super T> downstream;
+
+    final Closeable resource;
+
+    volatile boolean cancelled;
+
+    FileSourceSubscription(Subscriber<? super T> downstream, Closeable resource) {
+        this.downstream = downstream;
+        this.resource = resource;
+    }
+
+    /**
+     * Reads the next item.
+     * @return the next item or null if there are no more items
+     * @throws IOException if reading the file failed
+     */
+    abstract T next() throws IOException;
+
+    @Override
+    public final void request(long n) {
+        if (SubscriptionHelper.validate(n)) {
+            if (BackpressureHelper.add(this, n) == 0L) {
+                drain(n);
+            }
+        }
+    }
+
+    @Override
+    public final void cancel() {
+        cancelled = true;
+        if (BackpressureHelper.add(this, 1) == 0L) {
+            close();
+        }
+    }
+
+    final void close() {
+        try {
+            resource.close();
+        } catch (IOException ex) {
+            RxJavaPlugins.onError(ex);
+        }
+    }
+
+    final void drain(long r) {
+        Subscriber<? super T> a = downstream;
+        long e = 0L;
+
+        for (;;) {
+            while (e != r) {
+                if (cancelled) {
+                    close();
+                    return;
+                }
+
+                T v;
+                try {
+                    v = next();
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    cancelled = true;
+                    close();
+                    a.onError(ex);
+                    return;
+                }
+
+                if (cancelled) {
+                    close();
+                    return;
+                }
+
+                if (v == null) {
+                    cancelled = true;
+                    close();
+                    a.onComplete();
+                    return;
+                }
+
+                a.onNext(v);
+
+                e++;
+            }
+
+            r = get();
+            if (e == r) {
+                r = addAndGet(-e);
+                if (r == 0L) {
+                    return;
+                }
+                e = 0L;
+            }
+        }
+    }
+}
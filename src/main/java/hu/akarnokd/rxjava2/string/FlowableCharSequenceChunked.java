@@ -0,0 +1,209 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.string;
+
+import java.nio.CharBuffer;
+
+import org.reactivestreams.Subscriber;
+
+import io.reactivex.Flowable;
+import io.reactivex.internal.fuseable.QueueFuseable;
+import io.reactivex.internal.subscriptions.*;
+import io.reactivex.internal.util.BackpressureHelper;
+
+/**
+ * Streams the characters of a string in chunks, either as a copy in a
+ * {@code char[]} or as a read-only {@link CharBuffer} view of the string.
+ *
+ * @param <T> the chunk type, {@code char[]} or {@code CharBuffer}
+ * @since 0.20.4
+ */
+final class FlowableCharSequenceChunked<T> extends Flowable<T> {
+
+    final CharSequence string;
+
+    final int chunkSize;
+
+    final boolean buffers;
+
+    FlowableCharSequenceChunked(CharSequence string, int chunkSize, boolean buffers) {
+        this.string = string;
+        this.chunkSize = chunkSize;
+        this.buffers = buffers;
+    }
+
+    @Override
+    public void subscribeActual(Subscriber<? super T> s) {
+        s.onSubscribe(new CharSequenceChunkedSubscription<T>(s, string, chunkSize, buffers));
+    }
+
+    static final class CharSequenceChunkedSubscription<T>
+    extends BasicQueueSubscription<T> {
+
+        private static final long serialVersionUID = 3624433624232263853L;
+
+        final Subscriber<? super T> downstream;
+
+        final CharSequence string;
+
+        final int chunkSize;
+
+        final boolean buffers;
+
+        final int end;
+
+        int index;
+
+        volatile boolean cancelled;
+
+        CharSequenceChunkedSubscription(Subscriber<? super T> downstream, CharSequence string, int chunkSize, boolean buffers) {
+            this.downstream = downstream;
+            this.string = string;
+            this.chunkSize = chunkSize;
+            this.buffers = buffers;
+            this.end = string.length();
+        }
+
+        @SuppressWarnings("unchecked")
+        T chunk(int start, int stop) {
+            CharSequence s = string;
+            if (buffers) {
+                return (T)CharBuffer.wrap(s, start, stop);
+            }
+            char[] a = new char[stop - start];
+            if (s instanceof String) {
+                ((String)s).getChars(start, stop, a, 0);
+            } else
+            if (s instanceof StringBuilder) {
+                ((StringBuilder)s).getChars(start, stop, a, 0);
+            } else
+            if (s instanceof StringBuffer) {
+                ((StringBuffer)s).getChars(start, stop, a, 0);
+            } else {
+                for (int i = start; i < stop; i++) {
+                    a[i - start] = s.charAt(i);
+                }
+            }
+            return (T)a;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public void request(long n) {
+            if (SubscriptionHelper.validate(n)) {
+                if (BackpressureHelper.add(this, n) == 0) {
+                    if (n == Long.MAX_VALUE) {
+                        fastPath();
+                    } else {
+                        slowPath(n);
+                    }
+                }
+            }
+        }
+
+        void fastPath() {
+            int f = end;
+            int c = chunkSize;
+            Subscriber<? super T> a = downstream;
+
+            for (int i = index; i != f; ) {
+                if (cancelled) {
+                    return;
+                }
+
+                int j = f - i > c ? i + c : f;
+                a.onNext(chunk(i, j));
+                i = j;
+            }
+
+            if (!cancelled) {
+                a.onComplete();
+            }
+        }
+
+        void slowPath(long r) {
+            long e = 0L;
+            int i = index;
+            int f = end;
+            int c = chunkSize;
+            Subscriber<? super T> a = downstream;
+
+            for (;;) {
+
+                while (e != r && i != f) {
+                    if (cancelled) {
+                        return;
+                    }
+
+                    int j = f - i > c ? i + c : f;
+                    a.onNext(chunk(i, j));
+
+                    i = j;
+                    e++;
+                }
+
+                if (i == f) {
+                    if (!cancelled) {
+                        a.onComplete();
+                    }
+                    return;
+                }
+
+                r = get();
+                if (e == r) {
+                    index = i;
+                    r = addAndGet(-e);
+                    if (r == 0L) {
+                        break;
+                    }
+                    e = 0L;
+                }
+            }
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            return requestedMode & QueueFuseable.SYNC;
+        }
+
+        @Override
+        public T poll() {
+            int i = index;
+            int f = end;
+            if (i != f) {
+                int j = f - i > chunkSize ? i + chunkSize : f;
+                index = j;
+                return chunk(i, j);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return index == end;
+        }
+
+        @Override
+        public void clear() {
+            index = end;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.string;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.reactivestreams.Subscriber;
+
+import io.reactivex.Flowable;
+import io.reactivex.exceptions.*;
+import io.reactivex.internal.subscriptions.EmptySubscription;
+
+/**
+ * Maps consecutive, read-only windows of a file into memory and emits them
+ * as {@link java.nio.MappedByteBuffer}s, one window per request.
+ *
+ * @since 0.20.4
+ */
+final class FlowableMapFile extends Flowable<ByteBuffer> {
+
+    final File file;
+
+    final int windowSize;
+
+    FlowableMapFile(File file, int windowSize) {
+        this.file = file;
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super ByteBuffer> s) {
+        FileChannel ch;
+        long size;
+        try {
+            ch = new FileInputStream(file).getChannel();
+        } catch (Throwable ex) {
+            Exceptions.throwIfFatal(ex);
+            EmptySubscription.error(ex, s);
+            return;
+        }
+        try {
+            size = ch.size();
+        } catch (Throwable ex) {
+            Exceptions.throwIfFatal(ex);
+            try {
+                ch.close();
+            } catch (IOException exc) {
+                ex = new CompositeException(ex, exc);
+            }
+            EmptySubscription.error(ex, s);
+            return;
+        }
+
+        s.onSubscribe(new MapFileSubscription(s, ch, size, windowSize));
+    }
+
+    static final class MapFileSubscription extends FileSourceSubscription<ByteBuffer> {
+
+        private static final long serialVersionUID = -2296958014427785424L;
+
+        final FileChannel channel;
+
+        final long size;
+
+        final int windowSize;
+
+        long position;
+
+        MapFileSubscription(Subscriber<? super ByteBuffer> downstream, FileChannel channel, long size, int windowSize) {
+            super(downstream, channel);
+            this.channel = channel;
+            this.size = size;
+            this.windowSize = windowSize;
+        }
+
+        @Override
+        ByteBuffer next() throws IOException {
+            long p = position;
+            if (p >= size) {
+                return null;
+            }
+            long n = Math.min(windowSize, size - p);
+            position = p + n;
+            return channel.map(FileChannel.MapMode.READ_ONLY, p, n);
+        }
+    }
+}
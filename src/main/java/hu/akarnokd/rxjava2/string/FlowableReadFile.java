@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.string;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
+
+import org.reactivestreams.Subscriber;
+
+import io.reactivex.Flowable;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.internal.subscriptions.EmptySubscription;
+
+/**
+ * Reads a file through a {@link FileChannel} into a reused direct buffer and
+ * emits the decoded text in chunks of at most the buffer size, one chunk per request.
+ *
+ * @since 0.20.4
+ */
+final class FlowableReadFile extends Flowable<String> {
+
+    final File file;
+
+    final Charset charset;
+
+    final int bufferSize;
+
+    FlowableReadFile(File file, Charset charset, int bufferSize) {
+        this.file = file;
+        this.charset = charset;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super String> s) {
+        FileChannel ch;
+        try {
+            ch = new FileInputStream(file).getChannel();
+        } catch (Throwable ex) {
+            Exceptions.throwIfFatal(ex);
+            EmptySubscription.error(ex, s);
+            return;
+        }
+
+        s.onSubscribe(new ReadFileSubscription(s, ch, charset, bufferSize));
+    }
+
+    static final class ReadFileSubscription extends FileSourceSubscription<String> {
+
+        private static final long serialVersionUID = -7450566785434416312L;
+
+        final FileChannel channel;
+
+        final CharsetDecoder decoder;
+
+        final ByteBuffer input;
+
+        final CharBuffer output;
+
+        boolean endOfInput;
+
+        boolean decoded;
+
+        boolean flushed;
+
+        ReadFileSubscription(Subscriber<? super String> downstream, FileChannel channel, Charset charset, int bufferSize) {
+            super(downstream, channel);
+            this.channel = channel;
+            this.decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            int n = Math.max(16, bufferSize);
+            this.input = ByteBuffer.allocateDirect(n);
+            this.output = CharBuffer.allocate((int)Math.ceil(n * (double)decoder.maxCharsPerByte()));
+        }
+
+        @Override
+        String next() throws IOException {
+            ByteBuffer in = input;
+            CharBuffer out = output;
+            for (;;) {
+                if (flushed) {
+                    return null;
+                }
+                if (!endOfInput) {
+                    if (channel.read(in) < 0) {
+                        endOfInput = true;
+                    }
+                }
+
+                in.flip();
+                CoderResult cr = CoderResult.UNDERFLOW;
+                if (!decoded) {
+                    cr = decoder.decode(in, out, endOfInput);
+                    if (endOfInput && cr.isUnderflow()) {
+                        decoded = true;
+                    }
+                }
+                in.compact();
+
+                if (decoded) {
+                    cr = decoder.flush(out);
+                    if (cr.isUnderflow()) {
+                        flushed = true;
+                    }
+                }
+
+                if (out.position() != 0) {
+                    out.flip();
+                    String s = out.toString();
+                    out.clear();
+                    return s;
+                }
+            }
+        }
+    }
+}
@@ -16,13 +16,14 @@
 
 package hu.akarnokd.rxjava2.string;
 
+import java.util.ArrayList;
 import java.util.concurrent.atomic.*;
-import java.util.regex.Pattern;
+import java.util.regex.*;
 
 import org.reactivestreams.*;
 
 import io.reactivex.*;
-import io.reactivex.exceptions.Exceptions;
+import io.reactivex.exceptions.*;
 import io.reactivex.internal.fuseable.*;
 import io.reactivex.internal.queue.SpscArrayQueue;
 import io.reactivex.internal.subscriptions.SubscriptionHelper;
@@ -32,6 +33,12 @@ import io.reactivex.plugins.RxJavaPlugins;
 /**
  * Consider a sequence of CharSequence as one and split it based on
  * a pattern.
+ * <p>
+ * The text after the last delimiter is kept in a growable buffer. If the
+ * pattern is a plain literal, the buffer is searched without {@code java.util.regex};
+ * otherwise, a {@link Matcher} resumes from the first position where a match
+ * could still start. Either way, a long run without delimiters is processed
+ * in linear time for patterns with a bounded match length.
  * 
  * @since 0.13.0
  */
@@ -43,10 +50,59 @@ final class FlowableSplit extends Flowable<String> implements FlowableTransforme
 
     final int bufferSize;
 
+    /** The literal delimiter equivalent to the pattern or null if the pattern is not a literal. */
+    final String delimiter;
+
     FlowableSplit(Publisher<String> source, Pattern pattern, int bufferSize) {
         this.source = source;
         this.pattern = pattern;
         this.bufferSize = bufferSize;
+        this.delimiter = literalOf(pattern);
+    }
+
+    /**
+     * Returns the text the pattern matches if it matches only that exact,
+     * non-empty text or null otherwise.
+     * @param pattern the pattern to check
+     * @return the literal text or null
+     */
+    static String literalOf(Pattern pattern) {
+        String s = pattern.pattern();
+        if (s.isEmpty()) {
+            return null;
+        }
+        int flags = pattern.flags();
+        if ((flags & Pattern.LITERAL) != 0) {
+            if ((flags & (Pattern.CASE_INSENSITIVE | Pattern.CANON_EQ)) != 0) {
+                return null;
+            }
+            return s;
+        }
+        if (flags != 0) {
+            return null;
+        }
+        if (s.length() == 2 && s.charAt(0) == '\\') {
+            char c = s.charAt(1);
+            switch (c) {
+            case 'n':
+                return "\n";
+            case 'r':
+                return "\r";
+            case 't':
+                return "\t";
+            default:
+                if (Character.isLetterOrDigit(c)) {
+                    return null;
+                }
+                return String.valueOf(c);
+            }
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if ("\\[](){}.*+?^$|".indexOf(s.charAt(i)) >= 0) {
+                return null;
+            }
+        }
+        return s;
     }
 
     @Override
@@ -56,7 +112,7 @@ final class FlowableSplit extends Flowable<String> implements FlowableTransforme
 
     @Override
     protected void subscribeActual(Subscriber<? super String> s) {
-        source.subscribe(new SplitSubscriber(s, pattern, bufferSize));
+        source.subscribe(new SplitSubscriber(s, pattern, delimiter, bufferSize));
     }
 
     static final class SplitSubscriber
@@ -65,11 +121,14 @@ final class FlowableSplit extends Flowable<String> implements FlowableTransforme
 
         static final String[] EMPTY = new String[0];
 
+        /** Buffers with a larger capacity are not retained once they become empty. */
+        static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
         private static final long serialVersionUID = -5022617259701794064L;
 
         final Subscriber<? super String> downstream;
 
-        final Pattern pattern;
+        final String delimiter;
 
         final SimplePlainQueue<String[]> queue;
 
@@ -83,7 +142,14 @@ final class FlowableSplit extends Flowable<String> implements FlowableTransforme
 
         volatile boolean cancelled;
 
-        String leftOver;
+        /** Holds the text after the last delimiter found. */
+        StringBuilder buffer;
+
+        /** Where the next delimiter may start in the buffer. */
+        int scanFrom;
+
+        /** Searches the buffer if the pattern is not a literal. */
+        final Matcher matcher;
 
         String[] current;
 
@@ -96,9 +162,18 @@ final class FlowableSplit extends Flowable<String> implements FlowableTransforme
 
         int empty;
 
-        SplitSubscriber(Subscriber<? super String> downstream, Pattern pattern, int bufferSize) {
+        SplitSubscriber(Subscriber<? super String> downstream, Pattern pattern, String delimiter, int bufferSize) {
             this.downstream = downstream;
-            this.pattern = pattern;
+            this.delimiter = delimiter;
+            this.buffer = new StringBuilder();
+            if (delimiter == null) {
+                Matcher m = pattern.matcher(buffer);
+                m.useTransparentBounds(true);
+                m.useAnchoringBounds(false);
+                this.matcher = m;
+            } else {
+                this.matcher = null;
+            }
             this.bufferSize = bufferSize;
             this.limit = bufferSize - (bufferSize >> 2);
             this.queue = new SpscArrayQueue<String[]>(bufferSize);
@@ -144,45 +219,218 @@ final class FlowableSplit extends Flowable<String> implements FlowableTransforme
 
         @Override
         public boolean tryOnNext(String t) {
-            String lo = leftOver;
+            StringBuilder b = buffer;
+            b.append(t);
+
             String[] a;
-            try {
-                if (lo == null || lo.isEmpty()) {
-                    a = pattern.split(t, -1);
-                } else {
-                    a = pattern.split(lo + t, -1);
+            if (delimiter != null) {
+                a = splitLiteral(b);
+            } else {
+                try {
+                    a = splitPattern(b, false);
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    b.setLength(b.length() - t.length());
+                    this.upstream.cancel();
+                    onError(ex);
+                    return true;
                 }
-            } catch (Throwable ex) {
-                Exceptions.throwIfFatal(ex);
-                this.upstream.cancel();
-                onError(ex);
-                return true;
             }
-
-            if (a.length == 0) {
-                leftOver = null;
-                return false;
-            } else
-            if (a.length == 1) {
-                leftOver = a[0];
+            if (a == null) {
                 return false;
             }
-            leftOver = a[a.length - 1];
+            trimBuffer();
             queue.offer(a);
             drain();
             return true;
         }
 
+        /**
+         * Searches the unscanned part of the buffer for the literal delimiter
+         * and removes the parts found from the buffer.
+         * @param b the buffer
+         * @return the array of parts followed by a placeholder for the leftover
+         * or null if no delimiter was found
+         */
+        String[] splitLiteral(StringBuilder b) {
+            String d = delimiter;
+            int dl = d.length();
+            int len = b.length();
+            int start = 0;
+            ArrayList<String> parts = null;
+
+            if (dl == 1) {
+                char c = d.charAt(0);
+                for (int i = scanFrom; i < len; i++) {
+                    if (b.charAt(i) == c) {
+                        if (parts == null) {
+                            parts = new ArrayList<String>();
+                        }
+                        parts.add(b.substring(start, i));
+                        start = i + 1;
+                    }
+                }
+            } else {
+                int from = scanFrom;
+                for (;;) {
+                    int i = b.indexOf(d, from);
+                    if (i < 0) {
+                        break;
+                    }
+                    if (parts == null) {
+                        parts = new ArrayList<String>();
+                    }
+                    parts.add(b.substring(start, i));
+                    start = i + dl;
+                    from = start;
+                }
+            }
+
+            if (parts == null) {
+                scanFrom = Math.max(0, len - dl + 1);
+                return null;
+            }
+            b.delete(0, start);
+            scanFrom = Math.max(0, b.length() - dl + 1);
+            parts.add(null);
+            return parts.toArray(EMPTY);
+        }
+
+        /**
+         * Searches the buffer for the pattern from the first position where a match
+         * could still start and removes the parts found from the buffer.
+         * <p>
+         * A match that reached the end of the buffer might be different once more text
+         * arrives, therefore, it is not taken and the search resumes from the first position
+         * whose match attempt reached the end of the buffer.
+         * @param b the buffer
+         * @param last if true, the input has ended, the matches reaching the end of the buffer
+         * are taken and the leftover is included in the parts
+         * @return the array of parts followed by a placeholder for the leftover
+         * or null if no delimiter was found
+         */
+        String[] splitPattern(StringBuilder b, boolean last) {
+            Matcher m = matcher;
+            m.reset(b);
+            int len = b.length();
+            int start = 0;
+            int from = scanFrom;
+            ArrayList<String> parts = null;
+
+            for (;;) {
+                if (from > len || !m.find(from)) {
+                    from = !last && m.hitEnd() ? firstHitEnd(m, from, len, len) : len;
+                    break;
+                }
+                int ms = m.start();
+                int me = m.end();
+                if (!last && m.hitEnd()) {
+                    from = firstHitEnd(m, from, ms, len);
+                    break;
+                }
+                if (me == ms) {
+                    // zero-width matches at the beginning don't produce an empty leading part
+                    if (ms == 0) {
+                        from = 1;
+                        continue;
+                    }
+                    from = me + 1;
+                } else {
+                    from = me;
+                }
+                if (parts == null) {
+                    parts = new ArrayList<String>();
+                }
+                parts.add(b.substring(start, ms));
+                start = me;
+            }
+
+            if (parts == null) {
+                scanFrom = from;
+                return null;
+            }
+            if (last) {
+                parts.add(b.substring(start));
+                b.setLength(0);
+                scanFrom = 0;
+            } else {
+                b.delete(0, start);
+                scanFrom = Math.max(0, from - start);
+            }
+            parts.add(null);
+            return parts.toArray(EMPTY);
+        }
+
+        /**
+         * Queues the parts of the rest of the buffer once the input has ended.
+         * @return the exception thrown by the pattern or null
+         */
+        Throwable finish() {
+            String[] a = null;
+            Throwable failure = null;
+            if (matcher != null) {
+                try {
+                    a = splitPattern(buffer, true);
+                } catch (Throwable ex) {
+                    Exceptions.throwIfFatal(ex);
+                    failure = ex;
+                }
+            }
+            if (a == null) {
+                String lo = takeLeftOver();
+                if (!lo.isEmpty()) {
+                    a = new String[] { lo, null };
+                }
+            } else {
+                trimBuffer();
+            }
+            if (a != null) {
+                queue.offer(a);
+            }
+            return failure;
+        }
+
+        /**
+         * Returns the first position between from (inclusive) and limit (exclusive)
+         * where a match attempt reaches the end of the buffer or limit if there is none.
+         */
+        static int firstHitEnd(Matcher m, int from, int limit, int len) {
+            for (int p = from; p < limit; p++) {
+                m.region(p, len);
+                m.lookingAt();
+                if (m.hitEnd()) {
+                    return p;
+                }
+            }
+            return limit;
+        }
+
+        void trimBuffer() {
+            StringBuilder b = buffer;
+            if (b.length() == 0 && b.capacity() > MAX_RETAINED_CAPACITY) {
+                buffer = new StringBuilder();
+                scanFrom = 0;
+            }
+        }
+
+        String takeLeftOver() {
+            StringBuilder b = buffer;
+            String lo = b.toString();
+            b.setLength(0);
+            scanFrom = 0;
+            trimBuffer();
+            return lo;
+        }
+
         @Override
         public void onError(Throwable t) {
             if (done) {
                 RxJavaPlugins.onError(t);
                 return;
             }
-            String lo = leftOver;
-            if (lo != null && !lo.isEmpty()) {
-                leftOver = null;
-                queue.offer(new String[] { lo, null });
+            Throwable failure = finish();
+            if (failure != null) {
+                t = new CompositeException(t, failure);
             }
             error = t;
             done = true;
@@ -192,12 +440,8 @@ final class FlowableSplit extends Flowable<String> implements FlowableTransforme
         @Override
         public void onComplete() {
             if (!done) {
+                error = finish();
                 done = true;
-                String lo = leftOver;
-                if (lo != null && !lo.isEmpty()) {
-                    leftOver = null;
-                    queue.offer(new String[] { lo, null });
-                }
                 drain();
             }
         }
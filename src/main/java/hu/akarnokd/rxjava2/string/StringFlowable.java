@@ -16,9 +16,13 @@
 
 package hu.akarnokd.rxjava2.string;
 
+import java.io.File;
+import java.nio.*;
+import java.nio.charset.Charset;
 import java.util.regex.Pattern;
 
 import io.reactivex.*;
+import io.reactivex.functions.Function;
 import io.reactivex.internal.functions.ObjectHelper;
 import io.reactivex.plugins.RxJavaPlugins;
 
@@ -41,6 +45,42 @@ public final class StringFlowable {
         return RxJavaPlugins.onAssembly(new FlowableCharSequence(string));
     }
 
+    /**
+     * Signals the characters of the given string CharSequence in chunks of {@code char[]}s
+     * of the given size (the last chunk may be shorter), avoiding the boxing of
+     * individual characters.
+     * <p>
+     * Each chunk is a new array the downstream is free to keep or modify.
+     * The source supports synchronous fusion.
+     * @param string the source of characters
+     * @param chunkSize the maximum number of characters per chunk
+     * @return the new Flowable instance
+     * @since 0.20.4
+     */
+    public static Flowable<char[]> characterChunks(CharSequence string, int chunkSize) {
+        ObjectHelper.requireNonNull(string, "string is null");
+        ObjectHelper.verifyPositive(chunkSize, "chunkSize");
+        return RxJavaPlugins.onAssembly(new FlowableCharSequenceChunked<char[]>(string, chunkSize, false));
+    }
+
+    /**
+     * Signals the characters of the given string CharSequence in chunks of read-only
+     * {@link CharBuffer} views of the given size (the last chunk may be shorter),
+     * without copying or boxing the characters.
+     * <p>
+     * If the CharSequence is mutable, it should not be modified while the views are in use.
+     * The source supports synchronous fusion.
+     * @param string the source of characters
+     * @param chunkSize the maximum number of characters per chunk
+     * @return the new Flowable instance
+     * @since 0.20.4
+     */
+    public static Flowable<CharBuffer> characterBuffers(CharSequence string, int chunkSize) {
+        ObjectHelper.requireNonNull(string, "string is null");
+        ObjectHelper.verifyPositive(chunkSize, "chunkSize");
+        return RxJavaPlugins.onAssembly(new FlowableCharSequenceChunked<CharBuffer>(string, chunkSize, true));
+    }
+
     /**
      * Splits the input sequence of strings based on a pattern even across subsequent
      * elements if needed.
@@ -93,4 +133,105 @@ public final class StringFlowable {
         return split(Pattern.compile(pattern), bufferSize);
     }
 
+    /**
+     * Reads the given file through a {@link java.nio.channels.FileChannel} into a reused
+     * direct buffer and emits the text decoded via the given charset in chunks
+     * of about 64 kB, one chunk per downstream request.
+     * <p>
+     * The file is opened when subscribed to and closed when the sequence terminates or
+     * gets cancelled. Reading happens on the thread requesting more chunks, use
+     * {@code subscribeOn(Schedulers.io())} to move it off the current thread.
+     * Malformed input is replaced with the charset's replacement characters.
+     * @param file the file to read
+     * @param charset the charset of the file
+     * @return the new Flowable instance
+     * @since 0.20.4
+     */
+    public static Flowable<String> readFile(File file, Charset charset) {
+        return readFile(file, charset, 64 * 1024);
+    }
+
+    /**
+     * Reads the given file through a {@link java.nio.channels.FileChannel} into a reused
+     * direct buffer and emits the text decoded via the given charset in chunks
+     * of at most the buffer size, one chunk per downstream request.
+     * <p>
+     * The file is opened when subscribed to and closed when the sequence terminates or
+     * gets cancelled. Reading happens on the thread requesting more chunks, use
+     * {@code subscribeOn(Schedulers.io())} to move it off the current thread.
+     * Malformed input is replaced with the charset's replacement characters.
+     * @param file the file to read
+     * @param charset the charset of the file
+     * @param bufferSize the size of the read buffer in bytes
+     * @return the new Flowable instance
+     * @since 0.20.4
+     */
+    public static Flowable<String> readFile(File file, Charset charset, int bufferSize) {
+        ObjectHelper.requireNonNull(file, "file is null");
+        ObjectHelper.requireNonNull(charset, "charset is null");
+        ObjectHelper.verifyPositive(bufferSize, "bufferSize");
+        return RxJavaPlugins.onAssembly(new FlowableReadFile(file, charset, bufferSize));
+    }
+
+    /**
+     * Reads the lines of the given file, separated by {@code \n} or {@code \r\n}, via
+     * {@link #readFile(File, Charset)} and {@link #split(String)}.
+     * <p>
+     * Like with {@link String#split(String)}, trailing empty lines are not emitted.
+     * @param file the file to read
+     * @param charset the charset of the file
+     * @return the new Flowable instance
+     * @since 0.20.4
+     */
+    public static Flowable<String> lines(File file, Charset charset) {
+        return lines(file, charset, 64 * 1024);
+    }
+
+    /**
+     * Reads the lines of the given file, separated by {@code \n} or {@code \r\n}, via
+     * {@link #readFile(File, Charset, int)} and {@link #split(String)}.
+     * <p>
+     * Like with {@link String#split(String)}, trailing empty lines are not emitted.
+     * @param file the file to read
+     * @param charset the charset of the file
+     * @param bufferSize the size of the read buffer in bytes
+     * @return the new Flowable instance
+     * @since 0.20.4
+     */
+    public static Flowable<String> lines(File file, Charset charset, int bufferSize) {
+        return readFile(file, charset, bufferSize)
+                .compose(split("\n"))
+                .map(StripCarriageReturn.INSTANCE);
+    }
+
+    /**
+     * Maps consecutive windows of the given file into memory and emits them as
+     * read-only {@link java.nio.MappedByteBuffer}s, one window per downstream request.
+     * <p>
+     * The windows share the operating system's page cache and are not copied onto the heap;
+     * they remain valid after the sequence terminates. The file is opened when subscribed
+     * to and closed when the sequence terminates or gets cancelled.
+     * @param file the file to map
+     * @param windowSize the maximum size of each window in bytes
+     * @return the new Flowable instance
+     * @since 0.20.4
+     */
+    public static Flowable<ByteBuffer> mapFile(File file, int windowSize) {
+        ObjectHelper.requireNonNull(file, "file is null");
+        ObjectHelper.verifyPositive(windowSize, "windowSize");
+        return RxJavaPlugins.onAssembly(new FlowableMapFile(file, windowSize));
+    }
+
+    enum StripCarriageReturn implements Function<String, String> {
+        INSTANCE;
+
+        @Override
+        public String apply(String t) throws Exception {
+            int n = t.length();
+            if (n != 0 && t.charAt(n - 1) == '\r') {
+                return t.substring(0, n - 1);
+            }
+            return t;
+        }
+    }
 }
@@ -18,10 +18,11 @@ package hu.akarnokd.rxjava2.subjects;
 
 import java.util.concurrent.atomic.*;
 
-import hu.akarnokd.rxjava2.util.SpmcLinkedArrayQueue;
+import hu.akarnokd.rxjava2.util.*;
 import io.reactivex.*;
 import io.reactivex.Scheduler.Worker;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.MissingBackpressureException;
 import io.reactivex.internal.disposables.DisposableHelper;
 import io.reactivex.internal.functions.ObjectHelper;
 import io.reactivex.internal.fuseable.SimplePlainQueue;
@@ -88,7 +89,27 @@ public final class DispatchWorkSubject<T> extends Subject<T> implements Disposab
      * @return the new DispatchWorkSubject instance
      */
     public static <T> DispatchWorkSubject<T> create(Scheduler scheduler, int capacityHint, boolean delayErrors) {
-        return new DispatchWorkSubject<T>(capacityHint, delayErrors, scheduler);
+        return new DispatchWorkSubject<T>(capacityHint, delayErrors, scheduler, false);
+    }
+
+    /**
+     * Create an empty {@link DispatchWorkSubject} instance with the given scheduler,
+     * fixed capacity and if an error should be delayed.
+     * <p>
+     * The items are cached in a bounded, preallocated array instead of a
+     * growing linked structure. If the upstream produces more items than the
+     * capacity while the {@link Observer}s fall behind, the subject disposes
+     * the upstream and terminates with a {@link MissingBackpressureException}.
+     * @param <T> the input and output value type
+     * @param scheduler the scheduler to use for the {@link Observer}s to be notified on
+     * @param capacity the maximum number of items cached until consumption, positive
+     * @param delayErrors if true, errors are delivered after items have been consumed
+     * @return the new DispatchWorkSubject instance
+     * @since 0.20.4
+     */
+    public static <T> DispatchWorkSubject<T> createFixed(Scheduler scheduler, int capacity, boolean delayErrors) {
+        ObjectHelper.verifyPositive(capacity, "capacity");
+        return new DispatchWorkSubject<T>(capacity, delayErrors, scheduler, true);
     }
 
     final SimplePlainQueue<T> queue;
@@ -111,8 +132,12 @@ public final class DispatchWorkSubject<T> extends Subject<T> implements Disposab
     static final WorkDisposable[] TERMINATED = new WorkDisposable[0];
 
     @SuppressWarnings("unchecked")
-    DispatchWorkSubject(int capacityHint, boolean delayErrors, Scheduler scheduler) {
-        this.queue = new SpmcLinkedArrayQueue<T>(capacityHint);
+    DispatchWorkSubject(int capacityHint, boolean delayErrors, Scheduler scheduler, boolean fixed) {
+        if (fixed) {
+            this.queue = new SpmcArrayQueue<T>(capacityHint);
+        } else {
+            this.queue = new SpmcLinkedArrayQueue<T>(capacityHint);
+        }
         this.delayErrors = delayErrors;
         this.wip = new AtomicInteger();
         this.upstream = new AtomicReference<Disposable>();
@@ -129,7 +154,11 @@ public final class DispatchWorkSubject<T> extends Subject<T> implements Disposab
     @Override
     public void onNext(T t) {
         if (error.get() == null) {
-            queue.offer(t);
+            if (!queue.offer(t)) {
+                DisposableHelper.dispose(upstream);
+                onError(new MissingBackpressureException("Queue is full?!"));
+                return;
+            }
             for (WorkDisposable<T> wd : observers.get()) {
                 wd.drain();
             }
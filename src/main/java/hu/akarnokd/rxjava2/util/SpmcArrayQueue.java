@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.util;
+
+import java.util.concurrent.atomic.*;
+
+import io.reactivex.internal.functions.ObjectHelper;
+import io.reactivex.internal.util.Pow2;
+
+/**
+ * A bounded, single-producer multiple-consumer queue backed by a
+ * power-of-two sized array.
+ * <p>
+ * Unlike {@link SpmcLinkedArrayQueue}, it never allocates after creation;
+ * {@link #offer(Object)} returns false if the queue is full. The producer
+ * and consumer indexes are padded to avoid false sharing between
+ * the producer and the consumers.
+ *
+ * @param <T> the item type to be queued
+ * @since 0.20.4
+ */
+public final class SpmcArrayQueue<T> extends AtomicReferenceArray<T> implements SpmcQueue<T> {
+
+    private static final long serialVersionUID = -4385012553785566718L;
+
+    final int mask;
+
+    final PaddedIndex producerIndex;
+
+    final PaddedIndex consumerIndex;
+
+    /** The producer's cached view of the consumer index, producer access only. */
+    long producerLimit;
+
+    /**
+     * Constructs an SpmcArrayQueue with the given capacity rounded up
+     * to the next power of two.
+     * @param capacity the minimum capacity, positive
+     */
+    public SpmcArrayQueue(int capacity) {
+        super(Pow2.roundToPowerOfTwo(ObjectHelper.verifyPositive(capacity, "capacity")));
+        this.mask = length() - 1;
+        this.producerIndex = new PaddedIndex();
+        this.consumerIndex = new PaddedIndex();
+        this.producerLimit = length();
+    }
+
+    /**
+     * Returns the actual capacity of this queue.
+     * @return the capacity, a power of two
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    @Override
+    public boolean offer(T value) {
+        ObjectHelper.requireNonNull(value, "value is null");
+        long pi = producerIndex.get();
+        if (!hasRoom(pi, 1)) {
+            return false;
+        }
+        store(pi, value);
+        producerIndex.lazySet(pi + 1);
+        return true;
+    }
+
+    @Override
+    public boolean offer(T v1, T v2) {
+        ObjectHelper.requireNonNull(v1, "v1 is null");
+        ObjectHelper.requireNonNull(v2, "v2 is null");
+        long pi = producerIndex.get();
+        if (!hasRoom(pi, 2)) {
+            return false;
+        }
+        store(pi, v1);
+        store(pi + 1, v2);
+        producerIndex.lazySet(pi + 2);
+        return true;
+    }
+
+    boolean hasRoom(long pi, int n) {
+        if (pi + n > producerLimit) {
+            long limit = consumerIndex.get() + mask + 1;
+            producerLimit = limit;
+            return pi + n <= limit;
+        }
+        return true;
+    }
+
+    void store(long index, T value) {
+        int offset = (int)index & mask;
+        // a consumer may have claimed the previous item in this slot but not yet taken it out
+        while (get(offset) != null) { }
+        lazySet(offset, value);
+    }
+
+    @Override
+    public T poll() {
+        PaddedIndex ci = consumerIndex;
+        for (;;) {
+            long c = ci.get();
+            if (c >= producerIndex.get()) {
+                return null;
+            }
+            if (ci.compareAndSet(c, c + 1)) {
+                int offset = (int)c & mask;
+                T v = get(offset);
+                lazySet(offset, null);
+                return v;
+            }
+        }
+    }
+
+    @Override
+    public int poll(Object[] out, int max) {
+        PaddedIndex ci = consumerIndex;
+        for (;;) {
+            long c = ci.get();
+            long available = producerIndex.get() - c;
+            if (available <= 0L) {
+                return 0;
+            }
+            int k = (int)Math.min(available, max);
+            if (ci.compareAndSet(c, c + k)) {
+                int m = mask;
+                for (int i = 0; i < k; i++) {
+                    int offset = (int)(c + i) & m;
+                    out[i] = get(offset);
+                    lazySet(offset, null);
+                }
+                return k;
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return consumerIndex.get() >= producerIndex.get();
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != null) { }
+    }
+
+    /**
+     * An AtomicLong padded so that it doesn't share a cache line with
+     * the other index.
+     */
+    static final class PaddedIndex extends AtomicLong {
+
+        private static final long serialVersionUID = 2653047413012364447L;
+
+        long p1, p2, p3, p4, p5, p6, p7, p8;
+        long p9, p10, p11, p12, p13, p14, p15;
+    }
+}
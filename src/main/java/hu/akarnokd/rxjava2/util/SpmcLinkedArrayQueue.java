@@ -19,7 +19,6 @@ package hu.akarnokd.rxjava2.util;
 import java.util.concurrent.atomic.*;
 
 import io.reactivex.internal.functions.ObjectHelper;
-import io.reactivex.internal.fuseable.SimplePlainQueue;
 
 /**
  * A single-producer multiple-conumer queue implementation with array islands.
@@ -27,7 +26,7 @@ import io.reactivex.internal.fuseable.SimplePlainQueue;
  * @param <T> the item type to be queued
  * @since 0.18.8
  */
-public final class SpmcLinkedArrayQueue<T> implements SimplePlainQueue<T> {
+public final class SpmcLinkedArrayQueue<T> implements SpmcQueue<T> {
 
     ARA producerArray;
 
@@ -148,6 +147,62 @@ public final class SpmcLinkedArrayQueue<T> implements SimplePlainQueue<T> {
         }
     }
 
+    /**
+     * Claims up to the given number of available items with a single
+     * index update and copies them into the given array.
+     * <p>
+     * The items are taken from the current array island only, thus
+     * fewer than {@code max} items may be returned even though the
+     * queue has more.
+     * @param out the array to copy the items into, starting at index 0
+     * @param max the maximum number of items to claim, positive, not
+     *            more than the length of {@code out}
+     * @return the number of items claimed, zero if the queue was empty
+     * @since 0.20.4
+     */
+    @Override
+    public int poll(Object[] out, int max) {
+        AtomicReference<ARA> ca = consumerArray;
+        ARA a = ca.get();
+        AtomicInteger index = a.index;
+
+        for (;;) {
+            int idx = index.get();
+            int end = a.length() - 1;
+            if (idx < end) {
+                int limit = Math.min(end, idx + max);
+                int k = 0;
+                for (int i = idx; i < limit; i++) {
+                    Object o = a.get(i);
+                    if (o == null) {
+                        break;
+                    }
+                    out[k++] = o;
+                }
+                if (k == 0) {
+                    if (idx == index.get()) {
+                        return 0;
+                    }
+                } else
+                if (index.compareAndSet(idx, idx + k)) {
+                    for (int i = 0; i < k; i++) {
+                        a.lazySet(idx + i, null);
+                    }
+                    return k;
+                }
+            } else {
+                ARA b = a.lvNext();
+                if (b != null) {
+                    ca.compareAndSet(a, b);
+                    a = ca.get();
+                    index = a.index;
+                } else {
+                    return 0;
+                }
+            }
+        }
+    }
+
     static final class ARA extends AtomicReferenceArray<Object> {
 
         private static final long serialVersionUID = 5627139329189102514L;
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.util;
+
+import io.reactivex.internal.fuseable.SimplePlainQueue;
+
+/**
+ * A single-producer multiple-consumer queue which also allows a consumer
+ * to claim multiple items at once.
+ *
+ * @param <T> the item type to be queued
+ * @since 0.20.4
+ */
+public interface SpmcQueue<T> extends SimplePlainQueue<T> {
+
+    /**
+     * Claims up to the given number of available items and copies
+     * them into the given array.
+     * @param out the array to copy the items into, starting at index 0
+     * @param max the maximum number of items to claim, positive, not
+     *            more than the length of {@code out}
+     * @return the number of items claimed, zero if the queue was empty
+     */
+    int poll(Object[] out, int max);
+}
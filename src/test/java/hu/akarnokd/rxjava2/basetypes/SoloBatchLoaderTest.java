@@ -0,0 +1,203 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.basetypes;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class SoloBatchLoaderTest {
+
+    final List<List<Integer>> calls = new ArrayList<List<Integer>>();
+
+    final Function<List<Integer>, Publisher<Map.Entry<Integer, String>>> bulk =
+            new Function<List<Integer>, Publisher<Map.Entry<Integer, String>>>() {
+        @Override
+        public Publisher<Map.Entry<Integer, String>> apply(List<Integer> keys) throws Exception {
+            calls.add(keys);
+            Map<Integer, String> m = new LinkedHashMap<Integer, String>();
+            for (Integer k : keys) {
+                if (k >= 0) {
+                    m.put(k, "v" + k);
+                }
+            }
+            return Flowable.fromIterable(m.entrySet());
+        }
+    };
+
+    @Test
+    public void window() {
+        TestScheduler scheduler = new TestScheduler();
+        SoloBatchLoader<Integer, String> loader = SoloBatchLoader.create(bulk, 10, 100, TimeUnit.MILLISECONDS, scheduler);
+
+        Solo<String> s1 = loader.load(1);
+
+        assertTrue(calls.isEmpty());
+
+        TestSubscriber<String> ts1 = s1.test();
+        TestSubscriber<String> ts2 = loader.load(2).test();
+        TestSubscriber<String> ts3 = loader.load(1).test();
+
+        ts1.assertEmpty();
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        ts1.assertResult("v1");
+        ts2.assertResult("v2");
+        ts3.assertResult("v1");
+
+        assertEquals(Collections.singletonList(Arrays.asList(1, 2)), calls);
+        assertEquals(1, loader.batchCount());
+        assertEquals(2, loader.keyCount());
+        assertEquals(2, loader.largestBatchSize());
+        assertEquals(2d, loader.averageBatchSize(), 0d);
+    }
+
+    @Test
+    public void size() {
+        TestScheduler scheduler = new TestScheduler();
+        SoloBatchLoader<Integer, String> loader = SoloBatchLoader.create(bulk, 2, 100, TimeUnit.MILLISECONDS, scheduler);
+
+        TestSubscriber<String> ts1 = loader.load(1).test();
+        TestSubscriber<String> ts2 = loader.load(2).test();
+        TestSubscriber<String> ts3 = loader.load(3).test();
+
+        ts1.assertResult("v1");
+        ts2.assertResult("v2");
+        ts3.assertEmpty();
+
+        // the timer of the first batch must not send the second batch early
+        scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+
+        ts3.assertEmpty();
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        ts3.assertResult("v3");
+
+        assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3)), calls);
+        assertEquals(2, loader.batchCount());
+        assertEquals(1.5d, loader.averageBatchSize(), 0d);
+    }
+
+    @Test
+    public void missingKey() {
+        TestScheduler scheduler = new TestScheduler();
+        SoloBatchLoader<Integer, String> loader = SoloBatchLoader.create(bulk, 10, 100, TimeUnit.MILLISECONDS, scheduler);
+
+        TestSubscriber<String> ts1 = loader.load(1).test();
+        TestSubscriber<String> ts2 = loader.load(-1).test();
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        ts1.assertResult("v1");
+        ts2.assertFailure(NoSuchElementException.class);
+    }
+
+    @Test
+    public void bulkError() {
+        TestScheduler scheduler = new TestScheduler();
+        SoloBatchLoader<Integer, String> loader = SoloBatchLoader.create(
+                new Function<List<Integer>, Publisher<Map.Entry<Integer, String>>>() {
+            @Override
+            public Publisher<Map.Entry<Integer, String>> apply(List<Integer> keys) throws Exception {
+                return Flowable.error(new IOException());
+            }
+        }, 10, 100, TimeUnit.MILLISECONDS, scheduler);
+
+        TestSubscriber<String> ts1 = loader.load(1).test();
+        TestSubscriber<String> ts2 = loader.load(2).test();
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        ts1.assertFailure(IOException.class);
+        ts2.assertFailure(IOException.class);
+    }
+
+    @Test
+    public void bulkCrash() {
+        TestScheduler scheduler = new TestScheduler();
+        SoloBatchLoader<Integer, String> loader = SoloBatchLoader.create(
+                new Function<List<Integer>, Publisher<Map.Entry<Integer, String>>>() {
+            @Override
+            public Publisher<Map.Entry<Integer, String>> apply(List<Integer> keys) throws Exception {
+                throw new IOException();
+            }
+        }, 1, 100, TimeUnit.MILLISECONDS, scheduler);
+
+        loader.load(1).test().assertFailure(IOException.class);
+    }
+
+    @Test
+    public void cancelled() {
+        TestScheduler scheduler = new TestScheduler();
+        SoloBatchLoader<Integer, String> loader = SoloBatchLoader.create(bulk, 10, 100, TimeUnit.MILLISECONDS, scheduler);
+
+        TestSubscriber<String> ts1 = loader.load(1).test();
+        TestSubscriber<String> ts2 = loader.load(2).test();
+
+        ts1.cancel();
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        ts1.assertEmpty();
+        ts2.assertResult("v2");
+    }
+
+    @Test
+    public void cancelledBeforeAdded() {
+        TestScheduler scheduler = new TestScheduler();
+        SoloBatchLoader<Integer, String> loader = SoloBatchLoader.create(bulk, 10, 100, TimeUnit.MILLISECONDS, scheduler);
+
+        loader.load(1).test(0L, true);
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    public void backpressured() {
+        TestScheduler scheduler = new TestScheduler();
+        SoloBatchLoader<Integer, String> loader = SoloBatchLoader.create(bulk, 1, 100, TimeUnit.MILLISECONDS, scheduler);
+
+        loader.load(1).test(0L)
+        .assertEmpty()
+        .requestMore(1)
+        .assertResult("v1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxBatchSizeInvalid() {
+        SoloBatchLoader.create(bulk, 0, 100, TimeUnit.MILLISECONDS, new TestScheduler());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void windowNegative() {
+        SoloBatchLoader.create(bulk, 10, -1, TimeUnit.MILLISECONDS, new TestScheduler());
+    }
+}
@@ -21,6 +21,7 @@ import static org.junit.Assert.*;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.junit.Test;
 import org.reactivestreams.*;
@@ -2572,5 +2573,331 @@ public class SoloTest implements Consumer<Object>, Action, LongConsumer, Cancell
 
         assertEquals(1, count);
     }
-}
 
+    @Test
+    public void singleFlight() {
+        SingleFlightGroup<String, Integer> group = new SingleFlightGroup<String, Integer>();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        Solo<Integer> p = Solo.fromPublisher(pp)
+        .doOnSubscribe(this)
+        .singleFlight(group, "a");
+
+        TestSubscriber<Integer> ts1 = p.test();
+        TestSubscriber<Integer> ts2 = p.test();
+
+        assertEquals(1, count);
+        assertEquals(1, group.inFlight());
+
+        pp.onNext(1);
+        pp.onComplete();
+
+        ts1.assertResult(1);
+        ts2.assertResult(1);
+        assertEquals(0, group.inFlight());
+
+        p.test();
+
+        assertEquals(2, count);
+    }
+
+    @Test
+    public void singleFlightDistinctKeys() {
+        SingleFlightGroup<String, Integer> group = new SingleFlightGroup<String, Integer>();
+
+        Solo<Integer> p = Solo.fromPublisher(PublishProcessor.<Integer>create())
+        .doOnSubscribe(this);
+
+        p.singleFlight(group, "a").test();
+        p.singleFlight(group, "b").test();
+        p.singleFlight(group, "a").test();
+
+        assertEquals(2, count);
+        assertEquals(2, group.inFlight());
+    }
+
+    @Test
+    public void singleFlightError() {
+        SingleFlightGroup<String, Integer> group = new SingleFlightGroup<String, Integer>();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        Solo<Integer> p = Solo.fromPublisher(pp).singleFlight(group, "a");
+
+        TestSubscriber<Integer> ts1 = p.test();
+        TestSubscriber<Integer> ts2 = p.test();
+
+        pp.onError(new IOException());
+
+        ts1.assertFailure(IOException.class);
+        ts2.assertFailure(IOException.class);
+        assertEquals(0, group.inFlight());
+    }
+
+    @Test
+    public void singleFlightSync() {
+        SingleFlightGroup<String, Integer> group = new SingleFlightGroup<String, Integer>();
+
+        Solo<Integer> p = Solo.just(1)
+        .doOnSubscribe(this)
+        .singleFlight(group, "a");
+
+        p.test().assertResult(1);
+        p.test().assertResult(1);
+
+        assertEquals(2, count);
+        assertEquals(0, group.inFlight());
+    }
+
+    @Test
+    public void singleFlightCancel() {
+        SingleFlightGroup<String, Integer> group = new SingleFlightGroup<String, Integer>();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        Solo<Integer> p = Solo.fromPublisher(pp).singleFlight(group, "a");
+
+        TestSubscriber<Integer> ts1 = p.test();
+        TestSubscriber<Integer> ts2 = p.test();
+
+        ts1.cancel();
+
+        assertTrue(pp.hasSubscribers());
+
+        pp.onNext(1);
+        pp.onComplete();
+
+        ts1.assertEmpty();
+        ts2.assertResult(1);
+
+        TestSubscriber<Integer> ts3 = p.test();
+        TestSubscriber<Integer> ts4 = p.test();
+
+        ts3.cancel();
+        ts4.cancel();
+
+        assertFalse(pp.hasSubscribers());
+        assertEquals(0, group.inFlight());
+    }
+
+    @Test
+    public void singleFlightBackpressured() {
+        SingleFlightGroup<String, Integer> group = new SingleFlightGroup<String, Integer>();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        Solo<Integer> p = Solo.fromPublisher(pp).singleFlight(group, "a");
+
+        TestSubscriber<Integer> ts = p.test(0L);
+
+        pp.onNext(1);
+        pp.onComplete();
+
+        ts.assertEmpty();
+
+        ts.request(1);
+
+        ts.assertResult(1);
+    }
+
+    @Test
+    public void singleFlightRace() {
+        for (int i = 0; i < 1000; i++) {
+            count = 0;
+            final SingleFlightGroup<Integer, Integer> group = new SingleFlightGroup<Integer, Integer>();
+            final PublishProcessor<Integer> pp = PublishProcessor.create();
+
+            final Solo<Integer> p = Solo.fromPublisher(pp).doOnSubscribe(this).singleFlight(group, 1);
+
+            final TestSubscriber<Integer> ts1 = new TestSubscriber<Integer>();
+            final TestSubscriber<Integer> ts2 = new TestSubscriber<Integer>();
+
+            Runnable r1 = new Runnable() {
+                @Override
+                public void run() {
+                    p.subscribe(ts1);
+                }
+            };
+
+            Runnable r2 = new Runnable() {
+                @Override
+                public void run() {
+                    p.subscribe(ts2);
+                }
+            };
+
+            TestHelper.race(r1, r2, Schedulers.single());
+
+            assertEquals(1, count);
+
+            pp.onNext(1);
+            pp.onComplete();
+
+            ts1.assertResult(1);
+            ts2.assertResult(1);
+            assertEquals(0, group.inFlight());
+        }
+    }
+
+    @Test
+    public void cacheWithTtl() {
+        TestScheduler scheduler = new TestScheduler();
+        final AtomicInteger counter = new AtomicInteger();
+
+        Solo<Integer> p = Solo.fromCallable(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return counter.incrementAndGet();
+            }
+        })
+        .cacheWithTtl(10, TimeUnit.SECONDS, scheduler);
+
+        assertEquals(0, counter.get());
+
+        p.test().assertResult(1);
+        p.test().assertResult(1);
+
+        scheduler.advanceTimeBy(9, TimeUnit.SECONDS);
+
+        p.test().assertResult(1);
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        p.test().assertResult(2);
+        p.test().assertResult(2);
+
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void cacheWithTtlShared() {
+        TestScheduler scheduler = new TestScheduler();
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        Solo<Integer> p = Solo.fromPublisher(pp)
+        .doOnSubscribe(this)
+        .cacheWithTtl(10, TimeUnit.SECONDS, scheduler);
+
+        TestSubscriber<Integer> ts1 = p.test();
+        TestSubscriber<Integer> ts2 = p.test();
+
+        ts1.cancel();
+
+        assertEquals(1, count);
+
+        pp.onNext(1);
+        pp.onComplete();
+
+        ts1.assertEmpty();
+        ts2.assertResult(1);
+
+        p.test(0L).assertEmpty().requestMore(1).assertResult(1);
+    }
+
+    @Test
+    public void cacheWithTtlError() {
+        TestScheduler scheduler = new TestScheduler();
+
+        Solo<Integer> p = Solo.<Integer>error(new IOException())
+        .doOnSubscribe(this)
+        .cacheWithTtl(10, TimeUnit.SECONDS, scheduler);
+
+        p.test().assertFailure(IOException.class);
+        p.test().assertFailure(IOException.class);
+
+        assertEquals(2, count);
+    }
+
+    @Test
+    public void cacheWithTtlErrorTtl() {
+        TestScheduler scheduler = new TestScheduler();
+
+        Solo<Integer> p = Solo.<Integer>error(new IOException())
+        .doOnSubscribe(this)
+        .cacheWithTtl(10, 2, 0, TimeUnit.SECONDS, scheduler);
+
+        p.test().assertFailure(IOException.class);
+        p.test().assertFailure(IOException.class);
+
+        assertEquals(1, count);
+
+        scheduler.advanceTimeBy(2, TimeUnit.SECONDS);
+
+        p.test().assertFailure(IOException.class);
+
+        assertEquals(2, count);
+    }
+
+    @Test
+    public void cacheWithTtlRefreshAhead() {
+        TestScheduler scheduler = new TestScheduler();
+        final AtomicInteger counter = new AtomicInteger();
+
+        Solo<Integer> p = Solo.fromCallable(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                return counter.incrementAndGet();
+            }
+        })
+        .cacheWithTtl(10, 0, 3, TimeUnit.SECONDS, scheduler);
+
+        p.test().assertResult(1);
+
+        scheduler.advanceTimeBy(7, TimeUnit.SECONDS);
+
+        // stale value served while the refresh is scheduled
+        p.test().assertResult(1);
+        p.test().assertResult(1);
+
+        assertEquals(1, counter.get());
+
+        scheduler.triggerActions();
+
+        assertEquals(2, counter.get());
+
+        p.test().assertResult(2);
+
+        // the refreshed value lives for the full ttl
+        scheduler.advanceTimeBy(6, TimeUnit.SECONDS);
+
+        p.test().assertResult(2);
+
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void cacheWithTtlRefreshAheadFails() {
+        TestScheduler scheduler = new TestScheduler();
+        final AtomicInteger counter = new AtomicInteger();
+
+        Solo<Integer> p = Solo.fromCallable(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                if (counter.incrementAndGet() == 2) {
+                    throw new IOException();
+                }
+                return counter.get();
+            }
+        })
+        .cacheWithTtl(10, 0, 3, TimeUnit.SECONDS, scheduler);
+
+        p.test().assertResult(1);
+
+        scheduler.advanceTimeBy(8, TimeUnit.SECONDS);
+
+        p.test().assertResult(1);
+
+        scheduler.triggerActions();
+
+        assertEquals(2, counter.get());
+
+        // the stale value is kept until it expires
+        p.test().assertResult(1);
+
+        scheduler.advanceTimeBy(2, TimeUnit.SECONDS);
+
+        p.test().assertResult(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cacheWithTtlNegative() {
+        Solo.just(1).cacheWithTtl(-1, TimeUnit.SECONDS);
+    }
+}
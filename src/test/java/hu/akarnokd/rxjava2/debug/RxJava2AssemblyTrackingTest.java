@@ -18,11 +18,12 @@ package hu.akarnokd.rxjava2.debug;
 
 import static org.junit.Assert.*;
 
-import java.io.IOException;
+import java.io.*;
 import java.util.concurrent.*;
 
 import org.junit.Test;
 
+import hu.akarnokd.rxjava2.test.TestHelper;
 import io.reactivex.*;
 import io.reactivex.functions.Action;
 import io.reactivex.observers.TestObserver;
@@ -232,4 +233,134 @@ public class RxJava2AssemblyTrackingTest {
 
         assertNull(RxJavaAssemblyException.find(ts.errors().get(0)));
     }
+
+    @Test
+    public void lowOverhead() {
+        RxJavaAssemblyTracking.enableLowOverhead();
+        try {
+            Flowable<Integer> source = createFlowable();
+
+            RxJavaAssemblyException ex = ((FlowableOnAssembly<Integer>)source).assembled;
+
+            assertNull(ex.stacktrace);
+            assertNotNull(ex.capture);
+            assertNull(ex.site);
+
+            TestSubscriber<Integer> ts = source.test()
+            .assertFailure(IOException.class, 1, 2, 3, 4, 5);
+
+            RxJavaAssemblyException found = RxJavaAssemblyException.find(ts.errors().get(0));
+            String st = found.stacktrace();
+
+            assertTrue(st, st.contains("RxJava2AssemblyTrackingTest.createFlowable"));
+            assertFalse(st, st.contains("AssemblySite"));
+            assertSame(st, found.site.formatted);
+        } finally {
+            RxJavaAssemblyTracking.disable();
+        }
+    }
+
+    @Test
+    public void lowOverheadInterned() {
+        RxJavaAssemblyTracking.enableLowOverhead();
+        try {
+            RxJavaAssemblyException[] exs = new RxJavaAssemblyException[2];
+            for (int i = 0; i < 2; i++) {
+                exs[i] = ((FlowableOnAssembly<Integer>)createFlowable()).assembled;
+            }
+
+            String st = exs[0].stacktrace();
+
+            assertSame(st, exs[1].stacktrace());
+            assertSame(exs[0].site, exs[1].site);
+            assertNull(exs[1].capture);
+
+            RxJavaAssemblyException other = ((FlowableOnAssembly<Integer>)createFlowable()).assembled;
+
+            assertNotEquals(st, other.stacktrace());
+            assertNotSame(exs[0].site, other.site);
+        } finally {
+            RxJavaAssemblyTracking.disable();
+        }
+        assertTrue(AssemblySite.SITES.isEmpty());
+    }
+
+    @Test
+    public void lowOverheadSampled() {
+        RxJavaAssemblyTracking.enableLowOverhead(3);
+        try {
+            int tracked = 0;
+            for (int i = 0; i < 6; i++) {
+                if (Flowable.range(1, 5) instanceof FlowableOnAssembly) {
+                    tracked++;
+                }
+            }
+
+            assertEquals(2, tracked);
+        } finally {
+            RxJavaAssemblyTracking.disable();
+        }
+
+        RxJavaAssemblyTracking.enable();
+        try {
+            assertTrue(Flowable.range(1, 5) instanceof FlowableOnAssembly);
+            assertNotNull(((FlowableOnAssembly<Integer>)Flowable.range(1, 5)).assembled.stacktrace);
+        } finally {
+            RxJavaAssemblyTracking.disable();
+        }
+    }
+
+    @Test
+    public void lowOverheadStacktraceRace() {
+        RxJavaAssemblyTracking.enableLowOverhead();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                final RxJavaAssemblyException ex = ((FlowableOnAssembly<Integer>)createFlowable()).assembled;
+                final String[] st = { null, null };
+
+                TestHelper.race(new Runnable() {
+                    @Override
+                    public void run() {
+                        st[0] = ex.stacktrace();
+                    }
+                }, new Runnable() {
+                    @Override
+                    public void run() {
+                        st[1] = ex.stacktrace();
+                    }
+                });
+
+                assertNotNull(st[0]);
+                assertEquals(st[0], st[1]);
+            }
+        } finally {
+            RxJavaAssemblyTracking.disable();
+        }
+    }
+
+    @Test
+    public void lowOverheadSerializable() throws Exception {
+        RxJavaAssemblyTracking.enableLowOverhead();
+        try {
+            RxJavaAssemblyException ex = ((FlowableOnAssembly<Integer>)createFlowable()).assembled;
+            String st = ex.stacktrace();
+
+            ByteArrayOutputStream bout = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bout);
+            out.writeObject(ex);
+            out.close();
+
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray()));
+            RxJavaAssemblyException copy = (RxJavaAssemblyException)in.readObject();
+
+            assertEquals(st, copy.stacktrace());
+        } finally {
+            RxJavaAssemblyTracking.disable();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lowOverheadSampleRateInvalid() {
+        RxJavaAssemblyTracking.enableLowOverhead(0);
+    }
 }
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.debug;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+import hu.akarnokd.rxjava2.test.TestHelper;
+import io.reactivex.*;
+import io.reactivex.functions.Function;
+import io.reactivex.internal.functions.Functions;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class RxJavaOperatorMetricsTest {
+
+    static final Function<Integer, Integer> PLUS_ONE = new Function<Integer, Integer>() {
+        @Override
+        public Integer apply(Integer v) throws Exception {
+            return v + 1;
+        }
+    };
+
+    @Before
+    public void before() {
+        RxJavaOperatorMetrics.SITES.clear();
+        RxJavaOperatorMetrics.enable();
+    }
+
+    @After
+    public void after() {
+        RxJavaOperatorMetrics.disable();
+        RxJavaOperatorMetrics.SITES.clear();
+    }
+
+    static OperatorMetrics find(String site) {
+        for (OperatorMetrics m : RxJavaOperatorMetrics.snapshot()) {
+            if (m.site().contains(site)) {
+                return m;
+            }
+        }
+        fail("Site not found: " + site + " in " + RxJavaOperatorMetrics.snapshot());
+        return null;
+    }
+
+    @Test
+    public void utilityClass() {
+        TestHelper.checkUtilityClass(RxJavaOperatorMetrics.class);
+    }
+
+    @Test
+    public void flowableBounded() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp.map(PLUS_ONE).test(5);
+
+        pp.onNext(1);
+        pp.onNext(2);
+
+        ts.assertValuesOnly(2, 3);
+
+        OperatorMetrics m = find("FlowableMap");
+
+        assertEquals(1, m.subscriptions());
+        assertEquals(2, m.items());
+        assertEquals(5, m.requested());
+        assertEquals(0, m.unboundedRequests());
+        assertEquals(3, m.outstanding());
+        assertEquals(1, m.firstItems());
+        assertTrue(m.maxFirstItemLatency(TimeUnit.NANOSECONDS) >= m.averageFirstItemLatency(TimeUnit.NANOSECONDS));
+
+        ts.cancel();
+
+        m = find("FlowableMap");
+
+        assertEquals(0, m.outstanding());
+        assertEquals(0, m.errors());
+    }
+
+    @Test
+    public void flowableUnbounded() {
+        Flowable.range(1, 5).map(PLUS_ONE)
+        .test()
+        .assertResult(2, 3, 4, 5, 6);
+
+        OperatorMetrics m = find("FlowableMap");
+
+        assertEquals(5, m.items());
+        assertEquals(0, m.requested());
+        assertEquals(1, m.unboundedRequests());
+        assertEquals(0, m.outstanding());
+
+        m = find("FlowableRange");
+
+        assertEquals(5, m.items());
+        assertEquals(1, m.unboundedRequests());
+    }
+
+    @Test
+    public void flowableCompleteReleasesDemand() {
+        Flowable.range(1, 5).map(PLUS_ONE)
+        .test(10)
+        .assertResult(2, 3, 4, 5, 6);
+
+        OperatorMetrics m = find("FlowableMap");
+
+        assertEquals(10, m.requested());
+        assertEquals(0, m.outstanding());
+    }
+
+    @Test
+    public void flowableError() {
+        Flowable.range(1, 5).concatWith(Flowable.<Integer>error(new IOException()))
+        .test()
+        .assertFailure(IOException.class, 1, 2, 3, 4, 5);
+
+        OperatorMetrics m = find("FlowableConcatArray");
+
+        assertEquals(5, m.items());
+        assertEquals(1, m.errors());
+    }
+
+    @Test
+    public void flowableFused() {
+        Flowable.range(1, 5).map(PLUS_ONE)
+        .observeOn(Schedulers.single())
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(2, 3, 4, 5, 6);
+
+        assertEquals(5, find("FlowableMap").items());
+        assertEquals(5, find("FlowableObserveOn").items());
+    }
+
+    @Test
+    public void callableNotInstrumented() {
+        Flowable.just(1).test().assertResult(1);
+        Observable.just(1).test().assertResult(1);
+
+        assertTrue(RxJavaOperatorMetrics.snapshot().toString(), RxJavaOperatorMetrics.snapshot().isEmpty());
+    }
+
+    @Test
+    public void observable() {
+        Observable.range(1, 5).map(PLUS_ONE)
+        .concatWith(Observable.<Integer>error(new IOException()))
+        .test()
+        .assertFailure(IOException.class, 2, 3, 4, 5, 6);
+
+        OperatorMetrics m = find("ObservableMap");
+
+        assertEquals(1, m.subscriptions());
+        assertEquals(5, m.items());
+        assertEquals(1, m.firstItems());
+        assertEquals(0, m.errors());
+
+        assertEquals(1, find("ObservableConcatMap").errors());
+    }
+
+    @Test
+    public void observableFused() {
+        Observable.range(1, 5).map(PLUS_ONE)
+        .observeOn(Schedulers.single())
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(2, 3, 4, 5, 6);
+
+        assertEquals(5, find("ObservableMap").items());
+    }
+
+    @Test
+    public void parallel() {
+        Flowable.range(1, 10)
+        .parallel(2)
+        .map(PLUS_ONE)
+        .sequential()
+        .test()
+        .assertValueCount(10)
+        .assertComplete();
+
+        OperatorMetrics m = find("ParallelMap");
+
+        assertEquals(2, m.subscriptions());
+        assertEquals(10, m.items());
+        assertEquals(2, m.firstItems());
+    }
+
+    @Test
+    public void callSites() {
+        RxJavaOperatorMetrics.disable();
+        RxJavaOperatorMetrics.enable(true);
+
+        for (int i = 0; i < 2; i++) {
+            Flowable.range(1, 5).map(PLUS_ONE).test().assertResult(2, 3, 4, 5, 6);
+        }
+        Flowable.range(1, 5).map(PLUS_ONE).test().assertResult(2, 3, 4, 5, 6);
+
+        assertEquals(RxJavaOperatorMetrics.snapshot().toString(), 2, countSites("FlowableMap"));
+
+        for (OperatorMetrics m : RxJavaOperatorMetrics.snapshot()) {
+            assertTrue(m.site(), m.site().contains("RxJavaOperatorMetricsTest.callSites"));
+            if (m.site().contains("FlowableMap")) {
+                assertTrue(m.toString(), m.subscriptions() == 1 || m.subscriptions() == 2);
+            }
+        }
+    }
+
+    static int countSites(String site) {
+        int c = 0;
+        for (OperatorMetrics m : RxJavaOperatorMetrics.snapshot()) {
+            if (m.site().contains(site)) {
+                c++;
+            }
+        }
+        return c;
+    }
+
+    @Test
+    public void reset() {
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp.map(PLUS_ONE).test(5);
+
+        pp.onNext(1);
+
+        RxJavaOperatorMetrics.reset();
+
+        OperatorMetrics m = find("FlowableMap");
+
+        assertEquals(0, m.subscriptions());
+        assertEquals(0, m.items());
+        assertEquals(0, m.requested());
+        assertEquals(4, m.outstanding());
+
+        ts.cancel();
+
+        assertEquals(0, find("FlowableMap").outstanding());
+    }
+
+    @Test
+    public void disabled() {
+        RxJavaOperatorMetrics.disable();
+
+        Flowable.range(1, 5).map(PLUS_ONE).test().assertResult(2, 3, 4, 5, 6);
+
+        assertTrue(RxJavaOperatorMetrics.snapshot().isEmpty());
+    }
+
+    @Test
+    public void stripedCountersConcurrent() throws Exception {
+        final StripedCounters c = new StripedCounters();
+        ExecutorService exec = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 4; i++) {
+                exec.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < 10000; j++) {
+                            c.add(1, 1L);
+                            c.add(2, 2L);
+                        }
+                    }
+                });
+            }
+        } finally {
+            exec.shutdown();
+        }
+        assertTrue(exec.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(0, c.sum(0));
+        assertEquals(40000, c.sum(1));
+        assertEquals(80000, c.sum(2));
+
+        c.reset(1);
+
+        assertEquals(0, c.sum(1));
+        assertEquals(80000, c.sum(2));
+    }
+
+    @Test
+    public void toStringAndLatencyUnits() {
+        OperatorMetrics m = new OperatorMetrics("site", 1, 2, 3, 4, 5, 2, 3000000, 2000000, 0);
+
+        assertEquals(1, m.averageFirstItemLatency(TimeUnit.MILLISECONDS));
+        assertEquals(2, m.maxFirstItemLatency(TimeUnit.MILLISECONDS));
+        assertTrue(m.toString(), m.toString().startsWith("OperatorMetrics[site=site, subscriptions=1"));
+
+        assertEquals(0, new OperatorMetrics("site", 0, 0, 0, 0, 0, 0, 0, 0, 0).averageFirstItemLatency(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void wrapsAssembled() {
+        Flowable<Object> f = Flowable.never().map(Functions.identity());
+
+        assertTrue(f.getClass().toString(), f instanceof FlowableOnMetrics);
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.joins;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+
+import io.reactivex.*;
+import io.reactivex.functions.*;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class JoinFlowableTest {
+
+    static final BiFunction<Integer, Integer, Integer> ADD = new BiFunction<Integer, Integer, Integer>() {
+        @Override
+        public Integer apply(Integer a, Integer b) throws Exception {
+            return a + b;
+        }
+    };
+
+    static Flowable<Integer> countRequests(Flowable<Integer> source, final AtomicLong requested) {
+        return source.doOnRequest(new LongConsumer() {
+            @Override
+            public void accept(long n) throws Exception {
+                requested.addAndGet(n);
+            }
+        });
+    }
+
+    @Test
+    public void normal() {
+        JoinFlowable.when(
+                JoinFlowable.from(Flowable.range(1, 5)).and(Flowable.range(10, 5)).then(ADD)
+        )
+        .toFlowable()
+        .test()
+        .assertResult(11, 13, 15, 17, 19);
+    }
+
+    @Test
+    public void single() {
+        JoinFlowable.when(
+                JoinFlowable.from(Flowable.range(1, 5)).then(new Function<Integer, Integer>() {
+                    @Override
+                    public Integer apply(Integer v) throws Exception {
+                        return v * 10;
+                    }
+                })
+        )
+        .toFlowable()
+        .test()
+        .assertResult(10, 20, 30, 40, 50);
+    }
+
+    @Test
+    public void threeWay() {
+        JoinFlowable.when(
+                JoinFlowable.from(Flowable.range(1, 3)).and(Flowable.range(1, 3))
+                .and(Flowable.range(1, 3), 2)
+                .then(new Function3<Integer, Integer, Integer, Integer>() {
+                    @Override
+                    public Integer apply(Integer a, Integer b, Integer c) throws Exception {
+                        return a + b + c;
+                    }
+                })
+        )
+        .toFlowable()
+        .test()
+        .assertResult(3, 6, 9);
+    }
+
+    @Test
+    public void fastSourceBounded() {
+        AtomicLong fastRequested = new AtomicLong();
+
+        JoinFlowable.when(
+                JoinFlowable.from(countRequests(Flowable.range(1, 1000000), fastRequested), 16)
+                .and(Flowable.range(1, 10), 16)
+                .then(ADD)
+        )
+        .toFlowable()
+        .test()
+        .assertValueCount(10)
+        .assertNoErrors()
+        .assertComplete();
+
+        assertEquals(16, fastRequested.get());
+    }
+
+    @Test
+    public void replenish() {
+        AtomicLong fastRequested = new AtomicLong();
+
+        JoinFlowable.when(
+                JoinFlowable.from(countRequests(Flowable.range(1, 1000000), fastRequested), 16)
+                .and(Flowable.range(1, 100), 16)
+                .then(ADD)
+        )
+        .toFlowable()
+        .test()
+        .assertValueCount(100)
+        .assertNoErrors()
+        .assertComplete();
+
+        long r = fastRequested.get();
+        assertTrue("" + r, r >= 100 && r <= 100 + 16);
+    }
+
+    @Test
+    public void downstreamBackpressure() {
+        AtomicLong requested1 = new AtomicLong();
+        AtomicLong requested2 = new AtomicLong();
+
+        TestSubscriber<Integer> ts = JoinFlowable.when(
+                JoinFlowable.from(countRequests(Flowable.range(1, 1000), requested1), 8)
+                .and(countRequests(Flowable.range(1, 1000), requested2), 8)
+                .then(ADD)
+        )
+        .toFlowable()
+        .test(0L);
+
+        ts.assertEmpty();
+
+        assertEquals(8, requested1.get());
+        assertEquals(8, requested2.get());
+
+        ts.request(3);
+
+        ts.assertValuesOnly(2, 4, 6);
+
+        assertEquals(8, requested1.get());
+        assertEquals(8, requested2.get());
+
+        ts.request(5);
+
+        ts.assertValuesOnly(2, 4, 6, 8, 10, 12, 14, 16);
+
+        assertEquals(14, requested1.get());
+        assertEquals(14, requested2.get());
+    }
+
+    @Test
+    public void completeWithoutExtraRequest() {
+        JoinFlowable.when(
+                JoinFlowable.from(Flowable.range(1, 3)).and(Flowable.range(1, 3)).then(ADD)
+        )
+        .toFlowable()
+        .test(3)
+        .assertResult(2, 4, 6);
+    }
+
+    @Test
+    public void error() {
+        JoinFlowable.when(
+                JoinFlowable.from(Flowable.range(1, 3)).and(Flowable.<Integer>error(new IOException())).then(ADD)
+        )
+        .toFlowable()
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void selectorCrash() {
+        JoinFlowable.when(
+                JoinFlowable.from(Flowable.range(1, 3)).and(Flowable.range(1, 3))
+                .then(new BiFunction<Integer, Integer, Integer>() {
+                    @Override
+                    public Integer apply(Integer a, Integer b) throws Exception {
+                        throw new IOException();
+                    }
+                })
+        )
+        .toFlowable()
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void take() {
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        JoinFlowable.when(
+                JoinFlowable.from(Flowable.range(1, 1000).doOnCancel(new Action() {
+                    @Override
+                    public void run() throws Exception {
+                        cancelled.set(true);
+                    }
+                }))
+                .and(Flowable.range(1, 1000)).then(ADD)
+        )
+        .toFlowable()
+        .take(2)
+        .test()
+        .assertResult(2, 4);
+
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    public void sameSourceSubscribedOnce() {
+        final AtomicInteger subscriptions = new AtomicInteger();
+        Flowable<Integer> source = Flowable.range(1, 5).doOnSubscribe(new Consumer<Subscription>() {
+            @Override
+            public void accept(Subscription s) throws Exception {
+                subscriptions.getAndIncrement();
+            }
+        });
+
+        JoinFlowable.when(
+                JoinFlowable.from(source).and(source).then(ADD)
+        )
+        .toFlowable()
+        .test()
+        .assertResult(2, 4, 6, 8, 10);
+
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    public void mixedWithObservable() {
+        JoinObservable.when(
+                JoinObservable.from(Observable.range(1, 5)).and(Flowable.range(10, 5), 2).then(ADD)
+        )
+        .toObservable()
+        .test()
+        .assertResult(11, 13, 15, 17, 19);
+    }
+
+    @Test
+    public void multiplePlans() {
+        Flowable<Integer> shared = Flowable.range(1, 10);
+
+        JoinFlowable.when(
+                JoinFlowable.from(Flowable.range(1, 5)).and(shared, 4).then(ADD),
+                JoinFlowable.from(Flowable.range(100, 5)).and(shared, 4).then(ADD)
+        )
+        .toFlowable()
+        .test()
+        .assertValueCount(10)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void async() {
+        for (int i = 0; i < 10; i++) {
+            JoinFlowable.when(
+                    JoinFlowable.from(Flowable.range(1, 10000).subscribeOn(Schedulers.computation()), 16)
+                    .and(Flowable.range(1, 10000).subscribeOn(Schedulers.computation()), 32)
+                    .then(new BiFunction<Integer, Integer, Integer>() {
+                        @Override
+                        public Integer apply(Integer a, Integer b) throws Exception {
+                            if (!a.equals(b)) {
+                                throw new IllegalStateException(a + " != " + b);
+                            }
+                            return a;
+                        }
+                    })
+            )
+            .toFlowable()
+            .observeOn(Schedulers.single())
+            .test()
+            .awaitDone(10, TimeUnit.SECONDS)
+            .assertValueCount(10000)
+            .assertNoErrors()
+            .assertComplete();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroPrefetch() {
+        JoinFlowable.from(Flowable.range(1, 5), 0);
+    }
+}
@@ -16,11 +16,11 @@
 
 package hu.akarnokd.rxjava2.joins;
 
-import static org.junit.Assert.fail;
+import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
-import java.util.concurrent.Callable;
+import java.util.concurrent.*;
 
 import org.junit.*;
 import org.mockito.*;
@@ -30,6 +30,7 @@ import io.reactivex.*;
 import io.reactivex.functions.*;
 import io.reactivex.internal.functions.Functions;
 import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subjects.PublishSubject;
 
 public class OperatorJoinsTest {
@@ -1392,4 +1393,72 @@ public class OperatorJoinsTest {
         .test()
         .assertResult(3, 6, 9, 12, 15);
     }
+
+    @Test
+    public void asyncSources() {
+        for (int k = 0; k < 10; k++) {
+            Observable<Integer> s1 = Observable.range(1, 10000).subscribeOn(Schedulers.computation());
+            Observable<Integer> s2 = Observable.range(1, 10000).subscribeOn(Schedulers.computation());
+            Observable<Integer> s3 = Observable.range(1, 10000).subscribeOn(Schedulers.computation());
+
+            JoinObservable.when(
+                    JoinObservable.from(s1).and(s2).and(s3)
+                    .then(new Function3<Integer, Integer, Integer, Integer>() {
+                        @Override
+                        public Integer apply(Integer t1, Integer t2, Integer t3)
+                                throws Exception {
+                            if (!t1.equals(t2) || !t2.equals(t3)) {
+                                throw new IllegalStateException(t1 + ", " + t2 + ", " + t3);
+                            }
+                            return t1;
+                        }
+                    })
+            ).toObservable()
+            .test()
+            .awaitDone(10, TimeUnit.SECONDS)
+            .assertValueCount(10000)
+            .assertNoErrors()
+            .assertComplete();
+        }
+    }
+
+    @Test
+    public void asyncSourcesMultiplePlans() {
+        for (int k = 0; k < 10; k++) {
+            Observable<Integer> s1 = Observable.range(1, 5000).subscribeOn(Schedulers.computation());
+            Observable<Integer> s2 = Observable.range(1, 5000).subscribeOn(Schedulers.computation());
+            Observable<Integer> s3 = Observable.range(1, 10000).subscribeOn(Schedulers.computation());
+
+            TestObserver<Integer> to = JoinObservable.when(
+                    JoinObservable.from(s1).and(s3).then(new BiFunction<Integer, Integer, Integer>() {
+                        @Override
+                        public Integer apply(Integer t1, Integer t2) throws Exception {
+                            return 1;
+                        }
+                    }),
+                    JoinObservable.from(s2).and(s3).then(new BiFunction<Integer, Integer, Integer>() {
+                        @Override
+                        public Integer apply(Integer t1, Integer t2) throws Exception {
+                            return 2;
+                        }
+                    })
+            ).toObservable()
+            .test()
+            .awaitDone(10, TimeUnit.SECONDS)
+            .assertNoErrors()
+            .assertComplete();
+
+            int ones = 0;
+            int twos = 0;
+            for (Integer v : to.values()) {
+                if (v == 1) {
+                    ones++;
+                } else {
+                    twos++;
+                }
+            }
+            assertEquals(5000, ones);
+            assertEquals(5000, twos);
+        }
+    }
 }
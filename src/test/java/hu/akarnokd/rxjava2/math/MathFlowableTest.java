@@ -17,6 +17,9 @@
 package hu.akarnokd.rxjava2.math;
 
 import static hu.akarnokd.rxjava2.math.MathFlowable.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
 
 import org.junit.Test;
 
@@ -180,4 +183,196 @@ public class MathFlowableTest extends BaseTest {
     public void emptyAverageDouble() {
         assertResult(averageDouble(doubleEmpty()));
     }
+
+    static Flowable<int[]> intChunks() {
+        return Flowable.just(new int[] { 3, 1 }, new int[0], new int[] { 10, 4, 5 }, new int[] { 2, 6, 7, 8, 9 });
+    }
+
+    static Flowable<long[]> longChunks() {
+        return Flowable.just(new long[] { 3, 1 }, new long[0], new long[] { 10, 4, 5 }, new long[] { 2, 6, 7, 8, 9 });
+    }
+
+    static Flowable<double[]> doubleChunks() {
+        return Flowable.just(new double[] { 3, 1 }, new double[0], new double[] { 10, 4, 5 }, new double[] { 2, 6, 7, 8, 9 });
+    }
+
+    @Test
+    public void intArray() {
+        assertResult(sumIntArray(intChunks()), 55);
+        assertResult(minIntArray(intChunks()), 1);
+        assertResult(maxIntArray(intChunks()), 10);
+        assertResult(averageIntArray(intChunks()), 5.5D);
+        assertResult(countIntArray(intChunks()), 10L);
+    }
+
+    @Test
+    public void longArray() {
+        assertResult(sumLongArray(longChunks()), 55L);
+        assertResult(minLongArray(longChunks()), 1L);
+        assertResult(maxLongArray(longChunks()), 10L);
+        assertResult(averageLongArray(longChunks()), 5.5D);
+        assertResult(countLongArray(longChunks()), 10L);
+    }
+
+    @Test
+    public void doubleArray() {
+        assertResult(sumDoubleArray(doubleChunks()), 55D);
+        assertResult(minDoubleArray(doubleChunks()), 1D);
+        assertResult(maxDoubleArray(doubleChunks()), 10D);
+        assertResult(averageDoubleArray(doubleChunks()), 5.5D);
+        assertResult(countDoubleArray(doubleChunks()), 10L);
+    }
+
+    @Test
+    public void emptyArrays() {
+        Flowable<int[]> ints = Flowable.just(new int[0]);
+        assertResult(sumIntArray(ints));
+        assertResult(minIntArray(ints));
+        assertResult(maxIntArray(ints));
+        assertResult(averageIntArray(ints));
+        assertResult(countIntArray(ints), 0L);
+
+        Flowable<long[]> longs = Flowable.empty();
+        assertResult(sumLongArray(longs));
+        assertResult(minLongArray(longs));
+        assertResult(maxLongArray(longs));
+        assertResult(averageLongArray(longs));
+        assertResult(countLongArray(longs), 0L);
+
+        Flowable<double[]> doubles = Flowable.empty();
+        assertResult(sumDoubleArray(doubles));
+        assertResult(minDoubleArray(doubles));
+        assertResult(maxDoubleArray(doubles));
+        assertResult(averageDoubleArray(doubles));
+        assertResult(countDoubleArray(doubles), 0L);
+    }
+
+    @Test
+    public void intArrayOverflowSameAsBoxed() {
+        Flowable<int[]> chunks = Flowable.just(new int[] { Integer.MAX_VALUE, 1 }, new int[] { Integer.MIN_VALUE });
+
+        assertResult(sumIntArray(chunks), sumInt(flow(Integer.MAX_VALUE, 1, Integer.MIN_VALUE)).blockingSingle());
+    }
+
+    @Test
+    public void doubleArraySameAsBoxed() {
+        double[] a = { 0.1, -0.0, 0.0, 1e300, -1e300, 0.3, Double.NaN };
+        Double[] b = new Double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            b[i] = a[i];
+        }
+
+        double[] c = { 0.1, -0.0, 0.0, 0.7, 0.3 };
+        Double[] d = { 0.1, -0.0, 0.0, 0.7, 0.3 };
+
+        assertResult(sumDoubleArray(Flowable.just(a)), sumDouble(flow(b)).blockingSingle());
+        assertResult(minDoubleArray(Flowable.just(a)), min(flow(b)).blockingSingle());
+        assertResult(maxDoubleArray(Flowable.just(a)), max(flow(b)).blockingSingle());
+        assertResult(minDoubleArray(Flowable.just(c)), min(flow(d)).blockingSingle());
+        assertResult(maxDoubleArray(Flowable.just(c)), max(flow(d)).blockingSingle());
+        assertResult(averageDoubleArray(Flowable.just(c)), averageDouble(flow(d)).blockingSingle());
+    }
+
+    @Test
+    public void arrayError() {
+        sumIntArray(Flowable.<int[]>error(new IOException()))
+        .test()
+        .assertFailure(IOException.class);
+
+        countLongArray(Flowable.<long[]>error(new IOException()))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    static void assertStatistics(SummaryStatistics s, long count, double sum, double min, double max, double mean, double variance) {
+        assertEquals(count, s.count());
+        assertEquals(sum, s.sum(), 1e-9);
+        assertEquals(min, s.min(), 0d);
+        assertEquals(max, s.max(), 0d);
+        assertEquals(mean, s.mean(), 1e-9);
+        assertEquals(variance, s.variance(), 1e-9);
+    }
+
+    @Test
+    public void summarize() {
+        assertStatistics(MathFlowable.summarize(flow(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)).blockingSingle(),
+                10, 55, 1, 10, 5.5, 8.25);
+
+        SummaryStatistics s = MathFlowable.summarize(flow(2.0, 4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0)).blockingSingle();
+        assertStatistics(s, 8, 40, 2, 9, 5, 4);
+        assertEquals(2d, s.standardDeviation(), 1e-9);
+        assertEquals(32d / 7, s.sampleVariance(), 1e-9);
+    }
+
+    @Test
+    public void summarizeArrays() {
+        assertStatistics(summarizeIntArray(intChunks()).blockingSingle(), 10, 55, 1, 10, 5.5, 8.25);
+        assertStatistics(summarizeLongArray(longChunks()).blockingSingle(), 10, 55, 1, 10, 5.5, 8.25);
+        assertStatistics(summarizeDoubleArray(doubleChunks()).blockingSingle(), 10, 55, 1, 10, 5.5, 8.25);
+    }
+
+    @Test
+    public void summarizeArraysLargerThanBlock() {
+        int n = 1000;
+        int[] ints = new int[n];
+        long[] longs = new long[n];
+        for (int i = 0; i < n; i++) {
+            ints[i] = i + 1;
+            longs[i] = i + 1;
+        }
+
+        double variance = (n * (double)n - 1) / 12;
+
+        assertStatistics(summarizeIntArray(Flowable.just(ints, new int[] { })).blockingSingle(),
+                n, n * (n + 1) / 2, 1, n, (n + 1) / 2d, variance);
+        assertStatistics(summarizeLongArray(Flowable.just(longs)).blockingSingle(),
+                n, n * (n + 1) / 2, 1, n, (n + 1) / 2d, variance);
+    }
+
+    @Test
+    public void summarizeEmpty() {
+        assertResult(MathFlowable.summarize(intEmpty()));
+        assertResult(summarizeIntArray(Flowable.just(new int[0])));
+        assertResult(summarizeDoubleArray(Flowable.<double[]>empty()));
+    }
+
+    @Test
+    public void summarizeLargeOffsetIsStable() {
+        // a naive sum of squares loses all precision with such an offset
+        SummaryStatistics s = MathFlowable.summarize(flow(1e9 + 4, 1e9 + 7, 1e9 + 13, 1e9 + 16)).blockingSingle();
+
+        assertEquals(1e9 + 10, s.mean(), 1e-6);
+        assertEquals(22.5, s.variance(), 1e-6);
+    }
+
+    @Test
+    public void summarizeSingle() {
+        SummaryStatistics s = MathFlowable.summarize(flow(5)).blockingSingle();
+        assertStatistics(s, 1, 5, 5, 5, 5, 0);
+        assertEquals(0d, s.sampleVariance(), 0d);
+    }
+
+    @Test
+    public void summarizeCombine() {
+        SummaryStatistics a = MathFlowable.summarize(flow(1, 2, 3)).blockingSingle();
+        SummaryStatistics b = MathFlowable.summarize(flow(4, 5, 6, 7, 8, 9, 10)).blockingSingle();
+
+        assertStatistics(a.combine(b), 10, 55, 1, 10, 5.5, 8.25);
+        assertStatistics(b.combine(a), 10, 55, 1, 10, 5.5, 8.25);
+
+        SummaryStatistics empty = new SummaryStatistics(0, 0, 0, 0, 0, 0);
+        assertSame(a, a.combine(empty));
+        assertSame(a, empty.combine(a));
+    }
+
+    @Test
+    public void summarizeError() {
+        MathFlowable.summarize(Flowable.<Integer>error(new IOException()))
+        .test()
+        .assertFailure(IOException.class);
+
+        summarizeLongArray(Flowable.<long[]>error(new IOException()))
+        .test()
+        .assertFailure(IOException.class);
+    }
 }
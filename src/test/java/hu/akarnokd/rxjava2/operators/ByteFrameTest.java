@@ -0,0 +1,422 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+import org.junit.Test;
+
+import io.reactivex.*;
+import io.reactivex.functions.Function;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class ByteFrameTest {
+
+    static final Function<ByteBuffer, String> TO_STRING = new Function<ByteBuffer, String>() {
+        @Override
+        public String apply(ByteBuffer b) throws Exception {
+            byte[] a = new byte[b.remaining()];
+            b.duplicate().get(a);
+            return new String(a, "ISO-8859-1");
+        }
+    };
+
+    static ByteBuffer buffer(String s) {
+        try {
+            return ByteBuffer.wrap(s.getBytes("ISO-8859-1"));
+        } catch (UnsupportedEncodingException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    static Flowable<ByteBuffer> chunks(String... parts) {
+        List<ByteBuffer> list = new ArrayList<ByteBuffer>();
+        for (String s : parts) {
+            list.add(buffer(s));
+        }
+        return Flowable.fromIterable(list);
+    }
+
+    /**
+     * Cuts the data into randomly sized chunks, some of them direct, some of them
+     * heap buffers with a non-zero array offset and position.
+     */
+    static List<ByteBuffer> randomChunks(byte[] data, Random rnd, int maxChunk) {
+        List<ByteBuffer> list = new ArrayList<ByteBuffer>();
+        int i = 0;
+        while (i < data.length) {
+            int n = Math.min(data.length - i, 1 + rnd.nextInt(maxChunk));
+            ByteBuffer b;
+            switch (rnd.nextInt(3)) {
+            case 0:
+                b = ByteBuffer.allocateDirect(n);
+                b.put(data, i, n);
+                b.flip();
+                break;
+            case 1: {
+                ByteBuffer outer = ByteBuffer.allocate(n + 5);
+                outer.position(3);
+                b = outer.slice();
+                b.position(1);
+                b.put(data, i, n);
+                b.limit(1 + n);
+                b.position(1);
+                break;
+            }
+            default: {
+                byte[] a = new byte[n + 4];
+                System.arraycopy(data, i, a, 2, n);
+                b = ByteBuffer.wrap(a, 2, n);
+            }
+            }
+            list.add(b);
+            i += n;
+        }
+        return list;
+    }
+
+    @Test
+    public void fixedSize() {
+        chunks("abc", "defg", "h", "ijklmnopqr")
+        .compose(FlowableTransformers.frameFixedSize(3))
+        .map(TO_STRING)
+        .test()
+        .assertResult("abc", "def", "ghi", "jkl", "mno", "pqr");
+    }
+
+    @Test
+    public void fixedSizeWithinChunkNotCopied() {
+        ByteBuffer chunk = buffer("abcdef");
+        List<ByteBuffer> frames = Flowable.just(chunk)
+        .compose(FlowableTransformers.frameFixedSize(2))
+        .toList()
+        .blockingGet();
+
+        assertEquals(3, frames.size());
+        for (int i = 0; i < 3; i++) {
+            ByteBuffer f = frames.get(i);
+            assertSame(chunk.array(), f.array());
+            assertEquals(2 * i, f.position());
+            assertEquals(2, f.remaining());
+        }
+        assertEquals(0, chunk.position());
+        assertEquals(6, chunk.limit());
+    }
+
+    @Test
+    public void fixedSizeIncomplete() {
+        chunks("abc", "de")
+        .compose(FlowableTransformers.frameFixedSize(3))
+        .map(TO_STRING)
+        .test()
+        .assertFailure(IllegalStateException.class, "abc");
+    }
+
+    @Test
+    public void fixedSizeEmptyChunks() {
+        chunks("", "ab", "", "c", "")
+        .compose(FlowableTransformers.frameFixedSize(3))
+        .map(TO_STRING)
+        .test()
+        .assertResult("abc");
+    }
+
+    @Test
+    public void lengthPrefixed() {
+        Flowable.just(ByteBuffer.wrap(new byte[] { 0, 2, 'a', 'b', 0 }),
+                ByteBuffer.wrap(new byte[] { 0, 0 }),
+                ByteBuffer.wrap(new byte[] { 3, 'c' }),
+                ByteBuffer.wrap(new byte[] { 'd', 'e' }))
+        .compose(FlowableTransformers.frameLengthPrefixed(2, ByteOrder.BIG_ENDIAN, 100))
+        .map(TO_STRING)
+        .test()
+        .assertResult("ab", "", "cde");
+    }
+
+    @Test
+    public void lengthPrefixedLittleEndian() {
+        Flowable.just(ByteBuffer.wrap(new byte[] { 2, 0, 0 }),
+                ByteBuffer.wrap(new byte[] { 0, 'a', 'b' }))
+        .compose(FlowableTransformers.frameLengthPrefixed(4, ByteOrder.LITTLE_ENDIAN, 100))
+        .map(TO_STRING)
+        .test()
+        .assertResult("ab");
+    }
+
+    @Test
+    public void lengthPrefixedUnsignedByte() {
+        byte[] data = new byte[201];
+        data[0] = (byte)200;
+        Flowable.just(ByteBuffer.wrap(data))
+        .compose(FlowableTransformers.frameLengthPrefixed(1, ByteOrder.BIG_ENDIAN, 200))
+        .test()
+        .assertValueCount(1)
+        .assertComplete();
+    }
+
+    @Test
+    public void lengthPrefixedTooLong() {
+        Flowable.just(ByteBuffer.wrap(new byte[] { 0, 0, 1, 0, 'a' }))
+        .compose(FlowableTransformers.frameLengthPrefixed(4, ByteOrder.BIG_ENDIAN, 100))
+        .test()
+        .assertFailure(IllegalStateException.class);
+
+        Flowable.just(ByteBuffer.wrap(new byte[] { -1, -1, -1, -1 }))
+        .compose(FlowableTransformers.frameLengthPrefixed(4, ByteOrder.BIG_ENDIAN, 100))
+        .test()
+        .assertFailure(IllegalStateException.class);
+    }
+
+    @Test
+    public void lengthPrefixedIncompleteHeader() {
+        Flowable.just(ByteBuffer.wrap(new byte[] { 0, 1, 'a', 0 }))
+        .compose(FlowableTransformers.frameLengthPrefixed(2, ByteOrder.BIG_ENDIAN, 100))
+        .map(TO_STRING)
+        .test()
+        .assertFailure(IllegalStateException.class, "a");
+    }
+
+    @Test
+    public void delimited() {
+        chunks("ab\ncd", "ef\n\ng", "h", "\n", "ij")
+        .compose(FlowableTransformers.frameDelimited(new byte[] { '\n' }, 100))
+        .map(TO_STRING)
+        .test()
+        .assertResult("ab", "cdef", "", "gh", "ij");
+    }
+
+    @Test
+    public void delimitedTrailingDelimiter() {
+        chunks("ab\n", "\n")
+        .compose(FlowableTransformers.frameDelimited(new byte[] { '\n' }, 100))
+        .map(TO_STRING)
+        .test()
+        .assertResult("ab", "");
+    }
+
+    @Test
+    public void delimitedMultiByteAcrossChunks() {
+        chunks("ab\r", "\ncd\r", "x\r", "\r", "\n", "\r\nef\r")
+        .compose(FlowableTransformers.frameDelimited(new byte[] { '\r', '\n' }, 100))
+        .map(TO_STRING)
+        .test()
+        .assertResult("ab", "cd\rx\r", "", "ef\r");
+    }
+
+    @Test
+    public void delimitedSelfOverlapping() {
+        chunks("xaa", "bx", "aab", "aaab")
+        .compose(FlowableTransformers.frameDelimited(new byte[] { 'a', 'a', 'b' }, 100))
+        .map(TO_STRING)
+        .test()
+        .assertResult("x", "x", "a");
+    }
+
+    @Test
+    public void delimitedTooLong() {
+        chunks("abc", "def", "\n")
+        .compose(FlowableTransformers.frameDelimited(new byte[] { '\n' }, 5))
+        .test()
+        .assertFailure(IllegalStateException.class);
+
+        chunks("abcdef\n")
+        .compose(FlowableTransformers.frameDelimited(new byte[] { '\n' }, 5))
+        .test()
+        .assertFailure(IllegalStateException.class);
+
+        chunks("abcde", "\n")
+        .compose(FlowableTransformers.frameDelimited(new byte[] { '\n' }, 5))
+        .map(TO_STRING)
+        .test()
+        .assertResult("abcde");
+    }
+
+    @Test
+    public void error() {
+        Flowable.<ByteBuffer>error(new IOException())
+        .compose(FlowableTransformers.frameDelimited(new byte[] { '\n' }, 5))
+        .test()
+        .assertFailure(IOException.class);
+
+        Flowable.<ByteBuffer>error(new IOException())
+        .compose(FlowableTransformers.frameFixedSize(5))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void backpressured() {
+        TestSubscriber<String> ts = chunks("ab\ncd", "ef\n\ng", "h", "\n", "ij")
+        .compose(FlowableTransformers.frameDelimited(new byte[] { '\n' }, 100))
+        .map(TO_STRING)
+        .test(0);
+
+        ts.assertEmpty();
+
+        ts.request(1);
+        ts.assertValuesOnly("ab");
+
+        ts.request(2);
+        ts.assertValuesOnly("ab", "cdef", "");
+
+        ts.request(2);
+        ts.assertResult("ab", "cdef", "", "gh", "ij");
+    }
+
+    @Test
+    public void invalidArguments() {
+        try {
+            FlowableTransformers.frameLengthPrefixed(3, ByteOrder.BIG_ENDIAN, 100);
+            fail("Should have thrown");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            FlowableTransformers.frameDelimited(new byte[0], 100);
+            fail("Should have thrown");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            FlowableTransformers.frameFixedSize(0);
+            fail("Should have thrown");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void randomizedLengthPrefixed() {
+        Random rnd = new Random(1);
+        for (int k = 0; k < 200; k++) {
+            List<byte[]> frames = new ArrayList<byte[]>();
+            ByteArrayOutputStream bout = new ByteArrayOutputStream();
+            int n = rnd.nextInt(30);
+            for (int i = 0; i < n; i++) {
+                byte[] f = new byte[rnd.nextInt(40)];
+                rnd.nextBytes(f);
+                frames.add(f);
+                bout.write(f.length >> 8);
+                bout.write(f.length);
+                bout.write(f, 0, f.length);
+            }
+
+            List<ByteBuffer> result = Flowable.fromIterable(randomChunks(bout.toByteArray(), rnd, 50))
+            .compose(FlowableTransformers.frameLengthPrefixed(2, ByteOrder.BIG_ENDIAN, 1000, 1 + rnd.nextInt(4)))
+            .rebatchRequests(1 + rnd.nextInt(4))
+            .toList()
+            .blockingGet();
+
+            assertFrames(frames, result);
+        }
+    }
+
+    @Test
+    public void randomizedFixedSize() {
+        Random rnd = new Random(2);
+        for (int k = 0; k < 200; k++) {
+            int size = 1 + rnd.nextInt(20);
+            List<byte[]> frames = new ArrayList<byte[]>();
+            ByteArrayOutputStream bout = new ByteArrayOutputStream();
+            int n = rnd.nextInt(30);
+            for (int i = 0; i < n; i++) {
+                byte[] f = new byte[size];
+                rnd.nextBytes(f);
+                frames.add(f);
+                bout.write(f, 0, f.length);
+            }
+
+            List<ByteBuffer> result = Flowable.fromIterable(randomChunks(bout.toByteArray(), rnd, 50))
+            .compose(FlowableTransformers.frameFixedSize(size, 1 + rnd.nextInt(4)))
+            .rebatchRequests(1 + rnd.nextInt(4))
+            .toList()
+            .blockingGet();
+
+            assertFrames(frames, result);
+        }
+    }
+
+    @Test
+    public void randomizedDelimited() {
+        Random rnd = new Random(3);
+        byte[][] delimiters = { { 0 }, { 0, 1 }, { 0, 0, 1 }, { 0, 1, 0, 1, 1 } };
+        for (byte[] delimiter : delimiters) {
+            for (int k = 0; k < 200; k++) {
+                byte[] data = new byte[rnd.nextInt(300)];
+                for (int i = 0; i < data.length; i++) {
+                    data[i] = (byte)rnd.nextInt(3);
+                }
+
+                List<byte[]> frames = split(data, delimiter);
+
+                List<ByteBuffer> result = Flowable.fromIterable(randomChunks(data, rnd, 20))
+                .compose(FlowableTransformers.frameDelimited(delimiter, 1000, 1 + rnd.nextInt(4)))
+                .rebatchRequests(1 + rnd.nextInt(4))
+                .toList()
+                .blockingGet();
+
+                assertFrames(frames, result);
+            }
+        }
+    }
+
+    static List<byte[]> split(byte[] data, byte[] delimiter) {
+        List<byte[]> list = new ArrayList<byte[]>();
+        int start = 0;
+        int i = 0;
+        outer:
+        while (i <= data.length - delimiter.length) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (data[i + j] != delimiter[j]) {
+                    i++;
+                    continue outer;
+                }
+            }
+            list.add(Arrays.copyOfRange(data, start, i));
+            i += delimiter.length;
+            start = i;
+        }
+        if (start < data.length) {
+            list.add(Arrays.copyOfRange(data, start, data.length));
+        }
+        return list;
+    }
+
+    static void assertFrames(List<byte[]> expected, List<ByteBuffer> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            ByteBuffer b = actual.get(i);
+            byte[] a = new byte[b.remaining()];
+            b.duplicate().get(a);
+            assertArrayEquals("Frame " + i, expected.get(i), a);
+        }
+    }
+
+    @Test
+    public void take() {
+        chunks("ab\ncd", "ef\n\ng", "h", "\n", "ij")
+        .compose(FlowableTransformers.frameDelimited(new byte[] { '\n' }, 100))
+        .map(TO_STRING)
+        .take(2)
+        .test()
+        .assertResult("ab", "cdef");
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.*;
+import org.reactivestreams.Publisher;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class FlowableFilterAsyncConcurrentTest {
+
+    static final Function<Integer, Publisher<Boolean>> EVEN = new Function<Integer, Publisher<Boolean>>() {
+        @Override
+        public Publisher<Boolean> apply(Integer v) throws Exception {
+            return Flowable.just(v % 2 == 0).hide();
+        }
+    };
+
+    static final Function<Integer, Publisher<Boolean>> EVEN_FUSED = new Function<Integer, Publisher<Boolean>>() {
+        @Override
+        public Publisher<Boolean> apply(Integer v) throws Exception {
+            return Flowable.just(v % 2 == 0);
+        }
+    };
+
+    static final Function<Integer, Publisher<Boolean>> REVERSE_DELAY = new Function<Integer, Publisher<Boolean>>() {
+        @Override
+        public Publisher<Boolean> apply(Integer v) throws Exception {
+            return Flowable.just(v % 2 == 0).delay(60 - v * 10, TimeUnit.MILLISECONDS);
+        }
+    };
+
+    static List<Integer> evens(int count) {
+        List<Integer> list = new ArrayList<Integer>();
+        for (int i = 1; i <= count; i++) {
+            if (i % 2 == 0) {
+                list.add(i);
+            }
+        }
+        return list;
+    }
+
+    @Test
+    public void ordered() {
+        Flowable.range(1, 10)
+        .compose(FlowableTransformers.filterAsync(EVEN, 4, 16))
+        .test()
+        .assertResult(2, 4, 6, 8, 10);
+    }
+
+    @Test
+    public void orderedFused() {
+        Flowable.range(1, 10)
+        .compose(FlowableTransformers.filterAsync(EVEN_FUSED, 4, 16))
+        .test()
+        .assertResult(2, 4, 6, 8, 10);
+    }
+
+    @Test
+    public void orderedReverseDelays() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.filterAsync(REVERSE_DELAY, 4, 16))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(2, 4);
+    }
+
+    @Test
+    public void orderedLongAsync() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.just(v % 2 == 0).subscribeOn(Schedulers.computation());
+            }
+        }, 16, 32))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueSequence(evens(1000))
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void orderedSingleStep() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.filterAsync(EVEN, 4, 16))
+        .rebatchRequests(1)
+        .test()
+        .assertValueSequence(evens(1000))
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void orderedAllFilteredNoRequest() {
+        Flowable.range(1, 10)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.just(false).hide();
+            }
+        }, 4, 16))
+        .test(0)
+        .assertResult();
+    }
+
+    @Test
+    public void orderedBackpressured() {
+        TestSubscriber<Integer> ts = Flowable.range(1, 10)
+        .compose(FlowableTransformers.filterAsync(EVEN, 4, 16))
+        .test(0);
+
+        ts.assertEmpty();
+
+        ts.requestMore(2);
+
+        ts.assertValues(2, 4);
+
+        ts.requestMore(3);
+
+        ts.assertResult(2, 4, 6, 8, 10);
+    }
+
+    @Test
+    public void unordered() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.filterAsyncUnordered(REVERSE_DELAY, 4, 16))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(4, 2);
+    }
+
+    @Test
+    public void unorderedSync() {
+        Flowable.range(1, 10)
+        .compose(FlowableTransformers.filterAsyncUnordered(EVEN, 4, 16))
+        .test()
+        .assertResult(2, 4, 6, 8, 10);
+    }
+
+    @Test
+    public void unorderedFused() {
+        Flowable.range(1, 10)
+        .compose(FlowableTransformers.filterAsyncUnordered(EVEN_FUSED, 4, 16))
+        .test()
+        .assertResult(2, 4, 6, 8, 10);
+    }
+
+    @Test
+    public void unorderedLongAsync() {
+        List<Integer> list = Flowable.range(1, 1000)
+        .compose(FlowableTransformers.filterAsyncUnordered(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.just(v % 2 == 0).subscribeOn(Schedulers.computation());
+            }
+        }, 16, 32))
+        .toList()
+        .blockingGet();
+
+        Collections.sort(list);
+
+        Assert.assertEquals(evens(1000), list);
+    }
+
+    @Test
+    public void unorderedSingleStep() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.filterAsyncUnordered(EVEN, 4, 16))
+        .rebatchRequests(1)
+        .test()
+        .assertValueSequence(evens(1000))
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void unorderedBackpressured() {
+        TestSubscriber<Integer> ts = Flowable.range(1, 10)
+        .compose(FlowableTransformers.filterAsyncUnordered(EVEN, 4, 16))
+        .test(0);
+
+        ts.assertEmpty();
+
+        ts.requestMore(2);
+
+        ts.assertValues(2, 4);
+
+        ts.requestMore(3);
+
+        ts.assertResult(2, 4, 6, 8, 10);
+    }
+
+    @Test
+    public void unorderedAllFilteredNoRequest() {
+        Flowable.range(1, 10)
+        .compose(FlowableTransformers.filterAsyncUnordered(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.just(false).hide();
+            }
+        }, 4, 16))
+        .test(0)
+        .assertResult();
+    }
+
+    @Test
+    public void emptyInnerIsFalse() {
+        Flowable.range(1, 10)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return v % 2 == 0 ? Flowable.just(true) : Flowable.<Boolean>empty().hide();
+            }
+        }, 4, 16))
+        .test()
+        .assertResult(2, 4, 6, 8, 10);
+    }
+
+    @Test
+    public void mainError() {
+        Flowable.<Integer>error(new IOException())
+        .compose(FlowableTransformers.filterAsync(EVEN, 4, 16))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void mainErrorUnordered() {
+        Flowable.<Integer>error(new IOException())
+        .compose(FlowableTransformers.filterAsyncUnordered(EVEN, 4, 16))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void innerError() {
+        Flowable.just(1)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.error(new IOException());
+            }
+        }, 4, 16))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void innerErrorUnordered() {
+        Flowable.just(1)
+        .compose(FlowableTransformers.filterAsyncUnordered(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return Flowable.error(new IOException());
+            }
+        }, 4, 16))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void predicateThrows() {
+        Flowable.just(1)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                throw new IOException();
+            }
+        }, 4, 16))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void predicateThrowsUnordered() {
+        Flowable.just(1)
+        .compose(FlowableTransformers.filterAsyncUnordered(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                throw new IOException();
+            }
+        }, 4, 16))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void take() {
+        Flowable.range(1, 10)
+        .compose(FlowableTransformers.filterAsync(EVEN, 4, 16))
+        .take(2)
+        .test()
+        .assertResult(2, 4);
+    }
+
+    @Test
+    public void takeUnordered() {
+        Flowable.range(1, 10)
+        .compose(FlowableTransformers.filterAsyncUnordered(EVEN, 4, 16))
+        .take(2)
+        .test()
+        .assertResult(2, 4);
+    }
+
+    @Test
+    public void cancel() {
+        final PublishProcessor<Boolean> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = Flowable.range(1, 5)
+        .compose(FlowableTransformers.filterAsync(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return pp;
+            }
+        }, 4, 16))
+        .test();
+
+        Assert.assertTrue(pp.hasSubscribers());
+
+        ts.cancel();
+
+        Assert.assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void cancelUnordered() {
+        final PublishProcessor<Boolean> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = Flowable.range(1, 5)
+        .compose(FlowableTransformers.filterAsyncUnordered(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                return pp;
+            }
+        }, 4, 16))
+        .test();
+
+        Assert.assertTrue(pp.hasSubscribers());
+
+        ts.cancel();
+
+        Assert.assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void unorderedDoesNotWaitForHead() {
+        final PublishProcessor<Boolean> first = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = Flowable.range(1, 4)
+        .compose(FlowableTransformers.filterAsyncUnordered(new Function<Integer, Publisher<Boolean>>() {
+            @Override
+            public Publisher<Boolean> apply(Integer v) throws Exception {
+                if (v == 1) {
+                    return first;
+                }
+                return Flowable.just(true);
+            }
+        }, 4, 16))
+        .test();
+
+        ts.assertValues(2, 3, 4).assertNotComplete();
+
+        first.onNext(true);
+
+        ts.assertResult(2, 3, 4, 1);
+    }
+}
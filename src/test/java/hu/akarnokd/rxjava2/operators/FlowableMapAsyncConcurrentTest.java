@@ -0,0 +1,353 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.operators;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+import org.reactivestreams.Publisher;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.*;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class FlowableMapAsyncConcurrentTest {
+
+    enum NonDelayedMappers implements Function<Integer, Flowable<String>>, BiFunction<Integer, Object, String> {
+        INSTANCE;
+        @Override
+        public Flowable<String> apply(Integer t) throws Exception {
+            return Flowable.just(Integer.toString(t + 1)).hide();
+        }
+
+        @Override
+        public String apply(Integer t1, Object t2) throws Exception {
+            return t1 + "-" + t2;
+        }
+    }
+
+    enum NonDelayedFusedMappers implements Function<Integer, Flowable<String>> {
+        INSTANCE;
+        @Override
+        public Flowable<String> apply(Integer t) throws Exception {
+            return Flowable.just(Integer.toString(t + 1));
+        }
+    }
+
+    static List<String> expected(int start, int count) {
+        List<String> list = new ArrayList<String>();
+        for (int i = start; i < start + count; i++) {
+            list.add(Integer.toString(i + 1));
+        }
+        return list;
+    }
+
+    @Test
+    public void reverseDelaysKeepOrder() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.mapAsync(new Function<Integer, Publisher<String>>() {
+            @Override
+            public Publisher<String> apply(Integer v) throws Exception {
+                return Flowable.just(Integer.toString(v + 1)).delay(60 - v * 10, TimeUnit.MILLISECONDS);
+            }
+        }, 4, 16))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult("2", "3", "4", "5", "6");
+    }
+
+    @Test
+    public void runsConcurrently() {
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+
+        Flowable.range(1, 100)
+        .compose(FlowableTransformers.mapAsync(new Function<Integer, Publisher<String>>() {
+            @Override
+            public Publisher<String> apply(final Integer v) throws Exception {
+                return Flowable.timer(5, TimeUnit.MILLISECONDS)
+                        .map(new Function<Long, String>() {
+                            @Override
+                            public String apply(Long w) throws Exception {
+                                return Integer.toString(v + 1);
+                            }
+                        })
+                        .doOnSubscribe(new Consumer<Object>() {
+                            @Override
+                            public void accept(Object s) throws Exception {
+                                int a = active.incrementAndGet();
+                                for (;;) {
+                                    int m = maxActive.get();
+                                    if (a <= m || maxActive.compareAndSet(m, a)) {
+                                        break;
+                                    }
+                                }
+                            }
+                        })
+                        .doFinally(new Action() {
+                            @Override
+                            public void run() throws Exception {
+                                active.decrementAndGet();
+                            }
+                        });
+            }
+        }, 8, 16))
+        .test()
+        .awaitDone(10, TimeUnit.SECONDS)
+        .assertValueSequence(expected(1, 100))
+        .assertNoErrors()
+        .assertComplete();
+
+        Assert.assertTrue("" + maxActive.get(), maxActive.get() <= 8);
+        Assert.assertTrue("" + maxActive.get(), maxActive.get() > 1);
+    }
+
+    @Test
+    public void combiner() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.mapAsync(NonDelayedMappers.INSTANCE, NonDelayedMappers.INSTANCE, 4, 16))
+        .test()
+        .assertResult("1-2", "2-3", "3-4", "4-5", "5-6");
+    }
+
+    @Test
+    public void longSource() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.mapAsync(NonDelayedMappers.INSTANCE, 4, 16))
+        .test()
+        .assertValueSequence(expected(1, 1000))
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void longSourceFused() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.mapAsync(NonDelayedFusedMappers.INSTANCE, 4, 16))
+        .test()
+        .assertValueSequence(expected(1, 1000))
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void longSourceSingleStep() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.mapAsync(NonDelayedMappers.INSTANCE, 4, 16))
+        .rebatchRequests(1)
+        .test()
+        .assertValueSequence(expected(1, 1000))
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void longSourceAsync() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.mapAsync(new Function<Integer, Publisher<String>>() {
+            @Override
+            public Publisher<String> apply(Integer v) throws Exception {
+                return Flowable.just(Integer.toString(v + 1)).subscribeOn(Schedulers.computation());
+            }
+        }, 16, 32))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueSequence(expected(1, 1000))
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void backpressured() {
+        TestSubscriber<String> ts = Flowable.range(1, 10)
+        .compose(FlowableTransformers.mapAsync(NonDelayedMappers.INSTANCE, 4, 16))
+        .test(0);
+
+        ts.assertEmpty();
+
+        ts.requestMore(3);
+
+        ts.assertValues("2", "3", "4");
+
+        ts.requestMore(7);
+
+        ts.assertResult("2", "3", "4", "5", "6", "7", "8", "9", "10", "11");
+    }
+
+    @Test
+    public void someInnerEmpty() {
+        Flowable.range(1, 10)
+        .compose(FlowableTransformers.mapAsync(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                return v % 2 == 0 ? Flowable.just(v).hide() : Flowable.<Integer>empty().hide();
+            }
+        }, 4, 16))
+        .test()
+        .assertResult(2, 4, 6, 8, 10);
+    }
+
+    @Test
+    public void empty() {
+        Flowable.<Integer>empty()
+        .compose(FlowableTransformers.mapAsync(NonDelayedMappers.INSTANCE, 4, 16))
+        .test()
+        .assertResult();
+    }
+
+    @Test
+    public void mainError() {
+        Flowable.<Integer>error(new IOException())
+        .compose(FlowableTransformers.mapAsync(NonDelayedMappers.INSTANCE, 4, 16))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void innerError() {
+        Flowable.just(1)
+        .compose(FlowableTransformers.mapAsync(new Function<Object, Publisher<Object>>() {
+            @Override
+            public Publisher<Object> apply(Object v) throws Exception {
+                return Flowable.error(new IOException());
+            }
+        }, 4, 16))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void mapperThrows() {
+        Flowable.just(1)
+        .compose(FlowableTransformers.mapAsync(new Function<Object, Publisher<Object>>() {
+            @Override
+            public Publisher<Object> apply(Object v) throws Exception {
+                throw new IOException();
+            }
+        }, 4, 16))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void mapperNull() {
+        Flowable.just(1)
+        .compose(FlowableTransformers.mapAsync(new Function<Object, Publisher<Object>>() {
+            @Override
+            public Publisher<Object> apply(Object v) throws Exception {
+                return null;
+            }
+        }, 4, 16))
+        .test()
+        .assertFailure(NullPointerException.class);
+    }
+
+    @Test
+    public void combinerThrows() {
+        Flowable.just(1)
+        .compose(FlowableTransformers.mapAsync(new Function<Object, Publisher<Object>>() {
+            @Override
+            public Publisher<Object> apply(Object v) throws Exception {
+                return Flowable.just(v).hide();
+            }
+        }, new BiFunction<Object, Object, Object>() {
+            @Override
+            public Object apply(Object a, Object b) throws Exception {
+                throw new IOException();
+            }
+        }, 4, 16))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void fusedInnerThrows() {
+        Flowable.just(1)
+        .compose(FlowableTransformers.mapAsync(new Function<Object, Publisher<Object>>() {
+            @Override
+            public Publisher<Object> apply(Object v) throws Exception {
+                return Flowable.fromCallable(new java.util.concurrent.Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        throw new IOException();
+                    }
+                });
+            }
+        }, 4, 16))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void take() {
+        Flowable.range(1, 5)
+        .compose(FlowableTransformers.mapAsync(NonDelayedMappers.INSTANCE, 4, 16))
+        .take(3)
+        .test()
+        .assertResult("2", "3", "4");
+    }
+
+    @Test
+    public void cancel() {
+        final PublishProcessor<Object> pp = PublishProcessor.create();
+
+        TestSubscriber<Object> ts = Flowable.range(1, 5)
+        .compose(FlowableTransformers.mapAsync(new Function<Integer, Publisher<Object>>() {
+            @Override
+            public Publisher<Object> apply(Integer v) throws Exception {
+                return pp;
+            }
+        }, 4, 16))
+        .test();
+
+        Assert.assertTrue(pp.hasSubscribers());
+
+        ts.cancel();
+
+        Assert.assertFalse(pp.hasSubscribers());
+    }
+
+    @Test
+    public void headOfLineWaits() {
+        final PublishProcessor<Integer> first = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = Flowable.range(1, 5)
+        .compose(FlowableTransformers.mapAsync(new Function<Integer, Publisher<Integer>>() {
+            @Override
+            public Publisher<Integer> apply(Integer v) throws Exception {
+                if (v == 1) {
+                    return first;
+                }
+                return Flowable.just(v);
+            }
+        }, 4, 16))
+        .test();
+
+        ts.assertEmpty();
+
+        first.onNext(1);
+
+        ts.assertResult(1, 2, 3, 4, 5);
+
+        Assert.assertFalse(first.hasSubscribers());
+    }
+}
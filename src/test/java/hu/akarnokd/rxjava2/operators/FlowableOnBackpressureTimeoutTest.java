@@ -19,11 +19,13 @@ package hu.akarnokd.rxjava2.operators;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.*;
 
 import hu.akarnokd.rxjava2.test.TestHelper;
-import io.reactivex.Flowable;
+import io.reactivex.*;
+import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Consumer;
 import io.reactivex.plugins.RxJavaPlugins;
 import io.reactivex.processors.PublishProcessor;
@@ -313,4 +315,72 @@ public class FlowableOnBackpressureTimeoutTest implements Consumer<Object> {
 
         Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), evicted);
     }
+
+    @Test
+    public void singlePendingTimer() {
+        final TestScheduler scheduler = new TestScheduler();
+        final AtomicInteger timers = new AtomicInteger();
+
+        Scheduler counting = new Scheduler() {
+            @Override
+            public Worker createWorker() {
+                final Worker w = scheduler.createWorker();
+                return new Worker() {
+                    @Override
+                    public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
+                        timers.getAndIncrement();
+                        return w.schedule(run, delay, unit);
+                    }
+
+                    @Override
+                    public long now(TimeUnit unit) {
+                        return w.now(unit);
+                    }
+
+                    @Override
+                    public void dispose() {
+                        w.dispose();
+                    }
+
+                    @Override
+                    public boolean isDisposed() {
+                        return w.isDisposed();
+                    }
+                };
+            }
+        };
+
+        PublishProcessor<Integer> pp = PublishProcessor.create();
+
+        TestSubscriber<Integer> ts = pp
+        .compose(FlowableTransformers.<Integer>onBackpressureTimeout(1000, 1000, TimeUnit.MILLISECONDS, counting, this))
+        .test(0);
+
+        for (int i = 0; i < 1000; i++) {
+            pp.onNext(i);
+        }
+
+        Assert.assertEquals(1, timers.get());
+
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+        for (int i = 1000; i < 2000; i++) {
+            pp.onNext(i);
+        }
+
+        Assert.assertEquals(1, timers.get());
+
+        // the first batch expires, the timer is re-armed for the second batch
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(1000, evicted.size());
+        Assert.assertEquals(2, timers.get());
+
+        ts.requestMore(1).assertValuesOnly(1000);
+
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(1999, evicted.size());
+        Assert.assertEquals(2, timers.get());
+    }
 }
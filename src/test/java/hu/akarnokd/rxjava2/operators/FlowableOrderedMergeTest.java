@@ -18,6 +18,7 @@ package hu.akarnokd.rxjava2.operators;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -27,6 +28,7 @@ import io.reactivex.exceptions.CompositeException;
 import io.reactivex.functions.*;
 import io.reactivex.internal.functions.Functions;
 import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subscribers.TestSubscriber;
 
 public class FlowableOrderedMergeTest {
@@ -542,4 +544,202 @@ public class FlowableOrderedMergeTest {
         .test()
         .assertResult(1, 2);
     }
+
+    static List<Flowable<Integer>> interleaved(int n, int count) {
+        List<Flowable<Integer>> list = new ArrayList<Flowable<Integer>>();
+        for (int i = 0; i < n; i++) {
+            final int offset = i;
+            list.add(Flowable.range(0, count).map(new Function<Integer, Integer>() {
+                @Override
+                public Integer apply(Integer v) throws Exception {
+                    return v * (offset + 1) + offset;
+                }
+            }));
+        }
+        return list;
+    }
+
+    static List<Integer> sortedItems(List<Flowable<Integer>> sources) {
+        List<Integer> expected = new ArrayList<Integer>();
+        for (Flowable<Integer> f : sources) {
+            expected.addAll(f.toList().blockingGet());
+        }
+        Collections.sort(expected);
+        return expected;
+    }
+
+    @Test
+    public void manySources() {
+        List<Flowable<Integer>> sources = interleaved(HeapMergeSubscription.THRESHOLD * 4, 50);
+
+        Flowables.orderedMerge(sources, Functions.<Integer>naturalComparator())
+        .test()
+        .assertValueSequence(sortedItems(sources))
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void manySourcesBackpressured() {
+        List<Flowable<Integer>> sources = interleaved(HeapMergeSubscription.THRESHOLD * 4, 50);
+
+        Flowables.orderedMerge(sources, Functions.<Integer>naturalComparator(), false, 1)
+        .rebatchRequests(1)
+        .test()
+        .assertValueSequence(sortedItems(sources))
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void manySourcesHidden() {
+        List<Flowable<Integer>> sources = interleaved(HeapMergeSubscription.THRESHOLD * 4, 50);
+        List<Flowable<Integer>> hidden = new ArrayList<Flowable<Integer>>();
+        for (Flowable<Integer> f : sources) {
+            hidden.add(f.hide());
+        }
+
+        Flowables.orderedMerge(hidden, Functions.<Integer>naturalComparator())
+        .test()
+        .assertValueSequence(sortedItems(sources))
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void manySourcesAsync() {
+        List<Flowable<Integer>> sources = interleaved(HeapMergeSubscription.THRESHOLD * 2, 200);
+        List<Flowable<Integer>> async = new ArrayList<Flowable<Integer>>();
+        for (Flowable<Integer> f : sources) {
+            async.add(f.subscribeOn(Schedulers.computation()));
+        }
+
+        Flowables.orderedMerge(async, Functions.<Integer>naturalComparator(), false, 16)
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueSequence(sortedItems(sources))
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void manySourcesSomeEmpty() {
+        List<Flowable<Integer>> sources = new ArrayList<Flowable<Integer>>();
+        for (int i = 0; i < HeapMergeSubscription.THRESHOLD * 2; i++) {
+            sources.add(i % 3 == 0 ? Flowable.<Integer>empty() : Flowable.range(i, 5));
+        }
+
+        Flowables.orderedMerge(sources, Functions.<Integer>naturalComparator())
+        .test()
+        .assertValueSequence(sortedItems(sources))
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void manySourcesStableTies() {
+        List<Flowable<String>> sources = new ArrayList<Flowable<String>>();
+        for (int i = 0; i < HeapMergeSubscription.THRESHOLD * 2; i++) {
+            sources.add(Flowable.just("a" + i, "b" + i));
+        }
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < HeapMergeSubscription.THRESHOLD * 2; i++) {
+            expected.add("a" + i);
+        }
+        for (int i = 0; i < HeapMergeSubscription.THRESHOLD * 2; i++) {
+            expected.add("b" + i);
+        }
+
+        Flowables.orderedMerge(sources, new Comparator<String>() {
+            @Override
+            public int compare(String o1, String o2) {
+                return o1.charAt(0) - o2.charAt(0);
+            }
+        })
+        .test()
+        .assertValueSequence(expected)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void manySourcesTake() {
+        List<Flowable<Integer>> sources = interleaved(HeapMergeSubscription.THRESHOLD * 2, 50);
+
+        Flowables.orderedMerge(sources, Functions.<Integer>naturalComparator())
+        .take(10)
+        .test()
+        .assertValueSequence(sortedItems(sources).subList(0, 10))
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void manySourcesError() {
+        List<Flowable<Integer>> sources = interleaved(HeapMergeSubscription.THRESHOLD * 2, 5);
+        sources.set(3, Flowable.just(1).concatWith(Flowable.<Integer>error(new IOException())));
+
+        Flowables.orderedMerge(sources, Functions.<Integer>naturalComparator())
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void manySourcesErrorDelayed() {
+        List<Flowable<Integer>> sources = interleaved(HeapMergeSubscription.THRESHOLD * 2, 5);
+        sources.set(3, Flowable.<Integer>error(new IOException()));
+        List<Integer> expected = sortedItems(sources.subList(4, sources.size()));
+        expected.addAll(0, sortedItems(sources.subList(0, 3)));
+        Collections.sort(expected);
+
+        Flowables.orderedMerge(sources, Functions.<Integer>naturalComparator(), true)
+        .test()
+        .assertValueSequence(expected)
+        .assertError(IOException.class)
+        .assertNotComplete();
+    }
+
+    @Test
+    public void manySourcesComparatorCrash() {
+        List<Flowable<Integer>> sources = interleaved(HeapMergeSubscription.THRESHOLD * 2, 5);
+
+        Flowables.orderedMerge(sources, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                throw new IllegalArgumentException();
+            }
+        })
+        .test()
+        .assertFailure(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void manySourcesFusedThrowsInDrainLoop() {
+        List<Flowable<Integer>> sources = interleaved(HeapMergeSubscription.THRESHOLD * 2, 5);
+        sources.set(0, Flowable.just(1).map(new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer v) throws Exception {
+                throw new IllegalArgumentException();
+            }
+        }));
+
+        Flowables.orderedMerge(sources, Functions.<Integer>naturalComparator())
+        .test()
+        .assertFailure(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void manySourcesNever() {
+        List<Flowable<Integer>> sources = interleaved(HeapMergeSubscription.THRESHOLD * 2, 5);
+        sources.set(5, Flowable.<Integer>never());
+
+        TestSubscriber<Integer> ts = Flowables.orderedMerge(sources, Functions.<Integer>naturalComparator())
+        .test();
+
+        ts.assertEmpty();
+
+        ts.cancel();
+
+        ts.assertEmpty();
+    }
 }
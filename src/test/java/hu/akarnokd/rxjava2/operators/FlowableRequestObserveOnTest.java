@@ -16,13 +16,21 @@
 
 package hu.akarnokd.rxjava2.operators;
 
+import static org.junit.Assert.*;
+
 import java.io.IOException;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
+import org.reactivestreams.*;
 
-import io.reactivex.Flowable;
+import hu.akarnokd.rxjava2.test.TestHelper;
+import io.reactivex.*;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.internal.subscriptions.BooleanSubscription;
 import io.reactivex.internal.schedulers.ImmediateThinScheduler;
+import io.reactivex.plugins.RxJavaPlugins;
 import io.reactivex.schedulers.*;
 import io.reactivex.subscribers.TestSubscriber;
 
@@ -106,4 +114,205 @@ public class FlowableRequestObserveOnTest {
 
         ts.assertResult(1, 2);
     }
+
+    @Test
+    public void batchNormal() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.<Integer>requestObserveOn(Schedulers.computation(), 16))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(1000)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void batchTimeSliced() {
+        Flowable.range(1, 1000)
+        .compose(FlowableTransformers.<Integer>requestObserveOn(Schedulers.computation(), 64, 10, TimeUnit.MICROSECONDS))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertValueCount(1000)
+        .assertNoErrors()
+        .assertComplete();
+    }
+
+    @Test
+    public void batchTake() {
+        Flowable.range(1, 10)
+        .compose(FlowableTransformers.<Integer>requestObserveOn(Schedulers.computation(), 4))
+        .take(5)
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertResult(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void batchError() {
+        Flowable.range(1, 5).concatWith(Flowable.<Integer>error(new IOException()))
+        .compose(FlowableTransformers.<Integer>requestObserveOn(Schedulers.computation(), 2))
+        .test()
+        .awaitDone(5, TimeUnit.SECONDS)
+        .assertFailure(IOException.class, 1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void batchBackpressured() {
+        TestScheduler testSched = new TestScheduler();
+        TestSubscriber<Integer> ts = Flowable.range(1, 5)
+        .compose(FlowableTransformers.<Integer>requestObserveOn(testSched, 2))
+        .test(0L);
+
+        testSched.triggerActions();
+
+        ts.assertEmpty();
+
+        ts.requestMore(3);
+
+        testSched.triggerActions();
+
+        ts.assertValuesOnly(1, 2, 3);
+
+        ts.requestMore(2);
+
+        testSched.triggerActions();
+
+        ts.assertResult(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    public void batchImmediate() {
+        TestSubscriber<Integer> ts = Flowable.range(1, 10)
+        .compose(FlowableTransformers.<Integer>requestObserveOn(ImmediateThinScheduler.INSTANCE, 4))
+        .test(0L);
+
+        ts.assertEmpty();
+
+        ts.requestMore(5);
+
+        ts.assertValuesOnly(1, 2, 3, 4, 5);
+
+        ts.requestMore(5);
+
+        ts.assertResult(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    static List<Integer> interleave(FlowableTransformer<Integer, Integer> transformer, final TestScheduler testSched) {
+        final List<Integer> seen = new ArrayList<Integer>();
+        final TestSubscriber<Integer> ts = new TestSubscriber<Integer>();
+        Flowable.range(1, 40)
+        .compose(transformer)
+        .subscribe(new FlowableSubscriber<Integer>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                ts.onSubscribe(s);
+            }
+
+            @Override
+            public void onNext(Integer t) {
+                ts.onNext(t);
+                if (t == 5) {
+                    testSched.scheduleDirect(new Runnable() {
+                        @Override
+                        public void run() {
+                            seen.add(ts.values().size());
+                        }
+                    });
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                ts.onError(t);
+            }
+
+            @Override
+            public void onComplete() {
+                ts.onComplete();
+            }
+        });
+
+        testSched.triggerActions();
+
+        ts.assertValueCount(40).assertNoErrors().assertComplete();
+        return seen;
+    }
+
+    @Test
+    public void batchYieldsToOtherTasks() {
+        TestScheduler testSched = new TestScheduler();
+
+        List<Integer> seen = interleave(FlowableTransformers.<Integer>requestObserveOn(testSched, 8), testSched);
+
+        assertEquals(Collections.singletonList(8), seen);
+    }
+
+    @Test
+    public void timeSliceYieldsToOtherTasks() {
+        TestScheduler testSched = new TestScheduler();
+
+        List<Integer> seen = interleave(FlowableTransformers.<Integer>requestObserveOn(testSched, 1000, 1, TimeUnit.NANOSECONDS), testSched);
+
+        // the clock is checked every 16 items
+        assertEquals(Collections.singletonList(16), seen);
+    }
+
+    @Test
+    public void batchMissingBackpressure() {
+        TestScheduler testSched = new TestScheduler();
+        TestSubscriber<Integer> ts = new Flowable<Integer>() {
+            @Override
+            protected void subscribeActual(Subscriber<? super Integer> s) {
+                s.onSubscribe(new BooleanSubscription());
+                for (int i = 0; i < 10; i++) {
+                    s.onNext(i);
+                }
+            }
+        }
+        .compose(FlowableTransformers.<Integer>requestObserveOn(testSched, 4))
+        .test();
+
+        testSched.triggerActions();
+
+        ts.assertFailure(MissingBackpressureException.class, 0, 1, 2, 3);
+    }
+
+    @Test
+    public void batchMissingBackpressureThenUpstreamTerminates() {
+        List<Throwable> errors = TestHelper.trackPluginErrors();
+        try {
+            TestScheduler testSched = new TestScheduler();
+            TestSubscriber<Integer> ts = new Flowable<Integer>() {
+                @Override
+                protected void subscribeActual(Subscriber<? super Integer> s) {
+                    s.onSubscribe(new BooleanSubscription());
+                    for (int i = 0; i < 10; i++) {
+                        s.onNext(i);
+                    }
+                    s.onError(new IOException());
+                    s.onComplete();
+                }
+            }
+            .compose(FlowableTransformers.<Integer>requestObserveOn(testSched, 4))
+            .test();
+
+            testSched.triggerActions();
+
+            ts.assertFailure(MissingBackpressureException.class, 0, 1, 2, 3);
+
+            TestHelper.assertUndeliverable(errors, 0, IOException.class);
+        } finally {
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchSizeNonPositive() {
+        FlowableTransformers.requestObserveOn(Schedulers.single(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void timeSliceNegative() {
+        FlowableTransformers.requestObserveOn(Schedulers.single(), 16, -1, TimeUnit.SECONDS);
+    }
 }
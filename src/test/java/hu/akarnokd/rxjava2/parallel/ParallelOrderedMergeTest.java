@@ -17,9 +17,11 @@
 package hu.akarnokd.rxjava2.parallel;
 
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
+import hu.akarnokd.rxjava2.operators.HeapMergeSubscription;
 import io.reactivex.Flowable;
 import io.reactivex.functions.Function;
 import io.reactivex.schedulers.Schedulers;
@@ -36,4 +38,16 @@ public class ParallelOrderedMergeTest {
       }
     })).test().await().assertResult(1, 2, 3, 4, 5);
   }
+
+  @Test
+  public void testManyRailsOrder() throws InterruptedException {
+    ParallelTransformers.orderedMerge(Flowable.range(1, 1000).parallel(HeapMergeSubscription.THRESHOLD * 2)
+        .runOn(Schedulers.computation()))
+    .test()
+    .awaitDone(5, TimeUnit.SECONDS)
+    .assertValueCount(1000)
+    .assertNoErrors()
+    .assertComplete()
+    .assertValueSequence(Flowable.range(1, 1000).toList().blockingGet());
+  }
 }
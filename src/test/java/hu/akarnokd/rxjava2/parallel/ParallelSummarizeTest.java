@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.parallel;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava2.math.*;
+import hu.akarnokd.rxjava2.test.TestHelper;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+public class ParallelSummarizeTest {
+
+    @Test
+    public void perRail() {
+        SummaryStatistics s = Flowable.range(1, 10)
+        .parallel(1)
+        .compose(ParallelTransformers.<Integer>summarize())
+        .sequential()
+        .blockingSingle();
+
+        assertEquals(10, s.count());
+        assertEquals(55d, s.sum(), 0d);
+        assertEquals(1d, s.min(), 0d);
+        assertEquals(10d, s.max(), 0d);
+        assertEquals(5.5d, s.mean(), 1e-9);
+        assertEquals(8.25d, s.variance(), 1e-9);
+    }
+
+    @Test
+    public void combined() {
+        for (int p = 1; p <= 8; p++) {
+            SummaryStatistics s = ParallelTransformers.summarize(Flowable.range(1, 1000)
+                    .parallel(p)
+                    .runOn(Schedulers.computation()))
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertValueCount(1)
+            .assertNoErrors()
+            .assertComplete()
+            .values().get(0);
+
+            SummaryStatistics expected = MathFlowable.summarize(Flowable.range(1, 1000)).blockingSingle();
+
+            assertEquals(expected.count(), s.count());
+            assertEquals(expected.sum(), s.sum(), 1e-6);
+            assertEquals(expected.min(), s.min(), 0d);
+            assertEquals(expected.max(), s.max(), 0d);
+            assertEquals(expected.mean(), s.mean(), 1e-9);
+            assertEquals(expected.variance(), s.variance(), 1e-6);
+        }
+    }
+
+    @Test
+    public void combinedDoubles() {
+        SummaryStatistics s = ParallelTransformers.summarize(Flowable.range(1, 8)
+                .map(new Function<Integer, Double>() {
+                    @Override
+                    public Double apply(Integer v) throws Exception {
+                        return v * 0.5d;
+                    }
+                })
+                .parallel(3))
+        .blockingSingle();
+
+        assertEquals(8, s.count());
+        assertEquals(18d, s.sum(), 1e-9);
+        assertEquals(2.25d, s.mean(), 1e-9);
+        assertEquals(1.3125d, s.variance(), 1e-9);
+    }
+
+    @Test
+    public void emptyRails() {
+        ParallelTransformers.summarize(Flowable.range(1, 2).parallel(4))
+        .test()
+        .assertValueCount(1)
+        .assertComplete();
+
+        ParallelTransformers.summarize(Flowable.<Integer>empty().parallel(4))
+        .test()
+        .assertResult();
+
+        Flowable.<Integer>empty()
+        .parallel(1)
+        .compose(ParallelTransformers.<Integer>summarize())
+        .sequential()
+        .test()
+        .assertResult();
+    }
+
+    @Test
+    public void error() {
+        ParallelTransformers.summarize(Flowable.<Integer>error(new IOException()).parallel(2))
+        .test()
+        .assertFailure(IOException.class);
+    }
+
+    @Test
+    public void invalidRails() {
+        TestHelper.checkInvalidParallelSubscribers(Flowable.range(1, 5)
+                .parallel(1)
+                .compose(ParallelTransformers.<Integer>summarize()));
+    }
+}
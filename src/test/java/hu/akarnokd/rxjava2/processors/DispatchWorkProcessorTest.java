@@ -27,6 +27,7 @@ import org.junit.Test;
 
 import hu.akarnokd.rxjava2.test.*;
 import io.reactivex.*;
+import io.reactivex.exceptions.MissingBackpressureException;
 import io.reactivex.functions.*;
 import io.reactivex.internal.subscriptions.BooleanSubscription;
 import io.reactivex.observers.TestObserver;
@@ -559,4 +560,199 @@ public class DispatchWorkProcessorTest {
 
         dws.requestMore(6);
     }
+
+    @Test
+    public void batched() {
+        DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.create(Schedulers.trampoline(), 16, false, 4);
+
+        Flowable.range(1, 10).subscribe(dws);
+
+        dws.test().assertResult(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    public void batchedBackpressured() {
+        DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.create(Schedulers.trampoline(), 16, false, 4);
+
+        Flowable.range(1, 10).subscribe(dws);
+
+        TestSubscriber<Integer> ts1 = dws.test(3);
+
+        ts1.assertValues(1, 2, 3).assertNotComplete();
+
+        // the first subscriber didn't claim more than it requested
+        TestSubscriber<Integer> ts2 = dws.test(2);
+
+        ts2.assertValues(4, 5).assertNotComplete();
+
+        ts1.requestMore(10);
+
+        ts1.assertResult(1, 2, 3, 6, 7, 8, 9, 10);
+
+        ts2.requestMore(1).assertResult(4, 5);
+    }
+
+    @Test
+    public void batchedUnbounded() {
+        DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.createUnbounded(Schedulers.trampoline(), 16, false, 4);
+
+        Flowable.range(1, 10).subscribe(dws);
+
+        dws.test().assertResult(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    public void batchedCancelGivesBack() {
+        DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.create(Schedulers.trampoline(), 16, false, 8);
+
+        for (int i = 1; i <= 6; i++) {
+            dws.onNext(i);
+        }
+
+        TestSubscriber<Integer> ts2 = new TestSubscriber<Integer>(0L);
+
+        TestSubscriber<Integer> ts1 = new TestSubscriber<Integer>(10L) {
+            @Override
+            public void onNext(Integer t) {
+                super.onNext(t);
+                if (t == 2) {
+                    cancel();
+                }
+            }
+        };
+
+        dws.subscribe(ts2);
+        dws.subscribe(ts1);
+
+        ts1.assertValues(1, 2);
+
+        ts2.requestMore(10);
+
+        ts2.assertValues(3, 4, 5, 6);
+
+        dws.onComplete();
+
+        ts2.assertResult(3, 4, 5, 6);
+    }
+
+    @Test
+    public void batchedError() {
+        DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.create(Schedulers.trampoline(), 16, false, 4);
+
+        dws.onNext(1);
+        dws.onNext(2);
+        dws.onError(new IOException());
+
+        dws.test().assertFailure(IOException.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchSizeInvalid() {
+        DispatchWorkProcessor.create(Schedulers.trampoline(), 16, false, 0);
+    }
+
+    @Test
+    public void batchedLongBackpressured() {
+        final DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.create(Schedulers.computation(), 128, true, 16);
+
+        Single<List<Integer>> o = dws.toList();
+
+        TestObserver<HashSet<Integer>> to = Single.zip(o, o, new BiFunction<List<Integer>, List<Integer>, HashSet<Integer>>() {
+            @Override
+            public HashSet<Integer> apply(List<Integer> a, List<Integer> b)
+                    throws Exception {
+                HashSet<Integer> set = new HashSet<Integer>();
+                set.addAll(a);
+                set.addAll(b);
+                return set;
+            }
+        })
+        .test();
+
+        int n = 1000000;
+
+        Flowable.range(0, n).subscribeOn(Schedulers.single()).subscribe(dws);
+
+        to.awaitDone(30, TimeUnit.SECONDS)
+        .assertValueCount(1)
+        .assertNoErrors()
+        .assertComplete();
+
+        HashSet<Integer> set = to.values().get(0);
+
+        assertEquals(n, set.size());
+
+        for (int i = 0; i < n; i++) {
+            assertTrue("" + i, set.remove(i));
+        }
+
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void fixed() {
+        DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.createFixed(Schedulers.trampoline(), 16, false);
+
+        Flowable.range(1, 100).subscribe(dws);
+
+        dws.test().assertValueCount(100).assertNoErrors().assertComplete();
+    }
+
+    @Test
+    public void fixedBatched() {
+        DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.createFixed(Schedulers.trampoline(), 16, false, 4);
+
+        Flowable.range(1, 100).subscribe(dws);
+
+        dws.test().assertValueCount(100).assertNoErrors().assertComplete();
+    }
+
+    @Test
+    public void fixedOverflow() {
+        DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.createFixed(Schedulers.trampoline(), 4, false);
+
+        BooleanSubscription bs = new BooleanSubscription();
+        dws.onSubscribe(bs);
+
+        for (int i = 0; i < 5; i++) {
+            dws.onNext(i);
+        }
+
+        assertTrue(bs.isCancelled());
+        assertTrue(dws.hasThrowable());
+
+        dws.test().assertFailure(MissingBackpressureException.class);
+    }
+
+    @Test
+    public void fixedLongBackpressured() {
+        final DispatchWorkProcessor<Integer> dws = DispatchWorkProcessor.createFixed(Schedulers.computation(), 128, true, 8);
+
+        Single<List<Integer>> o = dws.toList();
+
+        TestObserver<HashSet<Integer>> to = Single.zip(o, o, new BiFunction<List<Integer>, List<Integer>, HashSet<Integer>>() {
+            @Override
+            public HashSet<Integer> apply(List<Integer> a, List<Integer> b)
+                    throws Exception {
+                HashSet<Integer> set = new HashSet<Integer>();
+                set.addAll(a);
+                set.addAll(b);
+                return set;
+            }
+        })
+        .test();
+
+        int n = 1000000;
+
+        Flowable.range(0, n).subscribeOn(Schedulers.single()).subscribe(dws);
+
+        to.awaitDone(30, TimeUnit.SECONDS)
+        .assertValueCount(1)
+        .assertNoErrors()
+        .assertComplete();
+
+        HashSet<Integer> set = to.values().get(0);
+
+        assertEquals(n, set.size());
+    }
 }
@@ -20,6 +20,7 @@ import static org.junit.Assert.*;
 
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
@@ -608,4 +609,185 @@ public class BlockingSchedulerTest {
             RxJavaPlugins.reset();
         }
     }
+
+    @Test(timeout = 10000)
+    public void parkingWorker() {
+        List<Throwable> errors = TestHelper.trackPluginErrors();
+        try {
+            final BlockingScheduler scheduler = new BlockingScheduler(16, 4);
+            final Thread t0 = Thread.currentThread();
+            final Thread[] t1 = { null };
+
+            scheduler.execute(new Action() {
+                @Override
+                public void run() throws Exception {
+                    Flowable.range(1, 5)
+                    .subscribeOn(Schedulers.io())
+                    .delay(100, TimeUnit.MILLISECONDS)
+                    .observeOn(scheduler)
+                    .doOnNext(new Consumer<Integer>() {
+                        @Override
+                        public void accept(Integer v) throws Exception {
+                            t1[0] = Thread.currentThread();
+                        }
+                    })
+                    .doAfterTerminate(new Action() {
+                        @Override
+                        public void run() throws Exception {
+                            scheduler.shutdown();
+                        }
+                    })
+                    .subscribe(ts);
+                }
+            });
+
+            ts.assertResult(1, 2, 3, 4, 5);
+            assertSame(t0, t1[0]);
+
+            assertTrue(errors.toString(), errors.isEmpty());
+        } finally {
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void parkingAsyncShutdown() {
+        List<Throwable> errors = TestHelper.trackPluginErrors();
+        try {
+            final BlockingScheduler scheduler = new BlockingScheduler(0, 0);
+
+            Schedulers.single().scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    scheduler.scheduleDirect(Functions.EMPTY_RUNNABLE);
+                    scheduler.shutdown();
+                    scheduler.shutdown();
+                    assertTrue(scheduler.scheduleDirect(Functions.EMPTY_RUNNABLE).isDisposed());
+                }
+            }, 500, TimeUnit.MILLISECONDS);
+
+            scheduler.execute();
+
+            assertTrue(errors.toString(), errors.isEmpty());
+        } finally {
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void parkingAsyncInterrupt() {
+        List<Throwable> errors = TestHelper.trackPluginErrors();
+        try {
+            final BlockingScheduler scheduler = new BlockingScheduler(0, 0);
+
+            Schedulers.single().scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    scheduler.shutdown.set(true);
+                    scheduler.thread.interrupt();
+                }
+            }, 500, TimeUnit.MILLISECONDS);
+
+            scheduler.execute();
+
+            assertTrue(errors.toString(), errors.isEmpty());
+        } finally {
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void parkingAsyncFeedIntoMultipleProducers() {
+        List<Throwable> errors = TestHelper.trackPluginErrors();
+        try {
+            final BlockingScheduler scheduler = new BlockingScheduler(0, 1);
+
+            final int n = 10000;
+            final int producers = 4;
+
+            final int[] counter = { 0 };
+            final AtomicInteger remaining = new AtomicInteger(producers);
+
+            scheduler.execute(new Action() {
+                @Override
+                public void run() throws Exception {
+                    for (int j = 0; j < producers; j++) {
+                        Schedulers.computation().scheduleDirect(new Runnable() {
+                            @Override
+                            public void run() {
+                                for (int i = 0; i < n; i++) {
+                                    scheduler.scheduleDirect(new Runnable() {
+                                        @Override
+                                        public void run() {
+                                            counter[0]++;
+                                        }
+                                    });
+                                }
+                                if (remaining.decrementAndGet() == 0) {
+                                    scheduler.scheduleDirect(new Runnable() {
+                                        @Override
+                                        public void run() {
+                                            scheduler.shutdown();
+                                        }
+                                    });
+                                }
+                            }
+                        });
+                    }
+                }
+            });
+
+            assertEquals(n * producers, counter[0]);
+            assertTrue(errors.toString(), errors.isEmpty());
+        } finally {
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void parkingAsyncFeedIntoTimed() {
+        List<Throwable> errors = TestHelper.trackPluginErrors();
+        try {
+            final BlockingScheduler scheduler = new BlockingScheduler(0, 0);
+
+            final int n = 200;
+
+            final int[] counter = { 0 };
+
+            scheduler.execute(new Action() {
+                @Override
+                public void run() throws Exception {
+                    for (int i = 0; i < n; i++) {
+                        scheduler.scheduleDirect(new Runnable() {
+                            @Override
+                            public void run() {
+                                counter[0]++;
+                            }
+                        }, i * 2, TimeUnit.MILLISECONDS);
+                    }
+                    scheduler.scheduleDirect(new Runnable() {
+                        @Override
+                        public void run() {
+                            scheduler.shutdown();
+                        }
+                    }, n * 2 + 10, TimeUnit.MILLISECONDS);
+                }
+            });
+
+            assertEquals(n, counter[0]);
+            assertTrue(errors.toString(), errors.isEmpty());
+        } finally {
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeSpinCount() {
+        new BlockingScheduler(-1, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeYieldCount() {
+        new BlockingScheduler(0, -1);
+    }
 }
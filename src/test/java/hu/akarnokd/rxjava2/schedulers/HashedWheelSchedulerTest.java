@@ -0,0 +1,233 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler.Worker;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+public class HashedWheelSchedulerTest {
+
+    @Test(timeout = 5000)
+    public void delayed() throws Exception {
+        HashedWheelScheduler scheduler = new HashedWheelScheduler(Schedulers.single());
+        try {
+            final CountDownLatch cdl = new CountDownLatch(1);
+            long before = System.nanoTime();
+
+            scheduler.scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    cdl.countDown();
+                }
+            }, 50, TimeUnit.MILLISECONDS);
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - before >= TimeUnit.MILLISECONDS.toNanos(50));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void multipleRounds() throws Exception {
+        HashedWheelScheduler scheduler = new HashedWheelScheduler(Schedulers.single(), 1, TimeUnit.MILLISECONDS, 4);
+        try {
+            final List<Integer> list = Collections.synchronizedList(new ArrayList<Integer>());
+            final CountDownLatch cdl = new CountDownLatch(3);
+
+            for (final int i : new int[] { 60, 20, 40 }) {
+                scheduler.scheduleDirect(new Runnable() {
+                    @Override
+                    public void run() {
+                        list.add(i);
+                        cdl.countDown();
+                    }
+                }, i, TimeUnit.MILLISECONDS);
+            }
+
+            assertTrue(cdl.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(20, 40, 60), list);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void cancelled() throws Exception {
+        HashedWheelScheduler scheduler = new HashedWheelScheduler(Schedulers.single());
+        try {
+            final AtomicInteger calls = new AtomicInteger();
+
+            List<Disposable> list = new ArrayList<Disposable>();
+            for (int i = 0; i < 1000; i++) {
+                list.add(scheduler.scheduleDirect(new Runnable() {
+                    @Override
+                    public void run() {
+                        calls.getAndIncrement();
+                    }
+                }, 20 + (i % 10), TimeUnit.MILLISECONDS));
+            }
+
+            for (int i = 0; i < 1000; i += 2) {
+                Disposable d = list.get(i);
+                assertFalse(d.isDisposed());
+                d.dispose();
+                assertTrue(d.isDisposed());
+            }
+
+            Thread.sleep(200);
+
+            assertEquals(500, calls.get());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void immediateRunsOnDelegate() throws Exception {
+        HashedWheelScheduler scheduler = new HashedWheelScheduler(Schedulers.single());
+        try {
+            String name = Flowable.just(1)
+            .subscribeOn(scheduler)
+            .map(new Function<Integer, String>() {
+                @Override
+                public String apply(Integer v) throws Exception {
+                    return Thread.currentThread().getName();
+                }
+            })
+            .blockingSingle();
+
+            assertTrue(name, name.startsWith("RxSingleScheduler"));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void workerSerialized() throws Exception {
+        HashedWheelScheduler scheduler = new HashedWheelScheduler(Schedulers.computation());
+        try {
+            Worker w = scheduler.createWorker();
+            try {
+                final AtomicInteger active = new AtomicInteger();
+                final AtomicInteger overlaps = new AtomicInteger();
+                final CountDownLatch cdl = new CountDownLatch(100);
+
+                for (int i = 0; i < 100; i++) {
+                    w.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (active.getAndIncrement() != 0) {
+                                overlaps.getAndIncrement();
+                            }
+                            active.getAndDecrement();
+                            cdl.countDown();
+                        }
+                    }, 10, TimeUnit.MILLISECONDS);
+                }
+
+                assertTrue(cdl.await(5, TimeUnit.SECONDS));
+                assertEquals(0, overlaps.get());
+            } finally {
+                w.dispose();
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void workerDisposeCancels() throws Exception {
+        HashedWheelScheduler scheduler = new HashedWheelScheduler(Schedulers.single());
+        try {
+            final AtomicInteger calls = new AtomicInteger();
+            Worker w = scheduler.createWorker();
+
+            Disposable d = w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    calls.getAndIncrement();
+                }
+            }, 20, TimeUnit.MILLISECONDS);
+
+            w.dispose();
+
+            assertTrue(w.isDisposed());
+            assertTrue(d.isDisposed());
+
+            assertTrue(w.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    calls.getAndIncrement();
+                }
+            }, 20, TimeUnit.MILLISECONDS).isDisposed());
+
+            Thread.sleep(100);
+
+            assertEquals(0, calls.get());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void timeoutOperator() {
+        HashedWheelScheduler scheduler = new HashedWheelScheduler(Schedulers.single());
+        try {
+            Flowable.never()
+            .timeout(50, TimeUnit.MILLISECONDS, scheduler)
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertFailure(TimeoutException.class);
+
+            Flowable.intervalRange(1, 5, 1, 1, TimeUnit.MILLISECONDS, scheduler)
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertResult(1L, 2L, 3L, 4L, 5L);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void shutdownRejects() {
+        HashedWheelScheduler scheduler = new HashedWheelScheduler(Schedulers.single());
+        scheduler.shutdown();
+
+        assertTrue(scheduler.scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 1, TimeUnit.MILLISECONDS).isDisposed());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wheelSizeInvalid() {
+        new HashedWheelScheduler(Schedulers.single(), 1, TimeUnit.MILLISECONDS, 0);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.schedulers;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.*;
+
+import org.junit.Test;
+
+import io.reactivex.schedulers.Schedulers;
+
+public class MpscLinkedArrayQueueTest {
+
+    @Test
+    public void offerPollAcrossChunks() {
+        MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<Integer>(4);
+
+        assertTrue(q.isEmpty());
+        assertNull(q.poll());
+
+        for (int j = 0; j < 3; j++) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(q.offer(i));
+                assertFalse(q.isEmpty());
+            }
+
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i, q.poll().intValue());
+            }
+
+            assertTrue(q.isEmpty());
+            assertNull(q.poll());
+        }
+    }
+
+    @Test
+    public void exactChunk() {
+        MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<Integer>(4);
+
+        for (int i = 0; i < 4; i++) {
+            q.offer(i);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, q.poll().intValue());
+        }
+
+        assertTrue(q.isEmpty());
+        assertNull(q.poll());
+
+        q.offer(4);
+        assertFalse(q.isEmpty());
+        assertEquals(4, q.poll().intValue());
+        assertNull(q.poll());
+    }
+
+    @Test
+    public void clear() {
+        MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<Integer>(4);
+
+        for (int i = 0; i < 10; i++) {
+            q.offer(i);
+        }
+
+        q.clear();
+
+        assertTrue(q.isEmpty());
+        assertNull(q.poll());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void offerNull() {
+        new MpscLinkedArrayQueue<Integer>(4).offer(null);
+    }
+
+    @Test
+    public void offerTwo() {
+        MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<Integer>(4);
+
+        for (int i = 0; i < 10; i += 2) {
+            assertTrue(q.offer(i, i + 1));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, q.poll().intValue());
+        }
+
+        assertNull(q.poll());
+    }
+
+    @Test
+    public void offerTwoNull() {
+        MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<Integer>(4);
+
+        try {
+            q.offer(1, null);
+            fail("Should have thrown");
+        } catch (NullPointerException expected) {
+            // expected
+        }
+
+        assertTrue(q.isEmpty());
+    }
+
+    @Test
+    public void multipleProducers() throws Exception {
+        final MpscLinkedArrayQueue<Integer> q = new MpscLinkedArrayQueue<Integer>(16);
+        final int producers = 4;
+        final int n = 100000;
+        final CountDownLatch start = new CountDownLatch(1);
+
+        for (int j = 0; j < producers; j++) {
+            final int k = j;
+            Schedulers.io().scheduleDirect(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                    for (int i = 0; i < n; i++) {
+                        q.offer(k * n + i);
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+
+        int[] last = new int[producers];
+        for (int j = 0; j < producers; j++) {
+            last[j] = -1;
+        }
+
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        int received = 0;
+        while (received != producers * n) {
+            Integer v = q.poll();
+            if (v == null) {
+                assertTrue("Timeout", System.currentTimeMillis() < end);
+                continue;
+            }
+            int p = v / n;
+            int i = v % n;
+            assertEquals(last[p] + 1, i);
+            last[p] = i;
+            received++;
+        }
+
+        assertTrue(q.isEmpty());
+    }
+}
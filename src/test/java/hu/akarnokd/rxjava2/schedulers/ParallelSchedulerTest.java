@@ -24,6 +24,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
+import hu.akarnokd.rxjava2.schedulers.ParallelScheduler.*;
 import hu.akarnokd.rxjava2.schedulers.ParallelScheduler.TrackingParallelWorker.TrackedAction;
 import hu.akarnokd.rxjava2.test.TestHelper;
 import io.reactivex.*;
@@ -352,7 +353,7 @@ public class ParallelSchedulerTest implements Runnable {
         try {
             for (int i = 0; i < 1000; i++) {
                 final CompositeDisposable cd = new CompositeDisposable();
-                final TrackedAction tt = new TrackedAction(this, cd);
+                final TrackedAction tt = new TrackedAction(this, cd, null);
                 final FutureTask<Object> ft = new FutureTask<Object>(Functions.EMPTY_RUNNABLE, null);
 
                 Runnable r1 = new Runnable() {
@@ -381,7 +382,7 @@ public class ParallelSchedulerTest implements Runnable {
         try {
             for (int i = 0; i < 1000; i++) {
                 final CompositeDisposable cd = new CompositeDisposable();
-                final TrackedAction tt = new TrackedAction(this, cd);
+                final TrackedAction tt = new TrackedAction(this, cd, null);
                 final FutureTask<Object> ft = new FutureTask<Object>(Functions.EMPTY_RUNNABLE, null);
 
                 Runnable r1 = new Runnable() {
@@ -413,4 +414,160 @@ public class ParallelSchedulerTest implements Runnable {
     public void illegalPriority() {
         new ParallelScheduler(2, true, -1);
     }
+
+    @Test(expected = NullPointerException.class)
+    public void nullPolicy() {
+        new ParallelScheduler(2, true, null);
+    }
+
+    static int indexOf(ParallelScheduler s, Worker w) {
+        ScheduledExecutorService[] pool = s.pool.get();
+        ScheduledExecutorService exec = ((TrackingParallelWorker)w).exec;
+        for (int i = 0; i < pool.length; i++) {
+            if (pool[i] == exec) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void roundRobin() {
+        ParallelScheduler s = new ParallelScheduler(3, true, AssignmentPolicy.ROUND_ROBIN);
+        try {
+            Worker w0 = s.createWorker();
+            Worker w1 = s.createWorker();
+            w1.dispose();
+            Worker w2 = s.createWorker();
+            Worker w3 = s.createWorker();
+
+            assertEquals(0, indexOf(s, w0));
+            assertEquals(1, indexOf(s, w1));
+            assertEquals(2, indexOf(s, w2));
+            assertEquals(0, indexOf(s, w3));
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void leastActiveWorkers() {
+        ParallelScheduler s = new ParallelScheduler(3, true, AssignmentPolicy.LEAST_ACTIVE_WORKERS);
+        try {
+            Worker w0 = s.createWorker();
+            Worker w1 = s.createWorker();
+            Worker w2 = s.createWorker();
+
+            assertEquals(0, indexOf(s, w0));
+            assertEquals(1, indexOf(s, w1));
+            assertEquals(2, indexOf(s, w2));
+
+            w1.dispose();
+            w1.dispose();
+
+            Worker w3 = s.createWorker();
+            assertEquals(1, indexOf(s, w3));
+
+            Worker w4 = s.createWorker();
+            Worker w5 = s.createWorker();
+            Worker w6 = s.createWorker();
+
+            int[] counts = new int[3];
+            counts[indexOf(s, w4)]++;
+            counts[indexOf(s, w5)]++;
+            counts[indexOf(s, w6)]++;
+
+            assertArrayEquals(new int[] { 1, 1, 1 }, counts);
+
+            for (ScheduledExecutorService exec : s.pool.get()) {
+                assertEquals(2, ((ParallelExecutor)exec).activeWorkers.get());
+            }
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void leastQueuedTasks() throws Exception {
+        ParallelScheduler s = new ParallelScheduler(2, true, AssignmentPolicy.LEAST_QUEUED_TASKS);
+        try {
+            final CountDownLatch block = new CountDownLatch(1);
+
+            Worker w0 = s.createWorker();
+            assertEquals(0, indexOf(s, w0));
+
+            Runnable blocking = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        block.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        // ignored
+                    }
+                }
+            };
+
+            w0.schedule(blocking);
+            w0.schedule(this);
+            Disposable d = w0.schedule(this, 1, TimeUnit.HOURS);
+
+            ParallelExecutor e0 = (ParallelExecutor)s.pool.get()[0];
+            assertEquals(3, e0.queuedTasks.get());
+
+            // the round-robin index points to the busy executor, still the idle one is chosen
+            Worker w1 = s.createWorker();
+            assertEquals(1, indexOf(s, w1));
+            Worker w2 = s.createWorker();
+            assertEquals(1, indexOf(s, w2));
+
+            d.dispose();
+            assertEquals(2, e0.queuedTasks.get());
+
+            block.countDown();
+
+            for (int i = 0; i < 500 && e0.queuedTasks.get() != 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, e0.queuedTasks.get());
+            assertEquals(1, calls.get());
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void leastQueuedTasksDisposeWorker() {
+        ParallelScheduler s = new ParallelScheduler(1, true, AssignmentPolicy.LEAST_QUEUED_TASKS);
+        try {
+            Worker w = s.createWorker();
+
+            w.schedule(this, 1, TimeUnit.HOURS);
+            w.schedule(this, 1, TimeUnit.HOURS);
+
+            ParallelExecutor e0 = (ParallelExecutor)s.pool.get()[0];
+            assertEquals(2, e0.queuedTasks.get());
+            assertEquals(1, e0.activeWorkers.get());
+
+            w.dispose();
+
+            assertEquals(0, e0.queuedTasks.get());
+            assertEquals(0, e0.activeWorkers.get());
+        } finally {
+            s.shutdown();
+        }
+    }
+
+    @Test
+    public void leastActiveWorkersNonTracking() {
+        ParallelScheduler s = new ParallelScheduler(2, false, AssignmentPolicy.LEAST_ACTIVE_WORKERS);
+        try {
+            Flowable.range(1, 10).hide()
+            .observeOn(s)
+            .test()
+            .awaitDone(5, TimeUnit.SECONDS)
+            .assertResult(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        } finally {
+            s.shutdown();
+        }
+    }
 }
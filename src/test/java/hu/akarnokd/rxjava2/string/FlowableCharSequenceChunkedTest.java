@@ -0,0 +1,221 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.string;
+
+import static org.junit.Assert.*;
+
+import java.nio.CharBuffer;
+import java.util.List;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava2.test.TestHelper;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class FlowableCharSequenceChunkedTest {
+
+    static final Function<char[], String> CHARS_TO_STRING = new Function<char[], String>() {
+        @Override
+        public String apply(char[] v) throws Exception {
+            return new String(v);
+        }
+    };
+
+    static final Function<CharBuffer, String> BUFFER_TO_STRING = new Function<CharBuffer, String>() {
+        @Override
+        public String apply(CharBuffer v) throws Exception {
+            return v.toString();
+        }
+    };
+
+    @Test
+    public void chunks() {
+        StringFlowable.characterChunks("abcdefgh", 3)
+        .map(CHARS_TO_STRING)
+        .test()
+        .assertResult("abc", "def", "gh");
+    }
+
+    @Test
+    public void chunksExact() {
+        StringFlowable.characterChunks("abcdef", 3)
+        .map(CHARS_TO_STRING)
+        .test()
+        .assertResult("abc", "def");
+    }
+
+    @Test
+    public void chunksStringBuilder() {
+        StringFlowable.characterChunks(new StringBuilder("abcdefgh"), 5)
+        .map(CHARS_TO_STRING)
+        .test()
+        .assertResult("abcde", "fgh");
+    }
+
+    @Test
+    public void chunksOtherCharSequence() {
+        StringFlowable.characterChunks(CharBuffer.wrap("abcdefgh"), 5)
+        .map(CHARS_TO_STRING)
+        .test()
+        .assertResult("abcde", "fgh");
+    }
+
+    @Test
+    public void buffers() {
+        List<CharBuffer> list = StringFlowable.characterBuffers("abcdefgh", 3)
+        .toList()
+        .blockingGet();
+
+        assertEquals(3, list.size());
+        assertEquals("abc", list.get(0).toString());
+        assertEquals("def", list.get(1).toString());
+        assertEquals("gh", list.get(2).toString());
+        assertTrue(list.get(0).isReadOnly());
+    }
+
+    @Test
+    public void empty() {
+        StringFlowable.characterChunks("", 3)
+        .test()
+        .assertResult();
+
+        StringFlowable.characterBuffers("", 3)
+        .test(1)
+        .assertResult();
+    }
+
+    @Test
+    public void backpressure() {
+        StringFlowable.characterBuffers("abcdefgh", 3)
+        .map(BUFFER_TO_STRING)
+        .test(0)
+        .assertEmpty()
+        .requestMore(1)
+        .assertValues("abc")
+        .requestMore(1)
+        .assertValues("abc", "def")
+        .requestMore(1)
+        .assertResult("abc", "def", "gh");
+    }
+
+    @Test
+    public void backpressureExact() {
+        StringFlowable.characterChunks("abcdefgh", 3)
+        .map(CHARS_TO_STRING)
+        .test(3)
+        .assertResult("abc", "def", "gh");
+    }
+
+    @Test
+    public void take() {
+        StringFlowable.characterChunks("abcdefgh", 3)
+        .map(CHARS_TO_STRING)
+        .take(2)
+        .test()
+        .assertResult("abc", "def");
+    }
+
+    @Test
+    public void fused() {
+        StringFlowable.characterChunks("abcdefgh", 3)
+        .map(CHARS_TO_STRING)
+        .rebatchRequests(1)
+        .test()
+        .assertResult("abc", "def", "gh");
+
+        StringFlowable.characterBuffers("abcdefgh", 3)
+        .map(BUFFER_TO_STRING)
+        .rebatchRequests(1)
+        .test()
+        .assertResult("abc", "def", "gh");
+    }
+
+    @Test
+    public void fusedCancel() {
+        TestSubscriber<String> ts = new TestSubscriber<String>(1) {
+            @Override
+            public void onNext(String t) {
+                super.onNext(t);
+                cancel();
+                onComplete();
+            }
+        };
+        StringFlowable.characterChunks("abcdefgh", 3)
+        .map(CHARS_TO_STRING)
+        .rebatchRequests(2)
+        .subscribe(ts);
+
+        ts.assertResult("abc");
+    }
+
+    @Test
+    public void slowPathRequestMore() {
+        TestSubscriber<String> ts = new TestSubscriber<String>(1) {
+            @Override
+            public void onNext(String t) {
+                super.onNext(t);
+                request(1);
+            }
+        };
+        StringFlowable.characterChunks("abcdefgh", 3)
+        .map(CHARS_TO_STRING)
+        .subscribe(ts);
+
+        ts.assertResult("abc", "def", "gh");
+    }
+
+    @Test
+    public void slowPathCancel() {
+        TestSubscriber<char[]> ts = new TestSubscriber<char[]>(2) {
+            @Override
+            public void onNext(char[] t) {
+                super.onNext(t);
+                cancel();
+                onComplete();
+            }
+        };
+        StringFlowable.characterChunks("abcdefgh", 3)
+        .subscribe(ts);
+
+        ts.assertValueCount(1).assertNoErrors().assertComplete();
+    }
+
+    @Test
+    public void concatMap() {
+        StringFlowable.characterChunks("abcdefgh", 3)
+        .concatMap(new Function<char[], Flowable<String>>() {
+            @Override
+            public Flowable<String> apply(char[] v) throws Exception {
+                return Flowable.just(new String(v));
+            }
+        })
+        .test()
+        .assertResult("abc", "def", "gh");
+    }
+
+    @Test
+    public void badRequest() {
+        TestHelper.assertBadRequestReported(StringFlowable.characterChunks("abcdefgh", 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroChunkSize() {
+        StringFlowable.characterChunks("abcdefgh", 0);
+    }
+}
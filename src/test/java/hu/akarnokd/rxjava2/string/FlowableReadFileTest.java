@@ -0,0 +1,190 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.string;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.BiFunction;
+import io.reactivex.subscribers.TestSubscriber;
+
+public class FlowableReadFileTest {
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    static File createFile(byte[] content) throws IOException {
+        File f = File.createTempFile("rxjava2extensions", ".txt");
+        f.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(f);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+        return f;
+    }
+
+    static String join(Flowable<String> source) {
+        return source.reduce("", new BiFunction<String, String, String>() {
+            @Override
+            public String apply(String a, String b) throws Exception {
+                return a + b;
+            }
+        }).blockingGet();
+    }
+
+    @Test
+    public void readSmallBuffer() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i).append(" \u00e1rv\u00edzt\u0171r\u0151 \u20ac\n");
+        }
+        String text = sb.toString();
+        File f = createFile(text.getBytes(UTF_8));
+
+        // multi-byte characters are split between reads
+        assertEquals(text, join(StringFlowable.readFile(f, UTF_8, 17)));
+        assertEquals(text, join(StringFlowable.readFile(f, UTF_8)));
+    }
+
+    @Test
+    public void empty() throws IOException {
+        File f = createFile(new byte[0]);
+
+        StringFlowable.readFile(f, UTF_8)
+        .test()
+        .assertResult();
+
+        StringFlowable.lines(f, UTF_8)
+        .test()
+        .assertResult();
+    }
+
+    @Test
+    public void malformedReplaced() throws IOException {
+        File f = createFile(new byte[] { 'a', (byte)0xFF, 'b' });
+
+        StringFlowable.readFile(f, UTF_8)
+        .test()
+        .assertResult("a\ufffdb");
+    }
+
+    @Test
+    public void backpressured() throws IOException {
+        File f = createFile("abcdefghijklmnopqrstuvwxyz012345".getBytes(UTF_8));
+
+        TestSubscriber<String> ts = StringFlowable.readFile(f, UTF_8, 16)
+        .test(0L);
+
+        ts.assertEmpty();
+
+        ts.request(1);
+
+        ts.assertValuesOnly("abcdefghijklmnop");
+
+        ts.request(1);
+
+        ts.assertValuesOnly("abcdefghijklmnop", "qrstuvwxyz012345");
+
+        ts.request(1);
+
+        ts.assertResult("abcdefghijklmnop", "qrstuvwxyz012345");
+    }
+
+    @Test
+    public void cancelled() throws IOException {
+        File f = createFile("abcdefghijklmnopqrstuvwxyz012345".getBytes(UTF_8));
+
+        StringFlowable.readFile(f, UTF_8, 16)
+        .take(1)
+        .test()
+        .assertResult("abcdefghijklmnop");
+    }
+
+    @Test
+    public void missingFile() {
+        StringFlowable.readFile(new File("does/not/exist.txt"), UTF_8)
+        .test()
+        .assertFailure(FileNotFoundException.class);
+
+        StringFlowable.mapFile(new File("does/not/exist.txt"), 16)
+        .test()
+        .assertFailure(FileNotFoundException.class);
+    }
+
+    @Test
+    public void lines() throws IOException {
+        File f = createFile("first\r\nsecond\n\nfourth\nlast".getBytes(UTF_8));
+
+        StringFlowable.lines(f, UTF_8, 3)
+        .test()
+        .assertResult("first", "second", "", "fourth", "last");
+    }
+
+    @Test
+    public void mapFile() throws IOException {
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte)i;
+        }
+        File f = createFile(data);
+
+        List<ByteBuffer> list = StringFlowable.mapFile(f, 300)
+        .toList()
+        .blockingGet();
+
+        assertEquals(4, list.size());
+        int k = 0;
+        for (ByteBuffer b : list) {
+            assertTrue(b.isReadOnly());
+            while (b.hasRemaining()) {
+                assertEquals((byte)k++, b.get());
+            }
+        }
+        assertEquals(1000, k);
+    }
+
+    @Test
+    public void mapFileBackpressured() throws IOException {
+        File f = createFile(new byte[100]);
+
+        TestSubscriber<ByteBuffer> ts = StringFlowable.mapFile(f, 60)
+        .test(1L);
+
+        ts.assertValueCount(1).assertNotComplete();
+
+        ts.request(2);
+
+        ts.assertValueCount(2).assertNoErrors().assertComplete();
+    }
+
+    @Test
+    public void mapFileEmpty() throws IOException {
+        File f = createFile(new byte[0]);
+
+        StringFlowable.mapFile(f, 60)
+        .test()
+        .assertResult();
+    }
+}
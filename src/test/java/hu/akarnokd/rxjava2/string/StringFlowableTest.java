@@ -16,7 +16,11 @@
 
 package hu.akarnokd.rxjava2.string;
 
+import static org.junit.Assert.*;
+
 import java.io.IOException;
+import java.util.*;
+import java.util.regex.Pattern;
 
 import org.junit.Test;
 
@@ -211,4 +215,181 @@ public class StringFlowableTest extends BaseTest {
         .test()
         .assertResult("ab", "cd", "ef");
     }
+
+    @Test
+    public void literalOf() {
+        assertEquals(":", FlowableSplit.literalOf(Pattern.compile(":")));
+        assertEquals("qwer", FlowableSplit.literalOf(Pattern.compile("qwer")));
+        assertEquals("\n", FlowableSplit.literalOf(Pattern.compile("\n")));
+        assertEquals("\n", FlowableSplit.literalOf(Pattern.compile("\\n")));
+        assertEquals("\t", FlowableSplit.literalOf(Pattern.compile("\\t")));
+        assertEquals("|", FlowableSplit.literalOf(Pattern.compile("\\|")));
+        assertEquals(".*", FlowableSplit.literalOf(Pattern.compile(".*", Pattern.LITERAL)));
+
+        assertNull(FlowableSplit.literalOf(Pattern.compile("")));
+        assertNull(FlowableSplit.literalOf(Pattern.compile("a|b")));
+        assertNull(FlowableSplit.literalOf(Pattern.compile(":+")));
+        assertNull(FlowableSplit.literalOf(Pattern.compile("\\s")));
+        assertNull(FlowableSplit.literalOf(Pattern.compile("\\Q:\\E")));
+        assertNull(FlowableSplit.literalOf(Pattern.compile("a", Pattern.CASE_INSENSITIVE)));
+        assertNull(FlowableSplit.literalOf(Pattern.compile("a", Pattern.CASE_INSENSITIVE | Pattern.LITERAL)));
+    }
+
+    @Test
+    public void splitRegex() {
+        Flowable.just("ab", "1cd22", "ef333gh")
+        .compose(StringFlowable.split("[0-9]+"))
+        .test()
+        .assertResult("ab", "cd", "ef", "gh");
+    }
+
+    @Test
+    public void splitLiteralSameAsStringSplit() {
+        Random rnd = new Random(1);
+        String[] delimiters = { ":", "::", "ab", "aba" };
+
+        for (String delimiter : delimiters) {
+            for (int i = 0; i < 500; i++) {
+                StringBuilder sb = new StringBuilder();
+                int n = rnd.nextInt(40);
+                for (int j = 0; j < n; j++) {
+                    sb.append("ab:".charAt(rnd.nextInt(3)));
+                }
+                String text = sb.toString();
+
+                List<String> chunks = new ArrayList<String>();
+                int k = 0;
+                while (k < text.length()) {
+                    int m = Math.min(text.length(), k + 1 + rnd.nextInt(5));
+                    chunks.add(text.substring(k, m));
+                    k = m;
+                }
+
+                List<String> expected = text.isEmpty()
+                        ? Collections.<String>emptyList()
+                        : Arrays.asList(Pattern.compile(delimiter, Pattern.LITERAL).split(text));
+
+                Flowable.fromIterable(chunks)
+                .compose(StringFlowable.split(delimiter, 1 + rnd.nextInt(4)))
+                .test()
+                .assertValueSequence(expected)
+                .assertNoErrors()
+                .assertComplete();
+            }
+        }
+    }
+
+    @Test
+    public void splitPatternSameAsStringSplit() {
+        Random rnd = new Random(1);
+        String[] patterns = { "\\r?\\n", "\\n|\\r\\n", "\\s+", ":+", "a|ab", "[ab]:", "(?<=a):", "b*" };
+        String alphabet = "ab: \r\n";
+
+        for (String pattern : patterns) {
+            Pattern p = Pattern.compile(pattern);
+            for (int i = 0; i < 500; i++) {
+                StringBuilder sb = new StringBuilder();
+                int n = rnd.nextInt(40);
+                for (int j = 0; j < n; j++) {
+                    sb.append(alphabet.charAt(rnd.nextInt(alphabet.length())));
+                }
+                String text = sb.toString();
+
+                List<String> chunks = new ArrayList<String>();
+                int k = 0;
+                while (k < text.length()) {
+                    int m = Math.min(text.length(), k + 1 + rnd.nextInt(5));
+                    chunks.add(text.substring(k, m));
+                    k = m;
+                }
+
+                List<String> expected = new ArrayList<String>(Arrays.asList(p.split(text)));
+                if (expected.size() == 1 && expected.get(0).isEmpty()) {
+                    expected.clear();
+                }
+
+                Flowable.fromIterable(chunks)
+                .compose(StringFlowable.split(pattern, 1 + rnd.nextInt(4)))
+                .test()
+                .assertValueSequence(expected)
+                .assertNoErrors()
+                .assertComplete();
+            }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void splitHugeLinePatternLinear() {
+        String chunk = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcde\r";
+        int n = 50000;
+
+        List<String> chunks = new ArrayList<String>();
+        chunks.add("first\r\n");
+        for (int i = 0; i < n; i++) {
+            chunks.add(chunk);
+        }
+        chunks.add("\nlast  ");
+
+        List<String> list = Flowable.fromIterable(chunks)
+        .compose(StringFlowable.split("\\r?\\n"))
+        .toList()
+        .blockingGet();
+
+        assertEquals(3, list.size());
+        assertEquals("first", list.get(0));
+        assertEquals(n * chunk.length() - 1, list.get(1).length());
+        assertEquals("last  ", list.get(2));
+
+        list = Flowable.fromIterable(chunks)
+        .compose(StringFlowable.split("\\s+"))
+        .toList()
+        .blockingGet();
+
+        assertEquals(n + 2, list.size());
+        assertEquals("first", list.get(0));
+        assertEquals("last", list.get(n + 1));
+    }
+
+    @Test(timeout = 10000)
+    public void splitHugeLineLinear() {
+        String chunk = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+        int n = 50000;
+
+        List<String> chunks = new ArrayList<String>();
+        chunks.add("first\n");
+        for (int i = 0; i < n; i++) {
+            chunks.add(chunk);
+        }
+        chunks.add("\nlast");
+
+        List<String> list = Flowable.fromIterable(chunks)
+        .compose(StringFlowable.split("\n"))
+        .toList()
+        .blockingGet();
+
+        assertEquals(3, list.size());
+        assertEquals("first", list.get(0));
+        assertEquals(n * chunk.length(), list.get(1).length());
+        assertEquals("last", list.get(2));
+    }
+
+    @Test(timeout = 10000)
+    public void splitHugeLineLinearMultiCharDelimiter() {
+        String chunk = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcde\r";
+        int n = 50000;
+
+        List<String> chunks = new ArrayList<String>();
+        for (int i = 0; i < n; i++) {
+            chunks.add(chunk);
+        }
+        chunks.add("\n");
+
+        List<String> list = Flowable.fromIterable(chunks)
+        .compose(StringFlowable.split("\r\n"))
+        .toList()
+        .blockingGet();
+
+        assertEquals(1, list.size());
+        assertEquals(n * chunk.length() - 1, list.get(0).length());
+    }
 }
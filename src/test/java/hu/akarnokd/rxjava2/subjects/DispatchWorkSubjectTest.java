@@ -27,6 +27,7 @@ import org.junit.Test;
 import hu.akarnokd.rxjava2.test.*;
 import io.reactivex.Single;
 import io.reactivex.disposables.*;
+import io.reactivex.exceptions.MissingBackpressureException;
 import io.reactivex.functions.BiFunction;
 import io.reactivex.observers.TestObserver;
 import io.reactivex.plugins.RxJavaPlugins;
@@ -292,4 +293,39 @@ public class DispatchWorkSubjectTest {
 
         assertTrue(set.isEmpty());
     }
+
+    @Test
+    public void fixed() {
+        DispatchWorkSubject<Integer> dws = DispatchWorkSubject.createFixed(Schedulers.trampoline(), 8, true);
+
+        for (int i = 1; i <= 5; i++) {
+            dws.onNext(i);
+        }
+        dws.onComplete();
+
+        dws.take(2).test().assertResult(1, 2);
+        dws.test().assertResult(3, 4, 5);
+    }
+
+    @Test
+    public void fixedOverflow() {
+        DispatchWorkSubject<Integer> dws = DispatchWorkSubject.createFixed(Schedulers.trampoline(), 4, true);
+
+        Disposable d = Disposables.empty();
+        dws.onSubscribe(d);
+
+        for (int i = 1; i <= 5; i++) {
+            dws.onNext(i);
+        }
+
+        assertTrue(d.isDisposed());
+        assertTrue(dws.hasThrowable());
+
+        dws.test().assertFailure(MissingBackpressureException.class, 1, 2, 3, 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fixedInvalidCapacity() {
+        DispatchWorkSubject.createFixed(Schedulers.trampoline(), 0, true);
+    }
 }
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2016-2018 David Karnok
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package hu.akarnokd.rxjava2.util;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import hu.akarnokd.rxjava2.test.TestHelper;
+
+public class SpmcArrayQueueTest {
+
+    @Test
+    public void simple() {
+        SpmcArrayQueue<Integer> q = new SpmcArrayQueue<Integer>(30);
+
+        assertEquals(32, q.capacity());
+
+        for (int i = 0; i < 128; i++) {
+            assertTrue(q.isEmpty());
+            assertTrue(q.offer(i));
+            assertFalse(q.isEmpty());
+            assertEquals(i, q.poll().intValue());
+            assertTrue("" + i, q.isEmpty());
+            assertNull(q.poll());
+        }
+
+        for (int i = 0; i < 32; i++) {
+            assertTrue(q.offer(i));
+        }
+
+        assertFalse(q.offer(32));
+
+        for (int i = 0; i < 32; i++) {
+            assertEquals(i, q.poll().intValue());
+        }
+
+        assertTrue(q.isEmpty());
+
+        for (int i = 0; i < 32; i++) {
+            q.offer(i);
+        }
+
+        q.clear();
+
+        assertTrue(q.isEmpty());
+    }
+
+    @Test
+    public void offerTwo() {
+        SpmcArrayQueue<Integer> q = new SpmcArrayQueue<Integer>(4);
+
+        assertTrue(q.offer(1, 2));
+        assertTrue(q.offer(3));
+        assertFalse(q.offer(4, 5));
+        assertTrue(q.offer(4));
+        assertFalse(q.offer(5));
+
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, q.poll().intValue());
+        }
+        assertNull(q.poll());
+    }
+
+    @Test
+    public void pollBatch() {
+        SpmcArrayQueue<Integer> q = new SpmcArrayQueue<Integer>(8);
+        Object[] out = new Object[4];
+
+        assertEquals(0, q.poll(out, 4));
+
+        for (int i = 0; i < 6; i++) {
+            q.offer(i);
+        }
+
+        assertEquals(0, q.poll().intValue());
+        assertEquals(4, q.poll(out, 4));
+        assertEquals(1, out[0]);
+        assertEquals(4, out[3]);
+        assertEquals(1, q.poll(out, 4));
+        assertEquals(5, out[0]);
+        assertEquals(0, q.poll(out, 4));
+
+        // wrap around
+        for (int i = 0; i < 8; i++) {
+            assertTrue(q.offer(i));
+        }
+        assertEquals(4, q.poll(out, 4));
+        assertEquals(4, q.poll(out, 4));
+        assertEquals(4, out[0]);
+        assertEquals(7, out[3]);
+        assertTrue(q.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCapacity() {
+        new SpmcArrayQueue<Integer>(0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void offerNull() {
+        new SpmcArrayQueue<Integer>(4).offer(null);
+    }
+
+    @Test
+    public void consumerRace() {
+        for (int i = 0; i < TestHelper.RACE_DEFAULT_LOOPS; i++) {
+            final SpmcArrayQueue<Integer> q = new SpmcArrayQueue<Integer>(1024);
+
+            for (int j = 0; j < 1000; j++) {
+                q.offer(j);
+            }
+
+            final List<Object> list1 = new ArrayList<Object>();
+            Runnable r1 = new Runnable() {
+                @Override
+                public void run() {
+                    Object[] out = new Object[8];
+                    for (;;) {
+                        int n = q.poll(out, 8);
+                        if (n == 0) {
+                            break;
+                        }
+                        for (int k = 0; k < n; k++) {
+                            list1.add(out[k]);
+                        }
+                    }
+                }
+            };
+
+            final List<Object> list2 = new ArrayList<Object>();
+            Runnable r2 = new Runnable() {
+                @Override
+                public void run() {
+                    for (;;) {
+                        Integer k = q.poll();
+                        if (k == null) {
+                            break;
+                        }
+                        list2.add(k);
+                    }
+                }
+            };
+
+            TestHelper.race(r1, r2);
+
+            Set<Object> set = new HashSet<Object>(list1);
+            set.addAll(list2);
+
+            assertEquals(1000, list1.size() + list2.size());
+            assertEquals(1000, set.size());
+        }
+    }
+
+    @Test
+    public void producerConsumerRace() {
+        for (int i = 0; i < 20; i++) {
+            final SpmcArrayQueue<Integer> q = new SpmcArrayQueue<Integer>(16);
+            final int n = 10000;
+
+            final Set<Integer> set1 = new HashSet<Integer>();
+            final Set<Integer> set2 = new HashSet<Integer>();
+
+            Runnable producer = new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < n; j++) {
+                        while (!q.offer(j)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            };
+
+            final int[] received = { 0 };
+            Runnable consumers = new Runnable() {
+                @Override
+                public void run() {
+                    Thread t = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            consume(q, set2, received, n);
+                        }
+                    });
+                    t.start();
+                    consume(q, set1, received, n);
+                    try {
+                        t.join();
+                    } catch (InterruptedException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+            };
+
+            TestHelper.race(producer, consumers);
+
+            assertEquals(n, set1.size() + set2.size());
+            set1.addAll(set2);
+            assertEquals(n, set1.size());
+        }
+    }
+
+    static void consume(SpmcArrayQueue<Integer> q, Set<Integer> set, int[] received, int n) {
+        for (;;) {
+            synchronized (received) {
+                if (received[0] == n) {
+                    return;
+                }
+            }
+            Integer v = q.poll();
+            if (v != null) {
+                set.add(v);
+                synchronized (received) {
+                    received[0]++;
+                }
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+}
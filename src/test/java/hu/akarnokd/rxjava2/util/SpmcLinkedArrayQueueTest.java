@@ -285,4 +285,103 @@ public class SpmcLinkedArrayQueueTest {
             }
         }
     }
+
+    @Test
+    public void pollBatch() {
+        SpmcLinkedArrayQueue<Integer> q = new SpmcLinkedArrayQueue<Integer>(8);
+        Object[] out = new Object[4];
+
+        assertEquals(0, q.poll(out, 4));
+
+        for (int i = 0; i < 20; i++) {
+            q.offer(i);
+        }
+
+        List<Object> list = new ArrayList<Object>();
+        for (;;) {
+            int n = q.poll(out, 3);
+            if (n == 0) {
+                break;
+            }
+            assertTrue(n <= 3);
+            for (int i = 0; i < n; i++) {
+                list.add(out[i]);
+            }
+        }
+
+        assertEquals(20, list.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, list.get(i));
+        }
+        assertTrue(q.isEmpty());
+        assertNull(q.poll());
+    }
+
+    @Test
+    public void pollBatchMixed() {
+        SpmcLinkedArrayQueue<Integer> q = new SpmcLinkedArrayQueue<Integer>(8);
+        Object[] out = new Object[4];
+
+        for (int i = 0; i < 6; i++) {
+            q.offer(i);
+        }
+
+        assertEquals(0, q.poll().intValue());
+        assertEquals(4, q.poll(out, 4));
+        assertEquals(1, out[0]);
+        assertEquals(4, out[3]);
+        assertEquals(1, q.poll(out, 4));
+        assertEquals(5, out[0]);
+        assertEquals(0, q.poll(out, 4));
+    }
+
+    @Test
+    public void consumerRaceBatch() {
+        for (int i = 0; i < TestHelper.RACE_DEFAULT_LOOPS; i++) {
+            final SpmcLinkedArrayQueue<Integer> q = new SpmcLinkedArrayQueue<Integer>(32);
+
+            for (int j = 0; j < 1000; j++) {
+                q.offer(j);
+            }
+
+            final List<Object> list1 = new ArrayList<Object>();
+            Runnable r1 = new Runnable() {
+                @Override
+                public void run() {
+                    Object[] out = new Object[8];
+                    for (;;) {
+                        int n = q.poll(out, 8);
+                        if (n == 0) {
+                            break;
+                        }
+                        for (int k = 0; k < n; k++) {
+                            list1.add(out[k]);
+                        }
+                    }
+                }
+            };
+
+            final List<Object> list2 = new ArrayList<Object>();
+            Runnable r2 = new Runnable() {
+                @Override
+                public void run() {
+                    for (;;) {
+                        Integer k = q.poll();
+                        if (k == null) {
+                            break;
+                        }
+                        list2.add(k);
+                    }
+                }
+            };
+
+            TestHelper.race(r1, r2);
+
+            Set<Object> set = new HashSet<Object>(list1);
+            set.addAll(list2);
+
+            assertEquals(1000, list1.size() + list2.size());
+            assertEquals(1000, set.size());
+        }
+    }
 }